@@ -0,0 +1,54 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds the services that the benchmarks run against.
+ */
+class BenchmarkServices
+{
+    static final Runnable NO_OP = () -> {
+    };
+
+
+    private BenchmarkServices()
+    {
+    }
+
+
+    static SingleExecutionScheduleService buildService(String engine, String executionMode) throws IOException
+    {
+        return buildService(engine, executionMode, 1);
+    }
+
+
+    static SingleExecutionScheduleService buildService(String engine, String executionMode, int numberOfShards) throws IOException
+    {
+        //the "schedule started" line would otherwise dominate every measurement
+        Logger.getLogger(SingleExecutionScheduleService.class.getName()).setLevel(Level.WARNING);
+        Properties customConfig = new Properties();
+        customConfig.setProperty(SchedulerEngineFactory.ENGINE, engine);
+        customConfig.setProperty(SchedulerEngineFactory.ENGINE_SHARDS, Integer.toString(numberOfShards));
+        customConfig.setProperty(SchedulerEngineFactory.EXECUTION_MODE, executionMode);
+        customConfig.setProperty(SchedulerEngineFactory.TIMING_WHEEL_TICK_DURATION_IN_MILLISECONDS, "1");
+        return new SingleExecutionScheduleService(customConfig);
+    }
+
+
+    static void fillWithPendingTasks(SingleExecutionScheduleService service, String taskIDPrefix, int numberOfTasks) throws Exception
+    {
+        for(int i = 0; i < numberOfTasks; i++)
+        {
+            service.schedule(ScheduledTask.builder()
+                            .taskID(taskIDPrefix + i)
+                            .taskToSchedule(NO_OP)
+                            .delay(1L + (i % 3600))
+                            .unit(TimeUnit.HOURS)
+                            .build());
+        }
+    }
+}
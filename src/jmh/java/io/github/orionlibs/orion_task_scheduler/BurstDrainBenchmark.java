@@ -0,0 +1,94 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time to drain a burst of short CPU-bound tasks that all become due at once, with one worker per CPU.
+ * Each invocation schedules burstSize tasks 1ms ahead and waits until the last one has run, so the score is the drain
+ * time of one burst, scheduling included. Compare the platform and work_stealing execution modes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BurstDrainBenchmark
+{
+    @Param({SchedulerEngineFactory.ENGINE_EXECUTOR, SchedulerEngineFactory.ENGINE_TIMING_WHEEL})
+    public String engine;
+    @Param({SchedulerEngineFactory.EXECUTION_MODE_PLATFORM, SchedulerEngineFactory.EXECUTION_MODE_WORK_STEALING})
+    public String executionMode;
+    @Param({"10000"})
+    public int burstSize;
+    @Param({"2000"})
+    public int tokensPerTask;
+    private SingleExecutionScheduleService service;
+    private long burstSequence;
+
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        Logger.getLogger(SingleExecutionScheduleService.class.getName()).setLevel(Level.WARNING);
+        Properties customConfig = new Properties();
+        customConfig.setProperty(SchedulerEngineFactory.ENGINE, engine);
+        customConfig.setProperty(SchedulerEngineFactory.EXECUTION_MODE, executionMode);
+        customConfig.setProperty(SchedulerEngineFactory.POOL_CORE_SIZE, "0");
+        customConfig.setProperty(SchedulerEngineFactory.TIMING_WHEEL_TICK_DURATION_IN_MILLISECONDS, "1");
+        service = new SingleExecutionScheduleService(customConfig);
+    }
+
+
+    @TearDown
+    public void tearDown() throws InterruptedException
+    {
+        service.shutdownNow();
+        service.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+
+
+    @Benchmark
+    public void drainBurst() throws Exception
+    {
+        CountDownLatch drained = new CountDownLatch(burstSize);
+        String taskIDPrefix = "burst" + burstSequence++ + "-";
+        List<ScheduledTask> tasks = new ArrayList<>(burstSize);
+        for(int i = 0; i < burstSize; i++)
+        {
+            tasks.add(ScheduledTask.builder()
+                            .taskID(taskIDPrefix + i)
+                            .taskToSchedule(() -> {
+                                Blackhole.consumeCPU(tokensPerTask);
+                                drained.countDown();
+                            })
+                            .delay(1L)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        }
+        service.schedule(tasks);
+        if(!drained.await(60L, TimeUnit.SECONDS))
+        {
+            throw new IllegalStateException("the burst did not drain in time");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A storm of tasks that are cancelled right after they are scheduled, long before their one hour deadline.
+ * The service is kept for the whole trial, so if cancelled tasks stayed in the timer structure until their
+ * deadline the retained heap would grow with every iteration. The retainedHeapKilobytes counter is the heap
+ * used after a full GC at the end of the previous iteration and queuedTasks is what the engine still holds;
+ * both should stay flat across iterations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 10, time = 2)
+public class CancelStormHeapBenchmark
+{
+    private static final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    @Param({SchedulerEngineFactory.ENGINE_EXECUTOR, SchedulerEngineFactory.ENGINE_TIMING_WHEEL})
+    public String engine;
+    private SingleExecutionScheduleService service;
+    private long sequence;
+    private long retainedHeapKilobytes;
+    private long queuedTasks;
+
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Heap
+    {
+        public long retainedHeapKilobytes;
+        public long queuedTasks;
+    }
+
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        service = BenchmarkServices.buildService(engine, SchedulerEngineFactory.EXECUTION_MODE_PLATFORM);
+    }
+
+
+    @TearDown(Level.Iteration)
+    public void measureRetainedHeap() throws InterruptedException
+    {
+        //give the timing wheel one tick to unlink the last cancelled tasks
+        Thread.sleep(10L);
+        System.gc();
+        retainedHeapKilobytes = memory.getHeapMemoryUsage().getUsed() / 1024L;
+        queuedTasks = service.getQueuedTaskCount();
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException
+    {
+        service.shutdownNow();
+        service.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+
+
+    @Benchmark
+    public boolean scheduleThenCancel(Heap heap) throws Exception
+    {
+        heap.retainedHeapKilobytes = retainedHeapKilobytes;
+        heap.queuedTasks = queuedTasks;
+        String taskID = "storm" + sequence++;
+        service.schedule(ScheduledTask.builder()
+                        .taskID(taskID)
+                        .taskToSchedule(BenchmarkServices.NO_OP)
+                        .delay(1L)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        return service.cancel(taskID);
+    }
+}
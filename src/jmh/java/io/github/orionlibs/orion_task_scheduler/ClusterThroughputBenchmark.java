@@ -0,0 +1,122 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of a cluster of nodes that share one in-memory H2 table, as the number of nodes grows.
+ * Each task blocks for about 1ms, like a handler that calls another service, and each node runs 4 of them at a time,
+ * so a single node tops out at about 4 tasks/ms and the score shows how much of that every extra node adds.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClusterThroughputBenchmark
+{
+    private static final int BATCH_SIZE = 400;
+    @Param({"1", "2", "4"})
+    public int nodes;
+    private JdbcConnectionPool dataSource;
+    private List<ClusteredScheduleService> cluster;
+    private AtomicLong taskSequence;
+    private volatile CountDownLatch batchCompletion;
+
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        Logger.getLogger(SingleExecutionScheduleService.class.getName()).setLevel(Level.WARNING);
+        Logger.getLogger(ClusteredScheduleService.class.getName()).setLevel(Level.WARNING);
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:cluster-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "", "");
+        dataSource.setMaxConnections(64);
+        try(Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement())
+        {
+            statement.execute("CREATE TABLE orion_scheduled_task (task_id VARCHAR(255) PRIMARY KEY, handler_name VARCHAR(255) NOT NULL, "
+                            + "payload VARBINARY, due_at BIGINT NOT NULL, number_of_retries_on_error INT NOT NULL, "
+                            + "lease_owner VARCHAR(255), lease_expires_at BIGINT NOT NULL)");
+            statement.execute("CREATE INDEX orion_scheduled_task_due_at ON orion_scheduled_task (due_at)");
+        }
+        cluster = new ArrayList<>();
+        for(int i = 0; i < nodes; i++)
+        {
+            Properties customConfig = new Properties();
+            customConfig.setProperty("orionlibs.orion_task_scheduler.pool.core.size", "4");
+            customConfig.setProperty("orionlibs.orion_task_scheduler.cluster.node.id", "node" + i);
+            customConfig.setProperty("orionlibs.orion_task_scheduler.cluster.poll.interval.ms", "10");
+            customConfig.setProperty("orionlibs.orion_task_scheduler.cluster.claim.batch.size", "16");
+            ClusteredScheduleService node = new ClusteredScheduleService(dataSource, customConfig);
+            node.registerTaskHandler("io", (taskID, payload) -> {
+                try
+                {
+                    Thread.sleep(1L);
+                }
+                catch(InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                batchCompletion.countDown();
+            });
+            cluster.add(node);
+        }
+        taskSequence = new AtomicLong();
+    }
+
+
+    @TearDown
+    public void tearDown() throws InterruptedException
+    {
+        for(ClusteredScheduleService node : cluster)
+        {
+            node.shutdownNow();
+            node.awaitTermination(10L, TimeUnit.SECONDS);
+        }
+        dataSource.dispose();
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void runBatch() throws Exception
+    {
+        batchCompletion = new CountDownLatch(BATCH_SIZE);
+        for(int i = 0; i < BATCH_SIZE; i++)
+        {
+            cluster.get(i % nodes).schedule(ScheduledTask.builder()
+                            .taskID("task" + taskSequence.getAndIncrement())
+                            .handlerName("io")
+                            .delay(0L)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        }
+        if(!batchCompletion.await(60L, TimeUnit.SECONDS))
+        {
+            throw new IllegalStateException("the cluster did not run the batch in time");
+        }
+    }
+}
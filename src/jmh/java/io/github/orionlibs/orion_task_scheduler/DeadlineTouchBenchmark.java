@@ -0,0 +1,93 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of pushing the deadline of idle-session timeouts forward, in place with reschedule() against
+ * cancelling the task and scheduling a new one. Run it with -prof gc to see the allocation per touch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class DeadlineTouchBenchmark
+{
+    @Param({SchedulerEngineFactory.ENGINE_EXECUTOR, SchedulerEngineFactory.ENGINE_TIMING_WHEEL})
+    public String engine;
+    @Param({"10000"})
+    public int sessions;
+    private SingleExecutionScheduleService service;
+    private String[] sessionIDs;
+    private int nextSession;
+
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception
+    {
+        service = BenchmarkServices.buildService(engine, SchedulerEngineFactory.EXECUTION_MODE_PLATFORM);
+        sessionIDs = new String[sessions];
+        for(int i = 0; i < sessions; i++)
+        {
+            sessionIDs[i] = "session" + i;
+            service.schedule(buildSessionTimeout(sessionIDs[i]));
+        }
+    }
+
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException
+    {
+        service.shutdownNow();
+        service.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+
+
+    private static ScheduledTask buildSessionTimeout(String sessionID)
+    {
+        return ScheduledTask.builder()
+                        .taskID(sessionID)
+                        .taskToSchedule(BenchmarkServices.NO_OP)
+                        .delay(30L)
+                        .unit(TimeUnit.MINUTES)
+                        .build();
+    }
+
+
+    private String nextSessionID()
+    {
+        String sessionID = sessionIDs[nextSession];
+        nextSession = nextSession + 1 < sessionIDs.length ? nextSession + 1 : 0;
+        return sessionID;
+    }
+
+
+    @Benchmark
+    public boolean reschedule() throws Exception
+    {
+        return service.reschedule(nextSessionID(), 30L, TimeUnit.MINUTES);
+    }
+
+
+    @Benchmark
+    public long cancelAndSchedule() throws Exception
+    {
+        String sessionID = nextSessionID();
+        service.cancel(sessionID);
+        return service.schedule(buildSessionTimeout(sessionID));
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * How late a task fires compared to the delay it asked for, while pendingTasks other tasks wait in the same service.
+ * The score is the time from schedule() to the task running, so the requested delay is part of it.
+ * The latenessMicroseconds counter reports the actual lateness (actual run time minus requested delay)
+ * summed over the iteration, and dividing it by the probes counter gives the mean lateness.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FireJitterBenchmark
+{
+    @Param({SchedulerEngineFactory.ENGINE_EXECUTOR, SchedulerEngineFactory.ENGINE_TIMING_WHEEL})
+    public String engine;
+    @Param({"1000", "100000", "1000000"})
+    public int pendingTasks;
+    @Param({"2"})
+    public long delayInMilliseconds;
+    private SingleExecutionScheduleService service;
+    private final AtomicLong probeSequence = new AtomicLong();
+
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Lateness
+    {
+        public long latenessMicroseconds;
+        public long probes;
+
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            latenessMicroseconds = 0L;
+            probes = 0L;
+        }
+    }
+
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        service = BenchmarkServices.buildService(engine, SchedulerEngineFactory.EXECUTION_MODE_PLATFORM);
+        BenchmarkServices.fillWithPendingTasks(service, "pending", pendingTasks);
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException
+    {
+        service.shutdownNow();
+        service.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+
+
+    @Benchmark
+    public long scheduleAndWaitUntilFired(Lateness lateness) throws Exception
+    {
+        long[] firedAt = new long[1];
+        ScheduledTask probe = ScheduledTask.builder()
+                        .taskID("probe" + probeSequence.getAndIncrement())
+                        .taskToSchedule(() -> firedAt[0] = System.nanoTime())
+                        .delay(delayInMilliseconds)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build();
+        long scheduledAt = System.nanoTime();
+        service.schedule(probe);
+        probe.getTask().get();
+        long latenessInNanoseconds = firedAt[0] - scheduledAt - TimeUnit.MILLISECONDS.toNanos(delayInMilliseconds);
+        lateness.latenessMicroseconds += TimeUnit.NANOSECONDS.toMicros(latenessInNanoseconds);
+        lateness.probes++;
+        return latenessInNanoseconds;
+    }
+}
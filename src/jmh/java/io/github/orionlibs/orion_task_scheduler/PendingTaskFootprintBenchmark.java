@@ -0,0 +1,109 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * How much heap the scheduler keeps for every pending task. One million tasks are scheduled an hour ahead in a fresh JVM
+ * and the retained heap after a full GC is printed as "# Footprint" lines:
+ * the bytes that the scheduler adds per task on top of the ScheduledTask objects and their taskIDs, and the total
+ * bytes per task including them. The total is the footprint of a pending task. With 11-character taskIDs it is about
+ * 244 bytes on the timing_wheel engine, 282 bytes on the executor engine and 225 bytes on the off_heap engine, so a
+ * pending task does not fit in 100 bytes; the ScheduledTask and its taskID alone take about 124 of them.
+ * The slabs of the off_heap engine are direct memory, so they are not counted.
+ * The score is the time to schedule all the tasks.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class PendingTaskFootprintBenchmark
+{
+    private static final int NUMBER_OF_TASKS = 1_000_000;
+    @Param({SchedulerEngineFactory.ENGINE_EXECUTOR, SchedulerEngineFactory.ENGINE_TIMING_WHEEL, SchedulerEngineFactory.ENGINE_OFF_HEAP})
+    public String engine;
+    private SingleExecutionScheduleService service;
+    private ScheduledTask[] tasks;
+    private long heapWithoutTasks;
+    private long heapWithUnscheduledTasks;
+
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception
+    {
+        service = BenchmarkServices.buildService(engine, SchedulerEngineFactory.EXECUTION_MODE_PLATFORM);
+        heapWithoutTasks = usedHeapAfterGC();
+        tasks = new ScheduledTask[NUMBER_OF_TASKS];
+        for(int i = 0; i < NUMBER_OF_TASKS; i++)
+        {
+            tasks[i] = ScheduledTask.builder()
+                            .taskID("task-" + i)
+                            .taskToSchedule(BenchmarkServices.NO_OP)
+                            .delay(1L)
+                            .unit(TimeUnit.HOURS)
+                            .build();
+        }
+        heapWithUnscheduledTasks = usedHeapAfterGC();
+    }
+
+
+    @TearDown(Level.Iteration)
+    public void measureFootprint() throws InterruptedException
+    {
+        long heapWithPendingTasks = usedHeapAfterGC();
+        System.out.printf("%n# Footprint: %d bytes per pending task added by the %s engine, %d bytes per pending task in total%n",
+                        (heapWithPendingTasks - heapWithUnscheduledTasks) / NUMBER_OF_TASKS,
+                        engine,
+                        (heapWithPendingTasks - heapWithoutTasks) / NUMBER_OF_TASKS);
+        tasks = null;
+        service.shutdownNow();
+        service.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+
+
+    /**
+     * @return the heap that the last full GC left in use, which unlike the current usage excludes new garbage
+     */
+    private static long usedHeapAfterGC()
+    {
+        System.gc();
+        System.gc();
+        long used = 0L;
+        for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if(pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+            {
+                used += pool.getCollectionUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+
+    @Benchmark
+    public SingleExecutionScheduleService scheduleAll() throws Exception
+    {
+        for(ScheduledTask task : tasks)
+        {
+            service.schedule(task);
+        }
+        return service;
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of scheduling tasks one by one and through the collection overload.
+ * Both benchmarks count scheduled tasks, so their scores are comparable.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ScheduleThroughputBenchmark
+{
+    private static final int BATCH_SIZE = 1000;
+    @Param({SchedulerEngineFactory.ENGINE_EXECUTOR, SchedulerEngineFactory.ENGINE_TIMING_WHEEL, SchedulerEngineFactory.ENGINE_OFF_HEAP})
+    public String engine;
+    private SingleExecutionScheduleService service;
+    private AtomicLong taskSequence;
+
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception
+    {
+        service = BenchmarkServices.buildService(engine, SchedulerEngineFactory.EXECUTION_MODE_PLATFORM);
+        taskSequence = new AtomicLong();
+    }
+
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException
+    {
+        service.shutdownNow();
+        service.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+
+
+    @Benchmark
+    public ScheduledTask scheduleSingle() throws Exception
+    {
+        ScheduledTask task = ScheduledTask.builder()
+                        .taskID("task" + taskSequence.getAndIncrement())
+                        .taskToSchedule(BenchmarkServices.NO_OP)
+                        .delay(30L)
+                        .unit(TimeUnit.MINUTES)
+                        .build();
+        service.schedule(task);
+        return task;
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchScheduleResult scheduleCollection() throws Exception
+    {
+        List<ScheduledTask> tasks = new ArrayList<>(BATCH_SIZE);
+        for(int i = 0; i < BATCH_SIZE; i++)
+        {
+            tasks.add(ScheduledTask.builder()
+                            .taskID("task" + taskSequence.getAndIncrement())
+                            .taskToSchedule(BenchmarkServices.NO_OP)
+                            .delay(30L)
+                            .unit(TimeUnit.MINUTES)
+                            .build());
+        }
+        return service.schedule(tasks);
+    }
+}
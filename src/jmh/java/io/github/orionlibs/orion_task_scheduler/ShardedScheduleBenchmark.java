@@ -0,0 +1,89 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of scheduling and cancelling tasks from many producer threads with and without engine shards.
+ * Every invocation schedules a task and cancels it, so the number of pending tasks stays at pendingTasks.
+ * Run it with -t 1, -t 4, -t 16 and -t 32 to see how each shard count scales with the number of producers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(32)
+public class ShardedScheduleBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class SharedService
+    {
+        @Param({SchedulerEngineFactory.ENGINE_EXECUTOR, SchedulerEngineFactory.ENGINE_OFF_HEAP})
+        public String engine;
+        @Param({"1", "8"})
+        public int shards;
+        @Param({"10000"})
+        public int pendingTasks;
+        SingleExecutionScheduleService service;
+
+
+        @Setup(Level.Iteration)
+        public void setUp() throws Exception
+        {
+            service = BenchmarkServices.buildService(engine, SchedulerEngineFactory.EXECUTION_MODE_PLATFORM, shards);
+            BenchmarkServices.fillWithPendingTasks(service, "pending", pendingTasks);
+        }
+
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws InterruptedException
+        {
+            service.shutdownNow();
+            service.awaitTermination(10L, TimeUnit.SECONDS);
+        }
+    }
+
+
+    @State(Scope.Thread)
+    public static class ThreadTaskIDs
+    {
+        private static final AtomicInteger threadSequence = new AtomicInteger();
+        private final String prefix = "producer" + threadSequence.getAndIncrement() + "-";
+        private long sequence;
+
+
+        String nextTaskID()
+        {
+            return prefix + sequence++;
+        }
+    }
+
+
+    @Benchmark
+    public boolean scheduleThenCancel(SharedService shared, ThreadTaskIDs taskIDs) throws Exception
+    {
+        String taskID = taskIDs.nextTaskID();
+        shared.service.schedule(ScheduledTask.builder()
+                        .taskID(taskID)
+                        .taskToSchedule(BenchmarkServices.NO_OP)
+                        .delay(30L)
+                        .unit(TimeUnit.MINUTES)
+                        .build());
+        return shared.service.cancel(taskID);
+    }
+}
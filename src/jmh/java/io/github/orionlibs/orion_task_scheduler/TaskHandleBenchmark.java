@@ -0,0 +1,79 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Schedule-then-cancel pairs per ms when the task is cancelled by its long handle and when it is cancelled by a long
+ * taskID, with pendingTasks other tasks in the service.
+ * TaskIndexFootprintBenchmark measures how much heap an entry of each index costs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TaskHandleBenchmark
+{
+    static final String TASK_ID_PREFIX = "tenant-000042/orders/2026-10-17/reminder-";
+    @Param({"10000"})
+    public int pendingTasks;
+    private SingleExecutionScheduleService service;
+    private long sequence;
+
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        service = BenchmarkServices.buildService(SchedulerEngineFactory.ENGINE_EXECUTOR, SchedulerEngineFactory.EXECUTION_MODE_PLATFORM);
+        BenchmarkServices.fillWithPendingTasks(service, TASK_ID_PREFIX + "pending-", pendingTasks);
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException
+    {
+        service.shutdownNow();
+        service.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+
+
+    private ScheduledTask buildTask()
+    {
+        return ScheduledTask.builder()
+                        .taskID(TASK_ID_PREFIX + sequence++)
+                        .taskToSchedule(BenchmarkServices.NO_OP)
+                        .delay(1L)
+                        .unit(TimeUnit.HOURS)
+                        .build();
+    }
+
+
+    @Benchmark
+    public boolean scheduleThenCancelByHandle() throws Exception
+    {
+        return service.cancel(service.schedule(buildTask()));
+    }
+
+
+    @Benchmark
+    public boolean scheduleThenCancelByTaskID() throws Exception
+    {
+        ScheduledTask task = buildTask();
+        service.schedule(task);
+        return service.cancel(task.getTaskID());
+    }
+}
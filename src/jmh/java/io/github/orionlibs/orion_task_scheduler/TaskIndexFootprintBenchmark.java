@@ -0,0 +1,107 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * How much heap one entry of the handle index and one entry of the taskID index cost.
+ * Every index is built with one million entries in a fresh JVM and the retained heap after a full GC is printed as
+ * "# Footprint". It excludes the ScheduledTask itself and the taskID string, which both indexes share.
+ * The score is the time to build the index.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class TaskIndexFootprintBenchmark
+{
+    private static final int NUMBER_OF_ENTRIES = 1_000_000;
+    @Param({"handle", "taskID"})
+    public String index;
+    private ScheduledTask[] tasks;
+    private long heapBefore;
+    private Object builtIndex;
+
+
+    @Setup(Level.Iteration)
+    public void setUp()
+    {
+        tasks = new ScheduledTask[NUMBER_OF_ENTRIES];
+        for(int i = 0; i < NUMBER_OF_ENTRIES; i++)
+        {
+            tasks[i] = ScheduledTask.builder().taskID(TaskHandleBenchmark.TASK_ID_PREFIX + i).build();
+            tasks[i].setHandle(i + 1L);
+        }
+        heapBefore = usedHeapAfterGC();
+    }
+
+
+    @TearDown(Level.Iteration)
+    public void measureFootprint()
+    {
+        long bytesPerEntry = (usedHeapAfterGC() - heapBefore) / NUMBER_OF_ENTRIES;
+        System.out.printf("%n# Footprint: %d bytes per entry of the %s index%n", bytesPerEntry, index);
+        builtIndex = null;
+    }
+
+
+    /**
+     * @return the heap that the last full GC left in use, which unlike the current usage excludes new garbage
+     */
+    private static long usedHeapAfterGC()
+    {
+        System.gc();
+        System.gc();
+        long used = 0L;
+        for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if(pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+            {
+                used += pool.getCollectionUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+
+    @Benchmark
+    public Object buildIndex()
+    {
+        if("handle".equals(index))
+        {
+            TaskHandleMap tasksByHandle = new TaskHandleMap();
+            for(ScheduledTask task : tasks)
+            {
+                tasksByHandle.put(task);
+            }
+            builtIndex = tasksByHandle;
+        }
+        else
+        {
+            TaskIDMap tasksByID = new TaskIDMap();
+            for(ScheduledTask task : tasks)
+            {
+                tasksByID.compute(task.getTaskID(), previousTask -> task);
+            }
+            builtIndex = tasksByID;
+        }
+        return builtIndex;
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of scheduling and cancelling a task when a large number of tasks is already pending.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TimingWheelVsExecutorBenchmark
+{
+    private static final Runnable NO_OP = () -> {
+    };
+    @Param({SchedulerEngineFactory.ENGINE_EXECUTOR, SchedulerEngineFactory.ENGINE_TIMING_WHEEL})
+    public String engineName;
+    @Param({"1000000"})
+    public int pendingTasks;
+    private SchedulerEngine engine;
+
+
+    @Setup(Level.Iteration)
+    public void setUp()
+    {
+        if(SchedulerEngineFactory.ENGINE_EXECUTOR.equals(engineName))
+        {
+            engine = new ExecutorSchedulerEngine(4, 5000L);
+        }
+        else
+        {
+            engine = new TimingWheelSchedulerEngine(10L, 512, Executors.newFixedThreadPool(4), 5000L);
+        }
+        for(int i = 0; i < pendingTasks; i++)
+        {
+            engine.schedule(NO_OP, 600L + (i % 3600), TimeUnit.SECONDS);
+        }
+    }
+
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException
+    {
+        engine.shutdownNow();
+        engine.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+
+
+    @Benchmark
+    public ScheduledFuture<?> schedule()
+    {
+        return engine.schedule(NO_OP, 30L, TimeUnit.MINUTES);
+    }
+
+
+    @Benchmark
+    public boolean scheduleThenCancel()
+    {
+        return engine.schedule(NO_OP, 30L, TimeUnit.MINUTES).cancel(false);
+    }
+}
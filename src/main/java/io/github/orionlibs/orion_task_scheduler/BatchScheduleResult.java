@@ -0,0 +1,37 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * The outcome of scheduling a collection of tasks.
+ * The tasks that failed validation are not scheduled and they are mapped to the reason they failed.
+ * The tasks that a full pending-task capacity with the drop_newest policy discarded are not scheduled either.
+ * All the other tasks are scheduled.
+ */
+@Getter
+public class BatchScheduleResult
+{
+    private final List<ScheduledTask> scheduledTasks;
+    private final Map<ScheduledTask, InvalidArgumentException> failedTasks;
+    private final List<ScheduledTask> droppedTasks;
+
+
+    BatchScheduleResult(List<ScheduledTask> scheduledTasks, Map<ScheduledTask, InvalidArgumentException> failedTasks, List<ScheduledTask> droppedTasks)
+    {
+        this.scheduledTasks = Collections.unmodifiableList(scheduledTasks);
+        this.failedTasks = Collections.unmodifiableMap(failedTasks);
+        this.droppedTasks = Collections.unmodifiableList(droppedTasks);
+    }
+
+
+    /**
+     * @return true if at least one task was not scheduled
+     */
+    public boolean hasFailures()
+    {
+        return !failedTasks.isEmpty() || !droppedTasks.isEmpty();
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The Runnable that the service schedules for a Callable.
+ * It keeps the result of the latest attempt and, once the task has finished for good,
+ * it completes the CompletableFuture of the task on the callback executor, so that the stages the caller
+ * attaches to it never run on the threads of the scheduler.
+ * @param <T> the result type of the Callable
+ */
+final class CallableTask<T> implements Runnable
+{
+    private final Callable<T> callable;
+    private final CompletableFuture<T> completion;
+    private final Executor callbackExecutor;
+    private volatile T result;
+
+
+    CallableTask(Callable<T> callable, Executor callbackExecutor)
+    {
+        this.callable = callable;
+        this.completion = new CompletableFuture<>();
+        this.callbackExecutor = callbackExecutor != null ? callbackExecutor : completion.defaultExecutor();
+    }
+
+
+    CompletableFuture<T> getCompletion()
+    {
+        return completion;
+    }
+
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            result = callable.call();
+        }
+        catch(RuntimeException e)
+        {
+            throw e;
+        }
+        catch(Exception e)
+        {
+            throw new CompletionException(e);
+        }
+    }
+
+
+    /**
+     * @param failure why the last attempt failed or null if it succeeded
+     */
+    void complete(Throwable failure)
+    {
+        if(failure != null)
+        {
+            //the checked exceptions of the callable are wrapped only to get through Runnable.run()
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            completeOnCallbackExecutor(() -> completion.completeExceptionally(cause));
+        }
+        else
+        {
+            T lastResult = result;
+            completeOnCallbackExecutor(() -> completion.complete(lastResult));
+        }
+    }
+
+
+    void cancel()
+    {
+        completeOnCallbackExecutor(() -> completion.cancel(false));
+    }
+
+
+    private void completeOnCallbackExecutor(Runnable completionAction)
+    {
+        try
+        {
+            callbackExecutor.execute(completionAction);
+        }
+        catch(RejectedExecutionException e)
+        {
+            //a future that never completes would be worse than one completed on this thread
+            completionAction.run();
+        }
+    }
+}
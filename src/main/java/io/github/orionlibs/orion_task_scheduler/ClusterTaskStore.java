@@ -0,0 +1,266 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+
+/**
+ * The table that holds the pending tasks of a cluster, accessed through JDBC.
+ * A node claims due tasks in one transaction: it locks them with SELECT ... FOR UPDATE SKIP LOCKED, so that the nodes
+ * that claim at the same time skip them instead of waiting for them, and it writes its lease on them.
+ * A lease that is not renewed expires and the task can then be claimed by any node.
+ * The times are wall-clock epoch milliseconds, so the clocks of the nodes have to be kept in sync.
+ * The statements are standard SQL and they need a database that supports SKIP LOCKED, e.g. PostgreSQL, Oracle or H2.
+ */
+final class ClusterTaskStore
+{
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+    /**
+     * the SQLState class of integrity constraint violations, e.g. a duplicate primary key
+     */
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION = "23";
+    /**
+     * the most taskIDs in the IN list of one statement, which some databases, e.g. Oracle, limit to 1000
+     */
+    private static final int MAX_TASK_IDS_PER_STATEMENT = 1000;
+    private final DataSource dataSource;
+    private final String insertStatement;
+    private final String selectDueTasksStatement;
+    private final String leaseStatement;
+    private final String renewLeasesStatement;
+    private final String releaseLeasesStatement;
+    private final String releaseLeaseStatement;
+    private final String deleteStatement;
+    private final String deleteLeasedStatement;
+
+
+    /**
+     * @param dataSource
+     * @param tableName a table with the columns task_id, handler_name, payload, due_at, number_of_retries_on_error,
+     * lease_owner and lease_expires_at
+     */
+    ClusterTaskStore(DataSource dataSource, String tableName)
+    {
+        if(tableName == null || !TABLE_NAME.matcher(tableName).matches())
+        {
+            throw new IllegalArgumentException("invalid cluster table name: " + tableName);
+        }
+        this.dataSource = dataSource;
+        this.insertStatement = "INSERT INTO " + tableName
+                        + " (task_id, handler_name, payload, due_at, number_of_retries_on_error, lease_owner, lease_expires_at) VALUES (?, ?, ?, ?, ?, NULL, 0)";
+        this.selectDueTasksStatement = "SELECT task_id, handler_name, payload, due_at, number_of_retries_on_error FROM " + tableName
+                        + " WHERE due_at <= ? AND lease_expires_at < ? ORDER BY due_at FETCH FIRST ? ROWS ONLY FOR UPDATE SKIP LOCKED";
+        this.leaseStatement = "UPDATE " + tableName + " SET lease_owner = ?, lease_expires_at = ? WHERE task_id = ?";
+        this.renewLeasesStatement = "UPDATE " + tableName + " SET lease_expires_at = ? WHERE lease_owner = ? AND task_id IN (";
+        this.releaseLeasesStatement = "UPDATE " + tableName + " SET lease_owner = NULL, lease_expires_at = 0 WHERE lease_owner = ?";
+        this.releaseLeaseStatement = "UPDATE " + tableName + " SET lease_owner = NULL, lease_expires_at = 0 WHERE task_id = ? AND lease_owner = ?";
+        this.deleteStatement = "DELETE FROM " + tableName + " WHERE task_id = ?";
+        this.deleteLeasedStatement = "DELETE FROM " + tableName + " WHERE task_id = ? AND lease_owner = ?";
+    }
+
+
+    /**
+     * @param task
+     * @return false if the table already holds a task with the same taskID
+     * @throws SQLException
+     */
+    boolean insert(PersistedTask task) throws SQLException
+    {
+        try(Connection connection = dataSource.getConnection();
+                        PreparedStatement statement = connection.prepareStatement(insertStatement))
+        {
+            statement.setString(1, task.taskID());
+            statement.setString(2, task.handlerName());
+            statement.setBytes(3, task.payload());
+            statement.setLong(4, task.dueAtEpochMilliseconds());
+            statement.setInt(5, task.numberOfRetriesOnError());
+            statement.executeUpdate();
+            return true;
+        }
+        catch(SQLException e)
+        {
+            if(e.getSQLState() != null && e.getSQLState().startsWith(INTEGRITY_CONSTRAINT_VIOLATION))
+            {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+
+    /**
+     * It claims the earliest tasks that are due by the given time and that no node holds a live lease on.
+     * @param nodeID the owner of the new leases
+     * @param now
+     * @param dueBy
+     * @param leaseExpiresAt
+     * @param maxTasks
+     * @return the claimed tasks in the order of their due time
+     * @throws SQLException
+     */
+    List<PersistedTask> claim(String nodeID, long now, long dueBy, long leaseExpiresAt, int maxTasks) throws SQLException
+    {
+        try(Connection connection = dataSource.getConnection())
+        {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try
+            {
+                List<PersistedTask> claimedTasks = new ArrayList<>();
+                try(PreparedStatement select = connection.prepareStatement(selectDueTasksStatement))
+                {
+                    select.setLong(1, dueBy);
+                    select.setLong(2, now);
+                    select.setInt(3, maxTasks);
+                    try(ResultSet resultSet = select.executeQuery())
+                    {
+                        while(resultSet.next())
+                        {
+                            claimedTasks.add(new PersistedTask(resultSet.getString(1), resultSet.getLong(4), resultSet.getInt(5), resultSet.getString(2), resultSet.getBytes(3)));
+                        }
+                    }
+                }
+                if(!claimedTasks.isEmpty())
+                {
+                    try(PreparedStatement lease = connection.prepareStatement(leaseStatement))
+                    {
+                        for(PersistedTask task : claimedTasks)
+                        {
+                            lease.setString(1, nodeID);
+                            lease.setLong(2, leaseExpiresAt);
+                            lease.setString(3, task.taskID());
+                            lease.addBatch();
+                        }
+                        lease.executeBatch();
+                    }
+                }
+                connection.commit();
+                return claimedTasks;
+            }
+            catch(SQLException e)
+            {
+                connection.rollback();
+                throw e;
+            }
+            finally
+            {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+
+    /**
+     * It renews the leases that the given node holds on the given tasks. The leases of its other tasks run out.
+     * @param nodeID
+     * @param taskIDs the tasks that the node still holds
+     * @param leaseExpiresAt
+     * @return the number of leases that were renewed
+     * @throws SQLException
+     */
+    int renewLeases(String nodeID, Collection<String> taskIDs, long leaseExpiresAt) throws SQLException
+    {
+        if(taskIDs.isEmpty())
+        {
+            return 0;
+        }
+        List<String> taskIDsToRenew = new ArrayList<>(taskIDs);
+        int renewedLeases = 0;
+        try(Connection connection = dataSource.getConnection())
+        {
+            for(int from = 0; from < taskIDsToRenew.size(); from += MAX_TASK_IDS_PER_STATEMENT)
+            {
+                List<String> chunk = taskIDsToRenew.subList(from, Math.min(from + MAX_TASK_IDS_PER_STATEMENT, taskIDsToRenew.size()));
+                String sql = renewLeasesStatement + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                try(PreparedStatement statement = connection.prepareStatement(sql))
+                {
+                    statement.setLong(1, leaseExpiresAt);
+                    statement.setString(2, nodeID);
+                    for(int i = 0; i < chunk.size(); i++)
+                    {
+                        statement.setString(i + 3, chunk.get(i));
+                    }
+                    renewedLeases += statement.executeUpdate();
+                }
+            }
+        }
+        return renewedLeases;
+    }
+
+
+    /**
+     * It gives up all the leases of the given node, so that the other nodes can claim their tasks right away.
+     * @param nodeID
+     * @return the number of leases that were released
+     * @throws SQLException
+     */
+    int releaseLeases(String nodeID) throws SQLException
+    {
+        try(Connection connection = dataSource.getConnection();
+                        PreparedStatement statement = connection.prepareStatement(releaseLeasesStatement))
+        {
+            statement.setString(1, nodeID);
+            return statement.executeUpdate();
+        }
+    }
+
+
+    /**
+     * @param taskID
+     * @param nodeID
+     * @return true if the node held the lease of the task
+     * @throws SQLException
+     */
+    boolean releaseLease(String taskID, String nodeID) throws SQLException
+    {
+        try(Connection connection = dataSource.getConnection();
+                        PreparedStatement statement = connection.prepareStatement(releaseLeaseStatement))
+        {
+            statement.setString(1, taskID);
+            statement.setString(2, nodeID);
+            return statement.executeUpdate() > 0;
+        }
+    }
+
+
+    /**
+     * @param taskID
+     * @return true if the task was deleted
+     * @throws SQLException
+     */
+    boolean delete(String taskID) throws SQLException
+    {
+        try(Connection connection = dataSource.getConnection();
+                        PreparedStatement statement = connection.prepareStatement(deleteStatement))
+        {
+            statement.setString(1, taskID);
+            return statement.executeUpdate() > 0;
+        }
+    }
+
+
+    /**
+     * It deletes a task that has completed, unless its lease has passed to another node in the meantime.
+     * @param taskID
+     * @param nodeID
+     * @return true if the task was deleted
+     * @throws SQLException
+     */
+    boolean deleteLeased(String taskID, String nodeID) throws SQLException
+    {
+        try(Connection connection = dataSource.getConnection();
+                        PreparedStatement statement = connection.prepareStatement(deleteLeasedStatement))
+        {
+            statement.setString(1, taskID);
+            statement.setString(2, nodeID);
+            return statement.executeUpdate() > 0;
+        }
+    }
+}
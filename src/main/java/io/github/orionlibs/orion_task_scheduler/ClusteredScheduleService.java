@@ -0,0 +1,439 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import io.github.orionlibs.orion_task_scheduler.config.ConfigurationService;
+import io.github.orionlibs.orion_task_scheduler.config.ConfigurationSnapshot;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Service that schedules tasks once across a cluster of nodes that share one relational database.
+ * The pending tasks live in the table named by orionlibs.orion_task_scheduler.cluster.table.name instead of in memory,
+ * so every node can schedule a task and exactly one live node runs it, even if the node that scheduled it has died.
+ * <br>
+ * Every orionlibs.orion_task_scheduler.cluster.poll.interval.ms a node claims up to
+ * orionlibs.orion_task_scheduler.cluster.claim.batch.size tasks that are due within the next poll interval,
+ * with SELECT ... FOR UPDATE SKIP LOCKED, and takes a lease of orionlibs.orion_task_scheduler.cluster.lease.duration.ms
+ * on them. It then runs them on a local SingleExecutionScheduleService at their due time, renews its leases while it
+ * holds them and deletes every task once it has completed. A node only claims more tasks while it holds less than
+ * a batch, so the due tasks spread over the nodes, and when it had to leave due tasks in the table it claims again as soon
+ * as one of its tasks completes instead of waiting for the next poll. When a node dies its leases expire and the other nodes claim its tasks,
+ * so a task runs at least once.
+ * <br>
+ * Like the persisted tasks of SingleExecutionScheduleService, a clustered task refers to a TaskHandler by name and
+ * carries its payload, because a Runnable cannot move between nodes. Every node has to register the same handlers.
+ * The engine, the thread pool and the feature flags of the local service are configured as usual.
+ * Call shutdown() when the service is no longer needed.
+ */
+public class ClusteredScheduleService
+{
+    private static final String PERSISTENCE_ENABLED = "orionlibs.orion_task_scheduler.persistence.enabled";
+    private static final String CLUSTER_TABLE_NAME = "orionlibs.orion_task_scheduler.cluster.table.name";
+    private static final String CLUSTER_NODE_ID = "orionlibs.orion_task_scheduler.cluster.node.id";
+    private static final String CLUSTER_POLL_INTERVAL_IN_MILLISECONDS = "orionlibs.orion_task_scheduler.cluster.poll.interval.ms";
+    private static final String CLUSTER_CLAIM_BATCH_SIZE = "orionlibs.orion_task_scheduler.cluster.claim.batch.size";
+    private static final String CLUSTER_LEASE_DURATION_IN_MILLISECONDS = "orionlibs.orion_task_scheduler.cluster.lease.duration.ms";
+    private Logger log;
+    private SingleExecutionScheduleService localScheduler;
+    private ClusterTaskStore store;
+    private String nodeID;
+    private long pollIntervalInMilliseconds;
+    private int claimBatchSize;
+    private long leaseDurationInMilliseconds;
+    private ScheduledThreadPoolExecutor poller;
+    private volatile boolean isClaiming;
+    private volatile boolean hasMoreDueTasks;
+    private AtomicBoolean isClaimRequested;
+
+
+    /**
+     * @param dataSource the database of the cluster. It should pool its connections.
+     * @param customConfig config that overrides the default config of the features. It can be null.
+     * @throws IOException if the default config cannot be loaded
+     */
+    public ClusteredScheduleService(DataSource dataSource, Properties customConfig) throws IOException
+    {
+        log = Logger.getLogger(ClusteredScheduleService.class.getName());
+        Properties localConfig = new Properties();
+        if(customConfig != null)
+        {
+            localConfig.putAll(customConfig);
+        }
+        //the table of the cluster takes the place of the journal
+        localConfig.setProperty(PERSISTENCE_ENABLED, "false");
+        this.localScheduler = new SingleExecutionScheduleService(localConfig);
+        ConfigurationService config = localScheduler.getConfig();
+        this.store = new ClusterTaskStore(dataSource, config.getProp(CLUSTER_TABLE_NAME).trim());
+        String configuredNodeID = config.getProp(CLUSTER_NODE_ID);
+        this.nodeID = configuredNodeID == null || configuredNodeID.isBlank() ? UUID.randomUUID().toString() : configuredNodeID.trim();
+        this.pollIntervalInMilliseconds = Math.max(config.getLongProp(CLUSTER_POLL_INTERVAL_IN_MILLISECONDS), 1L);
+        this.claimBatchSize = Math.max(config.getIntegerProp(CLUSTER_CLAIM_BATCH_SIZE), 1);
+        this.leaseDurationInMilliseconds = Math.max(config.getLongProp(CLUSTER_LEASE_DURATION_IN_MILLISECONDS), pollIntervalInMilliseconds * 3L);
+        this.isClaiming = true;
+        this.isClaimRequested = new AtomicBoolean();
+        this.poller = new ScheduledThreadPoolExecutor(1, new SchedulerThreadFactory("cluster-poller"));
+        poller.setRemoveOnCancelPolicy(true);
+        poller.scheduleWithFixedDelay(this::claimDueTasks, 0L, pollIntervalInMilliseconds, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::renewLeases, leaseDurationInMilliseconds / 3L, leaseDurationInMilliseconds / 3L, TimeUnit.MILLISECONDS);
+    }
+
+
+    /**
+     * It registers a handler that clustered tasks can refer to by name.
+     * @param handlerName
+     * @param handler
+     * @throws InvalidArgumentException if the name or the handler is null
+     */
+    public void registerTaskHandler(String handlerName, TaskHandler handler) throws InvalidArgumentException
+    {
+        localScheduler.registerTaskHandler(handlerName, handler);
+    }
+
+
+    /**
+     * It adds the given task to the table of the cluster, from which the first node to claim it runs it.
+     * The task needs a handlerName instead of a taskToSchedule. Its delay is counted from now in wall-clock time
+     * and it keeps its numberOfRetriesOnError. Its task field stays null, because it may run on another node.
+     * @param taskToSchedule
+     * @return false if the cluster already has a pending task with the same taskID, e.g. because another node scheduled it
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the service has been shut down.
+     * @throws InvalidArgumentException if the taskToSchedule argument has invalid values or it has a taskToSchedule.
+     * @throws SQLException if the task cannot be written to the table
+     */
+    public boolean schedule(ScheduledTask taskToSchedule) throws FeatureIsDisabledException, InvalidArgumentException, SQLException
+    {
+        if(localScheduler.getConfig().getSnapshot().isSchedulerEnabled())
+        {
+            if(isShutdown())
+            {
+                throw new RejectedExecutionException("The scheduler has been shut down.");
+            }
+            taskToSchedule.validate();
+            if(taskToSchedule.getTaskToSchedule() != null || taskToSchedule.getHandlerName() == null)
+            {
+                throw new InvalidArgumentException("a clustered task needs a handlerName instead of a taskToSchedule.");
+            }
+            long dueAt = System.currentTimeMillis() + taskToSchedule.getUnit().toMillis(taskToSchedule.getDelay());
+            boolean wasInserted = store.insert(new PersistedTask(taskToSchedule.getTaskID(),
+                            dueAt,
+                            taskToSchedule.getNumberOfRetriesOnError(),
+                            taskToSchedule.getHandlerName(),
+                            taskToSchedule.getPayload()));
+            if(wasInserted && dueAt <= System.currentTimeMillis() + pollIntervalInMilliseconds)
+            {
+                //a task that is due before the next poll is claimed right away instead of firing up to a poll interval late
+                requestClaim();
+            }
+            log.info("schedule started");
+            return wasInserted;
+        }
+        else
+        {
+            throw new FeatureIsDisabledException();
+        }
+    }
+
+
+    /**
+     * It deletes the task from the table of the cluster and cancels it if this node has claimed it.
+     * A node that has already claimed the task may still run it.
+     * @param taskToCancel
+     * @return true if the task was still pending in the cluster
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     * @throws SQLException if the task cannot be deleted from the table
+     */
+    public boolean cancel(String taskToCancel) throws FeatureIsDisabledException, SQLException
+    {
+        ConfigurationSnapshot config = localScheduler.getConfig().getSnapshot();
+        if(config.isSchedulerEnabled() && config.isCancellationEnabled())
+        {
+            boolean wasDeleted = store.delete(taskToCancel);
+            if(localScheduler.getScheduledTaskByID(taskToCancel) != null)
+            {
+                try
+                {
+                    localScheduler.cancel(taskToCancel);
+                }
+                catch(TaskDoesNotExistException e)
+                {
+                    //it completed in the meantime
+                }
+            }
+            return wasDeleted;
+        }
+        else
+        {
+            throw new FeatureIsDisabledException();
+        }
+    }
+
+
+    private void requestClaim()
+    {
+        if(isClaimRequested.compareAndSet(false, true))
+        {
+            try
+            {
+                poller.execute(this::claimDueTasks);
+            }
+            catch(RejectedExecutionException e)
+            {
+                //the service has been shut down
+            }
+        }
+    }
+
+
+    private void claimDueTasks()
+    {
+        isClaimRequested.set(false);
+        hasMoreDueTasks = false;
+        try
+        {
+            while(isClaiming)
+            {
+                if(localScheduler.getPendingTaskCount() >= claimBatchSize)
+                {
+                    hasMoreDueTasks = true;
+                    return;
+                }
+                long now = System.currentTimeMillis();
+                List<PersistedTask> claimedTasks = store.claim(nodeID, now, now + pollIntervalInMilliseconds, now + leaseDurationInMilliseconds, claimBatchSize);
+                for(PersistedTask claimedTask : claimedTasks)
+                {
+                    scheduleLocally(claimedTask, now);
+                }
+                if(claimedTasks.size() < claimBatchSize)
+                {
+                    return;
+                }
+            }
+        }
+        catch(SQLException | RuntimeException e)
+        {
+            //a claim that shutdownNow() interrupts, or that outlives the data source, is not a failure
+            log.log(isClaiming ? Level.WARNING : Level.FINE, "could not claim the due tasks of the cluster", e);
+        }
+    }
+
+
+    private void scheduleLocally(PersistedTask claimedTask, long now) throws SQLException
+    {
+        String taskID = claimedTask.taskID();
+        if(localScheduler.getScheduledTaskByID(taskID) != null)
+        {
+            //this node still runs it from an earlier lease
+            return;
+        }
+        try
+        {
+            long handle = localScheduler.schedule(ScheduledTask.builder()
+                            .taskID(taskID)
+                            .handlerName(claimedTask.handlerName())
+                            .payload(claimedTask.payload())
+                            .numberOfRetriesOnError(claimedTask.numberOfRetriesOnError())
+                            .delay(Math.max(0L, claimedTask.dueAtEpochMilliseconds() - now))
+                            .unit(TimeUnit.MILLISECONDS)
+                            .callbackAfterTaskCompletes(() -> onTaskCompleted(taskID))
+                            //e.g. drop_oldest made room for a newer task, so another node can claim it
+                            .callbackAfterTaskIsCancelled(() -> releaseLease(taskID))
+                            .build());
+            if(handle == 0L)
+            {
+                //drop_newest has dropped it
+                store.releaseLease(taskID, nodeID);
+            }
+        }
+        catch(InvalidArgumentException | FeatureIsDisabledException | RejectedExecutionException e)
+        {
+            log.log(Level.WARNING, "claimed task " + taskID + " could not be scheduled on this node", e);
+            store.releaseLease(taskID, nodeID);
+        }
+    }
+
+
+    private void releaseLease(String taskID)
+    {
+        try
+        {
+            store.releaseLease(taskID, nodeID);
+        }
+        catch(SQLException e)
+        {
+            //the task runs again once its lease expires
+            log.log(Level.WARNING, "could not release the lease of task " + taskID, e);
+        }
+    }
+
+
+    private void onTaskCompleted(String taskID)
+    {
+        try
+        {
+            store.deleteLeased(taskID, nodeID);
+        }
+        catch(SQLException e)
+        {
+            //the task runs again once its lease expires
+            log.log(Level.WARNING, "could not delete completed task " + taskID + " from the cluster", e);
+        }
+        if(hasMoreDueTasks)
+        {
+            requestClaim();
+        }
+    }
+
+
+    private void renewLeases()
+    {
+        try
+        {
+            //only the tasks this node still holds, so that the lease of a task it has dropped expires
+            store.renewLeases(nodeID, localScheduler.getScheduledTasksToRunnablesMapper().keySet(), System.currentTimeMillis() + leaseDurationInMilliseconds);
+        }
+        catch(SQLException e)
+        {
+            log.log(Level.WARNING, "could not renew the leases of node " + nodeID, e);
+        }
+    }
+
+
+    private void stopOnceLocalTasksHaveCompleted()
+    {
+        if(localScheduler.isTerminated())
+        {
+            releaseLeases();
+            poller.shutdown();
+        }
+    }
+
+
+    private void releaseLeases()
+    {
+        try
+        {
+            store.releaseLeases(nodeID);
+        }
+        catch(SQLException e)
+        {
+            log.log(Level.WARNING, "could not release the leases of node " + nodeID, e);
+        }
+    }
+
+
+    /**
+     * It stops claiming tasks. The tasks this node has already claimed still execute and keep their leases until then.
+     */
+    public void shutdown()
+    {
+        if(!isClaiming)
+        {
+            return;
+        }
+        isClaiming = false;
+        localScheduler.shutdown();
+        try
+        {
+            poller.scheduleWithFixedDelay(this::stopOnceLocalTasksHaveCompleted, 0L, pollIntervalInMilliseconds, TimeUnit.MILLISECONDS);
+        }
+        catch(RejectedExecutionException e)
+        {
+            //shutdownNow() has already stopped the poller
+        }
+    }
+
+
+    /**
+     * It stops claiming tasks and cancels the ones this node has claimed but not executed yet.
+     * Their leases are released, so that the other nodes claim them right away.
+     */
+    public void shutdownNow()
+    {
+        isClaiming = false;
+        poller.shutdownNow();
+        localScheduler.shutdownNow();
+        releaseLeases();
+    }
+
+
+    /**
+     * It blocks until the tasks this node had claimed have executed after a shutdown request, or the timeout occurs,
+     * or the current thread is interrupted, whichever happens first.
+     * @param timeout
+     * @param unit
+     * @return true if the service terminated and false if the timeout elapsed before termination
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long waitUntil = System.nanoTime() + unit.toNanos(timeout);
+        return localScheduler.awaitTermination(timeout, unit) && poller.awaitTermination(waitUntil - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * @return true if this service has been shut down
+     */
+    public boolean isShutdown()
+    {
+        return !isClaiming;
+    }
+
+
+    /**
+     * @return true if this service has been shut down and the tasks this node had claimed have completed
+     */
+    public boolean isTerminated()
+    {
+        return localScheduler.isTerminated() && poller.isTerminated();
+    }
+
+
+    /**
+     * @return the ID that this node writes as the owner of its leases
+     */
+    public String getNodeID()
+    {
+        return nodeID;
+    }
+
+
+    /**
+     * It returns the number of tasks that this node has claimed and not completed yet.
+     * @return
+     */
+    public int getClaimedTaskCount()
+    {
+        return localScheduler.getPendingTaskCount();
+    }
+
+
+    /**
+     * It returns the metrics of the tasks that this node has claimed.
+     * @return
+     */
+    public SchedulerMetrics getMetrics()
+    {
+        return localScheduler.getMetrics();
+    }
+
+
+    /**
+     * It returns the config of this instance of the service.
+     * @return
+     */
+    public ConfigurationService getConfig()
+    {
+        return localScheduler.getConfig();
+    }
+}
@@ -0,0 +1,437 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Locale;
+
+/**
+ * A cron expression that is compiled once into bit masks, one per field.
+ * It has either 6 fields (second minute hour day-of-month month day-of-week) or
+ * 5 fields (minute hour day-of-month month day-of-week), in which case the second is 0.
+ * Every field accepts *, ?, single values, ranges (1-5), steps (*&#47;15, 10-40/5) and lists (1,15,30).
+ * Months accept JAN-DEC and days of the week accept SUN-SAT, where both 0 and 7 mean Sunday.
+ * As in classic cron, if both the day-of-month and the day-of-week are restricted, a day matches if either matches.
+ * <br>
+ * Around a daylight saving transition of the zone, an expression whose hour field covers every hour, e.g. "*&#47;15 * * * *",
+ * follows the wall clock: the local times that a spring-forward gap skips do not fire and the local times that a
+ * fall-back overlap repeats fire in both passes. Any other expression, e.g. "30 2 * * *", fires once a day as in classic
+ * cron: a local time that falls in a gap fires at the first instant after the transition and a local time that an
+ * overlap repeats only fires at its first occurrence.
+ * <br>
+ * The next fire time is computed with primitive arithmetic on the calendar fields, so it does not allocate,
+ * except when the search crosses a daylight saving transition of the zone.
+ */
+public final class CronExpression
+{
+    private static final String[] MONTH_NAMES = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAY_OF_WEEK_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+    private static final int SECONDS_PER_DAY = 86400;
+    /**
+     * how many years ahead to search before deciding that the expression never fires, e.g. 30 FEB
+     */
+    private static final int MAX_YEARS_TO_SEARCH = 8;
+    /**
+     * how many offset changes of the zone the search crosses before giving up, enough for two a year for MAX_YEARS_TO_SEARCH
+     */
+    private static final int MAX_TRANSITIONS_TO_CROSS = 4 * MAX_YEARS_TO_SEARCH;
+    private static final long EVERY_HOUR_MASK = (1L << 24) - 1L;
+    private final String expression;
+    private final ZoneRules zoneRules;
+    private final long secondMask;
+    private final long minuteMask;
+    private final long hourMask;
+    private final long dayOfMonthMask;
+    private final long monthMask;
+    private final long dayOfWeekMask;
+    private final boolean isDayOfMonthRestricted;
+    private final boolean isDayOfWeekRestricted;
+    private final boolean followsWallClock;
+    private volatile OffsetWindow offsetWindow;
+
+
+    private CronExpression(String expression, ZoneId zone, String[] fields) throws InvalidArgumentException
+    {
+        this.expression = expression;
+        this.zoneRules = zone.getRules();
+        int field = 0;
+        this.secondMask = fields.length == 6 ? parseField(fields[field++], 0, 59, null, 0) : 1L;
+        this.minuteMask = parseField(fields[field++], 0, 59, null, 0);
+        this.hourMask = parseField(fields[field++], 0, 23, null, 0);
+        String dayOfMonthField = fields[field++];
+        this.dayOfMonthMask = parseField(dayOfMonthField, 1, 31, null, 0);
+        this.monthMask = parseField(fields[field++], 1, 12, MONTH_NAMES, 1);
+        String dayOfWeekField = fields[field];
+        long parsedDayOfWeekMask = parseField(dayOfWeekField, 0, 7, DAY_OF_WEEK_NAMES, 0);
+        if((parsedDayOfWeekMask & (1L << 7)) != 0)
+        {
+            parsedDayOfWeekMask = (parsedDayOfWeekMask | 1L) & ~(1L << 7);
+        }
+        this.dayOfWeekMask = parsedDayOfWeekMask;
+        this.isDayOfMonthRestricted = !isWildcard(dayOfMonthField);
+        this.isDayOfWeekRestricted = !isWildcard(dayOfWeekField);
+        this.followsWallClock = hourMask == EVERY_HOUR_MASK;
+    }
+
+
+    /**
+     * @param expression
+     * @param zone the zone in which the expression is evaluated
+     * @return the compiled expression
+     * @throws InvalidArgumentException if the expression is not a valid cron expression
+     */
+    public static CronExpression parse(String expression, ZoneId zone) throws InvalidArgumentException
+    {
+        if(expression == null || expression.isBlank())
+        {
+            throw new InvalidArgumentException("cron expression cannot be null/empty.");
+        }
+        if(zone == null)
+        {
+            throw new InvalidArgumentException("zone cannot be null.");
+        }
+        String[] fields = expression.trim().split("\\s+");
+        if(fields.length != 5 && fields.length != 6)
+        {
+            throw new InvalidArgumentException("cron expression %s must have 5 or 6 fields.", expression);
+        }
+        return new CronExpression(expression, zone, fields);
+    }
+
+
+    /**
+     * @param afterEpochMilliseconds
+     * @return the first fire time strictly after the given time in epoch milliseconds, or -1 if there is none
+     */
+    public long nextFireTimeInEpochMilliseconds(long afterEpochMilliseconds)
+    {
+        long fromEpochSecond = Math.floorDiv(afterEpochMilliseconds, 1000L) + 1L;
+        OffsetWindow window = offsetWindowAt(fromEpochSecond);
+        long searchFromLocalSecond = fromEpochSecond + window.offsetInSeconds();
+        //every round searches the local times up to the next offset change of the zone
+        for(int round = 0; round <= MAX_TRANSITIONS_TO_CROSS; round++)
+        {
+            long localFireTime = nextLocalFireTime(searchFromLocalSecond);
+            if(localFireTime < 0L)
+            {
+                return -1L;
+            }
+            long fireEpochSecond = localFireTime - window.offsetInSeconds();
+            if(fireEpochSecond < window.untilEpochSecond())
+            {
+                return fireEpochSecond * 1000L;
+            }
+            long transitionEpochSecond = window.untilEpochSecond();
+            int offsetBefore = window.offsetInSeconds();
+            window = offsetWindowAt(transitionEpochSecond);
+            long firstLocalSecondAfterTransition = transitionEpochSecond + window.offsetInSeconds();
+            if(window.offsetInSeconds() > offsetBefore)
+            {
+                //a gap: the local times from transition + offsetBefore up to firstLocalSecondAfterTransition do not exist
+                if(localFireTime < firstLocalSecondAfterTransition && !followsWallClock)
+                {
+                    return transitionEpochSecond * 1000L;
+                }
+                searchFromLocalSecond = firstLocalSecondAfterTransition;
+            }
+            else
+            {
+                //an overlap: the local times from firstLocalSecondAfterTransition up to transition + offsetBefore come again
+                searchFromLocalSecond = followsWallClock ? firstLocalSecondAfterTransition : transitionEpochSecond + offsetBefore;
+            }
+        }
+        return -1L;
+    }
+
+
+    /**
+     * @param fromLocalSecond seconds since 1970-01-01T00:00 in local time
+     * @return the first local time at or after the given one that matches, or -1 if there is none
+     */
+    private long nextLocalFireTime(long fromLocalSecond)
+    {
+        long epochDay = Math.floorDiv(fromLocalSecond, SECONDS_PER_DAY);
+        int secondOfDay = Math.floorMod(fromLocalSecond, SECONDS_PER_DAY);
+        int hour = secondOfDay / 3600;
+        int minute = (secondOfDay / 60) % 60;
+        int second = secondOfDay % 60;
+        //civil date from the epoch day, see http://howardhinnant.github.io/date_algorithms.html
+        long shiftedDay = epochDay + 719468L;
+        long era = Math.floorDiv(shiftedDay, 146097L);
+        long dayOfEra = shiftedDay - era * 146097L;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460L + dayOfEra / 36524L - dayOfEra / 146096L) / 365L;
+        long dayOfYear = dayOfEra - (365L * yearOfEra + yearOfEra / 4L - yearOfEra / 100L);
+        long shiftedMonth = (5L * dayOfYear + 2L) / 153L;
+        int day = (int)(dayOfYear - (153L * shiftedMonth + 2L) / 5L + 1L);
+        int month = (int)(shiftedMonth < 10L ? shiftedMonth + 3L : shiftedMonth - 9L);
+        long year = yearOfEra + era * 400L + (month <= 2 ? 1L : 0L);
+        long maxYear = year + MAX_YEARS_TO_SEARCH;
+        while(year <= maxYear)
+        {
+            if((monthMask & (1L << month)) == 0L)
+            {
+                int nextMonth = nextSetBit(monthMask, month + 1, 12);
+                if(nextMonth < 0)
+                {
+                    year++;
+                    nextMonth = nextSetBit(monthMask, 1, 12);
+                }
+                month = nextMonth;
+                day = 1;
+                hour = 0;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+            if(day > daysInMonth(year, month))
+            {
+                month++;
+                if(month > 12)
+                {
+                    month = 1;
+                    year++;
+                }
+                day = 1;
+                hour = 0;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+            epochDay = daysFromCivil(year, month, day);
+            if(!matchesDay(day, (int)Math.floorMod(epochDay + 4L, 7L)))
+            {
+                day++;
+                hour = 0;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+            if((hourMask & (1L << hour)) == 0L)
+            {
+                int nextHour = nextSetBit(hourMask, hour + 1, 23);
+                if(nextHour < 0)
+                {
+                    day++;
+                    hour = 0;
+                    minute = 0;
+                    second = 0;
+                    continue;
+                }
+                hour = nextHour;
+                minute = 0;
+                second = 0;
+            }
+            if((minuteMask & (1L << minute)) == 0L)
+            {
+                int nextMinute = nextSetBit(minuteMask, minute + 1, 59);
+                if(nextMinute < 0)
+                {
+                    hour++;
+                    minute = 0;
+                    second = 0;
+                    if(hour > 23)
+                    {
+                        hour = 0;
+                        day++;
+                    }
+                    continue;
+                }
+                minute = nextMinute;
+                second = 0;
+            }
+            if((secondMask & (1L << second)) == 0L)
+            {
+                int nextSecond = nextSetBit(secondMask, second + 1, 59);
+                if(nextSecond < 0)
+                {
+                    minute++;
+                    second = 0;
+                    if(minute > 59)
+                    {
+                        minute = 0;
+                        hour++;
+                        if(hour > 23)
+                        {
+                            hour = 0;
+                            day++;
+                        }
+                    }
+                    continue;
+                }
+                second = nextSecond;
+            }
+            return epochDay * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second;
+        }
+        return -1L;
+    }
+
+
+    private boolean matchesDay(int dayOfMonth, int dayOfWeek)
+    {
+        boolean matchesDayOfMonth = (dayOfMonthMask & (1L << dayOfMonth)) != 0L;
+        boolean matchesDayOfWeek = (dayOfWeekMask & (1L << dayOfWeek)) != 0L;
+        if(isDayOfMonthRestricted && isDayOfWeekRestricted)
+        {
+            return matchesDayOfMonth || matchesDayOfWeek;
+        }
+        return matchesDayOfMonth && matchesDayOfWeek;
+    }
+
+
+    private OffsetWindow offsetWindowAt(long epochSecond)
+    {
+        OffsetWindow window = offsetWindow;
+        if(window == null || epochSecond < window.fromEpochSecond() || epochSecond >= window.untilEpochSecond())
+        {
+            Instant instant = Instant.ofEpochSecond(epochSecond);
+            ZoneOffsetTransition previousTransition = zoneRules.previousTransition(instant.plusSeconds(1L));
+            ZoneOffsetTransition nextTransition = zoneRules.nextTransition(instant);
+            window = new OffsetWindow(previousTransition != null ? previousTransition.toEpochSecond() : Long.MIN_VALUE,
+                            nextTransition != null ? nextTransition.toEpochSecond() : Long.MAX_VALUE,
+                            zoneRules.getOffset(instant).getTotalSeconds());
+            offsetWindow = window;
+        }
+        return window;
+    }
+
+
+    private static int nextSetBit(long mask, int from, int max)
+    {
+        if(from > max)
+        {
+            return -1;
+        }
+        long remainingBits = mask & (-1L << from);
+        if(remainingBits == 0L)
+        {
+            return -1;
+        }
+        int bit = Long.numberOfTrailingZeros(remainingBits);
+        return bit <= max ? bit : -1;
+    }
+
+
+    private static int daysInMonth(long year, int month)
+    {
+        switch(month)
+        {
+            case 2:
+                return (year % 4L == 0L && (year % 100L != 0L || year % 400L == 0L)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+
+    private static long daysFromCivil(long year, int month, int day)
+    {
+        long shiftedYear = month <= 2 ? year - 1L : year;
+        long era = Math.floorDiv(shiftedYear, 400L);
+        long yearOfEra = shiftedYear - era * 400L;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2L) / 5L + day - 1L;
+        long dayOfEra = yearOfEra * 365L + yearOfEra / 4L - yearOfEra / 100L + dayOfYear;
+        return era * 146097L + dayOfEra - 719468L;
+    }
+
+
+    private static boolean isWildcard(String field)
+    {
+        return field.equals("*") || field.equals("?");
+    }
+
+
+    private long parseField(String field, int min, int max, String[] names, int firstNameValue) throws InvalidArgumentException
+    {
+        long mask = 0L;
+        for(String part : field.split(","))
+        {
+            int step = 1;
+            String range = part;
+            int slash = part.indexOf('/');
+            if(slash >= 0)
+            {
+                range = part.substring(0, slash);
+                step = parseValue(part.substring(slash + 1), 1, max - min + 1, null, 0);
+            }
+            int from;
+            int to;
+            if(range.equals("*") || range.equals("?"))
+            {
+                from = min;
+                to = max;
+            }
+            else
+            {
+                int dash = range.indexOf('-');
+                if(dash >= 0)
+                {
+                    from = parseValue(range.substring(0, dash), min, max, names, firstNameValue);
+                    to = parseValue(range.substring(dash + 1), min, max, names, firstNameValue);
+                    if(to < from)
+                    {
+                        throw new InvalidArgumentException("invalid range %s in cron expression %s.", range, expression);
+                    }
+                }
+                else
+                {
+                    from = parseValue(range, min, max, names, firstNameValue);
+                    to = slash >= 0 ? max : from;
+                }
+            }
+            for(int value = from; value <= to; value += step)
+            {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+
+    private int parseValue(String value, int min, int max, String[] names, int firstNameValue) throws InvalidArgumentException
+    {
+        if(names != null)
+        {
+            for(int i = 0; i < names.length; i++)
+            {
+                if(names[i].equals(value.toUpperCase(Locale.ROOT)))
+                {
+                    return i + firstNameValue;
+                }
+            }
+        }
+        try
+        {
+            int parsedValue = Integer.parseInt(value);
+            if(parsedValue < min || parsedValue > max)
+            {
+                throw new InvalidArgumentException("value %s is out of range in cron expression %s.", value, expression);
+            }
+            return parsedValue;
+        }
+        catch(NumberFormatException e)
+        {
+            throw new InvalidArgumentException("invalid value %s in cron expression %s.", value, expression);
+        }
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return expression;
+    }
+
+
+    /**
+     * The offset of the zone between two of its transitions.
+     */
+    private record OffsetWindow(long fromEpochSecond, long untilEpochSecond, int offsetInSeconds)
+    {
+    }
+}
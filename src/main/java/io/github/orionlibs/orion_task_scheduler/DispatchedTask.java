@@ -0,0 +1,59 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A task whose deadline is kept by a timer but whose body runs on a separate dispatcher.
+ * Cancelling it removes the timer entry as well as interrupting the body if it is running.
+ */
+class DispatchedTask extends FutureTask<Void> implements ScheduledFuture<Void>
+{
+    private volatile ScheduledFuture<?> trigger;
+
+
+    DispatchedTask(Runnable task)
+    {
+        super(task, null);
+    }
+
+
+    void setTrigger(ScheduledFuture<?> trigger)
+    {
+        this.trigger = trigger;
+    }
+
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning)
+    {
+        boolean wasCancelled = super.cancel(mayInterruptIfRunning);
+        ScheduledFuture<?> timerEntry = trigger;
+        if(wasCancelled && timerEntry != null)
+        {
+            timerEntry.cancel(false);
+        }
+        return wasCancelled;
+    }
+
+
+    @Override
+    public long getDelay(TimeUnit unit)
+    {
+        ScheduledFuture<?> timerEntry = trigger;
+        return timerEntry != null ? timerEntry.getDelay(unit) : 0L;
+    }
+
+
+    @Override
+    public int compareTo(Delayed other)
+    {
+        if(other == this)
+        {
+            return 0;
+        }
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+}
@@ -0,0 +1,255 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A pending task of a SchedulerEngine that keeps its own timer, i.e. the TimingWheelSchedulerEngine and the
+ * OffHeapSchedulerEngine. It is the ScheduledFuture of the task and owns its state, from PENDING through EXPIRED and
+ * RUNNING to a final state, while the engine decides where the deadline lives.
+ */
+abstract class EngineTimeout implements ScheduledFuture<Void>, Runnable
+{
+    static final int PENDING = 0;
+    static final int EXPIRED = 1;
+    static final int RUNNING = 2;
+    static final int COMPLETED = 3;
+    static final int FAILED = 4;
+    static final int CANCELLED = 5;
+    static final int INTERRUPTING = 6;
+    static final int INTERRUPTED = 7;
+    private static final AtomicIntegerFieldUpdater<EngineTimeout> STATE = AtomicIntegerFieldUpdater.newUpdater(EngineTimeout.class, "state");
+    /**
+     * true if the timer thread runs the task itself instead of handing it to the dispatcher
+     */
+    final boolean runsOnTimerThread;
+    /**
+     * the ordinal of the TaskLane of the task
+     */
+    final byte lane;
+    private Runnable task;
+    private volatile int state;
+    private volatile Thread runner;
+    private Throwable failure;
+
+
+    EngineTimeout(Runnable task, TaskLane lane, boolean runsOnTimerThread)
+    {
+        this.task = task;
+        this.lane = (byte)lane.ordinal();
+        this.runsOnTimerThread = runsOnTimerThread;
+    }
+
+
+    /**
+     * Called once when a PENDING timeout is cancelled, so that the engine takes it out of its timer.
+     */
+    abstract void onCancelled();
+
+
+    /**
+     * Called by the timer thread when the deadline has been reached.
+     * @return true if the task should be handed to a worker
+     */
+    boolean expire()
+    {
+        return STATE.compareAndSet(this, PENDING, EXPIRED);
+    }
+
+
+    @Override
+    public void run()
+    {
+        //the runner is set first, so that a cancel(true) that sees RUNNING also sees the thread to interrupt
+        runner = Thread.currentThread();
+        if(!STATE.compareAndSet(this, EXPIRED, RUNNING))
+        {
+            runner = null;
+            return;
+        }
+        try
+        {
+            task.run();
+            finish(COMPLETED, null);
+        }
+        catch(Throwable e)
+        {
+            finish(FAILED, e);
+        }
+        finally
+        {
+            runner = null;
+            if(state >= INTERRUPTING)
+            {
+                clearCancellationInterrupt();
+            }
+        }
+    }
+
+
+    /**
+     * It waits until a cancel(true) has delivered its interrupt and then clears it, so that the interrupt never
+     * reaches the next task of the thread, like ExecutionWatchdog.stop() does.
+     */
+    private void clearCancellationInterrupt()
+    {
+        while(state == INTERRUPTING)
+        {
+            Thread.onSpinWait();
+        }
+        Thread.interrupted();
+    }
+
+
+    private void finish(int finalState, Throwable e)
+    {
+        failure = e;
+        if(STATE.compareAndSet(this, RUNNING, finalState))
+        {
+            signalWaiters();
+        }
+    }
+
+
+    private synchronized void signalWaiters()
+    {
+        notifyAll();
+    }
+
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning)
+    {
+        while(true)
+        {
+            int current = state;
+            if(current == PENDING || current == EXPIRED)
+            {
+                if(STATE.compareAndSet(this, current, CANCELLED))
+                {
+                    //the task never runs now, so it need not stay reachable until the engine lets go of the timeout
+                    task = null;
+                    if(current == PENDING)
+                    {
+                        onCancelled();
+                    }
+                    signalWaiters();
+                    return true;
+                }
+            }
+            else if(current == RUNNING)
+            {
+                if(STATE.compareAndSet(this, RUNNING, mayInterruptIfRunning ? INTERRUPTING : CANCELLED))
+                {
+                    if(mayInterruptIfRunning)
+                    {
+                        //run() does not return while the state is INTERRUPTING, so the thread is still running this task
+                        try
+                        {
+                            Thread thread = runner;
+                            if(thread != null)
+                            {
+                                thread.interrupt();
+                            }
+                        }
+                        finally
+                        {
+                            state = INTERRUPTED;
+                        }
+                    }
+                    signalWaiters();
+                    return true;
+                }
+            }
+            else
+            {
+                return false;
+            }
+        }
+    }
+
+
+    @Override
+    public boolean isCancelled()
+    {
+        return state >= CANCELLED;
+    }
+
+
+    boolean isPending()
+    {
+        return state == PENDING;
+    }
+
+
+    @Override
+    public boolean isDone()
+    {
+        return state > RUNNING;
+    }
+
+
+    @Override
+    public Void get() throws InterruptedException, ExecutionException
+    {
+        synchronized(this)
+        {
+            while(!isDone())
+            {
+                wait();
+            }
+        }
+        return report();
+    }
+
+
+    @Override
+    public Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+    {
+        long remaining = unit.toNanos(timeout);
+        long waitUntil = System.nanoTime() + remaining;
+        synchronized(this)
+        {
+            while(!isDone())
+            {
+                if(remaining <= 0L)
+                {
+                    throw new TimeoutException();
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                remaining = waitUntil - System.nanoTime();
+            }
+        }
+        return report();
+    }
+
+
+    private Void report() throws ExecutionException
+    {
+        if(state >= CANCELLED)
+        {
+            throw new CancellationException();
+        }
+        else if(state == FAILED)
+        {
+            throw new ExecutionException(failure);
+        }
+        return null;
+    }
+
+
+    @Override
+    public int compareTo(Delayed other)
+    {
+        if(other == this)
+        {
+            return 0;
+        }
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+}
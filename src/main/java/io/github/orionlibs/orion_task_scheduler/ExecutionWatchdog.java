@@ -0,0 +1,77 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Watches one execution of a task that has an execution timeout.
+ * The engine runs it on its timer thread when the timeout elapses and it then interrupts the thread of the execution,
+ * which is expected to stop at its next blocking call or interruption check.
+ * When the execution ends first, stop() takes it out of the timer.
+ * An interrupt never reaches the thread after stop() has returned, so it cannot leak into the next task of that thread.
+ */
+final class ExecutionWatchdog implements Runnable
+{
+    private static final int WATCHING = 0;
+    private static final int TIMED_OUT = 1;
+    private static final int STOPPED = 2;
+    private final Thread executionThread;
+    private final Runnable onTimeout;
+    private ScheduledFuture<?> trigger;
+    private int state;
+
+
+    /**
+     * @param executionThread the thread to interrupt
+     * @param onTimeout what to run on the timer thread after the interrupt
+     */
+    ExecutionWatchdog(Thread executionThread, Runnable onTimeout)
+    {
+        this.executionThread = executionThread;
+        this.onTimeout = onTimeout;
+    }
+
+
+    synchronized void setTrigger(ScheduledFuture<?> trigger)
+    {
+        this.trigger = trigger;
+    }
+
+
+    @Override
+    public void run()
+    {
+        synchronized(this)
+        {
+            if(state != WATCHING)
+            {
+                return;
+            }
+            state = TIMED_OUT;
+            executionThread.interrupt();
+        }
+        onTimeout.run();
+    }
+
+
+    /**
+     * Called by the thread of the execution once it ends. It clears the interrupt of a timeout.
+     * @return true if the execution ran longer than its timeout
+     */
+    boolean stop()
+    {
+        synchronized(this)
+        {
+            if(state == WATCHING)
+            {
+                state = STOPPED;
+                if(trigger != null)
+                {
+                    trigger.cancel(false);
+                }
+                return false;
+            }
+        }
+        Thread.interrupted();
+        return true;
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine backed by a ScheduledThreadPoolExecutor.
+ * Tasks fire exactly at their deadline, but every insert and cancellation costs O(log n).
+ * Cancelled tasks are removed from the queue right away instead of waiting there until their deadline.
+ * If a dispatcher is given, the executor only keeps time on one thread and the due tasks run on the dispatcher.
+ * Otherwise the threads of the executor run the tasks too, so the actions that must run even when they are all busy
+ * get a timer thread of their own, which is only started when such an action is first scheduled.
+ * The tasks of a lane with workers of its own are kept by that timer thread too and handed to the workers of their lane,
+ * so they never wait for a thread of the executor.
+ */
+class ExecutorSchedulerEngine implements SchedulerEngine
+{
+    private final ScheduledThreadPoolExecutor executorService;
+    private final ExecutorService dispatcher;
+    private final ScheduledThreadPoolExecutor timer;
+    private final LaneDispatchers lanes;
+
+
+    ExecutorSchedulerEngine(int coreSize, long keepAliveInMilliseconds)
+    {
+        this(coreSize, keepAliveInMilliseconds, null, LaneDispatchers.none());
+    }
+
+
+    ExecutorSchedulerEngine(int coreSize, long keepAliveInMilliseconds, ExecutorService dispatcher, LaneDispatchers lanes)
+    {
+        this.dispatcher = dispatcher;
+        this.lanes = lanes;
+        this.executorService = new ScheduledThreadPoolExecutor(dispatcher == null ? coreSize : 1, new SchedulerThreadFactory(dispatcher == null ? "worker" : "timer"))
+        {
+            @Override
+            protected void terminated()
+            {
+                super.terminated();
+                if(dispatcher != null)
+                {
+                    dispatcher.shutdown();
+                    //the tasks of the lanes are kept by this thread, which is the timer
+                    lanes.shutdown();
+                }
+            }
+        };
+        executorService.setRemoveOnCancelPolicy(true);
+        if(keepAliveInMilliseconds > 0L)
+        {
+            executorService.setKeepAliveTime(keepAliveInMilliseconds, TimeUnit.MILLISECONDS);
+            executorService.allowCoreThreadTimeOut(true);
+        }
+        if(dispatcher == null)
+        {
+            this.timer = new ScheduledThreadPoolExecutor(1, new SchedulerThreadFactory("timer"))
+            {
+                @Override
+                protected void terminated()
+                {
+                    super.terminated();
+                    lanes.shutdown();
+                }
+            };
+            timer.setRemoveOnCancelPolicy(true);
+            timer.setKeepAliveTime(Math.max(keepAliveInMilliseconds, 1L), TimeUnit.MILLISECONDS);
+            timer.allowCoreThreadTimeOut(true);
+        }
+        else
+        {
+            this.timer = executorService;
+        }
+    }
+
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit, TaskLane lane)
+    {
+        ExecutorService laneDispatcher = lanes.get(lane.ordinal());
+        if(laneDispatcher != null)
+        {
+            if(executorService.isShutdown())
+            {
+                throw new RejectedExecutionException("The scheduler has been shut down.");
+            }
+            DispatchedTask dispatchedTask = new DispatchedTask(task);
+            dispatchedTask.setTrigger(timer.schedule(() -> laneDispatcher.execute(dispatchedTask), delay, unit));
+            return dispatchedTask;
+        }
+        if(dispatcher == null)
+        {
+            return executorService.schedule(task, delay, unit);
+        }
+        DispatchedTask dispatchedTask = new DispatchedTask(task);
+        dispatchedTask.setTrigger(executorService.schedule(() -> dispatcher.execute(dispatchedTask), delay, unit));
+        return dispatchedTask;
+    }
+
+
+    @Override
+    public ScheduledFuture<?> scheduleOnTimer(Runnable action, long delay, TimeUnit unit)
+    {
+        if(executorService.isShutdown())
+        {
+            throw new RejectedExecutionException("The scheduler has been shut down.");
+        }
+        return timer.schedule(action, delay, unit);
+    }
+
+
+    @Override
+    public long getQueuedTaskCount()
+    {
+        return executorService.getQueue().size() + (timer != executorService ? timer.getQueue().size() : 0L);
+    }
+
+
+    @Override
+    public void shutdown()
+    {
+        executorService.shutdown();
+        timer.shutdown();
+    }
+
+
+    @Override
+    public void shutdownNow()
+    {
+        executorService.shutdownNow();
+        timer.shutdownNow();
+        if(dispatcher != null)
+        {
+            dispatcher.shutdownNow();
+        }
+        lanes.shutdownNow();
+    }
+
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long waitUntil = System.nanoTime() + unit.toNanos(timeout);
+        if(!executorService.awaitTermination(timeout, unit) || !timer.awaitTermination(waitUntil - System.nanoTime(), TimeUnit.NANOSECONDS))
+        {
+            return false;
+        }
+        if(dispatcher != null && !dispatcher.awaitTermination(waitUntil - System.nanoTime(), TimeUnit.NANOSECONDS))
+        {
+            return false;
+        }
+        return lanes.awaitTermination(waitUntil);
+    }
+
+
+    @Override
+    public boolean isShutdown()
+    {
+        return executorService.isShutdown();
+    }
+
+
+    @Override
+    public boolean isTerminated()
+    {
+        return executorService.isTerminated() && timer.isTerminated() && (dispatcher == null || dispatcher.isTerminated()) && lanes.isTerminated();
+    }
+}
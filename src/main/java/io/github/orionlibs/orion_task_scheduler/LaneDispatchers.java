@@ -0,0 +1,101 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The workers of the lanes that do not share the workers of the engine, indexed by the ordinal of their TaskLane.
+ * The engine hands a due task to the dispatcher of its lane, or to its own workers if the lane has none.
+ */
+final class LaneDispatchers
+{
+    static final int NUMBER_OF_LANES = TaskLane.values().length;
+    private static final LaneDispatchers NONE = new LaneDispatchers(new ExecutorService[NUMBER_OF_LANES]);
+    private final ExecutorService[] dispatchers;
+
+
+    /**
+     * @param dispatchers the dispatcher of every lane by ordinal, null for the lanes that share the workers of the engine
+     */
+    LaneDispatchers(ExecutorService[] dispatchers)
+    {
+        if(dispatchers.length != NUMBER_OF_LANES)
+        {
+            throw new IllegalArgumentException("there has to be one dispatcher or null for every lane");
+        }
+        this.dispatchers = dispatchers.clone();
+    }
+
+
+    /**
+     * @return lanes that all share the workers of the engine
+     */
+    static LaneDispatchers none()
+    {
+        return NONE;
+    }
+
+
+    /**
+     * @param lane the ordinal of a TaskLane
+     * @return the dispatcher of the lane or null if it shares the workers of the engine
+     */
+    ExecutorService get(int lane)
+    {
+        return dispatchers[lane];
+    }
+
+
+    void shutdown()
+    {
+        for(ExecutorService dispatcher : dispatchers)
+        {
+            if(dispatcher != null)
+            {
+                dispatcher.shutdown();
+            }
+        }
+    }
+
+
+    void shutdownNow()
+    {
+        for(ExecutorService dispatcher : dispatchers)
+        {
+            if(dispatcher != null)
+            {
+                dispatcher.shutdownNow();
+            }
+        }
+    }
+
+
+    /**
+     * @param waitUntil the System.nanoTime() to wait until
+     * @return true if all the dispatchers have terminated
+     */
+    boolean awaitTermination(long waitUntil) throws InterruptedException
+    {
+        for(ExecutorService dispatcher : dispatchers)
+        {
+            if(dispatcher != null && !dispatcher.awaitTermination(waitUntil - System.nanoTime(), TimeUnit.NANOSECONDS))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    boolean isTerminated()
+    {
+        for(ExecutorService dispatcher : dispatchers)
+        {
+            if(dispatcher != null && !dispatcher.isTerminated())
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
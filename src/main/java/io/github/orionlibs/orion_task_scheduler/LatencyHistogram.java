@@ -0,0 +1,123 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds with fixed power-of-two buckets.
+ * Bucket 0 counts the value 0 and bucket i counts the values in [2^(i-1), 2^i).
+ * Recording a value does not allocate, so it can be used on the hot path of the scheduler.
+ */
+public class LatencyHistogram
+{
+    private static final int NUMBER_OF_BUCKETS = 64;
+    private final LongAdder[] buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+
+    LatencyHistogram()
+    {
+        this.buckets = new LongAdder[NUMBER_OF_BUCKETS];
+        for(int i = 0; i < NUMBER_OF_BUCKETS; i++)
+        {
+            buckets[i] = new LongAdder();
+        }
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0L);
+    }
+
+
+    /**
+     * @param valueInNanoseconds negative values are recorded as 0
+     */
+    void record(long valueInNanoseconds)
+    {
+        long value = Math.max(valueInNanoseconds, 0L);
+        buckets[bucketIndex(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+
+    static int bucketIndex(long value)
+    {
+        return 64 - Long.numberOfLeadingZeros(value);
+    }
+
+
+    /**
+     * @param bucket
+     * @return the largest value that the given bucket counts
+     */
+    public static long getBucketUpperBound(int bucket)
+    {
+        return bucket == 0 ? 0L : (bucket == NUMBER_OF_BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1L);
+    }
+
+
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+
+    public long getMaxInNanoseconds()
+    {
+        return max.get();
+    }
+
+
+    public double getMeanInNanoseconds()
+    {
+        long numberOfValues = count.sum();
+        return numberOfValues == 0L ? 0.0d : (double)sum.sum() / numberOfValues;
+    }
+
+
+    /**
+     * @param percentile in [0, 100]
+     * @return the upper bound of the bucket that holds the given percentile, capped at the max recorded value
+     */
+    public long getPercentileInNanoseconds(double percentile)
+    {
+        long[] counts = getBucketCounts();
+        long total = 0L;
+        for(long bucketCount : counts)
+        {
+            total += bucketCount;
+        }
+        if(total == 0L)
+        {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long)Math.ceil(total * Math.min(Math.max(percentile, 0.0d), 100.0d) / 100.0d));
+        long seen = 0L;
+        for(int i = 0; i < counts.length; i++)
+        {
+            seen += counts[i];
+            if(seen >= rank)
+            {
+                return Math.min(getBucketUpperBound(i), getMaxInNanoseconds());
+            }
+        }
+        return getMaxInNanoseconds();
+    }
+
+
+    /**
+     * @return a snapshot of the count of every bucket
+     */
+    public long[] getBucketCounts()
+    {
+        long[] counts = new long[NUMBER_OF_BUCKETS];
+        for(int i = 0; i < NUMBER_OF_BUCKETS; i++)
+        {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,257 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A priority queue of deadlines that lives outside the Java heap, in slabs of direct ByteBuffers.
+ * Every entry gets a slot whose record holds its deadline, its sequence number, its position in the queue and the link
+ * of the list of free slots. The queue itself is a binary min-heap of slot numbers, also kept in direct slabs, that
+ * orders the slots by deadline and then by sequence number, so that entries with the same deadline come out in the
+ * order they went in.
+ * The caller maps a slot back to whatever it keeps on the heap for it. Slots are reused after they are removed and
+ * the slabs are never given back while the index is in use.
+ * It is not thread-safe.
+ */
+final class OffHeapDeadlineIndex
+{
+    static final int RECORD_SIZE = 24;
+    private static final int DEADLINE_OFFSET = 0;
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int HEAP_POSITION_OFFSET = 16;
+    private static final int NEXT_FREE_SLOT_OFFSET = 20;
+    private static final int NO_SLOT = -1;
+    private final int slotsPerSlab;
+    private final int slabShift;
+    private final int slabMask;
+    private ByteBuffer[] recordSlabs;
+    private ByteBuffer[] heapSlabs;
+    private int numberOfSlabs;
+    private int usedSlots;
+    private int freeSlot;
+    private int size;
+
+
+    /**
+     * @param slotsPerSlab how many records a slab holds. It is rounded up to a power of 2.
+     */
+    OffHeapDeadlineIndex(int slotsPerSlab)
+    {
+        if(slotsPerSlab <= 0 || slotsPerSlab > (1 << 24))
+        {
+            throw new IllegalArgumentException("the slots per slab have to be in (0, 2^24]");
+        }
+        this.slabShift = Integer.SIZE - Integer.numberOfLeadingZeros(slotsPerSlab - 1);
+        this.slotsPerSlab = 1 << slabShift;
+        this.slabMask = this.slotsPerSlab - 1;
+        this.recordSlabs = new ByteBuffer[4];
+        this.heapSlabs = new ByteBuffer[4];
+        this.freeSlot = NO_SLOT;
+    }
+
+
+    int size()
+    {
+        return size;
+    }
+
+
+    /**
+     * @return the bytes of direct memory that the slabs take
+     */
+    long getOffHeapBytes()
+    {
+        return (long)numberOfSlabs * slotsPerSlab * (RECORD_SIZE + Integer.BYTES);
+    }
+
+
+    /**
+     * @param deadline
+     * @param sequence
+     * @return the slot of the new entry
+     */
+    int insert(long deadline, long sequence)
+    {
+        int slot = allocateSlot();
+        ByteBuffer slab = recordSlabs[slot >>> slabShift];
+        int offset = (slot & slabMask) * RECORD_SIZE;
+        slab.putLong(offset + DEADLINE_OFFSET, deadline);
+        slab.putLong(offset + SEQUENCE_OFFSET, sequence);
+        siftUp(size++, slot);
+        return slot;
+    }
+
+
+    /**
+     * @return the slot with the earliest deadline or -1 if the index is empty
+     */
+    int peek()
+    {
+        return size > 0 ? getHeapEntry(0) : NO_SLOT;
+    }
+
+
+    /**
+     * It removes the given slot from the queue and frees it.
+     * @param slot a slot that insert() returned and that has not been removed yet
+     */
+    void remove(int slot)
+    {
+        int position = getRecordInt(slot, HEAP_POSITION_OFFSET);
+        int lastSlot = getHeapEntry(--size);
+        if(position != size)
+        {
+            siftDown(position, lastSlot);
+            if(getHeapEntry(position) == lastSlot)
+            {
+                siftUp(position, lastSlot);
+            }
+        }
+        freeSlot(slot);
+    }
+
+
+    long getDeadline(int slot)
+    {
+        return recordSlabs[slot >>> slabShift].getLong((slot & slabMask) * RECORD_SIZE + DEADLINE_OFFSET);
+    }
+
+
+    long getSequence(int slot)
+    {
+        return recordSlabs[slot >>> slabShift].getLong((slot & slabMask) * RECORD_SIZE + SEQUENCE_OFFSET);
+    }
+
+
+    /**
+     * It drops all the entries and all the slabs.
+     */
+    void clear()
+    {
+        Arrays.fill(recordSlabs, null);
+        Arrays.fill(heapSlabs, null);
+        numberOfSlabs = 0;
+        usedSlots = 0;
+        freeSlot = NO_SLOT;
+        size = 0;
+    }
+
+
+    private int allocateSlot()
+    {
+        if(freeSlot != NO_SLOT)
+        {
+            int slot = freeSlot;
+            freeSlot = getRecordInt(slot, NEXT_FREE_SLOT_OFFSET);
+            return slot;
+        }
+        if(usedSlots == numberOfSlabs * slotsPerSlab)
+        {
+            addSlab();
+        }
+        return usedSlots++;
+    }
+
+
+    private void freeSlot(int slot)
+    {
+        putRecordInt(slot, NEXT_FREE_SLOT_OFFSET, freeSlot);
+        freeSlot = slot;
+    }
+
+
+    private void addSlab()
+    {
+        if((long)(numberOfSlabs + 1) * slotsPerSlab > Integer.MAX_VALUE)
+        {
+            throw new IllegalStateException("the off-heap deadline index is full");
+        }
+        if(numberOfSlabs == recordSlabs.length)
+        {
+            recordSlabs = Arrays.copyOf(recordSlabs, numberOfSlabs * 2);
+            heapSlabs = Arrays.copyOf(heapSlabs, numberOfSlabs * 2);
+        }
+        recordSlabs[numberOfSlabs] = ByteBuffer.allocateDirect(slotsPerSlab * RECORD_SIZE).order(ByteOrder.nativeOrder());
+        heapSlabs[numberOfSlabs] = ByteBuffer.allocateDirect(slotsPerSlab * Integer.BYTES).order(ByteOrder.nativeOrder());
+        numberOfSlabs++;
+    }
+
+
+    private void siftUp(int position, int slot)
+    {
+        while(position > 0)
+        {
+            int parentPosition = (position - 1) >>> 1;
+            int parentSlot = getHeapEntry(parentPosition);
+            if(!isEarlier(slot, parentSlot))
+            {
+                break;
+            }
+            setHeapEntry(position, parentSlot);
+            position = parentPosition;
+        }
+        setHeapEntry(position, slot);
+    }
+
+
+    private void siftDown(int position, int slot)
+    {
+        int half = size >>> 1;
+        while(position < half)
+        {
+            int childPosition = (position << 1) + 1;
+            int childSlot = getHeapEntry(childPosition);
+            int rightPosition = childPosition + 1;
+            if(rightPosition < size)
+            {
+                int rightSlot = getHeapEntry(rightPosition);
+                if(isEarlier(rightSlot, childSlot))
+                {
+                    childPosition = rightPosition;
+                    childSlot = rightSlot;
+                }
+            }
+            if(!isEarlier(childSlot, slot))
+            {
+                break;
+            }
+            setHeapEntry(position, childSlot);
+            position = childPosition;
+        }
+        setHeapEntry(position, slot);
+    }
+
+
+    private boolean isEarlier(int slot, int otherSlot)
+    {
+        long deadline = getDeadline(slot);
+        long otherDeadline = getDeadline(otherSlot);
+        return deadline < otherDeadline || (deadline == otherDeadline && getSequence(slot) < getSequence(otherSlot));
+    }
+
+
+    private int getHeapEntry(int position)
+    {
+        return heapSlabs[position >>> slabShift].getInt((position & slabMask) * Integer.BYTES);
+    }
+
+
+    private void setHeapEntry(int position, int slot)
+    {
+        heapSlabs[position >>> slabShift].putInt((position & slabMask) * Integer.BYTES, slot);
+        putRecordInt(slot, HEAP_POSITION_OFFSET, position);
+    }
+
+
+    private int getRecordInt(int slot, int fieldOffset)
+    {
+        return recordSlabs[slot >>> slabShift].getInt((slot & slabMask) * RECORD_SIZE + fieldOffset);
+    }
+
+
+    private void putRecordInt(int slot, int fieldOffset, int value)
+    {
+        recordSlabs[slot >>> slabShift].putInt((slot & slabMask) * RECORD_SIZE + fieldOffset, value);
+    }
+}
@@ -0,0 +1,416 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Engine that keeps the deadlines of the pending tasks outside the Java heap, in an OffHeapDeadlineIndex.
+ * The only thing it keeps on the heap for a pending task is its OffHeapTimeout, which the index finds by slot
+ * through a single array, so a large pending set adds no linked timer nodes for the GC to trace.
+ * Scheduling and cancelling a task are O(log n). Tasks fire at their deadline, without the rounding of the timing wheel,
+ * and tasks with the same deadline fire lane by lane, CRITICAL first, and within a lane in the order they were scheduled.
+ * One timer thread waits for the earliest deadline and hands due tasks to the dispatcher, or to the dispatcher of their lane
+ * if it has one.
+ * The timer thread goes away after the keep-alive period if there is nothing pending.
+ */
+class OffHeapSchedulerEngine implements SchedulerEngine
+{
+    private static final int WORKER_IDLE = 0;
+    private static final int WORKER_STARTED = 1;
+    private static final int WORKER_TERMINATED = 2;
+    private static final int LANE_SHIFT = 56;
+    private final ReentrantLock lock;
+    private final Condition earliestDeadlineChanged;
+    private final OffHeapDeadlineIndex index;
+    private final long startTime;
+    private final long keepAliveInNanoseconds;
+    private final ThreadFactory timerThreadFactory;
+    private final ExecutorService dispatcher;
+    private final LaneDispatchers lanes;
+    private final CountDownLatch terminationLatch;
+    private OffHeapTimeout[] timeoutsBySlot;
+    private long sequence;
+    private int workerState;
+    private volatile int pendingTimeouts;
+    private volatile boolean shutdown;
+    private volatile boolean shutdownNow;
+
+
+    OffHeapSchedulerEngine(int slotsPerSlab, ExecutorService dispatcher, LaneDispatchers lanes, long keepAliveInMilliseconds)
+    {
+        this.index = new OffHeapDeadlineIndex(slotsPerSlab);
+        this.lock = new ReentrantLock();
+        this.earliestDeadlineChanged = lock.newCondition();
+        this.timeoutsBySlot = new OffHeapTimeout[Math.min(slotsPerSlab, 1024)];
+        this.keepAliveInNanoseconds = TimeUnit.MILLISECONDS.toNanos(Math.max(keepAliveInMilliseconds, 1L));
+        this.timerThreadFactory = new SchedulerThreadFactory("timer");
+        this.dispatcher = dispatcher;
+        this.lanes = lanes;
+        this.terminationLatch = new CountDownLatch(1);
+        this.startTime = System.nanoTime();
+    }
+
+
+    long currentTime()
+    {
+        return System.nanoTime() - startTime;
+    }
+
+
+    @Override
+    public long getQueuedTaskCount()
+    {
+        return pendingTimeouts;
+    }
+
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit, TaskLane lane)
+    {
+        return schedule(task, delay, unit, lane, false);
+    }
+
+
+    /**
+     * The action is run by the timer thread as soon as its deadline is reached.
+     */
+    @Override
+    public ScheduledFuture<?> scheduleOnTimer(Runnable action, long delay, TimeUnit unit)
+    {
+        return schedule(action, delay, unit, TaskLane.CRITICAL, true);
+    }
+
+
+    private ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit, TaskLane lane, boolean runsOnTimerThread)
+    {
+        if(task == null || unit == null || lane == null)
+        {
+            throw new NullPointerException();
+        }
+        OffHeapTimeout timeout = new OffHeapTimeout(this, task, lane, runsOnTimerThread);
+        long deadline = calculateDeadline(currentTime(), unit.toNanos(delay));
+        lock.lock();
+        try
+        {
+            if(shutdown)
+            {
+                throw new RejectedExecutionException("The scheduler has been shut down.");
+            }
+            enqueue(timeout, deadline);
+            startWorkerIfIdle();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        return timeout;
+    }
+
+
+    /**
+     * The whole batch goes into the index under one acquisition of the lock.
+     */
+    @Override
+    public ScheduledFuture<?>[] scheduleAll(Runnable[] tasks, long[] delaysInNanoseconds, TaskLane[] taskLanes)
+    {
+        OffHeapTimeout[] batch = new OffHeapTimeout[tasks.length];
+        for(int i = 0; i < tasks.length; i++)
+        {
+            batch[i] = new OffHeapTimeout(this, tasks[i], taskLanes[i]);
+        }
+        long now = currentTime();
+        lock.lock();
+        try
+        {
+            if(shutdown)
+            {
+                throw new RejectedExecutionException("The scheduler has been shut down.");
+            }
+            for(int i = 0; i < batch.length; i++)
+            {
+                enqueue(batch[i], calculateDeadline(now, delaysInNanoseconds[i]));
+            }
+            startWorkerIfIdle();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        return batch;
+    }
+
+
+    private static long calculateDeadline(long now, long delayInNanoseconds)
+    {
+        long deadline = now + Math.max(delayInNanoseconds, 0L);
+        return deadline < 0L ? Long.MAX_VALUE : deadline;
+    }
+
+
+    private void enqueue(OffHeapTimeout timeout, long deadline)
+    {
+        //the lane takes the top bits of the sequence number, so that equal deadlines are ordered by lane and then by sequence
+        int slot = index.insert(deadline, ((long)timeout.lane << LANE_SHIFT) | sequence++);
+        if(slot >= timeoutsBySlot.length)
+        {
+            timeoutsBySlot = Arrays.copyOf(timeoutsBySlot, Math.max(slot + 1, timeoutsBySlot.length * 2));
+        }
+        timeoutsBySlot[slot] = timeout;
+        timeout.slot = slot;
+        pendingTimeouts = index.size();
+        if(index.peek() == slot)
+        {
+            earliestDeadlineChanged.signal();
+        }
+    }
+
+
+    /**
+     * @return the slot of the removed timeout
+     */
+    private int dequeue(OffHeapTimeout timeout)
+    {
+        int slot = timeout.slot;
+        index.remove(slot);
+        timeoutsBySlot[slot] = null;
+        timeout.slot = -1;
+        pendingTimeouts = index.size();
+        return slot;
+    }
+
+
+    void onCancelled(OffHeapTimeout timeout)
+    {
+        lock.lock();
+        try
+        {
+            if(timeout.slot >= 0 && timeoutsBySlot[timeout.slot] == timeout)
+            {
+                dequeue(timeout);
+                if(shutdown)
+                {
+                    earliestDeadlineChanged.signal();
+                }
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    long getRemainingDelayInNanoseconds(OffHeapTimeout timeout)
+    {
+        lock.lock();
+        try
+        {
+            if(timeout.slot >= 0 && timeoutsBySlot[timeout.slot] == timeout)
+            {
+                return index.getDeadline(timeout.slot) - currentTime();
+            }
+            return 0L;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    private void startWorkerIfIdle()
+    {
+        if(workerState == WORKER_IDLE)
+        {
+            workerState = WORKER_STARTED;
+            timerThreadFactory.newThread(this::runWorker).start();
+        }
+    }
+
+
+    private void runWorker()
+    {
+        while(true)
+        {
+            OffHeapTimeout dueTimeout;
+            lock.lock();
+            try
+            {
+                dueTimeout = awaitDueTimeout();
+                if(dueTimeout == null)
+                {
+                    if(workerState == WORKER_IDLE)
+                    {
+                        return;
+                    }
+                    break;
+                }
+            }
+            finally
+            {
+                lock.unlock();
+            }
+            if(dueTimeout.runsOnTimerThread)
+            {
+                dueTimeout.run();
+                continue;
+            }
+            ExecutorService laneDispatcher = lanes.get(dueTimeout.lane);
+            try
+            {
+                (laneDispatcher != null ? laneDispatcher : dispatcher).execute(dueTimeout);
+            }
+            catch(RejectedExecutionException e)
+            {
+                dueTimeout.cancel(false);
+            }
+        }
+        dispatcher.shutdown();
+        lanes.shutdown();
+        terminationLatch.countDown();
+    }
+
+
+    /**
+     * Called by the timer thread under the lock.
+     * @return the next task to dispatch, or null if the timer thread should exit, in which case the worker state says whether
+     * it went idle or the engine has terminated
+     */
+    private OffHeapTimeout awaitDueTimeout()
+    {
+        while(true)
+        {
+            if(shutdownNow)
+            {
+                cancelAllTimeouts();
+                workerState = WORKER_TERMINATED;
+                return null;
+            }
+            int slot = index.peek();
+            if(slot < 0)
+            {
+                if(shutdown)
+                {
+                    index.clear();
+                    workerState = WORKER_TERMINATED;
+                    return null;
+                }
+                if(awaitNanos(keepAliveInNanoseconds) <= 0L && index.size() == 0 && !shutdown)
+                {
+                    workerState = WORKER_IDLE;
+                    return null;
+                }
+                continue;
+            }
+            long delay = index.getDeadline(slot) - currentTime();
+            if(delay > 0L)
+            {
+                awaitNanos(delay);
+                continue;
+            }
+            OffHeapTimeout timeout = timeoutsBySlot[slot];
+            dequeue(timeout);
+            if(timeout.expire())
+            {
+                return timeout;
+            }
+        }
+    }
+
+
+    private long awaitNanos(long nanoseconds)
+    {
+        try
+        {
+            return earliestDeadlineChanged.awaitNanos(nanoseconds);
+        }
+        catch(InterruptedException e)
+        {
+            //only shutdownNow() matters to the timer thread and it is checked in the loop
+            return 1L;
+        }
+    }
+
+
+    private void cancelAllTimeouts()
+    {
+        int slot;
+        while((slot = index.peek()) >= 0)
+        {
+            OffHeapTimeout timeout = timeoutsBySlot[slot];
+            dequeue(timeout);
+            timeout.cancel(false);
+        }
+        index.clear();
+    }
+
+
+    @Override
+    public void shutdown()
+    {
+        lock.lock();
+        try
+        {
+            shutdown = true;
+            startWorkerIfIdle();
+            earliestDeadlineChanged.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    @Override
+    public void shutdownNow()
+    {
+        dispatcher.shutdownNow();
+        lanes.shutdownNow();
+        lock.lock();
+        try
+        {
+            shutdown = true;
+            shutdownNow = true;
+            startWorkerIfIdle();
+            earliestDeadlineChanged.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long waitUntil = System.nanoTime() + unit.toNanos(timeout);
+        if(!terminationLatch.await(timeout, unit))
+        {
+            return false;
+        }
+        return dispatcher.awaitTermination(waitUntil - System.nanoTime(), TimeUnit.NANOSECONDS) && lanes.awaitTermination(waitUntil);
+    }
+
+
+    @Override
+    public boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+
+    @Override
+    public boolean isTerminated()
+    {
+        return terminationLatch.getCount() == 0L && dispatcher.isTerminated() && lanes.isTerminated();
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pending task of the OffHeapSchedulerEngine.
+ * Its deadline lives in the off-heap index of the engine, so besides the task it only holds its slot there and
+ * its state. It has no links to other pending tasks for the GC to follow.
+ */
+class OffHeapTimeout extends EngineTimeout
+{
+    private final OffHeapSchedulerEngine engine;
+    /**
+     * the slot in the off-heap index. It is only read and written under the lock of the engine.
+     */
+    int slot;
+
+
+    OffHeapTimeout(OffHeapSchedulerEngine engine, Runnable task, TaskLane lane)
+    {
+        this(engine, task, lane, false);
+    }
+
+
+    OffHeapTimeout(OffHeapSchedulerEngine engine, Runnable task, TaskLane lane, boolean runsOnTimerThread)
+    {
+        super(task, lane, runsOnTimerThread);
+        this.engine = engine;
+        this.slot = -1;
+    }
+
+
+    @Override
+    void onCancelled()
+    {
+        engine.onCancelled(this);
+    }
+
+
+    /**
+     * Once the task has left the off-heap index the delay is 0.
+     */
+    @Override
+    public long getDelay(TimeUnit unit)
+    {
+        return unit.convert(engine.getRemainingDelayInNanoseconds(this), TimeUnit.NANOSECONDS);
+    }
+}
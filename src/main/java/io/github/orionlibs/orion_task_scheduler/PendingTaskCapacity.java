@@ -0,0 +1,118 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import io.github.orionlibs.orion_task_scheduler.config.ConfigurationService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The number of tasks a service may hold before they execute, as permits of a semaphore.
+ * A task takes a permit before it enters the registry and gives it back when it leaves the registry.
+ * A maximum of 0 or less means that the capacity is unbounded and then no permits are kept at all.
+ */
+class PendingTaskCapacity
+{
+    static final String MAX_PENDING_TASKS = "orionlibs.orion_task_scheduler.pending.max.tasks";
+    static final String BACKPRESSURE_POLICY = "orionlibs.orion_task_scheduler.pending.backpressure.policy";
+    static final String BLOCK_TIMEOUT_IN_MILLISECONDS = "orionlibs.orion_task_scheduler.pending.block.timeout.ms";
+
+
+    /**
+     * What happens to a new task when the capacity is full.
+     */
+    enum BackpressurePolicy
+    {
+        /** the new task is rejected with a RejectedExecutionException */
+        REJECT,
+        /** the caller waits for capacity up to the block timeout and the new task is rejected after that */
+        BLOCK,
+        /** the task that was scheduled first is cancelled to make room for the new task */
+        DROP_OLDEST,
+        /** the new task is dropped without being scheduled */
+        DROP_NEWEST
+    }
+
+
+    private final int maxPendingTasks;
+    private final BackpressurePolicy policy;
+    private final long blockTimeoutInNanoseconds;
+    private final Semaphore permits;
+
+
+    PendingTaskCapacity(int maxPendingTasks, BackpressurePolicy policy, long blockTimeoutInMilliseconds)
+    {
+        this.maxPendingTasks = maxPendingTasks;
+        this.policy = policy;
+        this.blockTimeoutInNanoseconds = TimeUnit.MILLISECONDS.toNanos(Math.max(blockTimeoutInMilliseconds, 0L));
+        this.permits = maxPendingTasks > 0 ? new Semaphore(maxPendingTasks) : null;
+    }
+
+
+    static PendingTaskCapacity buildPendingTaskCapacity(ConfigurationService config)
+    {
+        String policy = config.getProp(BACKPRESSURE_POLICY);
+        BackpressurePolicy backpressurePolicy;
+        try
+        {
+            backpressurePolicy = policy == null || policy.isBlank() ? BackpressurePolicy.REJECT : BackpressurePolicy.valueOf(policy.trim().toUpperCase());
+        }
+        catch(IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("Unknown backpressure policy: " + policy);
+        }
+        return new PendingTaskCapacity(config.getIntegerProp(MAX_PENDING_TASKS), backpressurePolicy, config.getLongProp(BLOCK_TIMEOUT_IN_MILLISECONDS));
+    }
+
+
+    boolean isBounded()
+    {
+        return permits != null;
+    }
+
+
+    int getMaxPendingTasks()
+    {
+        return maxPendingTasks;
+    }
+
+
+    BackpressurePolicy getPolicy()
+    {
+        return policy;
+    }
+
+
+    long getBlockTimeoutInNanoseconds()
+    {
+        return blockTimeoutInNanoseconds;
+    }
+
+
+    boolean tryAcquire(int numberOfTasks)
+    {
+        return permits == null || permits.tryAcquire(numberOfTasks);
+    }
+
+
+    boolean tryAcquire(int numberOfTasks, long timeoutInNanoseconds) throws InterruptedException
+    {
+        return permits == null || permits.tryAcquire(numberOfTasks, timeoutInNanoseconds, TimeUnit.NANOSECONDS);
+    }
+
+
+    void release(int numberOfTasks)
+    {
+        if(permits != null && numberOfTasks > 0)
+        {
+            permits.release(numberOfTasks);
+        }
+    }
+
+
+    /**
+     * @return how many more tasks fit, or Integer.MAX_VALUE if the capacity is unbounded
+     */
+    int getRemainingCapacity()
+    {
+        return permits != null ? permits.availablePermits() : Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+/**
+ * A pending task as it was read back from the journal.
+ * @param taskID
+ * @param dueAtEpochMilliseconds when the task should fire in wall-clock time
+ * @param numberOfRetriesOnError
+ * @param handlerName the name of the TaskHandler that runs the task
+ * @param payload nullable
+ */
+record PersistedTask(String taskID, long dueAtEpochMilliseconds, int numberOfRetriesOnError, String handlerName, byte[] payload)
+{
+}
@@ -0,0 +1,277 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import io.github.orionlibs.orion_task_scheduler.config.ConfigurationService;
+import io.github.orionlibs.orion_task_scheduler.config.ConfigurationSnapshot;
+import io.github.orionlibs.orion_task_scheduler.config.OrionConfiguration;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Logger;
+
+/**
+ * Service that schedules tasks to be executed repeatedly, at a fixed rate, with a fixed delay or on a cron expression.
+ * Every task keeps one RecurringTask and one wrapper for all of its cycles; after every run the wrapper is put
+ * back into the engine, so a cycle allocates neither a task record nor a registry entry.
+ * The engine, the thread pool and the feature flags are configured exactly like those of SingleExecutionScheduleService.
+ * Call shutdown() when the service is no longer needed.
+ */
+public class RecurringScheduleService
+{
+    private Logger log;
+    private ConcurrentMap<String, RecurringTaskWrapper> recurringTasksToWrappersMapper;
+    private ConcurrentMap<String, RecurringTask> recurringTasks;
+    private ConfigurationService config;
+    private SchedulerEngine engine;
+    private SchedulerMetrics metrics;
+
+
+    public RecurringScheduleService() throws IOException
+    {
+        this(null);
+    }
+
+
+    /**
+     * @param customConfig config that overrides the default config of the features. It can be null.
+     * @throws IOException if the default config cannot be loaded
+     */
+    public RecurringScheduleService(Properties customConfig) throws IOException
+    {
+        log = Logger.getLogger(RecurringScheduleService.class.getName());
+        this.config = new ConfigurationService();
+        config.registerConfiguration(OrionConfiguration.loadFeatureConfiguration(customConfig));
+        this.recurringTasksToWrappersMapper = new ConcurrentHashMap<>();
+        this.recurringTasks = new ConcurrentHashMap<>();
+        this.metrics = new SchedulerMetrics(() -> recurringTasks.size());
+        this.engine = SchedulerEngineFactory.buildSchedulerEngine(config);
+    }
+
+
+    void addLogHandler(Handler handler)
+    {
+        log.addHandler(handler);
+    }
+
+
+    void removeLogHandler(Handler handler)
+    {
+        log.removeHandler(handler);
+    }
+
+
+    /**
+     * Schedules a task to execute repeatedly until it is cancelled.
+     * The given RecurringTask object will have a value for the task field which
+     * will be the ScheduledFuture of its next run.
+     * @param taskToSchedule
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the scheduler has been shut down.
+     * @throws InvalidArgumentException if the taskToSchedule argument has invalid values, if a task with the same taskID
+     * is already scheduled or if its cron expression never fires.
+     */
+    public void schedule(RecurringTask taskToSchedule) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        if(config.getSnapshot().isSchedulerEnabled())
+        {
+            taskToSchedule.validate();
+            RecurringTaskWrapper taskWrapper = new RecurringTaskWrapper(taskToSchedule, this);
+            long initialDelay = taskWrapper.calculateInitialDelay();
+            if(initialDelay < 0L)
+            {
+                throw new InvalidArgumentException("the trigger of task %s never fires.", taskToSchedule.getTaskID());
+            }
+            if(recurringTasksToWrappersMapper.putIfAbsent(taskToSchedule.getTaskID(), taskWrapper) != null)
+            {
+                throw new InvalidArgumentException("taskID %s is already scheduled.", taskToSchedule.getTaskID());
+            }
+            recurringTasks.put(taskToSchedule.getTaskID(), taskToSchedule);
+            try
+            {
+                taskToSchedule.setTask(scheduleCycle(taskWrapper, initialDelay));
+            }
+            catch(RejectedExecutionException e)
+            {
+                onTaskFinished(taskToSchedule, taskWrapper);
+                throw e;
+            }
+            metrics.recordScheduled(1);
+            log.info("schedule started");
+        }
+        else
+        {
+            throw new FeatureIsDisabledException();
+        }
+    }
+
+
+    /**
+     * It cancels the given recurring task, so that it does not execute again.
+     * @param taskToCancel
+     * @return true if the task was cancelled
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     * @throws TaskDoesNotExistException if the taskToCancel does not exist in the scheduler.
+     */
+    public boolean cancel(String taskToCancel) throws FeatureIsDisabledException, TaskDoesNotExistException
+    {
+        ConfigurationSnapshot snapshot = config.getSnapshot();
+        if(snapshot.isSchedulerEnabled() && snapshot.isCancellationEnabled())
+        {
+            RecurringTaskWrapper taskWrapper = recurringTasksToWrappersMapper.get(taskToCancel);
+            if(taskWrapper != null)
+            {
+                RecurringTask task = taskWrapper.getRecurringTask();
+                boolean wasTaskCancelled = taskWrapper.cancel();
+                if(wasTaskCancelled)
+                {
+                    onTaskFinished(task, taskWrapper);
+                    metrics.recordCancelled(1);
+                    if(task.getCallbackAfterTaskIsCancelled() != null)
+                    {
+                        task.getCallbackAfterTaskIsCancelled().run();
+                    }
+                }
+                return wasTaskCancelled;
+            }
+            else
+            {
+                throw new TaskDoesNotExistException();
+            }
+        }
+        else
+        {
+            throw new FeatureIsDisabledException();
+        }
+    }
+
+
+    ScheduledFuture<?> scheduleCycle(RecurringTaskWrapper taskWrapper, long delayInNanoseconds)
+    {
+        return engine.schedule(taskWrapper, delayInNanoseconds, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Called when a task will not execute again, because it was cancelled, its trigger has no more fire times
+     * or the scheduler has been shut down.
+     */
+    void onTaskFinished(RecurringTask task, RecurringTaskWrapper taskWrapper)
+    {
+        if(recurringTasksToWrappersMapper.remove(task.getTaskID(), taskWrapper))
+        {
+            recurringTasks.remove(task.getTaskID(), task);
+        }
+    }
+
+
+    /**
+     * It stops accepting new tasks. Every recurring task still executes the run that is already scheduled and then stops.
+     */
+    public void shutdown()
+    {
+        engine.shutdown();
+    }
+
+
+    /**
+     * It stops accepting new tasks and cancels the next runs of all the recurring tasks.
+     * @return the tasks that were cancelled
+     */
+    public List<RecurringTask> shutdownNow()
+    {
+        engine.shutdownNow();
+        List<RecurringTask> cancelledTasks = new ArrayList<>();
+        for(Map.Entry<String, RecurringTaskWrapper> entry : recurringTasksToWrappersMapper.entrySet())
+        {
+            RecurringTask task = entry.getValue().getRecurringTask();
+            if(entry.getValue().cancel())
+            {
+                onTaskFinished(task, entry.getValue());
+                cancelledTasks.add(task);
+            }
+        }
+        metrics.recordCancelled(cancelledTasks.size());
+        return cancelledTasks;
+    }
+
+
+    /**
+     * It blocks until all tasks have executed after a shutdown request, or the timeout occurs,
+     * or the current thread is interrupted, whichever happens first.
+     * @param timeout
+     * @param unit
+     * @return true if the scheduler terminated and false if the timeout elapsed before termination
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        return engine.awaitTermination(timeout, unit);
+    }
+
+
+    /**
+     * @return true if this scheduler has been shut down
+     */
+    public boolean isShutdown()
+    {
+        return engine.isShutdown();
+    }
+
+
+    /**
+     * @return true if this scheduler has been shut down and all its tasks have completed
+     */
+    public boolean isTerminated()
+    {
+        return engine.isTerminated();
+    }
+
+
+    /**
+     * It returns a read-only mapping of taskIDs to the RecurringTask objects that are still scheduled
+     * @return
+     */
+    public Map<String, RecurringTask> getRecurringTasks()
+    {
+        return Collections.unmodifiableMap(recurringTasks);
+    }
+
+
+    /**
+     * It returns the RecurringTask that corresponds to the provided taskID.
+     * @param taskID
+     * @return
+     */
+    public RecurringTask getRecurringTaskByID(String taskID)
+    {
+        return recurringTasks.get(taskID);
+    }
+
+
+    /**
+     * It returns the metrics of this instance of the service.
+     * @return
+     */
+    public SchedulerMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+
+    /**
+     * It returns the config of this instance of the service.
+     * @return
+     */
+    public ConfigurationService getConfig()
+    {
+        return config;
+    }
+}
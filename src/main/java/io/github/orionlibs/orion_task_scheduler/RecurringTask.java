@@ -0,0 +1,60 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.ScheduledFuture;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ *  A class that holds information about a task that executes repeatedly.
+ *  The mandatory fields that have to be set in order to schedule a task are:
+ *  taskID (String), taskToSchedule (Runnable), trigger (Trigger).
+ *  <br>
+ *  The same RecurringTask is used for every cycle and its task field is the ScheduledFuture of the next run.
+ *  A run that throws an exception does not stop the next cycles.
+ *  <br>
+ *  If you want after the cancellation of this task to have another Runnable to be called then
+ *  set also the callbackAfterTaskIsCancelled (Runnable) field.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class RecurringTask
+{
+    private String taskID;
+    private Runnable taskToSchedule;
+    private Trigger trigger;
+    private volatile ScheduledFuture<?> task;
+    private Runnable callbackAfterTaskIsCancelled;
+
+
+    /**
+     * It validates the mandatory inputs.
+     * @return
+     * @throws InvalidArgumentException
+     */
+    public boolean validate() throws InvalidArgumentException
+    {
+        if(taskID == null || taskID.isEmpty())
+        {
+            throw new InvalidArgumentException("taskID cannot be null/empty.");
+        }
+        if(taskToSchedule == null)
+        {
+            throw new InvalidArgumentException("taskToSchedule cannot be null.");
+        }
+        if(trigger == null)
+        {
+            throw new InvalidArgumentException("trigger cannot be null.");
+        }
+        if(trigger.getKind() != Trigger.Kind.CRON && trigger.getPeriodInNanoseconds() <= 0L)
+        {
+            throw new InvalidArgumentException("the period of the trigger must be positive.");
+        }
+        return true;
+    }
+}
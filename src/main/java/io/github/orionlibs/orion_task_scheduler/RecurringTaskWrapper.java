@@ -0,0 +1,159 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a RecurringTask and puts itself back into the engine for the next cycle.
+ * One wrapper serves every cycle of its task.
+ */
+class RecurringTaskWrapper implements Runnable
+{
+    private static final Logger log = Logger.getLogger(RecurringTaskWrapper.class.getName());
+    private final RecurringTask recurringTask;
+    private final Trigger trigger;
+    private final RecurringScheduleService recurringScheduleService;
+    private final AtomicBoolean isCancelled;
+    private long plannedFireTime;
+    private long plannedCronFireTimeInEpochMilliseconds;
+
+
+    RecurringTaskWrapper(RecurringTask recurringTask, RecurringScheduleService recurringScheduleService)
+    {
+        this.recurringTask = recurringTask;
+        this.trigger = recurringTask.getTrigger();
+        this.recurringScheduleService = recurringScheduleService;
+        this.isCancelled = new AtomicBoolean();
+    }
+
+
+    RecurringTask getRecurringTask()
+    {
+        return recurringTask;
+    }
+
+
+    /**
+     * @return the delay until the first run in nanoseconds or -1 if the task never fires
+     */
+    long calculateInitialDelay()
+    {
+        long now = System.nanoTime();
+        if(trigger.getKind() == Trigger.Kind.CRON)
+        {
+            return calculateCronDelay(System.currentTimeMillis(), now);
+        }
+        plannedFireTime = now + trigger.getInitialDelayInNanoseconds();
+        return trigger.getInitialDelayInNanoseconds();
+    }
+
+
+    @Override
+    public void run()
+    {
+        if(isCancelled.get())
+        {
+            return;
+        }
+        SchedulerMetrics metrics = recurringScheduleService.getMetrics();
+        long startTime = System.nanoTime();
+        metrics.recordFired(startTime - plannedFireTime);
+        try
+        {
+            recurringTask.getTaskToSchedule().run();
+        }
+        catch(Exception e)
+        {
+            metrics.recordFailed();
+            log.log(Level.WARNING, "recurring task " + recurringTask.getTaskID() + " failed", e);
+        }
+        finally
+        {
+            metrics.recordDuration(System.nanoTime() - startTime);
+        }
+        scheduleNextCycle();
+    }
+
+
+    private void scheduleNextCycle()
+    {
+        long now = System.nanoTime();
+        long delay;
+        switch(trigger.getKind())
+        {
+            case FIXED_RATE:
+                long period = trigger.getPeriodInNanoseconds();
+                plannedFireTime += period;
+                if(plannedFireTime - now < 0L)
+                {
+                    plannedFireTime += ((now - plannedFireTime) / period + 1L) * period;
+                }
+                delay = plannedFireTime - now;
+                break;
+            case FIXED_DELAY:
+                delay = trigger.getPeriodInNanoseconds();
+                plannedFireTime = now + delay;
+                break;
+            default:
+                delay = calculateCronDelay(Math.max(System.currentTimeMillis(), plannedCronFireTimeInEpochMilliseconds), now);
+        }
+        if(delay < 0L)
+        {
+            recurringScheduleService.onTaskFinished(recurringTask, this);
+            return;
+        }
+        if(isCancelled.get())
+        {
+            return;
+        }
+        try
+        {
+            ScheduledFuture<?> nextRun = recurringScheduleService.scheduleCycle(this, delay);
+            recurringTask.setTask(nextRun);
+            if(isCancelled.get())
+            {
+                nextRun.cancel(false);
+            }
+        }
+        catch(RejectedExecutionException e)
+        {
+            recurringScheduleService.onTaskFinished(recurringTask, this);
+        }
+    }
+
+
+    private long calculateCronDelay(long afterEpochMilliseconds, long now)
+    {
+        long nextFireTime = trigger.getCronExpression().nextFireTimeInEpochMilliseconds(afterEpochMilliseconds);
+        if(nextFireTime < 0L)
+        {
+            return -1L;
+        }
+        plannedCronFireTimeInEpochMilliseconds = nextFireTime;
+        long delay = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, nextFireTime - System.currentTimeMillis()));
+        plannedFireTime = now + delay;
+        return delay;
+    }
+
+
+    /**
+     * @return true if this call cancelled the task and false if it had already been cancelled
+     */
+    boolean cancel()
+    {
+        if(!isCancelled.compareAndSet(false, true))
+        {
+            return false;
+        }
+        ScheduledFuture<?> nextRun = recurringTask.getTask();
+        if(nextRun != null)
+        {
+            nextRun.cancel(true);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long a failed task waits before its next attempt.
+ * The number of attempts is still set by the numberOfRetriesOnError field of the ScheduledTask.
+ * <br>
+ * fixed: every retry waits the same delay.
+ * <br>
+ * exponential: the delay is multiplied after every retry, up to maxDelay.
+ * <br>
+ * decorrelatedJitter: every delay is random between baseDelay and 3 times the previous delay, up to maxDelay.
+ * Tasks that failed together, e.g. because a downstream service was down, spread out instead of retrying in lockstep.
+ * <br>
+ * withMaxElapsed() stops retrying once the next attempt would start later than the given time after the first attempt.
+ * Negative delays are treated as 0.
+ */
+public final class RetryPolicy
+{
+    private enum Backoff
+    {
+        FIXED, EXPONENTIAL, DECORRELATED_JITTER
+    }
+
+    private final Backoff backoff;
+    private final long baseDelayInNanoseconds;
+    private final long maxDelayInNanoseconds;
+    private final double multiplier;
+    private final long maxElapsedInNanoseconds;
+
+
+    private RetryPolicy(Backoff backoff, long baseDelayInNanoseconds, long maxDelayInNanoseconds, double multiplier, long maxElapsedInNanoseconds)
+    {
+        this.backoff = backoff;
+        this.baseDelayInNanoseconds = Math.max(0L, baseDelayInNanoseconds);
+        this.maxDelayInNanoseconds = Math.max(this.baseDelayInNanoseconds, maxDelayInNanoseconds);
+        this.multiplier = Math.max(1.0d, multiplier);
+        this.maxElapsedInNanoseconds = maxElapsedInNanoseconds;
+    }
+
+
+    public static RetryPolicy fixed(long delay, TimeUnit unit)
+    {
+        long delayInNanoseconds = unit.toNanos(delay);
+        return new RetryPolicy(Backoff.FIXED, delayInNanoseconds, delayInNanoseconds, 1.0d, Long.MAX_VALUE);
+    }
+
+
+    public static RetryPolicy exponential(long initialDelay, double multiplier, long maxDelay, TimeUnit unit)
+    {
+        return new RetryPolicy(Backoff.EXPONENTIAL, unit.toNanos(initialDelay), unit.toNanos(maxDelay), multiplier, Long.MAX_VALUE);
+    }
+
+
+    public static RetryPolicy decorrelatedJitter(long baseDelay, long maxDelay, TimeUnit unit)
+    {
+        return new RetryPolicy(Backoff.DECORRELATED_JITTER, unit.toNanos(baseDelay), unit.toNanos(maxDelay), 3.0d, Long.MAX_VALUE);
+    }
+
+
+    /**
+     * @param maxElapsed
+     * @param unit
+     * @return a copy of this policy that does not retry later than maxElapsed after the first attempt
+     */
+    public RetryPolicy withMaxElapsed(long maxElapsed, TimeUnit unit)
+    {
+        return new RetryPolicy(backoff, baseDelayInNanoseconds, maxDelayInNanoseconds, multiplier, Math.max(0L, unit.toNanos(maxElapsed)));
+    }
+
+
+    /**
+     * @param retryNumber 1 for the first retry
+     * @param previousDelayInNanoseconds the delay before the previous retry, or 0 before the first retry
+     * @return the delay before the given retry
+     */
+    long nextDelayInNanoseconds(int retryNumber, long previousDelayInNanoseconds)
+    {
+        switch(backoff)
+        {
+            case EXPONENTIAL:
+                if(retryNumber <= 1)
+                {
+                    return baseDelayInNanoseconds;
+                }
+                return (long)Math.min(maxDelayInNanoseconds, previousDelayInNanoseconds * multiplier);
+            case DECORRELATED_JITTER:
+                long previousDelay = Math.max(baseDelayInNanoseconds, previousDelayInNanoseconds);
+                long upperBound = (long)Math.min(maxDelayInNanoseconds, previousDelay * multiplier);
+                if(upperBound <= baseDelayInNanoseconds)
+                {
+                    return baseDelayInNanoseconds;
+                }
+                return ThreadLocalRandom.current().nextLong(baseDelayInNanoseconds, upperBound + 1L);
+            default:
+                return baseDelayInNanoseconds;
+        }
+    }
+
+
+    /**
+     * @param elapsedInNanoseconds the time from the first attempt until now
+     * @param delayInNanoseconds the delay before the next attempt
+     * @return true if the next attempt starts within the max elapsed time
+     */
+    boolean allowsRetry(long elapsedInNanoseconds, long delayInNanoseconds)
+    {
+        return elapsedInNanoseconds <= maxElapsedInNanoseconds - delayInNanoseconds;
+    }
+}
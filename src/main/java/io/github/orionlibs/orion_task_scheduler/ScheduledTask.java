@@ -1,8 +1,9 @@
 package io.github.orionlibs.orion_task_scheduler;
 
+import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -16,15 +17,46 @@ import lombok.Setter;
  *  If you want after the execution of this task to have another Runnable to be called then
  *  set also the callbackAfterTaskCompletes (Runnable) field.
  *  <br>
+ *  If you want the result or the exception of the task, leave taskToSchedule null and schedule a Callable with
+ *  SingleExecutionScheduleService.schedule(ScheduledTask, Callable, Executor), which returns a CompletableFuture.
+ *  <br>
  *  If you want after the cancellation of this task to have another Runnable to be called then
  *  set also the callbackAfterTaskIsCancelled (Runnable) field.
  *  <br>
  *  If the execution fails and you want it to retry for N times then
- *  set also the numberOfRetriesOnError (int) field.
+ *  set also the numberOfRetriesOnError (int) field. By default every retry waits the same delay as the task.
+ *  Set the retryPolicy (RetryPolicy) field for fixed, exponential or jittered backoff between the retries.
+ *  <br>
+ *  If the task may run a little earlier or later than its delay, set also the coalescingToleranceInMilliseconds (Long)
+ *  field, e.g. 5 for ±5 ms. Tasks whose windows overlap are then dispatched together on one wakeup.
+ *  When it is null the orionlibs.orion_task_scheduler.coalescing.tolerance.ms config applies and 0 turns coalescing off.
+ *  <br>
+ *  If an execution of the task must not run longer than a given time, set also the executionTimeoutInMilliseconds (Long)
+ *  field. An execution that exceeds it is interrupted and counts as a failed attempt for the retries.
+ *  When it is null the orionlibs.orion_task_scheduler.execution.timeout.ms config applies and 0 turns the timeout off.
+ *  <br>
+ *  If the task is latency-critical or bulk work, set also the lane (TaskLane) field. When it is null the task goes
+ *  to the NORMAL lane. The lanes can have workers of their own and among the tasks that are due together,
+ *  CRITICAL tasks are dispatched first.
+ *  <br>
+ *  If the task calls a rate-limited downstream, set also the rateLimitGroup (String) field to a group whose limit has
+ *  been set with SingleExecutionScheduleService.setRateLimit(). A task that becomes due while its group is over the limit
+ *  waits in the scheduler for a token instead of running. When it is null, or its group has no limit, it is not throttled.
+ *  <br>
+ *  Once the task is scheduled, the handle (long) field identifies it. Cancelling by handle is cheaper than by taskID.
+ *  Its deadline can be moved with SingleExecutionScheduleService.reschedule() or extend() without cancelling it.
+ *  <br>
+ *  If you want to cancel a group of tasks together, e.g. all the tasks of a tenant, then
+ *  set also the tags (Set of String) field and call cancelByTag().
+ *  <br>
+ *  Instead of the taskToSchedule field you can set the handlerName (String) of a TaskHandler that has been
+ *  registered with the service and an optional payload (byte[]). Such a task is written to the journal
+ *  when persistence is enabled and it is scheduled again after a restart.
+ *  <br>
+ *  The fields that most tasks leave unset are kept in an extension object that is only created when one of them is set,
+ *  so that a plain pending task does not pay for them.
  */
 @NoArgsConstructor
-@AllArgsConstructor
-@Builder
 @Getter
 @Setter
 public class ScheduledTask
@@ -34,9 +66,194 @@ public class ScheduledTask
     private long delay;
     private TimeUnit unit;
     private ScheduledFuture<?> task;
-    private Runnable callbackAfterTaskCompletes;
-    private Runnable callbackAfterTaskIsCancelled;
     private int numberOfRetriesOnError;
+    private TaskLane lane;
+    @Setter(AccessLevel.PACKAGE)
+    private long handle;
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private TaskWrapper.ScheduledRunnable taskWrapper;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Extension extension;
+
+
+    @Builder
+    public ScheduledTask(String taskID, Runnable taskToSchedule, long delay, TimeUnit unit, ScheduledFuture<?> task,
+                    Runnable callbackAfterTaskCompletes, Runnable callbackAfterTaskIsCancelled, int numberOfRetriesOnError,
+                    RetryPolicy retryPolicy, String handlerName, byte[] payload, Set<String> tags,
+                    Long coalescingToleranceInMilliseconds, Long executionTimeoutInMilliseconds, TaskLane lane,
+                    String rateLimitGroup)
+    {
+        this.taskID = taskID;
+        this.taskToSchedule = taskToSchedule;
+        this.delay = delay;
+        this.unit = unit;
+        this.task = task;
+        this.numberOfRetriesOnError = numberOfRetriesOnError;
+        this.lane = lane;
+        if(callbackAfterTaskCompletes != null || callbackAfterTaskIsCancelled != null || retryPolicy != null || handlerName != null
+                        || payload != null || tags != null || coalescingToleranceInMilliseconds != null
+                        || executionTimeoutInMilliseconds != null || rateLimitGroup != null)
+        {
+            Extension builtExtension = new Extension();
+            builtExtension.callbackAfterTaskCompletes = callbackAfterTaskCompletes;
+            builtExtension.callbackAfterTaskIsCancelled = callbackAfterTaskIsCancelled;
+            builtExtension.retryPolicy = retryPolicy;
+            builtExtension.handlerName = handlerName;
+            builtExtension.payload = payload;
+            builtExtension.tags = tags;
+            builtExtension.coalescingToleranceInMilliseconds = coalescingToleranceInMilliseconds;
+            builtExtension.executionTimeoutInMilliseconds = executionTimeoutInMilliseconds;
+            builtExtension.rateLimitGroup = rateLimitGroup;
+            this.extension = builtExtension;
+        }
+    }
+
+
+    private Extension extension()
+    {
+        if(extension == null)
+        {
+            extension = new Extension();
+        }
+        return extension;
+    }
+
+
+    public Runnable getCallbackAfterTaskCompletes()
+    {
+        return extension != null ? extension.callbackAfterTaskCompletes : null;
+    }
+
+
+    public void setCallbackAfterTaskCompletes(Runnable callbackAfterTaskCompletes)
+    {
+        if(callbackAfterTaskCompletes != null || extension != null)
+        {
+            extension().callbackAfterTaskCompletes = callbackAfterTaskCompletes;
+        }
+    }
+
+
+    public Runnable getCallbackAfterTaskIsCancelled()
+    {
+        return extension != null ? extension.callbackAfterTaskIsCancelled : null;
+    }
+
+
+    public void setCallbackAfterTaskIsCancelled(Runnable callbackAfterTaskIsCancelled)
+    {
+        if(callbackAfterTaskIsCancelled != null || extension != null)
+        {
+            extension().callbackAfterTaskIsCancelled = callbackAfterTaskIsCancelled;
+        }
+    }
+
+
+    public RetryPolicy getRetryPolicy()
+    {
+        return extension != null ? extension.retryPolicy : null;
+    }
+
+
+    public void setRetryPolicy(RetryPolicy retryPolicy)
+    {
+        if(retryPolicy != null || extension != null)
+        {
+            extension().retryPolicy = retryPolicy;
+        }
+    }
+
+
+    public String getHandlerName()
+    {
+        return extension != null ? extension.handlerName : null;
+    }
+
+
+    public void setHandlerName(String handlerName)
+    {
+        if(handlerName != null || extension != null)
+        {
+            extension().handlerName = handlerName;
+        }
+    }
+
+
+    public byte[] getPayload()
+    {
+        return extension != null ? extension.payload : null;
+    }
+
+
+    public void setPayload(byte[] payload)
+    {
+        if(payload != null || extension != null)
+        {
+            extension().payload = payload;
+        }
+    }
+
+
+    public Set<String> getTags()
+    {
+        return extension != null ? extension.tags : null;
+    }
+
+
+    public void setTags(Set<String> tags)
+    {
+        if(tags != null || extension != null)
+        {
+            extension().tags = tags;
+        }
+    }
+
+
+    public Long getCoalescingToleranceInMilliseconds()
+    {
+        return extension != null ? extension.coalescingToleranceInMilliseconds : null;
+    }
+
+
+    public void setCoalescingToleranceInMilliseconds(Long coalescingToleranceInMilliseconds)
+    {
+        if(coalescingToleranceInMilliseconds != null || extension != null)
+        {
+            extension().coalescingToleranceInMilliseconds = coalescingToleranceInMilliseconds;
+        }
+    }
+
+
+    public Long getExecutionTimeoutInMilliseconds()
+    {
+        return extension != null ? extension.executionTimeoutInMilliseconds : null;
+    }
+
+
+    public void setExecutionTimeoutInMilliseconds(Long executionTimeoutInMilliseconds)
+    {
+        if(executionTimeoutInMilliseconds != null || extension != null)
+        {
+            extension().executionTimeoutInMilliseconds = executionTimeoutInMilliseconds;
+        }
+    }
+
+
+    public String getRateLimitGroup()
+    {
+        return extension != null ? extension.rateLimitGroup : null;
+    }
+
+
+    public void setRateLimitGroup(String rateLimitGroup)
+    {
+        if(rateLimitGroup != null || extension != null)
+        {
+            extension().rateLimitGroup = rateLimitGroup;
+        }
+    }
 
 
     /**
@@ -50,7 +267,7 @@ public class ScheduledTask
         {
             throw new InvalidArgumentException("taskID cannot be null/empty.");
         }
-        if(taskToSchedule == null)
+        if(taskToSchedule == null && getHandlerName() == null)
         {
             throw new InvalidArgumentException("taskToSchedule cannot be null.");
         }
@@ -58,6 +275,16 @@ public class ScheduledTask
         {
             throw new InvalidArgumentException("unit cannot be null.");
         }
+        if(getTags() != null)
+        {
+            for(String tag : getTags())
+            {
+                if(tag == null)
+                {
+                    throw new InvalidArgumentException("tags cannot contain null.");
+                }
+            }
+        }
         normalise();
         return true;
     }
@@ -73,5 +300,48 @@ public class ScheduledTask
         {
             numberOfRetriesOnError = 0;
         }
+        if(lane == null)
+        {
+            lane = TaskLane.NORMAL;
+        }
+        if(extension != null)
+        {
+            extension.normalise();
+        }
+    }
+
+
+    /**
+     * The fields of a task that most tasks leave unset.
+     */
+    private static final class Extension
+    {
+        private Runnable callbackAfterTaskCompletes;
+        private Runnable callbackAfterTaskIsCancelled;
+        private RetryPolicy retryPolicy;
+        private String handlerName;
+        private byte[] payload;
+        private Set<String> tags;
+        private Long coalescingToleranceInMilliseconds;
+        private Long executionTimeoutInMilliseconds;
+        private String rateLimitGroup;
+
+
+        private void normalise()
+        {
+            if(coalescingToleranceInMilliseconds != null && coalescingToleranceInMilliseconds < 0L)
+            {
+                coalescingToleranceInMilliseconds = 0L;
+            }
+            if(executionTimeoutInMilliseconds != null && executionTimeoutInMilliseconds < 0L)
+            {
+                executionTimeoutInMilliseconds = 0L;
+            }
+            if(tags != null)
+            {
+                //the registry indexes the tags the task had when it was scheduled
+                tags = Set.copyOf(tags);
+            }
+        }
     }
 }
@@ -0,0 +1,132 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The timer structure that a scheduling service uses to keep pending tasks until they are due.
+ */
+interface SchedulerEngine
+{
+    /**
+     * Schedules the given runnable to run once after the given delay in the NORMAL lane.
+     * @param task
+     * @param delay
+     * @param unit
+     * @return the handle of the pending task
+     * @throws java.util.concurrent.RejectedExecutionException if the engine has been shut down
+     */
+    default ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit)
+    {
+        return schedule(task, delay, unit, TaskLane.NORMAL);
+    }
+
+
+    /**
+     * Schedules the given runnable to run once after the given delay on the workers of the given lane.
+     * @param task
+     * @param delay
+     * @param unit
+     * @param lane
+     * @return the handle of the pending task
+     * @throws java.util.concurrent.RejectedExecutionException if the engine has been shut down
+     */
+    ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit, TaskLane lane);
+
+
+    /**
+     * Schedules the given runnable like schedule(task, delay, unit, lane). An engine that is split into shards puts it
+     * on the shard of the given key, so that the tasks with the same key share a shard. The other engines ignore the key.
+     * @param task
+     * @param delay
+     * @param unit
+     * @param lane
+     * @param shardKey e.g. the hash code of the taskID
+     * @return the handle of the pending task
+     * @throws java.util.concurrent.RejectedExecutionException if the engine has been shut down
+     */
+    default ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit, TaskLane lane, int shardKey)
+    {
+        return schedule(task, delay, unit, lane);
+    }
+
+
+    /**
+     * Schedules the given action to run once after the given delay on the thread that keeps time rather than on a worker,
+     * so that it runs even when every worker is busy. The action has to be short and must not block.
+     * @param action
+     * @param delay
+     * @param unit
+     * @return the handle of the pending action
+     * @throws java.util.concurrent.RejectedExecutionException if the engine has been shut down
+     */
+    ScheduledFuture<?> scheduleOnTimer(Runnable action, long delay, TimeUnit unit);
+
+
+    /**
+     * Schedules all the given runnables in one pass. Either all of them are scheduled or none.
+     * @param tasks
+     * @param delaysInNanoseconds the delay of each task
+     * @param lanes the lane of each task
+     * @return the handles of the pending tasks in the same order as the tasks
+     * @throws RejectedExecutionException if the engine has been shut down
+     */
+    default ScheduledFuture<?>[] scheduleAll(Runnable[] tasks, long[] delaysInNanoseconds, TaskLane[] lanes)
+    {
+        ScheduledFuture<?>[] futures = new ScheduledFuture<?>[tasks.length];
+        for(int i = 0; i < tasks.length; i++)
+        {
+            try
+            {
+                futures[i] = schedule(tasks[i], delaysInNanoseconds[i], TimeUnit.NANOSECONDS, lanes[i]);
+            }
+            catch(RejectedExecutionException e)
+            {
+                for(int j = 0; j < i; j++)
+                {
+                    futures[j].cancel(false);
+                }
+                throw e;
+            }
+        }
+        return futures;
+    }
+
+
+    /**
+     * Schedules all the given runnables like scheduleAll(tasks, delaysInNanoseconds, lanes), with a shard key per task
+     * for an engine that is split into shards.
+     * @param tasks
+     * @param delaysInNanoseconds the delay of each task
+     * @param lanes the lane of each task
+     * @param shardKeys the shard key of each task
+     * @return the handles of the pending tasks in the same order as the tasks
+     * @throws RejectedExecutionException if the engine has been shut down
+     */
+    default ScheduledFuture<?>[] scheduleAll(Runnable[] tasks, long[] delaysInNanoseconds, TaskLane[] lanes, int[] shardKeys)
+    {
+        return scheduleAll(tasks, delaysInNanoseconds, lanes);
+    }
+
+
+    /**
+     * @return the number of tasks that the timer structure still holds because they have neither fired nor been cancelled
+     */
+    long getQueuedTaskCount();
+
+
+    void shutdown();
+
+
+    void shutdownNow();
+
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
+
+
+    boolean isShutdown();
+
+
+    boolean isTerminated();
+}
@@ -0,0 +1,209 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import io.github.orionlibs.orion_task_scheduler.config.ConfigurationService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.Locale;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the SchedulerEngine that the config asks for.
+ */
+class SchedulerEngineFactory
+{
+    static final String ENGINE = "orionlibs.orion_task_scheduler.engine";
+    static final String ENGINE_EXECUTOR = "executor";
+    static final String ENGINE_TIMING_WHEEL = "timing_wheel";
+    static final String ENGINE_OFF_HEAP = "off_heap";
+    static final String ENGINE_SHARDS = "orionlibs.orion_task_scheduler.engine.shards";
+    static final String EXECUTION_MODE = "orionlibs.orion_task_scheduler.execution.mode";
+    static final String EXECUTION_MODE_PLATFORM = "platform";
+    static final String EXECUTION_MODE_VIRTUAL = "virtual";
+    static final String EXECUTION_MODE_WORK_STEALING = "work_stealing";
+    static final String POOL_CORE_SIZE = "orionlibs.orion_task_scheduler.pool.core.size";
+    static final String POOL_KEEP_ALIVE_IN_MILLISECONDS = "orionlibs.orion_task_scheduler.pool.keep.alive.ms";
+    static final String TIMING_WHEEL_TICK_DURATION_IN_MILLISECONDS = "orionlibs.orion_task_scheduler.timing_wheel.tick.duration.ms";
+    static final String TIMING_WHEEL_TICKS_PER_WHEEL = "orionlibs.orion_task_scheduler.timing_wheel.ticks.per.wheel";
+    static final String OFF_HEAP_SLOTS_PER_SLAB = "orionlibs.orion_task_scheduler.off_heap.slots.per.slab";
+    static final String LANE_CRITICAL_POOL_SIZE = "orionlibs.orion_task_scheduler.lane.critical.pool.size";
+    static final String LANE_BULK_POOL_SIZE = "orionlibs.orion_task_scheduler.lane.bulk.pool.size";
+    /**
+     * the threads that a ForkJoinPool may add to make up for workers that block in a managed way, as its defaults allow
+     */
+    private static final int WORK_STEALING_SPARE_THREADS = 256;
+    /**
+     * a ForkJoinPool always retires idle workers, so a keep-alive of 0 falls back to its default
+     */
+    private static final long WORK_STEALING_DEFAULT_KEEP_ALIVE_IN_MILLISECONDS = 60_000L;
+
+
+    private SchedulerEngineFactory()
+    {
+    }
+
+
+    static SchedulerEngine buildSchedulerEngine(ConfigurationService config)
+    {
+        int coreSize = config.getIntegerProp(POOL_CORE_SIZE);
+        if(coreSize <= 0)
+        {
+            coreSize = Runtime.getRuntime().availableProcessors();
+        }
+        int numberOfShards = Math.max(config.getIntegerProp(ENGINE_SHARDS), 1);
+        if(numberOfShards == 1)
+        {
+            return buildShard(config, coreSize, 1);
+        }
+        SchedulerEngine[] shards = new SchedulerEngine[numberOfShards];
+        for(int i = 0; i < numberOfShards; i++)
+        {
+            shards[i] = buildShard(config, coreSize, numberOfShards);
+        }
+        return new ShardedSchedulerEngine(shards);
+    }
+
+
+    /**
+     * The workers of the pool and of the lanes are split evenly over the shards, rounding up so that every shard
+     * has at least one worker.
+     */
+    private static SchedulerEngine buildShard(ConfigurationService config, int poolCoreSize, int numberOfShards)
+    {
+        int coreSize = ceilDivide(poolCoreSize, numberOfShards);
+        long keepAlive = config.getLongProp(POOL_KEEP_ALIVE_IN_MILLISECONDS);
+        String executionMode = getExecutionMode(config);
+        boolean runOnVirtualThreads = EXECUTION_MODE_VIRTUAL.equals(executionMode);
+        String engine = config.getProp(ENGINE);
+        if(engine == null || ENGINE_EXECUTOR.equalsIgnoreCase(engine.trim()))
+        {
+            //in the platform mode the threads of the executor run the tasks themselves
+            return new ExecutorSchedulerEngine(coreSize, keepAlive,
+                            EXECUTION_MODE_PLATFORM.equals(executionMode) ? null : buildDispatcher(executionMode, coreSize, keepAlive),
+                            buildLaneDispatchers(config, numberOfShards, keepAlive, runOnVirtualThreads));
+        }
+        else if(ENGINE_TIMING_WHEEL.equalsIgnoreCase(engine.trim()))
+        {
+            return new TimingWheelSchedulerEngine(config.getLongProp(TIMING_WHEEL_TICK_DURATION_IN_MILLISECONDS),
+                            config.getIntegerProp(TIMING_WHEEL_TICKS_PER_WHEEL),
+                            buildDispatcher(executionMode, coreSize, keepAlive),
+                            buildLaneDispatchers(config, numberOfShards, keepAlive, runOnVirtualThreads),
+                            keepAlive);
+        }
+        else if(ENGINE_OFF_HEAP.equalsIgnoreCase(engine.trim()))
+        {
+            return new OffHeapSchedulerEngine(config.getIntegerProp(OFF_HEAP_SLOTS_PER_SLAB),
+                            buildDispatcher(executionMode, coreSize, keepAlive),
+                            buildLaneDispatchers(config, numberOfShards, keepAlive, runOnVirtualThreads),
+                            keepAlive);
+        }
+        throw new IllegalArgumentException("Unknown scheduler engine: " + engine);
+    }
+
+
+    /**
+     * The CRITICAL and BULK lanes get a pool of their own when their pool size is positive. The NORMAL lane always uses
+     * the workers of the engine. A lane pool is bounded even in the virtual execution mode, so that it is a budget.
+     */
+    private static LaneDispatchers buildLaneDispatchers(ConfigurationService config, int numberOfShards, long keepAliveInMilliseconds, boolean runOnVirtualThreads)
+    {
+        ExecutorService[] dispatchers = new ExecutorService[LaneDispatchers.NUMBER_OF_LANES];
+        dispatchers[TaskLane.CRITICAL.ordinal()] = buildLaneDispatcher(TaskLane.CRITICAL, ceilDivide(config.getIntegerProp(LANE_CRITICAL_POOL_SIZE), numberOfShards), keepAliveInMilliseconds, runOnVirtualThreads);
+        dispatchers[TaskLane.BULK.ordinal()] = buildLaneDispatcher(TaskLane.BULK, ceilDivide(config.getIntegerProp(LANE_BULK_POOL_SIZE), numberOfShards), keepAliveInMilliseconds, runOnVirtualThreads);
+        if(dispatchers[TaskLane.CRITICAL.ordinal()] == null && dispatchers[TaskLane.BULK.ordinal()] == null)
+        {
+            return LaneDispatchers.none();
+        }
+        return new LaneDispatchers(dispatchers);
+    }
+
+
+    private static ExecutorService buildLaneDispatcher(TaskLane lane, int poolSize, long keepAliveInMilliseconds, boolean runOnVirtualThreads)
+    {
+        if(poolSize <= 0)
+        {
+            return null;
+        }
+        String poolName = lane.name().toLowerCase(Locale.ROOT) + "-worker";
+        ThreadFactory threadFactory = runOnVirtualThreads ? Thread.ofVirtual().name("orion-task-scheduler-" + poolName + "-", 1L).factory() : new SchedulerThreadFactory(poolName);
+        ThreadPoolExecutor dispatcher = new ThreadPoolExecutor(poolSize, poolSize, Math.max(keepAliveInMilliseconds, 1L), TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        dispatcher.allowCoreThreadTimeOut(keepAliveInMilliseconds > 0L);
+        return dispatcher;
+    }
+
+
+    private static int ceilDivide(int poolSize, int numberOfShards)
+    {
+        return poolSize <= 0 ? poolSize : (poolSize + numberOfShards - 1) / numberOfShards;
+    }
+
+
+    private static String getExecutionMode(ConfigurationService config)
+    {
+        String executionMode = config.getProp(EXECUTION_MODE);
+        if(executionMode == null || EXECUTION_MODE_PLATFORM.equalsIgnoreCase(executionMode.trim()))
+        {
+            return EXECUTION_MODE_PLATFORM;
+        }
+        else if(EXECUTION_MODE_VIRTUAL.equalsIgnoreCase(executionMode.trim()))
+        {
+            return EXECUTION_MODE_VIRTUAL;
+        }
+        else if(EXECUTION_MODE_WORK_STEALING.equalsIgnoreCase(executionMode.trim()))
+        {
+            return EXECUTION_MODE_WORK_STEALING;
+        }
+        throw new IllegalArgumentException("Unknown execution mode: " + executionMode);
+    }
+
+
+    private static ExecutorService buildDispatcher(String executionMode, int coreSize, long keepAliveInMilliseconds)
+    {
+        if(EXECUTION_MODE_VIRTUAL.equals(executionMode))
+        {
+            return buildVirtualThreadDispatcher();
+        }
+        else if(EXECUTION_MODE_WORK_STEALING.equals(executionMode))
+        {
+            return buildWorkStealingDispatcher(coreSize, keepAliveInMilliseconds);
+        }
+        return buildPlatformThreadDispatcher(coreSize, keepAliveInMilliseconds);
+    }
+
+
+    private static ExecutorService buildPlatformThreadDispatcher(int coreSize, long keepAliveInMilliseconds)
+    {
+        ThreadPoolExecutor dispatcher = new ThreadPoolExecutor(coreSize, coreSize, Math.max(keepAliveInMilliseconds, 1L), TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new SchedulerThreadFactory("worker"));
+        dispatcher.allowCoreThreadTimeOut(keepAliveInMilliseconds > 0L);
+        return dispatcher;
+    }
+
+
+    /**
+     * A ForkJoinPool in async mode, so that every worker takes the tasks in its own deque in FIFO order and the idle workers
+     * steal from the busy ones instead of all of them contending on one queue. Its workers are started on demand and
+     * they retire after the keep-alive time.
+     */
+    private static ExecutorService buildWorkStealingDispatcher(int coreSize, long keepAliveInMilliseconds)
+    {
+        return new ForkJoinPool(coreSize,
+                        new SchedulerThreadFactory("stealing-worker"),
+                        null,
+                        true,
+                        0,
+                        coreSize + WORK_STEALING_SPARE_THREADS,
+                        1,
+                        null,
+                        keepAliveInMilliseconds > 0L ? keepAliveInMilliseconds : WORK_STEALING_DEFAULT_KEEP_ALIVE_IN_MILLISECONDS,
+                        TimeUnit.MILLISECONDS);
+    }
+
+
+    private static ExecutorService buildVirtualThreadDispatcher()
+    {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("orion-task-scheduler-virtual-", 1L).factory());
+    }
+}
@@ -0,0 +1,355 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and histograms of a scheduling service.
+ * <br>
+ * fired counts the executions that started, including retries.
+ * failed counts the tasks that threw and had no retries left.
+ * retried counts the executions that threw and were scheduled again.
+ * dropped counts the tasks that a full pending-task capacity discarded, both new ones and cancelled old ones.
+ * coalesced counts the tasks that joined the batch of another task instead of taking a wakeup of their own.
+ * timedOut counts the executions that ran longer than their execution timeout and were interrupted.
+ * throttled counts the times a due task was deferred because its rate-limit group had no token free, in total and by group.
+ * The lateness histogram records how long after its planned time every execution started, and so does the lateness
+ * histogram of the TaskLane of the execution. The duration histogram records how long every execution ran.
+ * <br>
+ * Recording does not allocate and does not take locks, apart from the counter of a rate-limit group the first time
+ * one of its tasks is throttled.
+ */
+public class SchedulerMetrics implements SchedulerMetricsMXBean
+{
+    private final LongSupplier pendingCount;
+    private final LongAdder scheduled;
+    private final LongAdder fired;
+    private final LongAdder cancelled;
+    private final LongAdder failed;
+    private final LongAdder retried;
+    private final LongAdder dropped;
+    private final LongAdder coalesced;
+    private final LongAdder timedOut;
+    private final LongAdder throttled;
+    private final ConcurrentMap<String, LongAdder> throttledByGroup;
+    private final LatencyHistogram latenessHistogram;
+    private final LatencyHistogram[] laneLatenessHistograms;
+    private final LatencyHistogram durationHistogram;
+    private volatile ObjectName objectName;
+
+
+    SchedulerMetrics(LongSupplier pendingCount)
+    {
+        this.pendingCount = pendingCount;
+        this.scheduled = new LongAdder();
+        this.fired = new LongAdder();
+        this.cancelled = new LongAdder();
+        this.failed = new LongAdder();
+        this.retried = new LongAdder();
+        this.dropped = new LongAdder();
+        this.coalesced = new LongAdder();
+        this.timedOut = new LongAdder();
+        this.throttled = new LongAdder();
+        this.throttledByGroup = new ConcurrentHashMap<>();
+        this.latenessHistogram = new LatencyHistogram();
+        this.laneLatenessHistograms = new LatencyHistogram[LaneDispatchers.NUMBER_OF_LANES];
+        for(int i = 0; i < laneLatenessHistograms.length; i++)
+        {
+            laneLatenessHistograms[i] = new LatencyHistogram();
+        }
+        this.durationHistogram = new LatencyHistogram();
+    }
+
+
+    void recordScheduled(int numberOfTasks)
+    {
+        scheduled.add(numberOfTasks);
+    }
+
+
+    void recordFired(long latenessInNanoseconds)
+    {
+        recordFired(TaskLane.NORMAL, latenessInNanoseconds);
+    }
+
+
+    void recordFired(TaskLane lane, long latenessInNanoseconds)
+    {
+        fired.increment();
+        latenessHistogram.record(latenessInNanoseconds);
+        laneLatenessHistograms[lane.ordinal()].record(latenessInNanoseconds);
+    }
+
+
+    void recordDuration(long durationInNanoseconds)
+    {
+        durationHistogram.record(durationInNanoseconds);
+    }
+
+
+    void recordCancelled(int numberOfTasks)
+    {
+        cancelled.add(numberOfTasks);
+    }
+
+
+    void recordFailed()
+    {
+        failed.increment();
+    }
+
+
+    void recordRetried()
+    {
+        retried.increment();
+    }
+
+
+    void recordDropped(int numberOfTasks)
+    {
+        dropped.add(numberOfTasks);
+    }
+
+
+    void recordCoalesced(int numberOfTasks)
+    {
+        coalesced.add(numberOfTasks);
+    }
+
+
+    void recordThrottled(String rateLimitGroup)
+    {
+        throttled.increment();
+        LongAdder groupCounter = throttledByGroup.get(rateLimitGroup);
+        if(groupCounter == null)
+        {
+            groupCounter = throttledByGroup.computeIfAbsent(rateLimitGroup, group -> new LongAdder());
+        }
+        groupCounter.increment();
+    }
+
+
+    void recordTimedOut()
+    {
+        timedOut.increment();
+    }
+
+
+    /**
+     * It registers these metrics to the platform MBeanServer as
+     * io.github.orionlibs.orion_task_scheduler:type=SchedulerMetrics,name=[name]
+     * @param name
+     * @return the name the MBean was registered with
+     * @throws JMException if the registration fails, e.g. because the name is already used
+     */
+    public ObjectName registerMBean(String name) throws JMException
+    {
+        ObjectName mbeanName = new ObjectName("io.github.orionlibs.orion_task_scheduler:type=SchedulerMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, mbeanName);
+        this.objectName = mbeanName;
+        return mbeanName;
+    }
+
+
+    /**
+     * It unregisters these metrics from the platform MBeanServer if they were registered.
+     * @throws JMException if the unregistration fails
+     */
+    public void unregisterMBean() throws JMException
+    {
+        ObjectName mbeanName = objectName;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if(mbeanName != null && server.isRegistered(mbeanName))
+        {
+            server.unregisterMBean(mbeanName);
+        }
+        objectName = null;
+    }
+
+
+    @Override
+    public long getPendingCount()
+    {
+        return pendingCount.getAsLong();
+    }
+
+
+    @Override
+    public long getScheduledCount()
+    {
+        return scheduled.sum();
+    }
+
+
+    @Override
+    public long getFiredCount()
+    {
+        return fired.sum();
+    }
+
+
+    @Override
+    public long getCancelledCount()
+    {
+        return cancelled.sum();
+    }
+
+
+    @Override
+    public long getFailedCount()
+    {
+        return failed.sum();
+    }
+
+
+    @Override
+    public long getRetriedCount()
+    {
+        return retried.sum();
+    }
+
+
+    @Override
+    public long getDroppedCount()
+    {
+        return dropped.sum();
+    }
+
+
+    @Override
+    public long getCoalescedCount()
+    {
+        return coalesced.sum();
+    }
+
+
+    @Override
+    public long getTimedOutCount()
+    {
+        return timedOut.sum();
+    }
+
+
+    @Override
+    public long getThrottledCount()
+    {
+        return throttled.sum();
+    }
+
+
+    /**
+     * @param rateLimitGroup
+     * @return how many times a task of the given rate-limit group was deferred because the group had no token free
+     */
+    public long getThrottledCount(String rateLimitGroup)
+    {
+        LongAdder groupCounter = throttledByGroup.get(rateLimitGroup);
+        return groupCounter != null ? groupCounter.sum() : 0L;
+    }
+
+
+    /**
+     * @return the throttle count of every rate-limit group that has been throttled, sorted by group
+     */
+    @Override
+    public Map<String, Long> getThrottledCountsByGroup()
+    {
+        Map<String, Long> throttledCounts = new TreeMap<>();
+        throttledByGroup.forEach((group, groupCounter) -> throttledCounts.put(group, groupCounter.sum()));
+        return throttledCounts;
+    }
+
+
+    public LatencyHistogram getLatenessHistogram()
+    {
+        return latenessHistogram;
+    }
+
+
+    /**
+     * @param lane
+     * @return the lateness of the executions of the tasks of the given lane
+     */
+    public LatencyHistogram getLatenessHistogram(TaskLane lane)
+    {
+        return laneLatenessHistograms[lane.ordinal()];
+    }
+
+
+    public LatencyHistogram getDurationHistogram()
+    {
+        return durationHistogram;
+    }
+
+
+    @Override
+    public double getLatenessMeanInMicroseconds()
+    {
+        return latenessHistogram.getMeanInNanoseconds() / 1000.0d;
+    }
+
+
+    @Override
+    public long getLateness99thPercentileInMicroseconds()
+    {
+        return TimeUnit.NANOSECONDS.toMicros(latenessHistogram.getPercentileInNanoseconds(99.0d));
+    }
+
+
+    @Override
+    public long getLatenessMaxInMicroseconds()
+    {
+        return TimeUnit.NANOSECONDS.toMicros(latenessHistogram.getMaxInNanoseconds());
+    }
+
+
+    @Override
+    public long getCriticalLateness99thPercentileInMicroseconds()
+    {
+        return TimeUnit.NANOSECONDS.toMicros(getLatenessHistogram(TaskLane.CRITICAL).getPercentileInNanoseconds(99.0d));
+    }
+
+
+    @Override
+    public long getNormalLateness99thPercentileInMicroseconds()
+    {
+        return TimeUnit.NANOSECONDS.toMicros(getLatenessHistogram(TaskLane.NORMAL).getPercentileInNanoseconds(99.0d));
+    }
+
+
+    @Override
+    public long getBulkLateness99thPercentileInMicroseconds()
+    {
+        return TimeUnit.NANOSECONDS.toMicros(getLatenessHistogram(TaskLane.BULK).getPercentileInNanoseconds(99.0d));
+    }
+
+
+    @Override
+    public double getDurationMeanInMicroseconds()
+    {
+        return durationHistogram.getMeanInNanoseconds() / 1000.0d;
+    }
+
+
+    @Override
+    public long getDuration99thPercentileInMicroseconds()
+    {
+        return TimeUnit.NANOSECONDS.toMicros(durationHistogram.getPercentileInNanoseconds(99.0d));
+    }
+
+
+    @Override
+    public long getDurationMaxInMicroseconds()
+    {
+        return TimeUnit.NANOSECONDS.toMicros(durationHistogram.getMaxInNanoseconds());
+    }
+}
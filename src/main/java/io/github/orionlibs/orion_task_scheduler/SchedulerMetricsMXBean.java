@@ -0,0 +1,68 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.Map;
+
+/**
+ * The JMX view of SchedulerMetrics.
+ */
+public interface SchedulerMetricsMXBean
+{
+    long getPendingCount();
+
+
+    long getScheduledCount();
+
+
+    long getFiredCount();
+
+
+    long getCancelledCount();
+
+
+    long getFailedCount();
+
+
+    long getRetriedCount();
+
+
+    long getDroppedCount();
+
+
+    long getCoalescedCount();
+
+
+    long getTimedOutCount();
+
+
+    long getThrottledCount();
+
+
+    Map<String, Long> getThrottledCountsByGroup();
+
+
+    double getLatenessMeanInMicroseconds();
+
+
+    long getLateness99thPercentileInMicroseconds();
+
+
+    long getLatenessMaxInMicroseconds();
+
+
+    long getCriticalLateness99thPercentileInMicroseconds();
+
+
+    long getNormalLateness99thPercentileInMicroseconds();
+
+
+    long getBulkLateness99thPercentileInMicroseconds();
+
+
+    double getDurationMeanInMicroseconds();
+
+
+    long getDuration99thPercentileInMicroseconds();
+
+
+    long getDurationMaxInMicroseconds();
+}
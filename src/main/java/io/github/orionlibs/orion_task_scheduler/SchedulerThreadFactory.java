@@ -0,0 +1,42 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A ThreadFactory that gives the scheduler threads recognisable names. It names the workers of a ForkJoinPool too.
+ */
+class SchedulerThreadFactory implements ThreadFactory, ForkJoinPool.ForkJoinWorkerThreadFactory
+{
+    private static final AtomicInteger poolSequence = new AtomicInteger(1);
+    private final AtomicInteger threadSequence;
+    private final String namePrefix;
+
+
+    SchedulerThreadFactory(String poolName)
+    {
+        this.threadSequence = new AtomicInteger(1);
+        this.namePrefix = "orion-task-scheduler-" + poolSequence.getAndIncrement() + "-" + poolName + "-";
+    }
+
+
+    @Override
+    public Thread newThread(Runnable runnable)
+    {
+        Thread thread = new Thread(runnable, namePrefix + threadSequence.getAndIncrement());
+        thread.setDaemon(false);
+        return thread;
+    }
+
+
+    @Override
+    public ForkJoinWorkerThread newThread(ForkJoinPool pool)
+    {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName(namePrefix + threadSequence.getAndIncrement());
+        thread.setDaemon(false);
+        return thread;
+    }
+}
@@ -0,0 +1,222 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine that splits the pending tasks over independent engines, each with its own timer structure, timer thread and
+ * workers, so that producers that schedule and cancel at the same time contend on 1/N of the locks and queues.
+ * A task with a shard key goes to the shard of the hash of that key. One without, like a coalesced batch or a watchdog,
+ * goes to the shard of the thread that schedules it. A handle cancels its task on its own shard.
+ * The shards share nothing, so the due tasks of one shard only run on the workers of that shard.
+ */
+final class ShardedSchedulerEngine implements SchedulerEngine
+{
+    private final SchedulerEngine[] shards;
+
+
+    /**
+     * @param shards at least one engine
+     */
+    ShardedSchedulerEngine(SchedulerEngine[] shards)
+    {
+        this.shards = shards;
+    }
+
+
+    private int shardIndexOf(int shardKey)
+    {
+        //the finaliser of MurmurHash3, so that keys that only differ in their high bits spread too
+        int hash = shardKey;
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shards.length);
+    }
+
+
+    private SchedulerEngine shardOf(int shardKey)
+    {
+        return shards[shardIndexOf(shardKey)];
+    }
+
+
+    private SchedulerEngine shardOfCurrentThread()
+    {
+        return shardOf(Long.hashCode(Thread.currentThread().threadId()));
+    }
+
+
+    int getNumberOfShards()
+    {
+        return shards.length;
+    }
+
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit, TaskLane lane)
+    {
+        return shardOfCurrentThread().schedule(task, delay, unit, lane);
+    }
+
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit, TaskLane lane, int shardKey)
+    {
+        return shardOf(shardKey).schedule(task, delay, unit, lane);
+    }
+
+
+    @Override
+    public ScheduledFuture<?> scheduleOnTimer(Runnable action, long delay, TimeUnit unit)
+    {
+        return shardOfCurrentThread().scheduleOnTimer(action, delay, unit);
+    }
+
+
+    @Override
+    public ScheduledFuture<?>[] scheduleAll(Runnable[] tasks, long[] delaysInNanoseconds, TaskLane[] lanes)
+    {
+        return shardOfCurrentThread().scheduleAll(tasks, delaysInNanoseconds, lanes);
+    }
+
+
+    /**
+     * Every shard gets its part of the tasks in one call. If a shard rejects its part, the parts that the shards before it
+     * have taken are cancelled.
+     */
+    @Override
+    public ScheduledFuture<?>[] scheduleAll(Runnable[] tasks, long[] delaysInNanoseconds, TaskLane[] lanes, int[] shardKeys)
+    {
+        int[] shardIndexes = new int[tasks.length];
+        int[] numberOfTasksByShard = new int[shards.length];
+        for(int i = 0; i < tasks.length; i++)
+        {
+            shardIndexes[i] = shardIndexOf(shardKeys[i]);
+            numberOfTasksByShard[shardIndexes[i]]++;
+        }
+        ScheduledFuture<?>[] futures = new ScheduledFuture<?>[tasks.length];
+        for(int shardIndex = 0; shardIndex < shards.length; shardIndex++)
+        {
+            int numberOfTasks = numberOfTasksByShard[shardIndex];
+            if(numberOfTasks == 0)
+            {
+                continue;
+            }
+            Runnable[] shardTasks = new Runnable[numberOfTasks];
+            long[] shardDelays = new long[numberOfTasks];
+            TaskLane[] shardLanes = new TaskLane[numberOfTasks];
+            for(int i = 0, j = 0; i < tasks.length; i++)
+            {
+                if(shardIndexes[i] == shardIndex)
+                {
+                    shardTasks[j] = tasks[i];
+                    shardLanes[j] = lanes[i];
+                    shardDelays[j++] = delaysInNanoseconds[i];
+                }
+            }
+            ScheduledFuture<?>[] shardFutures;
+            try
+            {
+                shardFutures = shards[shardIndex].scheduleAll(shardTasks, shardDelays, shardLanes);
+            }
+            catch(RejectedExecutionException e)
+            {
+                for(ScheduledFuture<?> future : futures)
+                {
+                    if(future != null)
+                    {
+                        future.cancel(false);
+                    }
+                }
+                throw e;
+            }
+            for(int i = 0, j = 0; i < tasks.length; i++)
+            {
+                if(shardIndexes[i] == shardIndex)
+                {
+                    futures[i] = shardFutures[j++];
+                }
+            }
+        }
+        return futures;
+    }
+
+
+    @Override
+    public long getQueuedTaskCount()
+    {
+        long queuedTaskCount = 0L;
+        for(SchedulerEngine shard : shards)
+        {
+            queuedTaskCount += shard.getQueuedTaskCount();
+        }
+        return queuedTaskCount;
+    }
+
+
+    @Override
+    public void shutdown()
+    {
+        for(SchedulerEngine shard : shards)
+        {
+            shard.shutdown();
+        }
+    }
+
+
+    @Override
+    public void shutdownNow()
+    {
+        for(SchedulerEngine shard : shards)
+        {
+            shard.shutdownNow();
+        }
+    }
+
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long waitUntil = System.nanoTime() + unit.toNanos(timeout);
+        for(SchedulerEngine shard : shards)
+        {
+            if(!shard.awaitTermination(waitUntil - System.nanoTime(), TimeUnit.NANOSECONDS))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    @Override
+    public boolean isShutdown()
+    {
+        for(SchedulerEngine shard : shards)
+        {
+            if(!shard.isShutdown())
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    @Override
+    public boolean isTerminated()
+    {
+        for(SchedulerEngine shard : shards)
+        {
+            if(!shard.isTerminated())
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
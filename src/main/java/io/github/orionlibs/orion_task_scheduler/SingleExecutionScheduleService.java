@@ -1,43 +1,147 @@
 package io.github.orionlibs.orion_task_scheduler;
 
 import io.github.orionlibs.orion_task_scheduler.config.ConfigurationService;
+import io.github.orionlibs.orion_task_scheduler.config.ConfigurationSnapshot;
 import io.github.orionlibs.orion_task_scheduler.config.OrionConfiguration;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Handler;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Service that schedules tasks to be executed in the future only once.
+ * Every instance owns one scheduling engine whose threads are shared by all the tasks it schedules.
+ * The orionlibs.orion_task_scheduler.engine config selects the engine:
+ * "executor" fires tasks exactly on time, "timing_wheel" gives O(1) scheduling and cancellation
+ * with a resolution of orionlibs.orion_task_scheduler.timing_wheel.tick.duration.ms and "off_heap" keeps the deadlines
+ * of the pending tasks in direct memory outside the heap.
+ * orionlibs.orion_task_scheduler.engine.shards splits the pending tasks over that many independent engines by the hash
+ * of their taskID, so that threads that schedule and cancel at the same time contend less.
+ * The worker threads are sized by the orionlibs.orion_task_scheduler.pool.core.size config and
+ * idle threads are released after orionlibs.orion_task_scheduler.pool.keep.alive.ms.
+ * When orionlibs.orion_task_scheduler.persistence.enabled is true, the tasks that run a registered TaskHandler
+ * are written to a journal in orionlibs.orion_task_scheduler.persistence.directory and recoverPersistedTasks()
+ * schedules the ones that had not completed before the last shutdown. They run at least once.
+ * If orionlibs.orion_task_scheduler.config.override.file names a properties file, its values override the config
+ * and they are reloaded whenever the file changes, e.g. to turn scheduling or cancellation on or off without a restart.
+ * The file is applied before the service builds its engine. A change to the config, through the file or updateProp(),
+ * applies to the next task for orionlibs.orion_task_scheduler.enabled, orionlibs.orion_task_scheduler.cancellation.enabled,
+ * orionlibs.orion_task_scheduler.coalescing.tolerance.ms and orionlibs.orion_task_scheduler.execution.timeout.ms.
+ * The other keys, e.g. the engine, the pool sizes, the lanes, the pending.* capacity and the persistence.* journal,
+ * are only read when the service is built, so changing them later has no effect.
+ * orionlibs.orion_task_scheduler.pending.max.tasks limits how many tasks can be pending at once (0 means no limit) and
+ * orionlibs.orion_task_scheduler.pending.backpressure.policy decides what happens to a new task when the limit is reached:
+ * "reject", "block" for up to orionlibs.orion_task_scheduler.pending.block.timeout.ms, "drop_oldest" or "drop_newest".
+ * orionlibs.orion_task_scheduler.coalescing.tolerance.ms lets tasks run that much earlier or later than their delay,
+ * so that tasks with overlapping windows are dispatched together on one wakeup. Tasks can override it.
+ * orionlibs.orion_task_scheduler.execution.timeout.ms limits how long an execution may run before it is interrupted and
+ * counted as a failed attempt (0 means no limit). Tasks can override it.
+ * orionlibs.orion_task_scheduler.lane.critical.pool.size and orionlibs.orion_task_scheduler.lane.bulk.pool.size give
+ * the tasks of the CRITICAL and BULK lanes workers of their own (0 means they share the workers of the NORMAL lane).
+ * setRateLimit() limits how often the tasks of a rate-limit group may start. A task over the limit stays in the engine
+ * until a token is free for it instead of running and failing against a throttled downstream.
+ * Call shutdown() when the service is no longer needed.
  */
 public class SingleExecutionScheduleService
 {
-    private static final String TASK_SCHEDULER_ENABLED = "orionlibs.orion_task_scheduler.enabled";
-    private static final String SCHEDULER_CANCELLATION_ENABLED = "orionlibs.orion_task_scheduler.cancellation.enabled";
+    private static final String PERSISTENCE_ENABLED = "orionlibs.orion_task_scheduler.persistence.enabled";
+    private static final String PERSISTENCE_DIRECTORY = "orionlibs.orion_task_scheduler.persistence.directory";
+    private static final String PERSISTENCE_JOURNAL_SIZE_IN_BYTES = "orionlibs.orion_task_scheduler.persistence.journal.size.bytes";
+    private static final String PERSISTENCE_SYNC_COMMIT = "orionlibs.orion_task_scheduler.persistence.sync.commit";
+    private static final String PERSISTENCE_COMPACTION_THRESHOLD_IN_RECORDS = "orionlibs.orion_task_scheduler.persistence.compaction.records";
+    private static final String CONFIG_OVERRIDE_FILE = "orionlibs.orion_task_scheduler.config.override.file";
     private Logger log;
-    private ConcurrentMap<String, ScheduledTask> scheduledTasksToRunnablesMapper;
+    private TaskRegistry scheduledTasksToRunnablesMapper;
+    private PendingTaskCapacity pendingTaskCapacity;
     private ConfigurationService config;
+    private SchedulerEngine engine;
+    private TaskCoalescer[] coalescersByLane;
+    private SchedulerMetrics metrics;
+    private ConcurrentMap<String, TaskHandler> taskHandlers;
+    private ConcurrentMap<String, TokenBucket> rateLimitsByGroup;
+    private TaskJournal journal;
+    private List<PersistedTask> tasksToRecover;
 
 
     public SingleExecutionScheduleService() throws IOException
+    {
+        this(null);
+    }
+
+
+    /**
+     * @param customConfig config that overrides the default config of the features. It can be null.
+     * @throws IOException if the default config cannot be loaded or the journal cannot be opened
+     */
+    public SingleExecutionScheduleService(Properties customConfig) throws IOException
     {
         log = Logger.getLogger(SingleExecutionScheduleService.class.getName());
         this.config = new ConfigurationService();
-        setupConfiguration();
-        this.scheduledTasksToRunnablesMapper = new ConcurrentHashMap<>();
+        setupConfiguration(customConfig);
+        //the override file applies to the keys that are only read here too
+        String overrideFile = config.getProp(CONFIG_OVERRIDE_FILE);
+        if(overrideFile != null && !overrideFile.isBlank())
+        {
+            config.watchOverrideFile(Paths.get(overrideFile.trim()));
+        }
+        try
+        {
+            buildComponents();
+        }
+        catch(IOException | RuntimeException e)
+        {
+            config.stopWatchingOverrideFile();
+            throw e;
+        }
+    }
+
+
+    private void buildComponents() throws IOException
+    {
+        this.pendingTaskCapacity = PendingTaskCapacity.buildPendingTaskCapacity(config);
+        this.scheduledTasksToRunnablesMapper = new TaskRegistry(pendingTaskCapacity);
+        this.metrics = new SchedulerMetrics(() -> scheduledTasksToRunnablesMapper.size());
+        this.taskHandlers = new ConcurrentHashMap<>();
+        this.rateLimitsByGroup = new ConcurrentHashMap<>();
+        this.tasksToRecover = List.of();
+        if(config.getBooleanProp(PERSISTENCE_ENABLED))
+        {
+            this.journal = new TaskJournal(Paths.get(config.getProp(PERSISTENCE_DIRECTORY).trim()),
+                            config.getIntegerProp(PERSISTENCE_JOURNAL_SIZE_IN_BYTES),
+                            config.getBooleanProp(PERSISTENCE_SYNC_COMMIT),
+                            config.getIntegerProp(PERSISTENCE_COMPACTION_THRESHOLD_IN_RECORDS));
+            this.tasksToRecover = new ArrayList<>(journal.getRecoveredTasks());
+        }
+        this.engine = SchedulerEngineFactory.buildSchedulerEngine(config);
+        this.coalescersByLane = new TaskCoalescer[LaneDispatchers.NUMBER_OF_LANES];
+        for(TaskLane lane : TaskLane.values())
+        {
+            coalescersByLane[lane.ordinal()] = new TaskCoalescer(engine, metrics, lane);
+        }
     }
 
 
-    private void setupConfiguration() throws IOException
+    private void setupConfiguration(Properties customConfig) throws IOException
     {
-        config.registerConfiguration(OrionConfiguration.loadFeatureConfiguration());
+        config.registerConfiguration(OrionConfiguration.loadFeatureConfiguration(customConfig));
     }
 
 
@@ -53,34 +157,164 @@ public class SingleExecutionScheduleService
     }
 
 
+    /**
+     * It registers the TaskHandler that runs the tasks whose handlerName is the given name.
+     * Handlers have to be registered before the tasks that use them are scheduled or recovered.
+     * @param handlerName
+     * @param handler
+     * @throws InvalidArgumentException if the handlerName is null/empty or the handler is null.
+     */
+    public void registerTaskHandler(String handlerName, TaskHandler handler) throws InvalidArgumentException
+    {
+        if(handlerName == null || handlerName.isEmpty())
+        {
+            throw new InvalidArgumentException("handlerName cannot be null/empty.");
+        }
+        if(handler == null)
+        {
+            throw new InvalidArgumentException("handler cannot be null.");
+        }
+        taskHandlers.put(handlerName, handler);
+    }
+
+
+    /**
+     * It limits how often the tasks whose rateLimitGroup is the given group may start, with a token bucket that holds
+     * up to burstSize tokens and refills at executionsPerSecond. When a task of the group becomes due and the bucket is
+     * empty, the task reserves the next token and goes back into the engine until that token is due, so it is deferred
+     * rather than run and failed. Retries take tokens too. Setting the limit of a group again replaces its bucket.
+     * @param rateLimitGroup
+     * @param executionsPerSecond
+     * @param burstSize
+     * @throws InvalidArgumentException if the group is null/empty, the rate is not positive and finite, the burst size is
+     * less than 1 or the bucket would take longer than about 73 years to refill.
+     */
+    public void setRateLimit(String rateLimitGroup, double executionsPerSecond, int burstSize) throws InvalidArgumentException
+    {
+        if(rateLimitGroup == null || rateLimitGroup.isEmpty())
+        {
+            throw new InvalidArgumentException("rateLimitGroup cannot be null/empty.");
+        }
+        TokenBucket rateLimit;
+        try
+        {
+            rateLimit = new TokenBucket(executionsPerSecond, burstSize);
+        }
+        catch(IllegalArgumentException e)
+        {
+            throw new InvalidArgumentException(e.getMessage());
+        }
+        rateLimitsByGroup.put(rateLimitGroup, rateLimit);
+    }
+
+
+    /**
+     * It lets the tasks of the given rate-limit group start as soon as they are due again.
+     * The tasks that are already deferred still wait for the tokens they reserved.
+     * @param rateLimitGroup
+     */
+    public void removeRateLimit(String rateLimitGroup)
+    {
+        if(rateLimitGroup != null)
+        {
+            rateLimitsByGroup.remove(rateLimitGroup);
+        }
+    }
+
+
+    /**
+     * It schedules the tasks that were recovered from the journal and had not completed or been cancelled.
+     * A task keeps its original due time and it executes immediately if that time has passed.
+     * Tasks whose handler has not been registered yet stay in the journal and can be recovered by a later call.
+     * @return the number of tasks that were scheduled
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the scheduler has been shut down.
+     */
+    public synchronized int recoverPersistedTasks() throws FeatureIsDisabledException, RejectedExecutionException
+    {
+        List<ScheduledTask> recoveredTasks = new ArrayList<>();
+        List<PersistedTask> remainingTasks = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for(PersistedTask persistedTask : tasksToRecover)
+        {
+            if(scheduledTasksToRunnablesMapper.contains(persistedTask.taskID()))
+            {
+                continue;
+            }
+            if(!taskHandlers.containsKey(persistedTask.handlerName()))
+            {
+                log.log(Level.WARNING, "no TaskHandler is registered with the name {0}", persistedTask.handlerName());
+                remainingTasks.add(persistedTask);
+                continue;
+            }
+            recoveredTasks.add(ScheduledTask.builder()
+                            .taskID(persistedTask.taskID())
+                            .handlerName(persistedTask.handlerName())
+                            .payload(persistedTask.payload())
+                            .numberOfRetriesOnError(persistedTask.numberOfRetriesOnError())
+                            .delay(Math.max(0L, persistedTask.dueAtEpochMilliseconds() - now))
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        }
+        tasksToRecover = remainingTasks;
+        if(recoveredTasks.isEmpty())
+        {
+            return 0;
+        }
+        return schedule(recoveredTasks).getScheduledTasks().size();
+    }
+
+
     /**
      * Schedules a task to execute in the future only once.
      * The given ScheduledTask object will have a value for the task field which
      * will be the actual ScheduledFuture that executes.
+     * If the pending-task capacity is full and its policy is drop_newest, the task is dropped
+     * and its task field stays null.
      * @param taskToSchedule
+     * @return the handle of the task, which cancel(long) takes, or 0 if the task was dropped
      * @throws FeatureIsDisabledException if the scheduler is disabled.
-     * @throws RejectedExecutionException if the scheduler rejects the task.
+     * @throws RejectedExecutionException if the scheduler rejects the task, it has been shut down or
+     * the pending-task capacity is full and its policy is reject or block.
      * @throws NullPointerException
      * @throws InvalidArgumentException if the taskToSchedule argument has invalid values.
      */
-    public void schedule(ScheduledTask taskToSchedule) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    public long schedule(ScheduledTask taskToSchedule) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
     {
-        if(config.getBooleanProp(TASK_SCHEDULER_ENABLED))
+        if(config.getSnapshot().isSchedulerEnabled())
         {
             taskToSchedule.validate();
-            Runnable taskWrapper = TaskWrapper.buildTaskWrapper(taskToSchedule, scheduledTasksToRunnablesMapper, this);
-            ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+            bindTaskHandler(taskToSchedule);
+            if(reservePendingTaskCapacity(1) == 0)
+            {
+                metrics.recordDropped(1);
+                log.log(Level.WARNING, "task {0} was dropped because the pending-task capacity is full", taskToSchedule.getTaskID());
+                return 0L;
+            }
+            Runnable taskWrapper = TaskWrapper.buildTaskWrapper(taskToSchedule, this);
+            long handle = scheduledTasksToRunnablesMapper.put(taskToSchedule);
             try
             {
-                ScheduledFuture<?> task = executorService.schedule(taskWrapper, taskToSchedule.getDelay(), taskToSchedule.getUnit());
-                taskToSchedule.setTask(task);
-                scheduledTasksToRunnablesMapper.put(taskToSchedule.getTaskID(), taskToSchedule);
-                log.info("schedule started");
+                journalScheduled(taskToSchedule);
+                long coalescingTolerance = getCoalescingToleranceInNanoseconds(taskToSchedule);
+                if(coalescingTolerance > 0L)
+                {
+                    taskToSchedule.setTask(coalescersByLane[taskToSchedule.getLane().ordinal()].schedule(taskWrapper, taskToSchedule.getUnit().toNanos(taskToSchedule.getDelay()), coalescingTolerance));
+                }
+                else
+                {
+                    taskToSchedule.setTask(engine.schedule(taskWrapper, taskToSchedule.getDelay(), taskToSchedule.getUnit(), taskToSchedule.getLane(), taskToSchedule.getTaskID().hashCode()));
+                }
             }
-            finally
+            catch(RuntimeException e)
             {
-                executorService.shutdown();
+                //e.g. the engine has been shut down or a sync commit to the journal has failed
+                rollBackScheduledTask(taskToSchedule);
+                throw e;
             }
+            metrics.recordScheduled(1);
+            log.info("schedule started");
+            return handle;
         }
         else
         {
@@ -89,25 +323,178 @@ public class SingleExecutionScheduleService
     }
 
 
+    /**
+     * Schedules the given callable to execute in the future only once, in the place of the taskToSchedule field of
+     * the given task, and returns a CompletableFuture of its result. The future completes with the result of the callable,
+     * with its exception once the task has run out of retries, or it is cancelled when the task is cancelled,
+     * dropped to make room for newer tasks or cancelled by shutdownNow(). Cancelling the future cancels the task.
+     * The future is completed on the default async executor of CompletableFuture, so that the stages attached to it
+     * never run on the threads of the scheduler.
+     * @param taskToSchedule a task without taskToSchedule and handlerName
+     * @param callable
+     * @return the future of the result. It is already cancelled if the task was dropped.
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the scheduler rejects the task, it has been shut down or
+     * the pending-task capacity is full and its policy is reject or block.
+     * @throws InvalidArgumentException if the taskToSchedule argument has invalid values.
+     */
+    public <T> CompletableFuture<T> schedule(ScheduledTask taskToSchedule, Callable<T> callable) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        return schedule(taskToSchedule, callable, null);
+    }
+
+
+    /**
+     * Like schedule(ScheduledTask, Callable), but the returned future is completed on the given callbackExecutor.
+     * If the callbackExecutor rejects the completion, the future is completed on the thread that finished the task.
+     * @param taskToSchedule a task without taskToSchedule and handlerName
+     * @param callable
+     * @param callbackExecutor where the future is completed, or null for the default async executor of CompletableFuture
+     * @return the future of the result. It is already cancelled if the task was dropped.
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the scheduler rejects the task, it has been shut down or
+     * the pending-task capacity is full and its policy is reject or block.
+     * @throws InvalidArgumentException if the taskToSchedule argument has invalid values.
+     */
+    public <T> CompletableFuture<T> schedule(ScheduledTask taskToSchedule, Callable<T> callable, Executor callbackExecutor) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        if(callable == null)
+        {
+            throw new InvalidArgumentException("callable cannot be null.");
+        }
+        if(taskToSchedule.getTaskToSchedule() != null || taskToSchedule.getHandlerName() != null)
+        {
+            throw new InvalidArgumentException("taskToSchedule and handlerName have to be null when a Callable is scheduled.");
+        }
+        CallableTask<T> callableTask = new CallableTask<>(callable, callbackExecutor);
+        taskToSchedule.setTaskToSchedule(callableTask);
+        long handle;
+        try
+        {
+            handle = schedule(taskToSchedule);
+        }
+        catch(FeatureIsDisabledException | RejectedExecutionException | InvalidArgumentException e)
+        {
+            taskToSchedule.setTaskToSchedule(null);
+            throw e;
+        }
+        CompletableFuture<T> completion = callableTask.getCompletion();
+        if(handle == 0L)
+        {
+            completion.cancel(false);
+            return completion;
+        }
+        completion.whenComplete((result, failure) -> {
+            //the caller cancelled the future while the task was still registered
+            if(completion.isCancelled() && scheduledTasksToRunnablesMapper.get(handle) == taskToSchedule)
+            {
+                try
+                {
+                    cancelTask(taskToSchedule);
+                }
+                catch(FeatureIsDisabledException | TaskDoesNotExistException e)
+                {
+                    log.log(Level.WARNING, "task {0} could not be cancelled with its CompletableFuture", taskToSchedule.getTaskID());
+                }
+            }
+        });
+        return completion;
+    }
+
+
     /**
      * Schedules multiple tasks to execute in the future only once.
+     * All the tasks are validated first and the valid ones are then scheduled in one pass.
+     * A task that fails validation, or that has the same taskID as an earlier task of the collection,
+     * is not scheduled and it is reported in the returned result instead of aborting the whole batch.
+     * If the pending-task capacity is full and its policy is drop_newest, the valid tasks that do not fit are dropped
+     * and they are reported in the returned result.
      * @param tasksToSchedule
+     * @return which tasks were scheduled, which failed and which were dropped
      * @throws FeatureIsDisabledException if the scheduler is disabled.
-     * @throws RejectedExecutionException if the scheduler rejects the task.
-     * @throws NullPointerException
-     * @throws InvalidArgumentException if the taskToSchedule argument has invalid values.
+     * @throws RejectedExecutionException if the scheduler rejects the tasks or the pending-task capacity cannot fit them
+     * under the reject or block policy. In that case none of them is scheduled.
      */
-    public void schedule(Collection<ScheduledTask> tasksToSchedule) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    public BatchScheduleResult schedule(Collection<ScheduledTask> tasksToSchedule) throws FeatureIsDisabledException, RejectedExecutionException
     {
-        if(config.getBooleanProp(TASK_SCHEDULER_ENABLED))
+        if(config.getSnapshot().isSchedulerEnabled())
         {
+            List<ScheduledTask> validTasks = new ArrayList<>(tasksToSchedule != null ? tasksToSchedule.size() : 0);
+            Map<ScheduledTask, InvalidArgumentException> failedTasks = new LinkedHashMap<>();
             if(tasksToSchedule != null)
             {
+                Set<String> taskIDsInBatch = new HashSet<>();
                 for(ScheduledTask task : tasksToSchedule)
                 {
-                    schedule(task);
+                    try
+                    {
+                        if(task == null)
+                        {
+                            throw new InvalidArgumentException("taskToSchedule cannot be null.");
+                        }
+                        task.validate();
+                        bindTaskHandler(task);
+                        if(!taskIDsInBatch.add(task.getTaskID()))
+                        {
+                            throw new InvalidArgumentException("taskID %s appears more than once in the batch.", task.getTaskID());
+                        }
+                        validTasks.add(task);
+                    }
+                    catch(InvalidArgumentException e)
+                    {
+                        failedTasks.put(task, e);
+                    }
+                }
+            }
+            List<ScheduledTask> droppedTasks = List.of();
+            if(!validTasks.isEmpty())
+            {
+                int numberOfReservedTasks = reservePendingTaskCapacity(validTasks.size());
+                if(numberOfReservedTasks < validTasks.size())
+                {
+                    droppedTasks = new ArrayList<>(validTasks.subList(numberOfReservedTasks, validTasks.size()));
+                    validTasks = new ArrayList<>(validTasks.subList(0, numberOfReservedTasks));
+                    metrics.recordDropped(droppedTasks.size());
+                    log.log(Level.WARNING, "{0} tasks were dropped because the pending-task capacity is full", droppedTasks.size());
+                }
+            }
+            if(!validTasks.isEmpty())
+            {
+                int numberOfTasks = validTasks.size();
+                Runnable[] taskWrappers = new Runnable[numberOfTasks];
+                long[] delays = new long[numberOfTasks];
+                for(int i = 0; i < numberOfTasks; i++)
+                {
+                    ScheduledTask task = validTasks.get(i);
+                    taskWrappers[i] = TaskWrapper.buildTaskWrapper(task, this);
+                    delays[i] = task.getUnit().toNanos(task.getDelay());
+                    scheduledTasksToRunnablesMapper.put(task);
+                }
+                ScheduledFuture<?>[] futures;
+                try
+                {
+                    for(ScheduledTask task : validTasks)
+                    {
+                        journalScheduled(task);
+                    }
+                    futures = scheduleAllOnEngine(validTasks, taskWrappers, delays);
+                }
+                catch(RuntimeException e)
+                {
+                    for(ScheduledTask task : validTasks)
+                    {
+                        rollBackScheduledTask(task);
+                    }
+                    throw e;
+                }
+                for(int i = 0; i < numberOfTasks; i++)
+                {
+                    validTasks.get(i).setTask(futures[i]);
                 }
+                metrics.recordScheduled(numberOfTasks);
+                log.info("schedule started");
             }
+            return new BatchScheduleResult(validTasks, failedTasks, droppedTasks);
         }
         else
         {
@@ -116,6 +503,240 @@ public class SingleExecutionScheduleService
     }
 
 
+    /**
+     * It schedules the tasks that coalesce through the coalescer of their lane and all the others with one call to the engine.
+     * @return the futures of the tasks in the order of the given tasks
+     * @throws RejectedExecutionException if the engine rejects any of the tasks. In that case none of them is scheduled.
+     */
+    private ScheduledFuture<?>[] scheduleAllOnEngine(List<ScheduledTask> tasks, Runnable[] taskWrappers, long[] delays)
+    {
+        int numberOfTasks = tasks.size();
+        long[] coalescingTolerances = new long[numberOfTasks];
+        TaskLane[] lanes = new TaskLane[numberOfTasks];
+        int[] shardKeys = new int[numberOfTasks];
+        int numberOfCoalescedTasks = 0;
+        for(int i = 0; i < numberOfTasks; i++)
+        {
+            lanes[i] = tasks.get(i).getLane();
+            shardKeys[i] = tasks.get(i).getTaskID().hashCode();
+            coalescingTolerances[i] = getCoalescingToleranceInNanoseconds(tasks.get(i));
+            if(coalescingTolerances[i] > 0L)
+            {
+                numberOfCoalescedTasks++;
+            }
+        }
+        if(numberOfCoalescedTasks == 0)
+        {
+            return engine.scheduleAll(taskWrappers, delays, lanes, shardKeys);
+        }
+        int numberOfDirectTasks = numberOfTasks - numberOfCoalescedTasks;
+        Runnable[] directTaskWrappers = new Runnable[numberOfDirectTasks];
+        long[] directDelays = new long[numberOfDirectTasks];
+        TaskLane[] directLanes = new TaskLane[numberOfDirectTasks];
+        int[] directShardKeys = new int[numberOfDirectTasks];
+        for(int i = 0, j = 0; i < numberOfTasks; i++)
+        {
+            if(coalescingTolerances[i] == 0L)
+            {
+                directTaskWrappers[j] = taskWrappers[i];
+                directLanes[j] = lanes[i];
+                directShardKeys[j] = shardKeys[i];
+                directDelays[j++] = delays[i];
+            }
+        }
+        ScheduledFuture<?>[] directFutures = engine.scheduleAll(directTaskWrappers, directDelays, directLanes, directShardKeys);
+        ScheduledFuture<?>[] futures = new ScheduledFuture<?>[numberOfTasks];
+        for(int i = 0, j = 0; i < numberOfTasks; i++)
+        {
+            try
+            {
+                futures[i] = coalescingTolerances[i] > 0L ? coalescersByLane[lanes[i].ordinal()].schedule(taskWrappers[i], delays[i], coalescingTolerances[i]) : directFutures[j++];
+            }
+            catch(RejectedExecutionException e)
+            {
+                for(ScheduledFuture<?> future : futures)
+                {
+                    if(future != null)
+                    {
+                        future.cancel(false);
+                    }
+                }
+                for(ScheduledFuture<?> future : directFutures)
+                {
+                    future.cancel(false);
+                }
+                throw e;
+            }
+        }
+        return futures;
+    }
+
+
+    long getCoalescingToleranceInNanoseconds(ScheduledTask task)
+    {
+        Long tolerance = task.getCoalescingToleranceInMilliseconds();
+        return tolerance != null ? TimeUnit.MILLISECONDS.toNanos(Math.max(tolerance, 0L)) : config.getSnapshot().getCoalescingToleranceInNanoseconds();
+    }
+
+
+    /**
+     * @return the execution timeout of the given task, or 0 if its executions are not timed
+     */
+    long getExecutionTimeoutInNanoseconds(ScheduledTask task)
+    {
+        Long timeout = task.getExecutionTimeoutInMilliseconds();
+        return timeout != null ? TimeUnit.MILLISECONDS.toNanos(Math.max(timeout, 0L)) : config.getSnapshot().getExecutionTimeoutInNanoseconds();
+    }
+
+
+    /**
+     * It takes a token from the rate limit of the group of the given task, or reserves the next one.
+     * @return 0 if the task may start now, otherwise how many nanoseconds it has to wait for the token it reserved
+     */
+    long reserveRateLimitToken(ScheduledTask task)
+    {
+        String rateLimitGroup = task.getRateLimitGroup();
+        if(rateLimitGroup == null)
+        {
+            return 0L;
+        }
+        TokenBucket rateLimit = rateLimitsByGroup.get(rateLimitGroup);
+        return rateLimit != null ? rateLimit.reserve(System.nanoTime()) : 0L;
+    }
+
+
+    /**
+     * It starts timing an execution of the given task on the current thread. The timeout is kept by the timer of the engine,
+     * which interrupts the thread when it elapses, so a timed execution needs no thread of its own.
+     * @param task
+     * @param timeoutInNanoseconds
+     * @return the watchdog to stop when the execution ends, or null if the engine has been shut down and no longer times executions
+     */
+    ExecutionWatchdog watchExecution(ScheduledTask task, long timeoutInNanoseconds)
+    {
+        ExecutionWatchdog watchdog = new ExecutionWatchdog(Thread.currentThread(),
+                        () -> log.log(Level.WARNING, "task {0} ran longer than its execution timeout and was interrupted", task.getTaskID()));
+        try
+        {
+            watchdog.setTrigger(engine.scheduleOnTimer(watchdog, timeoutInNanoseconds, TimeUnit.NANOSECONDS));
+        }
+        catch(RejectedExecutionException e)
+        {
+            return null;
+        }
+        return watchdog;
+    }
+
+
+    /**
+     * It takes permits for the given number of new tasks from the pending-task capacity, applying its backpressure policy
+     * when the capacity is full.
+     * @param numberOfTasks
+     * @return the number of tasks that got a permit. It is less than numberOfTasks only under the drop_newest policy.
+     * @throws RejectedExecutionException if the tasks do not fit under the reject, block or drop_oldest policy
+     */
+    private int reservePendingTaskCapacity(int numberOfTasks)
+    {
+        if(pendingTaskCapacity.tryAcquire(numberOfTasks))
+        {
+            return numberOfTasks;
+        }
+        if(numberOfTasks > pendingTaskCapacity.getMaxPendingTasks()
+                        && pendingTaskCapacity.getPolicy() != PendingTaskCapacity.BackpressurePolicy.DROP_NEWEST)
+        {
+            throw new RejectedExecutionException(String.format("%d tasks cannot fit in the pending-task capacity of %d tasks.", numberOfTasks, pendingTaskCapacity.getMaxPendingTasks()));
+        }
+        switch(pendingTaskCapacity.getPolicy())
+        {
+            case BLOCK:
+                try
+                {
+                    if(pendingTaskCapacity.tryAcquire(numberOfTasks, pendingTaskCapacity.getBlockTimeoutInNanoseconds()))
+                    {
+                        return numberOfTasks;
+                    }
+                }
+                catch(InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("interrupted while waiting for pending-task capacity.", e);
+                }
+                throw new RejectedExecutionException(String.format("no pending-task capacity became available within %d ms.", TimeUnit.NANOSECONDS.toMillis(pendingTaskCapacity.getBlockTimeoutInNanoseconds())));
+            case DROP_OLDEST:
+                for(int i = 0; i < numberOfTasks; i++)
+                {
+                    while(!pendingTaskCapacity.tryAcquire(1))
+                    {
+                        if(!dropOldestPendingTask())
+                        {
+                            pendingTaskCapacity.release(i);
+                            throw new RejectedExecutionException("the pending-task capacity is full and no pending task could be dropped.");
+                        }
+                    }
+                }
+                return numberOfTasks;
+            case DROP_NEWEST:
+                int numberOfReservedTasks = 0;
+                while(numberOfReservedTasks < numberOfTasks && pendingTaskCapacity.tryAcquire(1))
+                {
+                    numberOfReservedTasks++;
+                }
+                return numberOfReservedTasks;
+            default:
+                throw new RejectedExecutionException(String.format("the scheduler already holds the maximum of %d pending tasks.", pendingTaskCapacity.getMaxPendingTasks()));
+        }
+    }
+
+
+    /**
+     * It cancels the pending task that was scheduled first and runs its callbackAfterTaskIsCancelled.
+     * Tasks that have already started running are skipped, because they keep running whatever their future says.
+     * @return true if a task was cancelled
+     */
+    private boolean dropOldestPendingTask()
+    {
+        for(String taskID : scheduledTasksToRunnablesMapper.getTaskIDsInInsertionOrder())
+        {
+            ScheduledTask task = scheduledTasksToRunnablesMapper.get(taskID);
+            if(task != null && task.getTask() != null && retire(task))
+            {
+                task.getTask().cancel(false);
+                if(scheduledTasksToRunnablesMapper.remove(taskID, task))
+                {
+                    journalCancelled(task);
+                    metrics.recordDropped(1);
+                    completeAsCancelled(task);
+                    log.log(Level.WARNING, "task {0} was dropped because the pending-task capacity is full", taskID);
+                    if(task.getCallbackAfterTaskIsCancelled() != null)
+                    {
+                        try
+                        {
+                            task.getCallbackAfterTaskIsCancelled().run();
+                        }
+                        catch(RuntimeException e)
+                        {
+                            log.log(Level.WARNING, "callbackAfterTaskIsCancelled of task " + taskID + " failed", e);
+                        }
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private static boolean retire(ScheduledTask task)
+    {
+        synchronized(task)
+        {
+            //under the lock of the task, so that reschedule() does not swap its wrapper in the meantime
+            TaskWrapper.ScheduledRunnable taskWrapper = task.getTaskWrapper();
+            return taskWrapper != null ? taskWrapper.retire() : task.getTask().cancel(false);
+        }
+    }
+
+
     /**
      * It cancels the given taskToCancel before it executes.
      * @param taskToCancel
@@ -125,16 +746,38 @@ public class SingleExecutionScheduleService
      */
     public boolean cancel(String taskToCancel) throws FeatureIsDisabledException, TaskDoesNotExistException
     {
-        if(config.getBooleanProp(TASK_SCHEDULER_ENABLED)
-                        && config.getBooleanProp(SCHEDULER_CANCELLATION_ENABLED))
+        return cancelTask(getScheduledTaskByID(taskToCancel));
+    }
+
+
+    /**
+     * It cancels the task with the given handle before it executes.
+     * The task is found by its handle, so its taskID is neither hashed nor compared.
+     * @param handleOfTaskToCancel the handle that schedule() returned
+     * @return
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     * @throws TaskDoesNotExistException if no pending task has the given handle.
+     */
+    public boolean cancel(long handleOfTaskToCancel) throws FeatureIsDisabledException, TaskDoesNotExistException
+    {
+        return cancelTask(scheduledTasksToRunnablesMapper.get(handleOfTaskToCancel));
+    }
+
+
+    private boolean cancelTask(ScheduledTask task) throws FeatureIsDisabledException, TaskDoesNotExistException
+    {
+        ConfigurationSnapshot snapshot = config.getSnapshot();
+        if(snapshot.isSchedulerEnabled() && snapshot.isCancellationEnabled())
         {
-            ScheduledTask task = getScheduledTaskByID(taskToCancel);
-            if(task != null && !task.getTask().isCancelled())
+            if(task != null && task.getTask() != null && !task.getTask().isCancelled())
             {
                 boolean wasTaskCancelled = task.getTask().cancel(true);
                 if(wasTaskCancelled)
                 {
-                    scheduledTasksToRunnablesMapper.remove(taskToCancel);
+                    scheduledTasksToRunnablesMapper.remove(task.getTaskID(), task);
+                    journalCancelled(task);
+                    metrics.recordCancelled(1);
+                    completeAsCancelled(task);
                 }
                 if(task.getCallbackAfterTaskIsCancelled() != null)
                 {
@@ -154,13 +797,549 @@ public class SingleExecutionScheduleService
     }
 
 
+    /**
+     * It moves the deadline of the given pending task to the given delay from now, without cancelling it. The task keeps
+     * its taskID, handle, tags, retries and callbacks and no callback runs.
+     * Moving the deadline later only records it, so frequent touches of e.g. a session timeout cost neither an allocation
+     * nor a call to the engine: the task is put back into the engine once, when its old deadline comes.
+     * Moving it before the current entry of the task fires replaces that entry.
+     * @param taskID
+     * @param newDelay a negative delay is treated as 0
+     * @param unit
+     * @return true if the task will run at the new deadline, false if it had already started running
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws TaskDoesNotExistException if no pending task has the given taskID.
+     * @throws InvalidArgumentException if the unit is null.
+     * @throws RejectedExecutionException if the deadline had to be brought forward and the scheduler has been shut down.
+     * The task is then dropped.
+     */
+    public boolean reschedule(String taskID, long newDelay, TimeUnit unit) throws FeatureIsDisabledException, TaskDoesNotExistException, InvalidArgumentException
+    {
+        ScheduledTask task = getTaskToMove(taskID, unit);
+        synchronized(task)
+        {
+            return moveDeadline(task, System.nanoTime() + unit.toNanos(Math.max(newDelay, 0L)));
+        }
+    }
+
+
+    /**
+     * It moves the deadline of the given pending task by the given delta, without cancelling it, like reschedule().
+     * @param taskID
+     * @param delta how much later the task runs. A negative delta brings it forward.
+     * @param unit
+     * @return true if the task will run at the new deadline, false if it had already started running
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws TaskDoesNotExistException if no pending task has the given taskID.
+     * @throws InvalidArgumentException if the unit is null.
+     * @throws RejectedExecutionException if the deadline had to be brought forward and the scheduler has been shut down.
+     * The task is then dropped.
+     */
+    public boolean extend(String taskID, long delta, TimeUnit unit) throws FeatureIsDisabledException, TaskDoesNotExistException, InvalidArgumentException
+    {
+        ScheduledTask task = getTaskToMove(taskID, unit);
+        synchronized(task)
+        {
+            return moveDeadline(task, task.getTaskWrapper().getPlannedFireTime() + unit.toNanos(delta));
+        }
+    }
+
+
+    private ScheduledTask getTaskToMove(String taskID, TimeUnit unit) throws FeatureIsDisabledException, TaskDoesNotExistException, InvalidArgumentException
+    {
+        if(!config.getSnapshot().isSchedulerEnabled())
+        {
+            throw new FeatureIsDisabledException();
+        }
+        if(unit == null)
+        {
+            throw new InvalidArgumentException("unit cannot be null.");
+        }
+        ScheduledTask task = scheduledTasksToRunnablesMapper.get(taskID);
+        if(task == null || task.getTask() == null || task.getTask().isCancelled() || task.getTaskWrapper() == null)
+        {
+            throw new TaskDoesNotExistException();
+        }
+        return task;
+    }
+
+
+    /**
+     * Called while holding the lock of the task, which retry() and postpone() take too, so that the entry of the task
+     * in the engine does not change under it.
+     */
+    private boolean moveDeadline(ScheduledTask task, long newPlannedFireTime)
+    {
+        ScheduledFuture<?> currentTask = task.getTask();
+        long now = System.nanoTime();
+        boolean hasMoved;
+        if(newPlannedFireTime - now >= currentTask.getDelay(TimeUnit.NANOSECONDS))
+        {
+            //the current entry fires first and puts the task back into the engine for the rest of the time
+            hasMoved = task.getTaskWrapper().moveDeadline(newPlannedFireTime);
+        }
+        else
+        {
+            TaskWrapper.ScheduledRunnable newTaskWrapper = task.getTaskWrapper().supersede(newPlannedFireTime);
+            if(newTaskWrapper == null)
+            {
+                return false;
+            }
+            currentTask.cancel(false);
+            task.setTaskWrapper(newTaskWrapper);
+            long newDelay = Math.max(newPlannedFireTime - now, 0L);
+            try
+            {
+                long coalescingTolerance = getCoalescingToleranceInNanoseconds(task);
+                if(coalescingTolerance > 0L)
+                {
+                    task.setTask(coalescersByLane[task.getLane().ordinal()].schedule(newTaskWrapper, newDelay, coalescingTolerance));
+                }
+                else
+                {
+                    task.setTask(engine.schedule(newTaskWrapper, newDelay, TimeUnit.NANOSECONDS, task.getLane(), task.getTaskID().hashCode()));
+                }
+            }
+            catch(RejectedExecutionException e)
+            {
+                scheduledTasksToRunnablesMapper.remove(task.getTaskID(), task);
+                journalCancelled(task);
+                completeAsCancelled(task);
+                throw e;
+            }
+            hasMoved = true;
+        }
+        if(hasMoved)
+        {
+            journalScheduled(task, Math.max(newPlannedFireTime - now, 0L));
+        }
+        return hasMoved;
+    }
+
+
+    /**
+     * It cancels the tasks with the given taskIDs before they execute. TaskIDs that do not exist are ignored.
+     * The callbackAfterTaskIsCancelled of the cancelled tasks run after all of them have been cancelled.
+     * @param taskIDsToCancel
+     * @return the number of tasks that were cancelled
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     */
+    public int cancelAll(Collection<String> taskIDsToCancel) throws FeatureIsDisabledException
+    {
+        checkCancellationIsEnabled();
+        return taskIDsToCancel != null ? cancelTasks(taskIDsToCancel) : 0;
+    }
+
+
+    /**
+     * It cancels the tasks whose taskID starts with the given prefix before they execute.
+     * The tasks are found through an index of the taskIDs, so only the matching ones are visited.
+     * @param taskIDPrefix
+     * @return the number of tasks that were cancelled
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     * @throws InvalidArgumentException if the taskIDPrefix is null/empty.
+     */
+    public int cancelByPrefix(String taskIDPrefix) throws FeatureIsDisabledException, InvalidArgumentException
+    {
+        checkCancellationIsEnabled();
+        if(taskIDPrefix == null || taskIDPrefix.isEmpty())
+        {
+            throw new InvalidArgumentException("taskIDPrefix cannot be null/empty.");
+        }
+        return cancelTasks(scheduledTasksToRunnablesMapper.getTaskIDsByPrefix(taskIDPrefix));
+    }
+
+
+    /**
+     * It cancels the tasks that have the given tag before they execute.
+     * @param tag
+     * @return the number of tasks that were cancelled
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     * @throws InvalidArgumentException if the tag is null.
+     */
+    public int cancelByTag(String tag) throws FeatureIsDisabledException, InvalidArgumentException
+    {
+        checkCancellationIsEnabled();
+        if(tag == null)
+        {
+            throw new InvalidArgumentException("tag cannot be null.");
+        }
+        return cancelTasks(scheduledTasksToRunnablesMapper.getTaskIDsByTag(tag));
+    }
+
+
+    private void checkCancellationIsEnabled() throws FeatureIsDisabledException
+    {
+        ConfigurationSnapshot snapshot = config.getSnapshot();
+        if(!snapshot.isSchedulerEnabled() || !snapshot.isCancellationEnabled())
+        {
+            throw new FeatureIsDisabledException();
+        }
+    }
+
+
+    private int cancelTasks(Collection<String> taskIDsToCancel)
+    {
+        List<ScheduledTask> cancelledTasks = new ArrayList<>(taskIDsToCancel.size());
+        for(String taskID : taskIDsToCancel)
+        {
+            ScheduledTask task = scheduledTasksToRunnablesMapper.get(taskID);
+            if(task != null && task.getTask() != null && task.getTask().cancel(true))
+            {
+                scheduledTasksToRunnablesMapper.remove(taskID, task);
+                journalCancelled(task);
+                completeAsCancelled(task);
+                cancelledTasks.add(task);
+            }
+        }
+        metrics.recordCancelled(cancelledTasks.size());
+        for(ScheduledTask task : cancelledTasks)
+        {
+            if(task.getCallbackAfterTaskIsCancelled() != null)
+            {
+                try
+                {
+                    task.getCallbackAfterTaskIsCancelled().run();
+                }
+                catch(RuntimeException e)
+                {
+                    log.log(Level.WARNING, "callbackAfterTaskIsCancelled of task " + task.getTaskID() + " failed", e);
+                }
+            }
+        }
+        return cancelledTasks.size();
+    }
+
+
+    /**
+     * Puts a task that its rate limit throttled back into the engine until the token it reserved is due,
+     * without touching its entry in the registry or the journal.
+     * @param taskToDefer
+     * @param deferredRun what to run once the token is due
+     * @param throttleDelayInNanoseconds
+     * @throws RejectedExecutionException if the scheduler has been shut down.
+     */
+    void defer(ScheduledTask taskToDefer, Runnable deferredRun, long throttleDelayInNanoseconds)
+    {
+        ScheduledFuture<?> firedTask = taskToDefer.getTask();
+        taskToDefer.setTask(engine.schedule(deferredRun, throttleDelayInNanoseconds, TimeUnit.NANOSECONDS, taskToDefer.getLane(), taskToDefer.getTaskID().hashCode()));
+        if(firedTask != null && firedTask.isCancelled())
+        {
+            //a cancel that raced with the deferral only reached the execution that had already fired
+            taskToDefer.getTask().cancel(false);
+        }
+        metrics.recordThrottled(taskToDefer.getRateLimitGroup());
+    }
+
+
+    /**
+     * Puts the wrapper of a task that failed back into the engine for its next attempt, at the planned fire time of
+     * the wrapper, without touching its entry in the registry.
+     * @param taskToRetry
+     * @param taskWrapper
+     * @throws RejectedExecutionException if the scheduler has been shut down.
+     */
+    void retry(ScheduledTask taskToRetry, TaskWrapper.ScheduledRunnable taskWrapper)
+    {
+        synchronized(taskToRetry)
+        {
+            if(taskWrapper.isRetired())
+            {
+                //the task has been dropped while it was running
+                return;
+            }
+            long retryDelay = Math.max(taskWrapper.getPlannedFireTime() - System.nanoTime(), 0L);
+            journalScheduled(taskToRetry, retryDelay);
+            taskToRetry.setTask(engine.schedule(taskWrapper, retryDelay, TimeUnit.NANOSECONDS, taskToRetry.getLane(), taskToRetry.getTaskID().hashCode()));
+        }
+        log.info("schedule started");
+    }
+
+
+    /**
+     * Puts the wrapper of a task whose deadline has been moved past the entry that fired back into the engine
+     * for the rest of the time, without touching its entry in the registry or the journal.
+     * @param taskToPostpone
+     * @param taskWrapper
+     * @throws RejectedExecutionException if the scheduler has been shut down.
+     */
+    void postpone(ScheduledTask taskToPostpone, TaskWrapper.ScheduledRunnable taskWrapper)
+    {
+        synchronized(taskToPostpone)
+        {
+            if(taskToPostpone.getTaskWrapper() != taskWrapper || taskWrapper.isRetired())
+            {
+                //reschedule() has given the task a new wrapper or the task has been dropped in the meantime
+                return;
+            }
+            ScheduledFuture<?> firedTask = taskToPostpone.getTask();
+            long remainingDelay = Math.max(taskWrapper.getPlannedFireTime() - System.nanoTime(), 0L);
+            taskToPostpone.setTask(engine.schedule(taskWrapper, remainingDelay, TimeUnit.NANOSECONDS, taskToPostpone.getLane(), taskToPostpone.getTaskID().hashCode()));
+            if(firedTask != null && firedTask.isCancelled())
+            {
+                //a cancel that raced with the postponement only reached the entry that had already fired
+                taskToPostpone.getTask().cancel(false);
+            }
+        }
+    }
+
+
+    /**
+     * Called once a task has finished for good, either because it succeeded or because it ran out of retries.
+     * It takes the task out of the registry, unless another task has been registered under its taskID since,
+     * and it completes the CompletableFuture of a task that was scheduled with a Callable.
+     * @param completedTask
+     * @param failure why the last attempt of the task failed or null if it succeeded
+     */
+    void onTaskCompleted(ScheduledTask completedTask, Throwable failure)
+    {
+        scheduledTasksToRunnablesMapper.remove(completedTask.getTaskID(), completedTask);
+        if(journal != null && completedTask.getHandlerName() != null)
+        {
+            journal.recordCompleted(completedTask.getTaskID());
+        }
+        if(completedTask.getTaskToSchedule() instanceof CallableTask<?> callableTask)
+        {
+            callableTask.complete(failure);
+        }
+    }
+
+
+    private static void completeAsCancelled(ScheduledTask cancelledTask)
+    {
+        if(cancelledTask.getTaskToSchedule() instanceof CallableTask<?> callableTask)
+        {
+            callableTask.cancel();
+        }
+    }
+
+
+    private void bindTaskHandler(ScheduledTask task) throws InvalidArgumentException
+    {
+        if(task.getTaskToSchedule() == null)
+        {
+            TaskHandler handler = taskHandlers.get(task.getHandlerName());
+            if(handler == null)
+            {
+                throw new InvalidArgumentException("no TaskHandler is registered with the name %s.", task.getHandlerName());
+            }
+            String taskID = task.getTaskID();
+            byte[] payload = task.getPayload();
+            task.setTaskToSchedule(() -> {
+                try
+                {
+                    handler.handle(taskID, payload);
+                }
+                catch(RuntimeException e)
+                {
+                    throw e;
+                }
+                catch(Exception e)
+                {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+    }
+
+
+    private void journalScheduled(ScheduledTask task)
+    {
+        journalScheduled(task, task.getUnit().toNanos(task.getDelay()));
+    }
+
+
+    private void journalScheduled(ScheduledTask task, long delayInNanoseconds)
+    {
+        if(journal != null && task.getHandlerName() != null)
+        {
+            long dueAt = System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(delayInNanoseconds);
+            journal.recordScheduled(task.getTaskID(), dueAt, task.getNumberOfRetriesOnError(), task.getHandlerName(), task.getPayload());
+        }
+    }
+
+
+    private void journalCancelled(ScheduledTask task)
+    {
+        if(journal != null && task.getHandlerName() != null)
+        {
+            journal.recordCancelled(task.getTaskID());
+        }
+    }
+
+
+    /**
+     * It takes a task whose scheduling has failed half way back out of the registry, which gives back its permit,
+     * and out of the journal.
+     */
+    private void rollBackScheduledTask(ScheduledTask task)
+    {
+        scheduledTasksToRunnablesMapper.remove(task.getTaskID(), task);
+        try
+        {
+            journalCancelled(task);
+        }
+        catch(UncheckedIOException e)
+        {
+            //if its schedule event has been written, the task is recovered after a restart, so it still runs at least once
+            log.log(Level.WARNING, "could not journal the rollback of task " + task.getTaskID(), e);
+        }
+    }
+
+
+    private void closeJournal()
+    {
+        if(journal != null)
+        {
+            try
+            {
+                journal.close();
+            }
+            catch(IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+
+    /**
+     * It stops accepting new tasks. Tasks that have already been scheduled will still execute.
+     * The journal is closed once they have, so their complete events are written before the writer stops.
+     */
+    public void shutdown()
+    {
+        config.stopWatchingOverrideFile();
+        boolean wasShutdown = engine.isShutdown();
+        engine.shutdown();
+        if(journal != null && !wasShutdown)
+        {
+            new SchedulerThreadFactory("journal-closer").newThread(this::closeJournalOnceTerminated).start();
+        }
+    }
+
+
+    private void closeJournalOnceTerminated()
+    {
+        try
+        {
+            boolean hasTerminated = false;
+            while(!hasTerminated)
+            {
+                hasTerminated = engine.awaitTermination(1L, TimeUnit.DAYS);
+            }
+            closeJournal();
+        }
+        catch(InterruptedException e)
+        {
+            //awaitTermination() and shutdownNow() still close the journal
+            Thread.currentThread().interrupt();
+        }
+        catch(UncheckedIOException e)
+        {
+            log.log(Level.SEVERE, "could not close the task journal", e);
+        }
+    }
+
+
+    /**
+     * It stops accepting new tasks and cancels the ones that have not executed yet.
+     * The persisted tasks among them stay in the journal, so they are recovered after a restart.
+     * @return the tasks that were cancelled
+     */
+    public List<ScheduledTask> shutdownNow()
+    {
+        config.stopWatchingOverrideFile();
+        engine.shutdownNow();
+        List<ScheduledTask> cancelledTasks = scheduledTasksToRunnablesMapper.clear();
+        for(ScheduledTask task : cancelledTasks)
+        {
+            if(task.getTask() != null)
+            {
+                task.getTask().cancel(true);
+            }
+            completeAsCancelled(task);
+        }
+        metrics.recordCancelled(cancelledTasks.size());
+        closeJournal();
+        return cancelledTasks;
+    }
+
+
+    /**
+     * It blocks until all tasks have executed after a shutdown request, or the timeout occurs,
+     * or the current thread is interrupted, whichever happens first.
+     * @param timeout
+     * @param unit
+     * @return true if the scheduler terminated and false if the timeout elapsed before termination
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        boolean hasTerminated = engine.awaitTermination(timeout, unit);
+        if(hasTerminated)
+        {
+            closeJournal();
+        }
+        return hasTerminated;
+    }
+
+
+    /**
+     * @return true if this scheduler has been shut down
+     */
+    public boolean isShutdown()
+    {
+        return engine.isShutdown();
+    }
+
+
+    /**
+     * @return true if this scheduler has been shut down and all its tasks have completed
+     */
+    public boolean isTerminated()
+    {
+        return engine.isTerminated();
+    }
+
+
+    /**
+     * @return the number of tasks that the scheduling engine still holds
+     */
+    long getQueuedTaskCount()
+    {
+        return engine.getQueuedTaskCount();
+    }
+
+
+    /**
+     * It returns the number of tasks that have been scheduled and have not finished or been cancelled yet.
+     * It does not lock, so producers can call it before every schedule() to throttle themselves.
+     * @return
+     */
+    public int getPendingTaskCount()
+    {
+        return scheduledTasksToRunnablesMapper.size();
+    }
+
+
+    /**
+     * It returns how many more tasks fit in the pending-task capacity before its backpressure policy applies.
+     * @return the remaining capacity or Integer.MAX_VALUE if orionlibs.orion_task_scheduler.pending.max.tasks is 0
+     */
+    public int getRemainingPendingTaskCapacity()
+    {
+        return pendingTaskCapacity.getRemainingCapacity();
+    }
+
+
     /**
      * It returns a mapping of taskIDs to ScheduledTask objects
      * @return
      */
     public Map<String, ScheduledTask> getScheduledTasksToRunnablesMapper()
     {
-        return scheduledTasksToRunnablesMapper;
+        return scheduledTasksToRunnablesMapper.asMap();
     }
 
 
@@ -175,6 +1354,27 @@ public class SingleExecutionScheduleService
     }
 
 
+    /**
+     * It returns the pending ScheduledTask that has the provided handle.
+     * @param handle
+     * @return
+     */
+    public ScheduledTask getScheduledTaskByHandle(long handle)
+    {
+        return scheduledTasksToRunnablesMapper.get(handle);
+    }
+
+
+    /**
+     * It returns the metrics of this instance of the service.
+     * @return
+     */
+    public SchedulerMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+
     /**
      * It returns the config of this instance of the service.
      * @return
@@ -0,0 +1,311 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * A map from keys to tasks that is split into stripes, and each stripe has its own lock and its own open-addressed
+ * table with linear probing. The subclasses decide how the hash of a key is computed and how the key of a slot is
+ * kept, either in an array next to the tasks or in the task itself, so an entry costs a few array slots instead of
+ * a node object.
+ * Reads take no lock: they validate an optimistic stamp and fall back to the read lock only if a write interfered.
+ * Changes to one key run under the lock of its stripe, so they are atomic like ConcurrentHashMap.compute().
+ * @param <K> the type of the keys
+ */
+abstract class StripedTaskTable<K>
+{
+    private static final int NUMBER_OF_STRIPES = 64;
+    private static final int STRIPE_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(NUMBER_OF_STRIPES);
+    private static final int MINIMUM_CAPACITY = 16;
+    private final Stripe<K>[] stripes;
+
+
+    @SuppressWarnings("unchecked")
+    StripedTaskTable()
+    {
+        this.stripes = new Stripe[NUMBER_OF_STRIPES];
+        for(int i = 0; i < NUMBER_OF_STRIPES; i++)
+        {
+            stripes[i] = new Stripe<>(this);
+        }
+    }
+
+
+    /**
+     * @param key
+     * @return a hash whose high bits pick the stripe and whose low bits pick the slot
+     */
+    abstract int hash(K key);
+
+
+    abstract Slots<K> newSlots(int capacity);
+
+
+    private Stripe<K> stripeOf(int hash)
+    {
+        return stripes[hash >>> STRIPE_SHIFT];
+    }
+
+
+    ScheduledTask get(K key)
+    {
+        int hash = hash(key);
+        return stripeOf(hash).get(key, hash);
+    }
+
+
+    /**
+     * It replaces the task registered under the given key with the result of the given function, which gets the
+     * current task or null. If the result is null, the key is removed. The function runs under the lock of the stripe
+     * of the key, so it must not change this map.
+     * @param key
+     * @param remappingFunction
+     * @return the new task or null
+     */
+    ScheduledTask compute(K key, UnaryOperator<ScheduledTask> remappingFunction)
+    {
+        int hash = hash(key);
+        return stripeOf(hash).compute(key, hash, remappingFunction);
+    }
+
+
+    int size()
+    {
+        int size = 0;
+        for(Stripe<K> stripe : stripes)
+        {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+
+    /**
+     * @return the tasks at the time every stripe is visited
+     */
+    List<ScheduledTask> snapshot()
+    {
+        List<ScheduledTask> tasks = new ArrayList<>(size());
+        for(Stripe<K> stripe : stripes)
+        {
+            stripe.copyTo(tasks);
+        }
+        return tasks;
+    }
+
+
+    /**
+     * The slots of a stripe, which is replaced as a whole when the stripe is resized.
+     * @param <K> the type of the keys
+     */
+    abstract static class Slots<K>
+    {
+        final ScheduledTask[] tasks;
+
+
+        Slots(int capacity)
+        {
+            this.tasks = new ScheduledTask[capacity];
+        }
+
+
+        /**
+         * @param i an occupied slot
+         * @param key
+         * @return true if the task in the given slot is registered under the given key
+         */
+        abstract boolean hasKey(int i, K key);
+
+
+        /**
+         * @param i an occupied slot
+         * @return the hash of the key of the task in the given slot
+         */
+        abstract int hashAt(int i);
+
+
+        /**
+         * It registers the given task in the given slot under the given key.
+         */
+        abstract void set(int i, K key, ScheduledTask task);
+
+
+        /**
+         * It copies the entry of the given slot into the given slot of the given slots.
+         */
+        abstract void copy(int i, Slots<K> target, int j);
+
+
+        abstract void clear(int i);
+    }
+
+
+    private static final class Stripe<K>
+    {
+        private final StripedTaskTable<K> map;
+        private final StampedLock lock;
+        private volatile Slots<K> slots;
+        private volatile int size;
+
+
+        Stripe(StripedTaskTable<K> map)
+        {
+            this.map = map;
+            this.lock = new StampedLock();
+            this.slots = map.newSlots(MINIMUM_CAPACITY);
+        }
+
+
+        ScheduledTask get(K key, int hash)
+        {
+            long stamp = lock.tryOptimisticRead();
+            Slots<K> current = slots;
+            int i = indexOf(current, key, hash);
+            ScheduledTask task = i >= 0 ? current.tasks[i] : null;
+            if(!lock.validate(stamp))
+            {
+                stamp = lock.readLock();
+                try
+                {
+                    current = slots;
+                    i = indexOf(current, key, hash);
+                    task = i >= 0 ? current.tasks[i] : null;
+                }
+                finally
+                {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return task;
+        }
+
+
+        /**
+         * @return the slot of the key, or -(the empty slot where it would go) - 1 if it is not in the table
+         */
+        private static <K> int indexOf(Slots<K> slots, K key, int hash)
+        {
+            ScheduledTask[] tasks = slots.tasks;
+            int mask = tasks.length - 1;
+            //the bound keeps an optimistic read finite even if a writer is shifting entries under it
+            for(int i = hash & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++)
+            {
+                if(tasks[i] == null)
+                {
+                    return -i - 1;
+                }
+                else if(slots.hasKey(i, key))
+                {
+                    return i;
+                }
+            }
+            return Integer.MIN_VALUE;
+        }
+
+
+        ScheduledTask compute(K key, int hash, UnaryOperator<ScheduledTask> remappingFunction)
+        {
+            long stamp = lock.writeLock();
+            try
+            {
+                Slots<K> current = slots;
+                int i = indexOf(current, key, hash);
+                ScheduledTask currentTask = i >= 0 ? current.tasks[i] : null;
+                ScheduledTask newTask = remappingFunction.apply(currentTask);
+                if(currentTask != null)
+                {
+                    if(newTask != null)
+                    {
+                        current.set(i, key, newTask);
+                    }
+                    else
+                    {
+                        delete(current, i);
+                    }
+                }
+                else if(newTask != null)
+                {
+                    if((size + 1) * 2 > current.tasks.length)
+                    {
+                        current = resize(current, current.tasks.length * 2);
+                        i = indexOf(current, key, hash);
+                    }
+                    current.set(-i - 1, key, newTask);
+                    size++;
+                }
+                return newTask;
+            }
+            finally
+            {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+
+        private void delete(Slots<K> current, int i)
+        {
+            ScheduledTask[] tasks = current.tasks;
+            int mask = tasks.length - 1;
+            current.clear(i);
+            //backward-shift deletion keeps every probe sequence unbroken without tombstones
+            for(int j = (i + 1) & mask; tasks[j] != null; j = (j + 1) & mask)
+            {
+                int ideal = current.hashAt(j) & mask;
+                if(((j - ideal) & mask) >= ((j - i) & mask))
+                {
+                    current.copy(j, current, i);
+                    current.clear(j);
+                    i = j;
+                }
+            }
+            size--;
+            if(tasks.length > MINIMUM_CAPACITY && size * 8 < tasks.length)
+            {
+                resize(current, tasks.length / 2);
+            }
+        }
+
+
+        private Slots<K> resize(Slots<K> current, int capacity)
+        {
+            Slots<K> resized = map.newSlots(capacity);
+            int mask = capacity - 1;
+            for(int j = 0; j < current.tasks.length; j++)
+            {
+                if(current.tasks[j] != null)
+                {
+                    int i = current.hashAt(j) & mask;
+                    while(resized.tasks[i] != null)
+                    {
+                        i = (i + 1) & mask;
+                    }
+                    current.copy(j, resized, i);
+                }
+            }
+            slots = resized;
+            return resized;
+        }
+
+
+        void copyTo(List<ScheduledTask> tasks)
+        {
+            long stamp = lock.readLock();
+            try
+            {
+                for(ScheduledTask task : slots.tasks)
+                {
+                    if(task != null)
+                    {
+                        tasks.add(task);
+                    }
+                }
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+}
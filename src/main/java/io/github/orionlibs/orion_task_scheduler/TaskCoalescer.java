@@ -0,0 +1,229 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups the tasks whose firing windows overlap, so that a group takes one entry in the engine and one wakeup.
+ * A task that is due at time d with a tolerance of w joins a pending batch that fires within [d - w, d + w].
+ * If there is none, it opens a new batch that fires exactly at d.
+ * The tasks of a batch run one after the other on the worker thread that the batch wakes up.
+ * A coalescer only groups the tasks of one lane, so that a batch never makes a task wait on the workers of another lane.
+ */
+class TaskCoalescer
+{
+    private final SchedulerEngine engine;
+    private final SchedulerMetrics metrics;
+    private final TaskLane lane;
+    private final ConcurrentSkipListMap<Long, Batch> pendingBatchesByFireTime;
+
+
+    TaskCoalescer(SchedulerEngine engine, SchedulerMetrics metrics, TaskLane lane)
+    {
+        this.engine = engine;
+        this.metrics = metrics;
+        this.lane = lane;
+        this.pendingBatchesByFireTime = new ConcurrentSkipListMap<>();
+    }
+
+
+    /**
+     * @param task
+     * @param delayInNanoseconds
+     * @param toleranceInNanoseconds how much earlier or later than its delay the task may run
+     * @return the future of the task, which can be cancelled without affecting the other tasks of its batch
+     * @throws RejectedExecutionException if the engine has been shut down
+     */
+    ScheduledFuture<?> schedule(Runnable task, long delayInNanoseconds, long toleranceInNanoseconds)
+    {
+        CoalescedTask coalescedTask = new CoalescedTask(task);
+        long dueTime = System.nanoTime() + delayInNanoseconds;
+        for(Batch batch : pendingBatchesByFireTime.subMap(dueTime - toleranceInNanoseconds, true, dueTime + toleranceInNanoseconds, true).values())
+        {
+            if(batch.add(coalescedTask))
+            {
+                metrics.recordCoalesced(1);
+                return coalescedTask;
+            }
+        }
+        long fireTime = dueTime;
+        Batch batch = new Batch(fireTime);
+        batch.add(coalescedTask);
+        Batch existingBatch;
+        while((existingBatch = pendingBatchesByFireTime.putIfAbsent(fireTime, batch)) != null)
+        {
+            if(existingBatch.add(coalescedTask))
+            {
+                metrics.recordCoalesced(1);
+                return coalescedTask;
+            }
+            //a batch that has just fired still holds this key, so the new batch takes the next free nanosecond
+            fireTime++;
+            batch = new Batch(fireTime);
+            batch.add(coalescedTask);
+        }
+        try
+        {
+            batch.setTrigger(engine.schedule(batch, fireTime - System.nanoTime(), TimeUnit.NANOSECONDS, lane));
+        }
+        catch(RejectedExecutionException e)
+        {
+            batch.reject();
+            throw e;
+        }
+        return coalescedTask;
+    }
+
+
+    /**
+     * The tasks that fire on one wakeup. Tasks can join it until it fires.
+     */
+    final class Batch implements Runnable
+    {
+        private final long fireTime;
+        private final List<CoalescedTask> tasks;
+        private int numberOfLiveTasks;
+        private boolean isClosed;
+        private ScheduledFuture<?> trigger;
+
+
+        Batch(long fireTime)
+        {
+            this.fireTime = fireTime;
+            this.tasks = new ArrayList<>();
+        }
+
+
+        synchronized boolean add(CoalescedTask task)
+        {
+            if(isClosed)
+            {
+                return false;
+            }
+            tasks.add(task);
+            task.batch = this;
+            numberOfLiveTasks++;
+            return true;
+        }
+
+
+        synchronized void setTrigger(ScheduledFuture<?> trigger)
+        {
+            this.trigger = trigger;
+            if(isClosed && numberOfLiveTasks == 0)
+            {
+                trigger.cancel(false);
+            }
+        }
+
+
+        @Override
+        public void run()
+        {
+            synchronized(this)
+            {
+                isClosed = true;
+            }
+            pendingBatchesByFireTime.remove(fireTime, this);
+            for(CoalescedTask task : tasks)
+            {
+                task.run();
+            }
+        }
+
+
+        /**
+         * Called when a task of this batch is cancelled. The last one to go takes the batch out of the engine.
+         */
+        void onTaskCancelled()
+        {
+            ScheduledFuture<?> triggerToCancel;
+            synchronized(this)
+            {
+                if(isClosed || --numberOfLiveTasks > 0)
+                {
+                    return;
+                }
+                isClosed = true;
+                triggerToCancel = trigger;
+            }
+            pendingBatchesByFireTime.remove(fireTime, this);
+            if(triggerToCancel != null)
+            {
+                triggerToCancel.cancel(false);
+            }
+        }
+
+
+        /**
+         * Called when the engine rejects the batch. The tasks that joined it in the meantime will never run.
+         */
+        void reject()
+        {
+            List<CoalescedTask> tasksToCancel;
+            synchronized(this)
+            {
+                isClosed = true;
+                tasksToCancel = new ArrayList<>(tasks);
+            }
+            pendingBatchesByFireTime.remove(fireTime, this);
+            for(CoalescedTask task : tasksToCancel)
+            {
+                task.cancel(false);
+            }
+        }
+    }
+
+
+    /**
+     * A task of a batch. Cancelling it only removes it from its batch.
+     */
+    static final class CoalescedTask extends FutureTask<Void> implements ScheduledFuture<Void>
+    {
+        private volatile Batch batch;
+
+
+        CoalescedTask(Runnable task)
+        {
+            super(task, null);
+        }
+
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning)
+        {
+            boolean wasCancelled = super.cancel(mayInterruptIfRunning);
+            Batch currentBatch = batch;
+            if(wasCancelled && currentBatch != null)
+            {
+                currentBatch.onTaskCancelled();
+            }
+            return wasCancelled;
+        }
+
+
+        @Override
+        public long getDelay(TimeUnit unit)
+        {
+            Batch currentBatch = batch;
+            return currentBatch != null ? unit.convert(currentBatch.fireTime - System.nanoTime(), TimeUnit.NANOSECONDS) : 0L;
+        }
+
+
+        @Override
+        public int compareTo(Delayed other)
+        {
+            if(other == this)
+            {
+                return 0;
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
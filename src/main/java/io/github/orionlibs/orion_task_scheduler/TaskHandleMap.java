@@ -0,0 +1,117 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+/**
+ * A map from the long handles of the pending tasks to the tasks. The slots hold only the tasks, because every task
+ * carries its own handle, which only the TaskRegistry sets before it registers the task, so an entry costs one or two
+ * array slots instead of a node object and a boxed key.
+ * The handle 0 is never given out, so handles start at 1.
+ */
+final class TaskHandleMap extends StripedTaskTable<Long>
+{
+    private static int hash(long handle)
+    {
+        //multiplying by an odd constant keeps consecutive handles in distinct slots and spreads them over the stripes
+        return (int)((handle * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+
+    @Override
+    int hash(Long handle)
+    {
+        return hash(handle.longValue());
+    }
+
+
+    @Override
+    Slots<Long> newSlots(int capacity)
+    {
+        return new HandleSlots(capacity);
+    }
+
+
+    ScheduledTask get(long handle)
+    {
+        return handle != 0L ? get(Long.valueOf(handle)) : null;
+    }
+
+
+    /**
+     * It registers the given task under its current handle.
+     * @param task
+     */
+    void put(ScheduledTask task)
+    {
+        compute(task.getHandle(), previousTask -> task);
+    }
+
+
+    /**
+     * It removes the given task only if it is still the one registered under the given handle.
+     * @param handle
+     * @param task
+     * @return true if it was removed
+     */
+    boolean remove(long handle, ScheduledTask task)
+    {
+        if(handle == 0L || task == null)
+        {
+            return false;
+        }
+        boolean[] wasRemoved = new boolean[1];
+        compute(handle, currentTask -> {
+            if(currentTask != task)
+            {
+                return currentTask;
+            }
+            wasRemoved[0] = true;
+            return null;
+        });
+        return wasRemoved[0];
+    }
+
+
+    private static final class HandleSlots extends Slots<Long>
+    {
+        HandleSlots(int capacity)
+        {
+            super(capacity);
+        }
+
+
+        @Override
+        boolean hasKey(int i, Long handle)
+        {
+            //an optimistic read may see the slot emptied after it was probed
+            ScheduledTask task = tasks[i];
+            return task != null && task.getHandle() == handle;
+        }
+
+
+        @Override
+        int hashAt(int i)
+        {
+            return hash(tasks[i].getHandle());
+        }
+
+
+        @Override
+        void set(int i, Long handle, ScheduledTask task)
+        {
+            tasks[i] = task;
+        }
+
+
+        @Override
+        void copy(int i, Slots<Long> target, int j)
+        {
+            target.set(j, null, tasks[i]);
+        }
+
+
+        @Override
+        void clear(int i)
+        {
+            tasks[i] = null;
+        }
+    }
+}
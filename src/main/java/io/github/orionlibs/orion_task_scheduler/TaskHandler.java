@@ -0,0 +1,17 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+/**
+ * The body of a task that can be persisted.
+ * A handler is registered with a name and a task refers to it by that name and carries its own payload,
+ * so that the task can be rebuilt after a restart.
+ */
+@FunctionalInterface
+public interface TaskHandler
+{
+    /**
+     * @param taskID the ID of the task that fired
+     * @param payload the payload of the task. It can be null.
+     * @throws Exception if the task fails. The task is then retried as configured.
+     */
+    void handle(String taskID, byte[] payload) throws Exception;
+}
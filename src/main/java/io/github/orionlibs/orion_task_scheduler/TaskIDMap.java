@@ -0,0 +1,81 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+/**
+ * A map from the taskIDs of the pending tasks to the tasks. Every stripe keeps the taskID that a task was registered
+ * under in an array next to the tasks, so that probing, deleting and resizing never read the taskID of a task again,
+ * which its owner may have changed since. It replaces a ConcurrentHashMap, whose node per entry costs several times
+ * the few array slots that an entry costs here.
+ */
+final class TaskIDMap extends StripedTaskTable<String>
+{
+    @Override
+    int hash(String taskID)
+    {
+        //the finaliser of MurmurHash3, so that both the high bits that pick the stripe and the low bits that pick the slot vary
+        int hash = taskID.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+
+    @Override
+    Slots<String> newSlots(int capacity)
+    {
+        return new TaskIDSlots(capacity);
+    }
+
+
+    private final class TaskIDSlots extends Slots<String>
+    {
+        private final String[] taskIDs;
+
+
+        TaskIDSlots(int capacity)
+        {
+            super(capacity);
+            this.taskIDs = new String[capacity];
+        }
+
+
+        @Override
+        boolean hasKey(int i, String taskID)
+        {
+            String key = taskIDs[i];
+            return key == taskID || (key != null && key.equals(taskID));
+        }
+
+
+        @Override
+        int hashAt(int i)
+        {
+            return hash(taskIDs[i]);
+        }
+
+
+        @Override
+        void set(int i, String taskID, ScheduledTask task)
+        {
+            taskIDs[i] = taskID;
+            tasks[i] = task;
+        }
+
+
+        @Override
+        void copy(int i, Slots<String> target, int j)
+        {
+            target.set(j, taskIDs[i], tasks[i]);
+        }
+
+
+        @Override
+        void clear(int i)
+        {
+            taskIDs[i] = null;
+            tasks[i] = null;
+        }
+    }
+}
@@ -0,0 +1,479 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * An append-only journal of the schedule, cancel and complete events of the persisted tasks.
+ * <br>
+ * The events are appended to a memory-mapped file by one writer thread. The writer takes every event
+ * that is waiting, appends all of them and then forces the file once (group commit), so producers never
+ * write to the file themselves. When the journal file is full, or after a commit once the journal holds at least
+ * the compaction threshold of records and more records than there are pending tasks, the pending tasks are
+ * compacted into a snapshot file and the journal starts over. The second rule keeps the replay after a restart short
+ * while the cost of the snapshots stays proportional to the records that are appended.
+ * <br>
+ * Once close() has been called, new events are dropped rather than queued behind the end of the writer.
+ * <br>
+ * Every frame of the journal carries the generation of the journal and a CRC32 of its body, so a torn
+ * write or a frame left over from before the last compaction ends the replay.
+ */
+class TaskJournal implements AutoCloseable
+{
+    static final byte SCHEDULED = 1;
+    static final byte CANCELLED = 2;
+    static final byte COMPLETED = 3;
+    private static final int JOURNAL_MAGIC = 0x4F544A31;
+    private static final int SNAPSHOT_MAGIC = 0x4F545331;
+    private static final int HEADER_SIZE = 12;
+    private static final int FRAME_HEADER_SIZE = 16;
+    private static final int END_MARKER_SIZE = 4;
+    private static final int MAX_ENTRIES_PER_COMMIT = 4096;
+    private static final String JOURNAL_FILE = "journal.log";
+    private static final String SNAPSHOT_FILE = "snapshot.dat";
+    private static final JournalEntry CLOSE = new JournalEntry(null, (byte)0, null, null);
+    private final Logger log;
+    private final Path directory;
+    private final boolean syncCommit;
+    private final int compactionThresholdInRecords;
+    private final FileChannel journalChannel;
+    private final MappedByteBuffer journal;
+    private final Map<String, byte[]> liveRecords;
+    private final List<PersistedTask> recoveredTasks;
+    private final BlockingQueue<JournalEntry> pendingEntries;
+    private final Thread writer;
+    private final Object closeLock;
+    private long generation;
+    private int recordsSinceCompaction;
+    private boolean closed;
+
+
+    /**
+     * It opens the journal in the given directory and recovers the pending tasks from it.
+     * @param directory
+     * @param journalSizeInBytes the size of the memory-mapped journal file
+     * @param syncCommit if true, recording an event waits until the event has been forced to disk
+     * @param compactionThresholdInRecords the number of records after which a commit compacts the journal. If it is 0,
+     * the journal is only compacted when it is full
+     * @throws IOException if the files cannot be read or written
+     */
+    TaskJournal(Path directory, int journalSizeInBytes, boolean syncCommit, int compactionThresholdInRecords) throws IOException
+    {
+        this.log = Logger.getLogger(TaskJournal.class.getName());
+        this.directory = directory;
+        this.syncCommit = syncCommit;
+        this.compactionThresholdInRecords = compactionThresholdInRecords;
+        this.closeLock = new Object();
+        this.liveRecords = new HashMap<>();
+        Files.createDirectories(directory);
+        loadSnapshot();
+        Path journalFile = directory.resolve(JOURNAL_FILE);
+        this.journalChannel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long mappedSize = Math.max(journalSizeInBytes, journalChannel.size());
+        this.journal = journalChannel.map(FileChannel.MapMode.READ_WRITE, 0L, mappedSize);
+        replayJournal();
+        compact();
+        this.recoveredTasks = new ArrayList<>(liveRecords.size());
+        for(byte[] body : liveRecords.values())
+        {
+            recoveredTasks.add(decodeScheduled(body));
+        }
+        this.pendingEntries = new LinkedBlockingQueue<>();
+        this.writer = new Thread(this::runWriter, "orion-task-scheduler-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+
+    /**
+     * @return the tasks that were pending when the journal was opened
+     */
+    List<PersistedTask> getRecoveredTasks()
+    {
+        return recoveredTasks;
+    }
+
+
+    void recordScheduled(String taskID, long dueAtEpochMilliseconds, int numberOfRetriesOnError, String handlerName, byte[] payload)
+    {
+        submit(taskID, SCHEDULED, encodeScheduled(taskID, dueAtEpochMilliseconds, numberOfRetriesOnError, handlerName, payload));
+    }
+
+
+    void recordCancelled(String taskID)
+    {
+        submit(taskID, CANCELLED, encodeTaskID(CANCELLED, taskID));
+    }
+
+
+    void recordCompleted(String taskID)
+    {
+        submit(taskID, COMPLETED, encodeTaskID(COMPLETED, taskID));
+    }
+
+
+    private void submit(String taskID, byte type, byte[] body)
+    {
+        CompletableFuture<Void> committed = syncCommit ? new CompletableFuture<>() : null;
+        synchronized(closeLock)
+        {
+            if(closed)
+            {
+                //the writer stops at the CLOSE entry, so an event queued after it would never be written
+                return;
+            }
+            pendingEntries.add(new JournalEntry(taskID, type, body, committed));
+        }
+        if(committed != null)
+        {
+            try
+            {
+                committed.join();
+            }
+            catch(CompletionException e)
+            {
+                throw e.getCause() instanceof UncheckedIOException ? (UncheckedIOException)e.getCause() : e;
+            }
+        }
+    }
+
+
+    private void runWriter()
+    {
+        List<JournalEntry> batch = new ArrayList<>();
+        boolean isClosing = false;
+        while(!isClosing)
+        {
+            try
+            {
+                batch.add(pendingEntries.take());
+            }
+            catch(InterruptedException e)
+            {
+                continue;
+            }
+            pendingEntries.drainTo(batch, MAX_ENTRIES_PER_COMMIT - 1);
+            IOException failure = null;
+            try
+            {
+                for(JournalEntry entry : batch)
+                {
+                    if(entry == CLOSE)
+                    {
+                        isClosing = true;
+                    }
+                    else
+                    {
+                        append(entry);
+                    }
+                }
+                journal.force();
+            }
+            catch(IOException e)
+            {
+                failure = e;
+                log.log(Level.SEVERE, "could not write to the task journal", e);
+            }
+            for(JournalEntry entry : batch)
+            {
+                completeEntry(entry, failure);
+            }
+            batch.clear();
+            if(failure == null && isDueForCompaction())
+            {
+                compactAfterCommit();
+            }
+        }
+    }
+
+
+    private void compactAfterCommit()
+    {
+        try
+        {
+            compact();
+        }
+        catch(IOException e)
+        {
+            //the events are already in the journal, so the next compaction tries again
+            log.log(Level.WARNING, "could not compact the task journal", e);
+        }
+    }
+
+
+    private boolean isDueForCompaction()
+    {
+        return compactionThresholdInRecords > 0
+                        && recordsSinceCompaction >= compactionThresholdInRecords
+                        && recordsSinceCompaction > liveRecords.size();
+    }
+
+
+    private static void completeEntry(JournalEntry entry, IOException failure)
+    {
+        if(entry.committed() != null)
+        {
+            if(failure == null)
+            {
+                entry.committed().complete(null);
+            }
+            else
+            {
+                entry.committed().completeExceptionally(new UncheckedIOException(failure));
+            }
+        }
+    }
+
+
+    private void append(JournalEntry entry) throws IOException
+    {
+        byte[] body = entry.body();
+        int frameSize = FRAME_HEADER_SIZE + body.length;
+        if(journal.position() + frameSize + END_MARKER_SIZE > journal.capacity())
+        {
+            compact();
+            if(journal.position() + frameSize + END_MARKER_SIZE > journal.capacity())
+            {
+                throw new IOException("a journal record of " + body.length + " bytes does not fit in the journal file");
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        journal.putInt(body.length);
+        journal.putLong(generation);
+        journal.putInt((int)crc.getValue());
+        journal.put(body);
+        journal.putInt(journal.position(), 0);
+        recordsSinceCompaction++;
+        apply(entry.type(), entry.taskID(), body);
+    }
+
+
+    private void apply(byte type, String taskID, byte[] body)
+    {
+        if(type == SCHEDULED)
+        {
+            liveRecords.put(taskID, body);
+        }
+        else
+        {
+            liveRecords.remove(taskID);
+        }
+    }
+
+
+    private void replayJournal()
+    {
+        if(journal.capacity() < HEADER_SIZE || journal.getInt(0) != JOURNAL_MAGIC)
+        {
+            generation = 0L;
+            return;
+        }
+        generation = journal.getLong(4);
+        int position = HEADER_SIZE;
+        while(position + FRAME_HEADER_SIZE <= journal.capacity())
+        {
+            int length = journal.getInt(position);
+            if(length <= 0 || position + FRAME_HEADER_SIZE + length > journal.capacity() || journal.getLong(position + 4) != generation)
+            {
+                break;
+            }
+            byte[] body = new byte[length];
+            journal.get(position + FRAME_HEADER_SIZE, body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if((int)crc.getValue() != journal.getInt(position + 12))
+            {
+                break;
+            }
+            apply(body[0], decodeTaskID(body), body);
+            recordsSinceCompaction++;
+            position += FRAME_HEADER_SIZE + length;
+        }
+    }
+
+
+    /**
+     * It writes the pending tasks to a new snapshot, which atomically replaces the old one, and then empties the journal.
+     * Replaying the old journal on top of the new snapshot gives the same pending tasks, so a crash in between is harmless.
+     */
+    private void compact() throws IOException
+    {
+        Path temporarySnapshot = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try(FileChannel channel = FileChannel.open(temporarySnapshot, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+        {
+            CheckedOutputStream checkedOutput = new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), new CRC32());
+            DataOutputStream output = new DataOutputStream(checkedOutput);
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeInt(liveRecords.size());
+            for(byte[] body : liveRecords.values())
+            {
+                output.writeInt(body.length);
+                output.write(body);
+            }
+            output.writeInt((int)checkedOutput.getChecksum().getValue());
+            output.flush();
+            channel.force(true);
+        }
+        Files.move(temporarySnapshot, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        generation++;
+        recordsSinceCompaction = 0;
+        journal.clear();
+        journal.putInt(JOURNAL_MAGIC);
+        journal.putLong(generation);
+        journal.putInt(journal.position(), 0);
+        journal.force();
+    }
+
+
+    private void loadSnapshot() throws IOException
+    {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if(!Files.exists(snapshot))
+        {
+            return;
+        }
+        try(CheckedInputStream checkedInput = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16), new CRC32()))
+        {
+            DataInputStream input = new DataInputStream(checkedInput);
+            if(input.readInt() != SNAPSHOT_MAGIC)
+            {
+                throw new IOException("the task snapshot " + snapshot + " is not a snapshot file");
+            }
+            int numberOfRecords = input.readInt();
+            Map<String, byte[]> records = new HashMap<>();
+            for(int i = 0; i < numberOfRecords; i++)
+            {
+                byte[] body = new byte[input.readInt()];
+                input.readFully(body);
+                records.put(decodeTaskID(body), body);
+            }
+            int expectedChecksum = (int)checkedInput.getChecksum().getValue();
+            if(input.readInt() != expectedChecksum)
+            {
+                throw new IOException("the task snapshot " + snapshot + " is corrupt");
+            }
+            liveRecords.putAll(records);
+        }
+    }
+
+
+    static byte[] encodeScheduled(String taskID, long dueAtEpochMilliseconds, int numberOfRetriesOnError, String handlerName, byte[] payload)
+    {
+        byte[] taskIDBytes = taskID.getBytes(StandardCharsets.UTF_8);
+        byte[] handlerNameBytes = handlerName.getBytes(StandardCharsets.UTF_8);
+        int payloadLength = payload != null ? payload.length : 0;
+        ByteBuffer body = ByteBuffer.allocate(1 + 4 + taskIDBytes.length + 8 + 4 + 4 + handlerNameBytes.length + 4 + payloadLength);
+        body.put(SCHEDULED);
+        body.putInt(taskIDBytes.length).put(taskIDBytes);
+        body.putLong(dueAtEpochMilliseconds);
+        body.putInt(numberOfRetriesOnError);
+        body.putInt(handlerNameBytes.length).put(handlerNameBytes);
+        body.putInt(payload != null ? payload.length : -1);
+        if(payload != null)
+        {
+            body.put(payload);
+        }
+        return body.array();
+    }
+
+
+    static byte[] encodeTaskID(byte type, String taskID)
+    {
+        byte[] taskIDBytes = taskID.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(1 + 4 + taskIDBytes.length).put(type).putInt(taskIDBytes.length).put(taskIDBytes).array();
+    }
+
+
+    static String decodeTaskID(byte[] body)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        buffer.get();
+        return readString(buffer);
+    }
+
+
+    static PersistedTask decodeScheduled(byte[] body)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        buffer.get();
+        String taskID = readString(buffer);
+        long dueAtEpochMilliseconds = buffer.getLong();
+        int numberOfRetriesOnError = buffer.getInt();
+        String handlerName = readString(buffer);
+        int payloadLength = buffer.getInt();
+        byte[] payload = null;
+        if(payloadLength >= 0)
+        {
+            payload = new byte[payloadLength];
+            buffer.get(payload);
+        }
+        return new PersistedTask(taskID, dueAtEpochMilliseconds, numberOfRetriesOnError, handlerName, payload);
+    }
+
+
+    private static String readString(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * It writes the events that are still waiting, stops the writer and closes the journal file.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        synchronized(closeLock)
+        {
+            if(closed)
+            {
+                return;
+            }
+            closed = true;
+            pendingEntries.add(CLOSE);
+        }
+        try
+        {
+            writer.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        journalChannel.close();
+    }
+
+
+    private record JournalEntry(String taskID, byte type, byte[] body, CompletableFuture<Void> committed)
+    {
+    }
+}
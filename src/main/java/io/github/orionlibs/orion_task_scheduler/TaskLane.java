@@ -0,0 +1,13 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+/**
+ * The lane of a task decides which workers run it and in what order it is dispatched.
+ * A lane that has workers of its own, set by orionlibs.orion_task_scheduler.lane.critical.pool.size or
+ * orionlibs.orion_task_scheduler.lane.bulk.pool.size, never waits for the tasks of the other lanes.
+ * A lane without workers of its own shares the workers of the NORMAL lane.
+ * Among the tasks that are due at the same time, the tasks of CRITICAL are handed to the workers first, then NORMAL, then BULK.
+ */
+public enum TaskLane
+{
+    CRITICAL, NORMAL, BULK
+}
@@ -0,0 +1,415 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The pending tasks of a service by taskID and by handle, together with secondary indexes that find them by taskID
+ * prefix or by tag without scanning all of them.
+ * Every task gets a handle from a counter when it is registered, which finds it without hashing its taskID.
+ * Both main maps are striped open-addressed tables, so a pending task costs the registry a few array slots rather
+ * than map nodes. The prefix index is only built the first time it is used.
+ * Every change to a taskID runs inside a compute() on that taskID, so the indexes never disagree with the main map
+ * for longer than the change itself.
+ * Every task that leaves the registry gives its permit back to the PendingTaskCapacity. A task that another task with
+ * the same taskID replaces is still in the engine, so it keeps its permit until it completes.
+ * The order in which the tasks were registered is only kept if the capacity drops the oldest task when it is full.
+ */
+class TaskRegistry
+{
+    private final TaskIDMap tasksByID;
+    private volatile ConcurrentSkipListSet<String> sortedTaskIDs;
+    private final ConcurrentMap<String, Set<String>> taskIDsByTag;
+    private final Map<String, ScheduledTask> readOnlyView;
+    private final PendingTaskCapacity capacity;
+    private final ConcurrentSkipListMap<Long, String> taskIDsByInsertionOrder;
+    private final ConcurrentMap<String, Long> insertionOrderByTaskID;
+    private final AtomicLong insertionSequence;
+    private final TaskHandleMap tasksByHandle;
+    private final AtomicLong handleSequence;
+    private final ConcurrentMap<ScheduledTask, Integer> permitsOfReplacedTasks;
+
+
+    TaskRegistry()
+    {
+        this(new PendingTaskCapacity(0, PendingTaskCapacity.BackpressurePolicy.REJECT, 0L));
+    }
+
+
+    TaskRegistry(PendingTaskCapacity capacity)
+    {
+        this.tasksByID = new TaskIDMap();
+        this.taskIDsByTag = new ConcurrentHashMap<>();
+        this.readOnlyView = new ReadOnlyView();
+        this.capacity = capacity;
+        boolean tracksInsertionOrder = capacity.isBounded() && capacity.getPolicy() == PendingTaskCapacity.BackpressurePolicy.DROP_OLDEST;
+        this.taskIDsByInsertionOrder = tracksInsertionOrder ? new ConcurrentSkipListMap<>() : null;
+        this.insertionOrderByTaskID = tracksInsertionOrder ? new ConcurrentHashMap<>() : null;
+        this.insertionSequence = new AtomicLong();
+        this.tasksByHandle = new TaskHandleMap();
+        this.handleSequence = new AtomicLong();
+        this.permitsOfReplacedTasks = new ConcurrentHashMap<>();
+    }
+
+
+    /**
+     * It registers the given task, which must have taken a permit from the capacity.
+     * If it replaces a task with the same taskID, the replaced task keeps its permit until remove() is called for it.
+     * @param task
+     * @return the new handle of the task
+     */
+    long put(ScheduledTask task)
+    {
+        String taskID = task.getTaskID();
+        long handle = handleSequence.incrementAndGet();
+        tasksByID.compute(taskID, previousTask -> {
+            if(previousTask != null)
+            {
+                if(previousTask != task)
+                {
+                    untag(taskID, previousTask);
+                }
+                tasksByHandle.remove(previousTask.getHandle(), previousTask);
+                if(capacity.isBounded())
+                {
+                    permitsOfReplacedTasks.merge(previousTask, 1, Integer::sum);
+                }
+            }
+            task.setHandle(handle);
+            tasksByHandle.put(task);
+            ConcurrentSkipListSet<String> prefixIndex = sortedTaskIDs;
+            if(prefixIndex != null)
+            {
+                prefixIndex.add(taskID);
+            }
+            tag(taskID, task);
+            if(taskIDsByInsertionOrder != null)
+            {
+                long sequence = insertionSequence.incrementAndGet();
+                Long previousSequence = insertionOrderByTaskID.put(taskID, sequence);
+                if(previousSequence != null)
+                {
+                    taskIDsByInsertionOrder.remove(previousSequence);
+                }
+                taskIDsByInsertionOrder.put(sequence, taskID);
+            }
+            return task;
+        });
+        return handle;
+    }
+
+
+    /**
+     * It removes the given task only if it is still the one registered under its taskID.
+     * If another task has replaced it, it gives back the permit that the replaced task has kept.
+     * @param taskID
+     * @param task
+     * @return true if it was removed
+     */
+    boolean remove(String taskID, ScheduledTask task)
+    {
+        boolean[] wasRemoved = new boolean[1];
+        tasksByID.compute(taskID, currentTask -> {
+            if(currentTask == null || currentTask != task)
+            {
+                return currentTask;
+            }
+            ConcurrentSkipListSet<String> prefixIndex = sortedTaskIDs;
+            if(prefixIndex != null)
+            {
+                prefixIndex.remove(taskID);
+            }
+            untag(taskID, currentTask);
+            tasksByHandle.remove(currentTask.getHandle(), currentTask);
+            if(taskIDsByInsertionOrder != null)
+            {
+                Long sequence = insertionOrderByTaskID.remove(taskID);
+                if(sequence != null)
+                {
+                    taskIDsByInsertionOrder.remove(sequence);
+                }
+            }
+            wasRemoved[0] = true;
+            return null;
+        });
+        if(wasRemoved[0])
+        {
+            capacity.release(1);
+        }
+        else if(!permitsOfReplacedTasks.isEmpty())
+        {
+            //a replaced task only comes here once it has completed, so its entry in the engine is gone too
+            boolean[] hadPermit = new boolean[1];
+            permitsOfReplacedTasks.computeIfPresent(task, (replacedTask, permits) -> {
+                hadPermit[0] = true;
+                return permits > 1 ? permits - 1 : null;
+            });
+            if(hadPermit[0])
+            {
+                capacity.release(1);
+            }
+        }
+        return wasRemoved[0];
+    }
+
+
+    ScheduledTask get(String taskID)
+    {
+        return tasksByID.get(taskID);
+    }
+
+
+    ScheduledTask get(long handle)
+    {
+        return tasksByHandle.get(handle);
+    }
+
+
+    boolean contains(String taskID)
+    {
+        return tasksByID.get(taskID) != null;
+    }
+
+
+    int size()
+    {
+        return tasksByID.size();
+    }
+
+
+    /**
+     * @return the pending tasks at the time they are collected
+     */
+    List<ScheduledTask> values()
+    {
+        return tasksByID.snapshot();
+    }
+
+
+    /**
+     * @param prefix
+     * @return the taskIDs that start with the given prefix, in ascending order
+     */
+    List<String> getTaskIDsByPrefix(String prefix)
+    {
+        List<String> taskIDs = new ArrayList<>();
+        for(String taskID : getPrefixIndex().tailSet(prefix, true))
+        {
+            if(!taskID.startsWith(prefix))
+            {
+                break;
+            }
+            taskIDs.add(taskID);
+        }
+        return taskIDs;
+    }
+
+
+    private ConcurrentSkipListSet<String> getPrefixIndex()
+    {
+        ConcurrentSkipListSet<String> prefixIndex = sortedTaskIDs;
+        if(prefixIndex == null)
+        {
+            synchronized(this)
+            {
+                prefixIndex = sortedTaskIDs;
+                if(prefixIndex == null)
+                {
+                    ConcurrentSkipListSet<String> newPrefixIndex = new ConcurrentSkipListSet<>();
+                    //published before it is filled, so that tasks registered from now on add themselves
+                    sortedTaskIDs = newPrefixIndex;
+                    for(ScheduledTask task : tasksByID.snapshot())
+                    {
+                        tasksByID.compute(task.getTaskID(), currentTask -> {
+                            if(currentTask != null)
+                            {
+                                newPrefixIndex.add(currentTask.getTaskID());
+                            }
+                            return currentTask;
+                        });
+                    }
+                    prefixIndex = newPrefixIndex;
+                }
+            }
+        }
+        return prefixIndex;
+    }
+
+
+    /**
+     * @return the taskIDs from the earliest registered to the latest registered.
+     * It is empty unless the capacity drops the oldest task when it is full.
+     */
+    Collection<String> getTaskIDsInInsertionOrder()
+    {
+        return taskIDsByInsertionOrder != null ? taskIDsByInsertionOrder.values() : List.of();
+    }
+
+
+    /**
+     * @param tag
+     * @return the taskIDs of the tasks that have the given tag
+     */
+    List<String> getTaskIDsByTag(String tag)
+    {
+        Set<String> taskIDs = taskIDsByTag.get(tag);
+        return taskIDs != null ? new ArrayList<>(taskIDs) : List.of();
+    }
+
+
+    /**
+     * @return the number of tags that at least one pending task has
+     */
+    int getNumberOfTags()
+    {
+        return taskIDsByTag.size();
+    }
+
+
+    /**
+     * It removes all the tasks and gives back the permits that replaced tasks have kept.
+     * @return the tasks that were removed
+     */
+    List<ScheduledTask> clear()
+    {
+        List<ScheduledTask> removedTasks = new ArrayList<>(tasksByID.size());
+        for(ScheduledTask task : tasksByID.snapshot())
+        {
+            if(remove(task.getTaskID(), task))
+            {
+                removedTasks.add(task);
+            }
+        }
+        for(ScheduledTask replacedTask : permitsOfReplacedTasks.keySet())
+        {
+            Integer permits = permitsOfReplacedTasks.remove(replacedTask);
+            if(permits != null)
+            {
+                capacity.release(permits);
+            }
+        }
+        return removedTasks;
+    }
+
+
+    /**
+     * @return a read-only view of the tasks by taskID
+     */
+    Map<String, ScheduledTask> asMap()
+    {
+        return readOnlyView;
+    }
+
+
+    private void tag(String taskID, ScheduledTask task)
+    {
+        if(task.getTags() != null)
+        {
+            for(String tag : task.getTags())
+            {
+                taskIDsByTag.compute(tag, (t, taskIDs) -> {
+                    Set<String> taggedTaskIDs = taskIDs != null ? taskIDs : ConcurrentHashMap.newKeySet();
+                    taggedTaskIDs.add(taskID);
+                    return taggedTaskIDs;
+                });
+            }
+        }
+    }
+
+
+    private void untag(String taskID, ScheduledTask task)
+    {
+        if(task.getTags() != null)
+        {
+            for(String tag : task.getTags())
+            {
+                taskIDsByTag.computeIfPresent(tag, (t, taskIDs) -> {
+                    taskIDs.remove(taskID);
+                    return taskIDs.isEmpty() ? null : taskIDs;
+                });
+            }
+        }
+    }
+
+
+    /**
+     * A read-only Map over the tasks by taskID. Lookups go to the TaskIDMap and iteration walks a snapshot.
+     */
+    private final class ReadOnlyView extends AbstractMap<String, ScheduledTask>
+    {
+        @Override
+        public ScheduledTask get(Object key)
+        {
+            return key instanceof String taskID ? tasksByID.get(taskID) : null;
+        }
+
+
+        @Override
+        public boolean containsKey(Object key)
+        {
+            return get(key) != null;
+        }
+
+
+        @Override
+        public int size()
+        {
+            return tasksByID.size();
+        }
+
+
+        @Override
+        public boolean isEmpty()
+        {
+            return tasksByID.size() == 0;
+        }
+
+
+        @Override
+        public Set<Entry<String, ScheduledTask>> entrySet()
+        {
+            return new AbstractSet<>()
+            {
+                @Override
+                public Iterator<Entry<String, ScheduledTask>> iterator()
+                {
+                    Iterator<ScheduledTask> tasks = tasksByID.snapshot().iterator();
+                    return new Iterator<>()
+                    {
+                        @Override
+                        public boolean hasNext()
+                        {
+                            return tasks.hasNext();
+                        }
+
+
+                        @Override
+                        public Entry<String, ScheduledTask> next()
+                        {
+                            ScheduledTask task = tasks.next();
+                            return new SimpleImmutableEntry<>(task.getTaskID(), task);
+                        }
+                    };
+                }
+
+
+                @Override
+                public int size()
+                {
+                    return tasksByID.size();
+                }
+            };
+        }
+    }
+}
@@ -1,9 +1,20 @@
 package io.github.orionlibs.orion_task_scheduler;
 
-import java.util.concurrent.ConcurrentMap;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * A class that wraps a Runnable in a way that can handle task retries.
+ * The same wrapper is put back into the engine for every retry, after the delay of the RetryPolicy of the task.
+ * A wrapper stays small while its task is pending: the state of the retries is only created when the task first fails.
+ * An execution that runs longer than the execution timeout of its task is interrupted and counts as a failed attempt.
+ * A task whose rate-limit group has no token free goes back into the engine until the token it reserved is due and then
+ * runs without asking again, so a throttled task does not count as an attempt.
+ * A deadline that extend() or reschedule() moves later only updates the wrapper. The entry fires at the old deadline,
+ * finds that it is early and goes back into the engine for the rest of the time. A deadline moved before the entry
+ * fires needs a new entry, so a new wrapper takes over and the old one does nothing if its entry still fires.
  */
 class TaskWrapper
 {
@@ -12,80 +23,246 @@ class TaskWrapper
     }
 
 
-    static Runnable buildTaskWrapper(ScheduledTask taskToSchedule, ConcurrentMap<String, ScheduledTask> scheduledTasksToRunnablesMapper, SingleExecutionScheduleService singleExecutionScheduleService)
+    static Runnable buildTaskWrapper(ScheduledTask taskToSchedule, SingleExecutionScheduleService singleExecutionScheduleService)
     {
-        return new ScheduledRunnable(taskToSchedule, scheduledTasksToRunnablesMapper, singleExecutionScheduleService);
+        ScheduledRunnable taskWrapper = new ScheduledRunnable(taskToSchedule, singleExecutionScheduleService,
+                        System.nanoTime() + taskToSchedule.getUnit().toNanos(taskToSchedule.getDelay()));
+        taskToSchedule.setTaskWrapper(taskWrapper);
+        return taskWrapper;
     }
 
 
     static class ScheduledRunnable implements Runnable
     {
+        private static final int PENDING = 0;
+        private static final int EXECUTING = 1;
+        private static final int RETIRED = 2;
+        private static final VarHandle STATE;
         private final ScheduledTask taskToSchedule;
-        private final ConcurrentMap<String, ScheduledTask> scheduledTasksToRunnablesMapper;
         private final SingleExecutionScheduleService singleExecutionScheduleService;
-        private int remainingRetries;
+        private volatile long plannedFireTime;
+        private volatile int state;
+        private RetryState retryState;
+
+        static
+        {
+            try
+            {
+                STATE = MethodHandles.lookup().findVarHandle(ScheduledRunnable.class, "state", int.class);
+            }
+            catch(ReflectiveOperationException e)
+            {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
 
 
-        public ScheduledRunnable(ScheduledTask taskToSchedule, ConcurrentMap<String, ScheduledTask> scheduledTasksToRunnablesMapper, SingleExecutionScheduleService singleExecutionScheduleService)
+        ScheduledRunnable(ScheduledTask taskToSchedule, SingleExecutionScheduleService singleExecutionScheduleService, long plannedFireTime)
         {
             this.taskToSchedule = taskToSchedule;
-            this.scheduledTasksToRunnablesMapper = scheduledTasksToRunnablesMapper;
             this.singleExecutionScheduleService = singleExecutionScheduleService;
-            this.remainingRetries = taskToSchedule.getNumberOfRetriesOnError() >= 0 ? taskToSchedule.getNumberOfRetriesOnError() : 0;
+            this.plannedFireTime = plannedFireTime;
+        }
+
+
+        long getPlannedFireTime()
+        {
+            return plannedFireTime;
+        }
+
+
+        /**
+         * It moves the deadline of a wrapper whose entry fires no later than the new deadline.
+         * @return false if the task has already started running, so the new deadline may not apply
+         */
+        boolean moveDeadline(long newPlannedFireTime)
+        {
+            plannedFireTime = newPlannedFireTime;
+            return state == PENDING;
+        }
+
+
+        /**
+         * It makes sure that this wrapper never runs its task, e.g. because the task is dropped. An entry of the wrapper
+         * that is still in the engine does nothing when it fires.
+         * @return false if the task has already started running or the wrapper has already been retired
+         */
+        boolean retire()
+        {
+            return STATE.compareAndSet(this, PENDING, RETIRED);
+        }
+
+
+        boolean isRetired()
+        {
+            return state == RETIRED;
+        }
+
+
+        /**
+         * It retires this wrapper in favour of a new one for the given deadline, which the caller puts into the engine.
+         * @return the new wrapper, or null if the task has already started running
+         */
+        ScheduledRunnable supersede(long newPlannedFireTime)
+        {
+            if(!retire())
+            {
+                return null;
+            }
+            ScheduledRunnable replacement = new ScheduledRunnable(taskToSchedule, singleExecutionScheduleService, newPlannedFireTime);
+            replacement.retryState = retryState;
+            return replacement;
         }
 
 
         @Override
         public void run()
         {
-            try
+            if(!STATE.compareAndSet(this, PENDING, EXECUTING))
             {
-                taskToSchedule.getTaskToSchedule().run();
+                //the task has been dropped or a new wrapper has taken it over
+                return;
             }
-            catch(Exception e)
+            if(plannedFireTime - System.nanoTime() > singleExecutionScheduleService.getCoalescingToleranceInNanoseconds(taskToSchedule))
+            {
+                state = PENDING;
+                try
+                {
+                    singleExecutionScheduleService.postpone(taskToSchedule, this);
+                    return;
+                }
+                catch(RejectedExecutionException e)
+                {
+                    //the scheduler is shutting down, so the task runs now rather than never
+                    if(!STATE.compareAndSet(this, PENDING, EXECUTING))
+                    {
+                        return;
+                    }
+                }
+            }
+            long throttleDelay = singleExecutionScheduleService.reserveRateLimitToken(taskToSchedule);
+            if(throttleDelay > 0L)
             {
-                if(remainingRetries > 0)
+                try
                 {
-                    remainingRetries--;
-                    rescheduleTask();
+                    //only a throttled task allocates the method reference
+                    singleExecutionScheduleService.defer(taskToSchedule, this::execute, throttleDelay);
+                    return;
                 }
-                else
+                catch(RejectedExecutionException e)
                 {
-                    handleTaskCompletion();
+                    //the scheduler is shutting down, so the task runs now rather than never
                 }
             }
+            execute();
+        }
+
+
+        private void execute()
+        {
+            SchedulerMetrics metrics = singleExecutionScheduleService.getMetrics();
+            long startTime = System.nanoTime();
+            metrics.recordFired(taskToSchedule.getLane(), startTime - plannedFireTime);
+            long executionTimeout = singleExecutionScheduleService.getExecutionTimeoutInNanoseconds(taskToSchedule);
+            ExecutionWatchdog watchdog = executionTimeout > 0L ? singleExecutionScheduleService.watchExecution(taskToSchedule, executionTimeout) : null;
+            Exception failure = null;
+            boolean hasTimedOut = false;
+            try
+            {
+                taskToSchedule.getTaskToSchedule().run();
+            }
+            catch(Exception e)
+            {
+                failure = e;
+            }
             finally
             {
-                if(remainingRetries <= 0)
+                hasTimedOut = watchdog != null && watchdog.stop();
+                metrics.recordDuration(System.nanoTime() - startTime);
+            }
+            if(hasTimedOut)
+            {
+                metrics.recordTimedOut();
+                //whatever the task did after the interrupt, the attempt counts as a failure
+                failure = new TimeoutException("task " + taskToSchedule.getTaskID() + " ran longer than its execution timeout");
+            }
+            boolean hasFailed = failure != null;
+            if(hasFailed)
+            {
+                if(retryState == null)
                 {
-                    handleTaskCompletion();
+                    retryState = new RetryState(taskToSchedule, startTime);
                 }
+                if(retryState.remainingRetries > 0 && !wasCancelled())
+                {
+                    long retryDelay = retryState.retryPolicy.nextDelayInNanoseconds(retryState.retryNumber + 1, retryState.previousRetryDelay);
+                    if(retryState.retryPolicy.allowsRetry(System.nanoTime() - retryState.firstAttemptTime, retryDelay))
+                    {
+                        retryState.retryNumber++;
+                        retryState.remainingRetries--;
+                        retryState.previousRetryDelay = retryDelay;
+                        metrics.recordRetried();
+                        rescheduleTask(retryDelay, failure);
+                        return;
+                    }
+                }
+                metrics.recordFailed();
             }
+            handleTaskCompletion(failure);
         }
 
 
-        private void rescheduleTask()
+        private boolean wasCancelled()
         {
+            return taskToSchedule.getTask() != null && taskToSchedule.getTask().isCancelled();
+        }
+
+
+        private void rescheduleTask(long retryDelayInNanoseconds, Exception failure)
+        {
+            taskToSchedule.setNumberOfRetriesOnError(retryState.remainingRetries);
+            plannedFireTime = System.nanoTime() + retryDelayInNanoseconds;
+            state = PENDING;
             try
             {
-                taskToSchedule.setNumberOfRetriesOnError(remainingRetries);
-                singleExecutionScheduleService.cancel(taskToSchedule.getTaskID());
-                singleExecutionScheduleService.schedule(taskToSchedule);
+                singleExecutionScheduleService.retry(taskToSchedule, this);
             }
-            catch(FeatureIsDisabledException | TaskDoesNotExistException | InvalidArgumentException ex)
+            catch(RejectedExecutionException e)
             {
-                throw new RuntimeException(ex);
+                handleTaskCompletion(failure);
             }
         }
 
 
-        private void handleTaskCompletion()
+        private void handleTaskCompletion(Exception failure)
         {
-            scheduledTasksToRunnablesMapper.remove(taskToSchedule.getTaskID());
+            singleExecutionScheduleService.onTaskCompleted(taskToSchedule, failure);
             if(taskToSchedule.getCallbackAfterTaskCompletes() != null)
             {
                 taskToSchedule.getCallbackAfterTaskCompletes().run();
             }
         }
     }
+
+
+    /**
+     * The progress of the retries of a task that has failed at least once.
+     */
+    private static final class RetryState
+    {
+        private final RetryPolicy retryPolicy;
+        private final long firstAttemptTime;
+        private long previousRetryDelay;
+        private int retryNumber;
+        private int remainingRetries;
+
+
+        RetryState(ScheduledTask failedTask, long firstAttemptTime)
+        {
+            //without a policy a retry waits the delay of the task, as it always did
+            this.retryPolicy = failedTask.getRetryPolicy() != null ? failedTask.getRetryPolicy() : RetryPolicy.fixed(failedTask.getDelay(), failedTask.getUnit());
+            this.firstAttemptTime = firstAttemptTime;
+            this.remainingRetries = failedTask.getNumberOfRetriesOnError() >= 0 ? failedTask.getNumberOfRetriesOnError() : 0;
+        }
+    }
 }
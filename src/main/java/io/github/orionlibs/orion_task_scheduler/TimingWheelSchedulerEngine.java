@@ -0,0 +1,508 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Engine backed by a hashed timing wheel.
+ * Scheduling and cancelling a task are O(1) no matter how many tasks are pending, at the cost of
+ * tasks firing up to one tick after their deadline (never before it).
+ * One timer thread advances the wheel and hands due tasks to the dispatcher, or to the dispatcher of their lane if it has one.
+ * Every bucket keeps a list per lane, so the tasks of a tick are handed over lane by lane, CRITICAL first.
+ * The timer thread goes away after the keep-alive period if there is nothing pending.
+ */
+class TimingWheelSchedulerEngine implements SchedulerEngine
+{
+    private static final int WORKER_IDLE = 0;
+    private static final int WORKER_STARTED = 1;
+    private static final int WORKER_TERMINATED = 2;
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+    private final long tickDuration;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startTime;
+    private final long keepAliveInNanoseconds;
+    private final Queue<TimingWheelTimeout> newTimeouts;
+    private final Queue<TimingWheelTimeout[]> newTimeoutBatches;
+    private final Queue<TimingWheelTimeout> cancelledTimeouts;
+    private final AtomicLong pendingTimeouts;
+    private final AtomicInteger workerState;
+    private final ThreadFactory timerThreadFactory;
+    private final ExecutorService dispatcher;
+    private final LaneDispatchers lanes;
+    private final CountDownLatch terminationLatch;
+    private volatile boolean shutdown;
+    private volatile boolean shutdownNow;
+    private long tick;
+
+
+    TimingWheelSchedulerEngine(long tickDurationInMilliseconds, int ticksPerWheel, ExecutorService dispatcher, long keepAliveInMilliseconds)
+    {
+        this(tickDurationInMilliseconds, ticksPerWheel, dispatcher, LaneDispatchers.none(), keepAliveInMilliseconds);
+    }
+
+
+    TimingWheelSchedulerEngine(long tickDurationInMilliseconds, int ticksPerWheel, ExecutorService dispatcher, LaneDispatchers lanes, long keepAliveInMilliseconds)
+    {
+        if(tickDurationInMilliseconds <= 0L)
+        {
+            throw new IllegalArgumentException("the tick duration of the timing wheel has to be positive");
+        }
+        if(ticksPerWheel <= 0 || ticksPerWheel > (1 << 30))
+        {
+            throw new IllegalArgumentException("the ticks per wheel have to be in (0, 2^30]");
+        }
+        this.tickDuration = TimeUnit.MILLISECONDS.toNanos(tickDurationInMilliseconds);
+        this.wheel = new Bucket[normaliseTicksPerWheel(ticksPerWheel)];
+        for(int i = 0; i < wheel.length; i++)
+        {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.keepAliveInNanoseconds = TimeUnit.MILLISECONDS.toNanos(Math.max(keepAliveInMilliseconds, tickDurationInMilliseconds));
+        this.newTimeouts = new ConcurrentLinkedQueue<>();
+        this.newTimeoutBatches = new ConcurrentLinkedQueue<>();
+        this.cancelledTimeouts = new ConcurrentLinkedQueue<>();
+        this.pendingTimeouts = new AtomicLong();
+        this.workerState = new AtomicInteger(WORKER_IDLE);
+        this.timerThreadFactory = new SchedulerThreadFactory("timer");
+        this.dispatcher = dispatcher;
+        this.lanes = lanes;
+        this.terminationLatch = new CountDownLatch(1);
+        this.startTime = System.nanoTime();
+    }
+
+
+    private static int normaliseTicksPerWheel(int ticksPerWheel)
+    {
+        int normalised = 1;
+        while(normalised < ticksPerWheel)
+        {
+            normalised <<= 1;
+        }
+        return normalised;
+    }
+
+
+    long currentTime()
+    {
+        return System.nanoTime() - startTime;
+    }
+
+
+    /**
+     * A cancelled task stops counting immediately and it is unlinked from its bucket on the next tick.
+     */
+    @Override
+    public long getQueuedTaskCount()
+    {
+        return pendingTimeouts.get();
+    }
+
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit, TaskLane lane)
+    {
+        return schedule(task, delay, unit, lane, false);
+    }
+
+
+    /**
+     * The action is run by the timer thread on the tick that expires it, before the tasks of that tick are handed over.
+     */
+    @Override
+    public ScheduledFuture<?> scheduleOnTimer(Runnable action, long delay, TimeUnit unit)
+    {
+        return schedule(action, delay, unit, TaskLane.CRITICAL, true);
+    }
+
+
+    private ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit, TaskLane lane, boolean runsOnTimerThread)
+    {
+        if(task == null || unit == null || lane == null)
+        {
+            throw new NullPointerException();
+        }
+        pendingTimeouts.incrementAndGet();
+        if(shutdown)
+        {
+            pendingTimeouts.decrementAndGet();
+            throw new RejectedExecutionException("The scheduler has been shut down.");
+        }
+        TimingWheelTimeout timeout = new TimingWheelTimeout(this, task, calculateDeadline(currentTime(), unit.toNanos(delay)), lane, runsOnTimerThread);
+        newTimeouts.add(timeout);
+        startWorkerIfIdle();
+        return timeout;
+    }
+
+
+    /**
+     * The whole batch is handed to the timer thread as one element of its queue.
+     */
+    @Override
+    public ScheduledFuture<?>[] scheduleAll(Runnable[] tasks, long[] delaysInNanoseconds, TaskLane[] taskLanes)
+    {
+        pendingTimeouts.addAndGet(tasks.length);
+        if(shutdown)
+        {
+            pendingTimeouts.addAndGet(-tasks.length);
+            throw new RejectedExecutionException("The scheduler has been shut down.");
+        }
+        long now = currentTime();
+        TimingWheelTimeout[] batch = new TimingWheelTimeout[tasks.length];
+        for(int i = 0; i < tasks.length; i++)
+        {
+            batch[i] = new TimingWheelTimeout(this, tasks[i], calculateDeadline(now, delaysInNanoseconds[i]), taskLanes[i]);
+        }
+        newTimeoutBatches.add(batch);
+        startWorkerIfIdle();
+        return batch;
+    }
+
+
+    private static long calculateDeadline(long now, long delayInNanoseconds)
+    {
+        long deadline = now + Math.max(delayInNanoseconds, 0L);
+        return deadline < 0L ? Long.MAX_VALUE : deadline;
+    }
+
+
+    void onCancelled(TimingWheelTimeout timeout)
+    {
+        pendingTimeouts.decrementAndGet();
+        cancelledTimeouts.add(timeout);
+    }
+
+
+    private void startWorkerIfIdle()
+    {
+        if(workerState.get() == WORKER_IDLE && workerState.compareAndSet(WORKER_IDLE, WORKER_STARTED))
+        {
+            timerThreadFactory.newThread(this::runWorker).start();
+        }
+    }
+
+
+    private void runWorker()
+    {
+        tick = currentTime() / tickDuration;
+        long idleSince = -1L;
+        while(!shutdownNow)
+        {
+            waitForNextTick();
+            if(shutdownNow)
+            {
+                break;
+            }
+            processCancelledTimeouts();
+            transferTimeoutsToBuckets();
+            wheel[(int)(tick & mask)].expireTimeouts();
+            tick++;
+            if(pendingTimeouts.get() == 0L)
+            {
+                processCancelledTimeouts();
+                if(shutdown)
+                {
+                    break;
+                }
+                long now = System.nanoTime();
+                if(idleSince < 0L)
+                {
+                    idleSince = now;
+                }
+                else if(now - idleSince >= keepAliveInNanoseconds)
+                {
+                    if(goIdle())
+                    {
+                        return;
+                    }
+                    idleSince = -1L;
+                }
+            }
+            else
+            {
+                idleSince = -1L;
+            }
+        }
+        if(shutdownNow)
+        {
+            cancelAllTimeouts();
+        }
+        workerState.set(WORKER_TERMINATED);
+        dispatcher.shutdown();
+        lanes.shutdown();
+        terminationLatch.countDown();
+    }
+
+
+    /**
+     * @return true if this worker thread should exit
+     */
+    private boolean goIdle()
+    {
+        workerState.set(WORKER_IDLE);
+        return !((pendingTimeouts.get() > 0L || shutdown) && workerState.compareAndSet(WORKER_IDLE, WORKER_STARTED));
+    }
+
+
+    private void waitForNextTick()
+    {
+        long deadline = tickDuration * (tick + 1);
+        while(true)
+        {
+            long sleepTimeInMilliseconds = (deadline - currentTime() + 999_999L) / 1_000_000L;
+            if(sleepTimeInMilliseconds <= 0L || shutdownNow)
+            {
+                return;
+            }
+            try
+            {
+                Thread.sleep(sleepTimeInMilliseconds);
+            }
+            catch(InterruptedException e)
+            {
+                //only shutdownNow() matters to the timer thread and it is checked in the loop
+            }
+        }
+    }
+
+
+    private void transferTimeoutsToBuckets()
+    {
+        int transferred = 0;
+        TimingWheelTimeout timeout;
+        while(transferred < MAX_TRANSFERS_PER_TICK && (timeout = newTimeouts.poll()) != null)
+        {
+            transferToBucket(timeout);
+            transferred++;
+        }
+        TimingWheelTimeout[] batch;
+        while(transferred < MAX_TRANSFERS_PER_TICK && (batch = newTimeoutBatches.poll()) != null)
+        {
+            for(TimingWheelTimeout timeoutInBatch : batch)
+            {
+                transferToBucket(timeoutInBatch);
+            }
+            transferred += batch.length;
+        }
+    }
+
+
+    private void transferToBucket(TimingWheelTimeout timeout)
+    {
+        if(timeout.isCancelled())
+        {
+            return;
+        }
+        long calculatedTick = timeout.deadline / tickDuration;
+        timeout.remainingRounds = (calculatedTick - tick) / wheel.length;
+        long ticks = Math.max(calculatedTick, tick);
+        wheel[(int)(ticks & mask)].add(timeout);
+    }
+
+
+    private void processCancelledTimeouts()
+    {
+        TimingWheelTimeout timeout;
+        while((timeout = cancelledTimeouts.poll()) != null)
+        {
+            if(timeout.bucket != null)
+            {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+
+    private void expire(TimingWheelTimeout timeout)
+    {
+        if(timeout.expire())
+        {
+            pendingTimeouts.decrementAndGet();
+            if(timeout.runsOnTimerThread)
+            {
+                timeout.run();
+                return;
+            }
+            ExecutorService laneDispatcher = lanes.get(timeout.lane);
+            try
+            {
+                (laneDispatcher != null ? laneDispatcher : dispatcher).execute(timeout);
+            }
+            catch(RejectedExecutionException e)
+            {
+                timeout.cancel(false);
+            }
+        }
+    }
+
+
+    private void cancelAllTimeouts()
+    {
+        for(Bucket bucket : wheel)
+        {
+            bucket.cancelAll();
+        }
+        TimingWheelTimeout timeout;
+        while((timeout = newTimeouts.poll()) != null)
+        {
+            timeout.cancel(false);
+        }
+        TimingWheelTimeout[] batch;
+        while((batch = newTimeoutBatches.poll()) != null)
+        {
+            for(TimingWheelTimeout timeoutInBatch : batch)
+            {
+                timeoutInBatch.cancel(false);
+            }
+        }
+        cancelledTimeouts.clear();
+    }
+
+
+    @Override
+    public void shutdown()
+    {
+        shutdown = true;
+        startWorkerIfIdle();
+    }
+
+
+    @Override
+    public void shutdownNow()
+    {
+        shutdown = true;
+        shutdownNow = true;
+        dispatcher.shutdownNow();
+        lanes.shutdownNow();
+        startWorkerIfIdle();
+    }
+
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long waitUntil = System.nanoTime() + unit.toNanos(timeout);
+        if(!terminationLatch.await(timeout, unit))
+        {
+            return false;
+        }
+        return dispatcher.awaitTermination(waitUntil - System.nanoTime(), TimeUnit.NANOSECONDS) && lanes.awaitTermination(waitUntil);
+    }
+
+
+    @Override
+    public boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+
+    @Override
+    public boolean isTerminated()
+    {
+        return terminationLatch.getCount() == 0L && dispatcher.isTerminated() && lanes.isTerminated();
+    }
+
+
+    /**
+     * A doubly-linked list of timeouts per lane. It is only accessed by the timer thread.
+     */
+    final class Bucket
+    {
+        private final TimingWheelTimeout[] heads = new TimingWheelTimeout[LaneDispatchers.NUMBER_OF_LANES];
+        private final TimingWheelTimeout[] tails = new TimingWheelTimeout[LaneDispatchers.NUMBER_OF_LANES];
+
+
+        void add(TimingWheelTimeout timeout)
+        {
+            timeout.bucket = this;
+            int lane = timeout.lane;
+            if(heads[lane] == null)
+            {
+                heads[lane] = tails[lane] = timeout;
+            }
+            else
+            {
+                tails[lane].next = timeout;
+                timeout.prev = tails[lane];
+                tails[lane] = timeout;
+            }
+        }
+
+
+        void expireTimeouts()
+        {
+            for(int lane = 0; lane < heads.length; lane++)
+            {
+                TimingWheelTimeout timeout = heads[lane];
+                while(timeout != null)
+                {
+                    TimingWheelTimeout next = timeout.next;
+                    if(timeout.remainingRounds <= 0L)
+                    {
+                        remove(timeout);
+                        expire(timeout);
+                    }
+                    else if(timeout.isCancelled())
+                    {
+                        remove(timeout);
+                    }
+                    else
+                    {
+                        timeout.remainingRounds--;
+                    }
+                    timeout = next;
+                }
+            }
+        }
+
+
+        void remove(TimingWheelTimeout timeout)
+        {
+            int lane = timeout.lane;
+            TimingWheelTimeout next = timeout.next;
+            if(timeout.prev != null)
+            {
+                timeout.prev.next = next;
+            }
+            if(next != null)
+            {
+                next.prev = timeout.prev;
+            }
+            if(timeout == heads[lane])
+            {
+                heads[lane] = next;
+            }
+            if(timeout == tails[lane])
+            {
+                tails[lane] = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+
+        void cancelAll()
+        {
+            for(int lane = 0; lane < heads.length; lane++)
+            {
+                while(heads[lane] != null)
+                {
+                    TimingWheelTimeout timeout = heads[lane];
+                    remove(timeout);
+                    timeout.cancel(false);
+                }
+            }
+        }
+    }
+}
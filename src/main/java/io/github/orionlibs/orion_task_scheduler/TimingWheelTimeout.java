@@ -0,0 +1,48 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pending task of the TimingWheelSchedulerEngine.
+ * It is linked directly into a bucket of the wheel so that it can be unlinked in O(1).
+ */
+class TimingWheelTimeout extends EngineTimeout
+{
+    private final TimingWheelSchedulerEngine engine;
+    /**
+     * nanoseconds relative to the start time of the engine
+     */
+    final long deadline;
+    long remainingRounds;
+    TimingWheelTimeout next;
+    TimingWheelTimeout prev;
+    TimingWheelSchedulerEngine.Bucket bucket;
+
+
+    TimingWheelTimeout(TimingWheelSchedulerEngine engine, Runnable task, long deadline, TaskLane lane)
+    {
+        this(engine, task, deadline, lane, false);
+    }
+
+
+    TimingWheelTimeout(TimingWheelSchedulerEngine engine, Runnable task, long deadline, TaskLane lane, boolean runsOnTimerThread)
+    {
+        super(task, lane, runsOnTimerThread);
+        this.engine = engine;
+        this.deadline = deadline;
+    }
+
+
+    @Override
+    void onCancelled()
+    {
+        engine.onCancelled(this);
+    }
+
+
+    @Override
+    public long getDelay(TimeUnit unit)
+    {
+        return unit.convert(deadline - engine.currentTime(), TimeUnit.NANOSECONDS);
+    }
+}
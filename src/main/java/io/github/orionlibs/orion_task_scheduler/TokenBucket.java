@@ -0,0 +1,76 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket that refills at a fixed rate up to its burst size. It only keeps the time at which the bucket will
+ * have given out all the tokens reserved so far (the generic cell rate algorithm), so a reservation is one
+ * compare-and-set and refilling needs neither a thread nor a lock.
+ * A caller that is told to wait has already reserved its token for the end of that wait, so the callers that wait
+ * get the tokens in the order in which they asked and none of them has to ask again.
+ */
+final class TokenBucket
+{
+    /**
+     * About 73 years, so that adding a token or a burst to a System.nanoTime() value can not overflow.
+     */
+    private static final long MAXIMUM_BURST_IN_NANOSECONDS = Long.MAX_VALUE / 4;
+    private final long nanosecondsPerToken;
+    private final long burstInNanoseconds;
+    private final AtomicLong reservedUntil;
+
+
+    /**
+     * @param tokensPerSecond a positive, finite rate
+     * @param burstSize how many tokens can be taken at once after the bucket has been idle, at least 1
+     * @throws IllegalArgumentException if the rate is not positive and finite, the burst size is less than 1
+     * or the bucket takes longer than about 73 years to refill
+     */
+    TokenBucket(double tokensPerSecond, int burstSize)
+    {
+        if(!(tokensPerSecond > 0d) || Double.isInfinite(tokensPerSecond))
+        {
+            throw new IllegalArgumentException("tokensPerSecond has to be positive and finite.");
+        }
+        if(burstSize < 1)
+        {
+            throw new IllegalArgumentException("burstSize has to be at least 1.");
+        }
+        this.nanosecondsPerToken = Math.max((long)(1_000_000_000d / tokensPerSecond), 1L);
+        long burst;
+        try
+        {
+            burst = Math.multiplyExact(nanosecondsPerToken, (long)burstSize);
+        }
+        catch(ArithmeticException e)
+        {
+            burst = Long.MAX_VALUE;
+        }
+        if(burst > MAXIMUM_BURST_IN_NANOSECONDS)
+        {
+            throw new IllegalArgumentException("a burst of " + burstSize + " tokens at " + tokensPerSecond + " tokens per second takes too long to refill.");
+        }
+        this.burstInNanoseconds = burst;
+        this.reservedUntil = new AtomicLong(System.nanoTime());
+    }
+
+
+    /**
+     * It reserves the next token.
+     * @param now the current System.nanoTime()
+     * @return 0 if the token can be used right away, otherwise how many nanoseconds from now it can be used
+     */
+    long reserve(long now)
+    {
+        while(true)
+        {
+            long previousReservedUntil = reservedUntil.get();
+            //an idle bucket does not save up more than its burst
+            long newReservedUntil = (previousReservedUntil - now > 0L ? previousReservedUntil : now) + nanosecondsPerToken;
+            if(reservedUntil.compareAndSet(previousReservedUntil, newReservedUntil))
+            {
+                return Math.max(newReservedUntil - now - burstInNanoseconds, 0L);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When a RecurringTask fires.
+ * <br>
+ * fixedRate: every period, measured from the planned start of the previous run. If a run takes longer than
+ * the period, the cycles it overran are skipped instead of firing back to back.
+ * <br>
+ * fixedDelay: the given delay after the previous run has finished.
+ * <br>
+ * cron: at the times that match a CronExpression.
+ */
+public final class Trigger
+{
+    enum Kind
+    {
+        FIXED_RATE, FIXED_DELAY, CRON
+    }
+
+    private final Kind kind;
+    private final long initialDelayInNanoseconds;
+    private final long periodInNanoseconds;
+    private final CronExpression cronExpression;
+
+
+    private Trigger(Kind kind, long initialDelayInNanoseconds, long periodInNanoseconds, CronExpression cronExpression)
+    {
+        this.kind = kind;
+        this.initialDelayInNanoseconds = Math.max(0L, initialDelayInNanoseconds);
+        this.periodInNanoseconds = periodInNanoseconds;
+        this.cronExpression = cronExpression;
+    }
+
+
+    public static Trigger fixedRate(long initialDelay, long period, TimeUnit unit)
+    {
+        return new Trigger(Kind.FIXED_RATE, unit.toNanos(initialDelay), unit.toNanos(period), null);
+    }
+
+
+    public static Trigger fixedDelay(long initialDelay, long delay, TimeUnit unit)
+    {
+        return new Trigger(Kind.FIXED_DELAY, unit.toNanos(initialDelay), unit.toNanos(delay), null);
+    }
+
+
+    /**
+     * @param cronExpression evaluated in the default zone of the JVM
+     * @return
+     * @throws InvalidArgumentException if the expression is not a valid cron expression
+     */
+    public static Trigger cron(String cronExpression) throws InvalidArgumentException
+    {
+        return cron(cronExpression, ZoneId.systemDefault());
+    }
+
+
+    /**
+     * @param cronExpression
+     * @param zone the zone in which the expression is evaluated
+     * @return
+     * @throws InvalidArgumentException if the expression is not a valid cron expression
+     */
+    public static Trigger cron(String cronExpression, ZoneId zone) throws InvalidArgumentException
+    {
+        return new Trigger(Kind.CRON, 0L, 0L, CronExpression.parse(cronExpression, zone));
+    }
+
+
+    Kind getKind()
+    {
+        return kind;
+    }
+
+
+    long getInitialDelayInNanoseconds()
+    {
+        return initialDelayInNanoseconds;
+    }
+
+
+    long getPeriodInNanoseconds()
+    {
+        return periodInNanoseconds;
+    }
+
+
+    CronExpression getCronExpression()
+    {
+        return cronExpression;
+    }
+}
@@ -0,0 +1,118 @@
+package io.github.orionlibs.orion_task_scheduler.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches a properties file and hands its content to a consumer every time the file is created or modified.
+ */
+class ConfigurationFileWatcher implements Closeable
+{
+    private final Logger log;
+    private final Path file;
+    private final Consumer<Properties> onChange;
+    private final WatchService watchService;
+    private final Thread watcher;
+
+
+    ConfigurationFileWatcher(Path file, Consumer<Properties> onChange) throws IOException
+    {
+        this.log = Logger.getLogger(ConfigurationFileWatcher.class.getName());
+        this.file = file.toAbsolutePath();
+        this.onChange = onChange;
+        this.watchService = this.file.getFileSystem().newWatchService();
+        this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.watcher = new Thread(this::watch, "orion-task-scheduler-config-watcher");
+        this.watcher.setDaemon(true);
+    }
+
+
+    /**
+     * It loads the file once, if it exists, and then keeps watching it.
+     */
+    void start()
+    {
+        reload();
+        watcher.start();
+    }
+
+
+    private void watch()
+    {
+        while(true)
+        {
+            WatchKey key;
+            try
+            {
+                key = watchService.take();
+            }
+            catch(InterruptedException | ClosedWatchServiceException e)
+            {
+                return;
+            }
+            boolean hasFileChanged = false;
+            for(WatchEvent<?> event : key.pollEvents())
+            {
+                if(event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context()))
+                {
+                    hasFileChanged = true;
+                }
+            }
+            if(hasFileChanged)
+            {
+                reload();
+            }
+            if(!key.reset())
+            {
+                return;
+            }
+        }
+    }
+
+
+    private void reload()
+    {
+        if(!Files.isRegularFile(file))
+        {
+            return;
+        }
+        Properties overrides = new Properties();
+        try(InputStream input = Files.newInputStream(file))
+        {
+            overrides.load(input);
+        }
+        catch(IOException e)
+        {
+            log.log(Level.WARNING, "could not reload the config override file " + file, e);
+            return;
+        }
+        try
+        {
+            onChange.accept(overrides);
+        }
+        catch(IllegalArgumentException e)
+        {
+            //the watcher keeps running, so a corrected file is applied
+            log.log(Level.WARNING, "the config override file " + file + " was not applied", e);
+        }
+    }
+
+
+    @Override
+    public void close() throws IOException
+    {
+        watchService.close();
+    }
+}
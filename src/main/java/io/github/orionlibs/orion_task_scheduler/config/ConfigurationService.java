@@ -1,20 +1,39 @@
 package io.github.orionlibs.orion_task_scheduler.config;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Properties;
+
 /**
  * provides access to the plugin's config
+ * Reads go to an immutable snapshot behind a volatile reference, so they never lock.
+ * Every change builds a new snapshot and swaps it in. A change that the new snapshot cannot parse leaves the config as it was.
  */
 public class ConfigurationService
 {
     private OrionConfiguration configurationRegistry;
+    private volatile ConfigurationSnapshot snapshot;
+    private ConfigurationFileWatcher overrideFileWatcher;
 
 
     /**
      * stores a config object
      * @param configuration
      */
-    public void registerConfiguration(OrionConfiguration configuration)
+    public synchronized void registerConfiguration(OrionConfiguration configuration)
     {
         configurationRegistry = configuration;
+        snapshot = new ConfigurationSnapshot(configuration);
+    }
+
+
+    /**
+     * @return the current immutable snapshot of the config
+     */
+    public ConfigurationSnapshot getSnapshot()
+    {
+        return snapshot;
     }
 
 
@@ -25,7 +44,7 @@ public class ConfigurationService
      */
     public String getProp(String key)
     {
-        return configurationRegistry.getProperty(key);
+        return snapshot.get(key);
     }
 
 
@@ -36,7 +55,60 @@ public class ConfigurationService
      */
     public Boolean getBooleanProp(String key)
     {
-        return Boolean.parseBoolean(configurationRegistry.getProperty(key));
+        return snapshot.getBoolean(key);
+    }
+
+
+    /**
+     * retrieves the value associated with the provided key casted to an int
+     * @param key
+     * @return
+     * @throws IllegalArgumentException if there is no such key
+     * @throws NumberFormatException if the value is not an int
+     */
+    public Integer getIntegerProp(String key)
+    {
+        String value = getRequiredProp(key);
+        try
+        {
+            return Integer.parseInt(value);
+        }
+        catch(NumberFormatException e)
+        {
+            throw new NumberFormatException("the value '" + value + "' of the config " + key + " is not an int");
+        }
+    }
+
+
+    /**
+     * retrieves the value associated with the provided key casted to a long
+     * @param key
+     * @return
+     * @throws IllegalArgumentException if there is no such key
+     * @throws NumberFormatException if the value is not a long
+     */
+    public Long getLongProp(String key)
+    {
+        String value = getRequiredProp(key);
+        try
+        {
+            return Long.parseLong(value);
+        }
+        catch(NumberFormatException e)
+        {
+            throw new NumberFormatException("the value '" + value + "' of the config " + key + " is not a long");
+        }
+    }
+
+
+    private String getRequiredProp(String key)
+    {
+        String value = snapshot.get(key);
+        if(value == null)
+        {
+            throw new IllegalArgumentException("the config has no value for " + key);
+        }
+        return value.trim();
     }
 
 
@@ -44,9 +116,62 @@ public class ConfigurationService
      * remaps the given key to the given value
      * @param key
      * @param value
+     * @throws IllegalArgumentException if the key is one of the typed keys of the ConfigurationSnapshot and the value cannot be parsed
+     */
+    public synchronized void updateProp(String key, String value)
+    {
+        Properties properties = new Properties();
+        properties.setProperty(key, value);
+        updateProps(properties);
+    }
+
+
+    /**
+     * remaps all the given keys to their values in one atomic change
+     * @param properties
+     * @throws IllegalArgumentException if one of the typed keys of the ConfigurationSnapshot has a value that cannot be parsed
+     */
+    public synchronized void updateProps(Properties properties)
+    {
+        ConfigurationSnapshot updatedSnapshot = new ConfigurationSnapshot(configurationRegistry, properties);
+        for(String key : properties.stringPropertyNames())
+        {
+            configurationRegistry.updateProp(key, properties.getProperty(key));
+        }
+        snapshot = updatedSnapshot;
+    }
+
+
+    /**
+     * It applies the given properties file on top of the config now and again every time the file changes.
+     * Keys that are removed from the file keep their last value.
+     * @param overrideFile
+     * @throws IOException if the directory of the file cannot be watched
+     */
+    public synchronized void watchOverrideFile(Path overrideFile) throws IOException
+    {
+        stopWatchingOverrideFile();
+        overrideFileWatcher = new ConfigurationFileWatcher(overrideFile, this::updateProps);
+        overrideFileWatcher.start();
+    }
+
+
+    /**
+     * It stops watching the override file, if one is being watched.
      */
-    public void updateProp(String key, String value)
+    public synchronized void stopWatchingOverrideFile()
     {
-        configurationRegistry.updateProp(key, value);
+        if(overrideFileWatcher != null)
+        {
+            try
+            {
+                overrideFileWatcher.close();
+            }
+            catch(IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            overrideFileWatcher = null;
+        }
     }
 }
@@ -0,0 +1,138 @@
+package io.github.orionlibs.orion_task_scheduler.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable copy of the config, taken when the config was registered or last changed.
+ * The boolean flags are parsed once when the snapshot is taken, so reading them needs neither a lock nor parsing.
+ * The keys that the schedulers read for every task are also parsed into typed fields, so a change to them applies
+ * to the next task without a map lookup on the way. A snapshot whose typed keys have values that cannot be parsed
+ * is never built, so such a change is rejected as a whole.
+ */
+public final class ConfigurationSnapshot
+{
+    public static final String SCHEDULER_ENABLED = "orionlibs.orion_task_scheduler.enabled";
+    public static final String CANCELLATION_ENABLED = "orionlibs.orion_task_scheduler.cancellation.enabled";
+    public static final String COALESCING_TOLERANCE_IN_MILLISECONDS = "orionlibs.orion_task_scheduler.coalescing.tolerance.ms";
+    public static final String EXECUTION_TIMEOUT_IN_MILLISECONDS = "orionlibs.orion_task_scheduler.execution.timeout.ms";
+    private final Map<String, String> values;
+    private final Map<String, Boolean> booleanValues;
+    private final boolean schedulerEnabled;
+    private final boolean cancellationEnabled;
+    private final long coalescingToleranceInNanoseconds;
+    private final long executionTimeoutInNanoseconds;
+
+
+    ConfigurationSnapshot(Properties properties)
+    {
+        this(properties, new Properties());
+    }
+
+
+    /**
+     * @param properties
+     * @param overrides values that replace the ones of the given properties in this snapshot
+     * @throws IllegalArgumentException if a typed key has a value that is not a number
+     */
+    ConfigurationSnapshot(Properties properties, Properties overrides)
+    {
+        Map<String, String> copiedValues = new HashMap<>();
+        for(String key : properties.stringPropertyNames())
+        {
+            copiedValues.put(key, properties.getProperty(key));
+        }
+        for(String key : overrides.stringPropertyNames())
+        {
+            copiedValues.put(key, overrides.getProperty(key));
+        }
+        Map<String, Boolean> parsedBooleanValues = new HashMap<>();
+        for(Map.Entry<String, String> entry : copiedValues.entrySet())
+        {
+            parsedBooleanValues.put(entry.getKey(), Boolean.parseBoolean(entry.getValue()));
+        }
+        this.values = copiedValues;
+        this.booleanValues = parsedBooleanValues;
+        this.schedulerEnabled = getBoolean(SCHEDULER_ENABLED);
+        this.cancellationEnabled = getBoolean(CANCELLATION_ENABLED);
+        this.coalescingToleranceInNanoseconds = parseMillisecondsToNanoseconds(COALESCING_TOLERANCE_IN_MILLISECONDS);
+        this.executionTimeoutInNanoseconds = parseMillisecondsToNanoseconds(EXECUTION_TIMEOUT_IN_MILLISECONDS);
+    }
+
+
+    private long parseMillisecondsToNanoseconds(String key)
+    {
+        String value = values.get(key);
+        if(value == null || value.isBlank())
+        {
+            return 0L;
+        }
+        try
+        {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(Long.parseLong(value.trim()), 0L));
+        }
+        catch(NumberFormatException e)
+        {
+            throw new IllegalArgumentException("the value '" + value + "' of the config " + key + " is not a number of milliseconds", e);
+        }
+    }
+
+
+    /**
+     * @param key
+     * @return the value of the given key or null if there is no such key
+     */
+    public String get(String key)
+    {
+        return values.get(key);
+    }
+
+
+    /**
+     * @param key
+     * @return the value of the given key casted to a boolean or false if there is no such key
+     */
+    public boolean getBoolean(String key)
+    {
+        Boolean value = booleanValues.get(key);
+        return value != null && value;
+    }
+
+
+    /**
+     * @return the value of orionlibs.orion_task_scheduler.enabled
+     */
+    public boolean isSchedulerEnabled()
+    {
+        return schedulerEnabled;
+    }
+
+
+    /**
+     * @return the value of orionlibs.orion_task_scheduler.cancellation.enabled
+     */
+    public boolean isCancellationEnabled()
+    {
+        return cancellationEnabled;
+    }
+
+
+    /**
+     * @return the value of orionlibs.orion_task_scheduler.coalescing.tolerance.ms in nanoseconds, or 0 if it is missing
+     */
+    public long getCoalescingToleranceInNanoseconds()
+    {
+        return coalescingToleranceInNanoseconds;
+    }
+
+
+    /**
+     * @return the value of orionlibs.orion_task_scheduler.execution.timeout.ms in nanoseconds, or 0 if it is missing
+     */
+    public long getExecutionTimeoutInNanoseconds()
+    {
+        return executionTimeoutInNanoseconds;
+    }
+}
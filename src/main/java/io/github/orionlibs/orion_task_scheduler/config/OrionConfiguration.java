@@ -20,12 +20,24 @@ public class OrionConfiguration extends Properties
 
 
     public static OrionConfiguration loadFeatureConfiguration() throws IOException
+    {
+        return loadFeatureConfiguration(null);
+    }
+
+
+    /**
+     * It loads the default feature configuration and overrides it with the given nullable custom configuration.
+     * @param customConfig
+     * @return
+     * @throws IOException if the default configuration cannot be read
+     */
+    public static OrionConfiguration loadFeatureConfiguration(Properties customConfig) throws IOException
     {
         OrionConfiguration featureConfiguration = new OrionConfiguration();
         InputStream defaultConfigStream = OrionConfiguration.class.getResourceAsStream(FEATURE_CONFIGURATION_FILE);
         try
         {
-            featureConfiguration.loadDefaultAndCustomConfiguration(defaultConfigStream, null);
+            featureConfiguration.loadDefaultAndCustomConfiguration(defaultConfigStream, customConfig);
             return featureConfiguration;
         }
         catch(IOException e)
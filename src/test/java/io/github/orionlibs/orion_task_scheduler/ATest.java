@@ -1,7 +1,10 @@
 package io.github.orionlibs.orion_task_scheduler;
 
 import java.io.IOException;
+import java.util.Properties;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import org.apache.commons.io.IOUtils;
 
 public class ATest
@@ -23,4 +26,45 @@ public class ATest
             return "";
         }
     }
+
+
+    /**
+     * @return a config that selects the given engine, with a timing wheel tick of 5 ms so that short delays are kept
+     */
+    protected static Properties engineConfig(String engine)
+    {
+        Properties customConfig = new Properties();
+        customConfig.setProperty("orionlibs.orion_task_scheduler.engine", engine);
+        customConfig.setProperty("orionlibs.orion_task_scheduler.timing_wheel.tick.duration.ms", "5");
+        return customConfig;
+    }
+
+
+    protected static ScheduledTask.ScheduledTaskBuilder taskBuilder(String taskID, Runnable taskToSchedule, long delayInMilliseconds)
+    {
+        return ScheduledTask.builder()
+                        .taskID(taskID)
+                        .taskToSchedule(taskToSchedule)
+                        .delay(delayInMilliseconds)
+                        .unit(TimeUnit.MILLISECONDS);
+    }
+
+
+    protected static ScheduledTask buildTask(String taskID, Runnable taskToSchedule, long delayInMilliseconds)
+    {
+        return taskBuilder(taskID, taskToSchedule, delayInMilliseconds).build();
+    }
+
+
+    /**
+     * It polls the given condition for up to 10 seconds.
+     */
+    protected static void waitUntil(BooleanSupplier condition) throws InterruptedException
+    {
+        long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while(!condition.getAsBoolean() && System.nanoTime() < waitUntil)
+        {
+            Thread.sleep(10);
+        }
+    }
 }
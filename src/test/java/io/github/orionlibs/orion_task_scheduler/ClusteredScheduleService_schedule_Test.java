@@ -0,0 +1,285 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class ClusteredScheduleService_schedule_Test extends ATest
+{
+    private JdbcDataSource dataSource;
+    private List<ClusteredScheduleService> nodes;
+    private Map<String, AtomicInteger> executionsByTaskID;
+    private Map<String, byte[]> payloadsByTaskID;
+
+
+    @BeforeEach
+    void setUp() throws SQLException
+    {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:cluster-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        try(Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement())
+        {
+            statement.execute("CREATE TABLE orion_scheduled_task ("
+                            + "task_id VARCHAR(255) PRIMARY KEY, "
+                            + "handler_name VARCHAR(255) NOT NULL, "
+                            + "payload VARBINARY, "
+                            + "due_at BIGINT NOT NULL, "
+                            + "number_of_retries_on_error INT NOT NULL, "
+                            + "lease_owner VARCHAR(255), "
+                            + "lease_expires_at BIGINT NOT NULL)");
+            statement.execute("CREATE INDEX orion_scheduled_task_due_at ON orion_scheduled_task (due_at)");
+        }
+        nodes = new ArrayList<>();
+        executionsByTaskID = new ConcurrentHashMap<>();
+        payloadsByTaskID = new ConcurrentHashMap<>();
+    }
+
+
+    @AfterEach
+    public void teardown() throws SQLException, InterruptedException
+    {
+        for(ClusteredScheduleService node : nodes)
+        {
+            node.shutdownNow();
+        }
+        //a claim that is still running would otherwise hit the closed database
+        for(ClusteredScheduleService node : nodes)
+        {
+            assertTrue(node.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        try(Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement())
+        {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+
+    private ClusteredScheduleService startNode(String nodeID, String pollIntervalInMilliseconds) throws IOException, InvalidArgumentException
+    {
+        return startNode(nodeID, pollIntervalInMilliseconds, new Properties());
+    }
+
+
+    private ClusteredScheduleService startNode(String nodeID, String pollIntervalInMilliseconds, Properties customConfig) throws IOException, InvalidArgumentException
+    {
+        customConfig.setProperty("orionlibs.orion_task_scheduler.cluster.node.id", nodeID);
+        customConfig.setProperty("orionlibs.orion_task_scheduler.cluster.poll.interval.ms", pollIntervalInMilliseconds);
+        customConfig.setProperty("orionlibs.orion_task_scheduler.cluster.claim.batch.size", "20");
+        ClusteredScheduleService node = new ClusteredScheduleService(dataSource, customConfig);
+        node.registerTaskHandler("record", (taskID, payload) -> {
+            executionsByTaskID.computeIfAbsent(taskID, key -> new AtomicInteger()).incrementAndGet();
+            if(payload != null)
+            {
+                payloadsByTaskID.put(taskID, payload);
+            }
+        });
+        nodes.add(node);
+        return node;
+    }
+
+
+    private static ScheduledTask buildTask(String taskID, long delayInMilliseconds)
+    {
+        return taskBuilder(taskID, null, delayInMilliseconds).handlerName("record").build();
+    }
+
+
+    private int countPendingTasks() throws SQLException
+    {
+        try(Connection connection = dataSource.getConnection();
+                        Statement statement = connection.createStatement();
+                        ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM orion_scheduled_task"))
+        {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+
+    private void waitUntilNoTaskIsPending() throws InterruptedException
+    {
+        waitUntil(() -> {
+            try
+            {
+                return countPendingTasks() == 0;
+            }
+            catch(SQLException e)
+            {
+                return false;
+            }
+        });
+    }
+
+
+    @Test
+    void test_schedule_taskRunsOnceOnOneOfTheNodes() throws Exception
+    {
+        ClusteredScheduleService node1 = startNode("node1", "20");
+        startNode("node2", "20");
+        startNode("node3", "20");
+        ScheduledTask task = buildTask("task1", 50);
+        task.setPayload("hello".getBytes(StandardCharsets.UTF_8));
+        assertTrue(node1.schedule(task));
+        waitUntilNoTaskIsPending();
+        Thread.sleep(100);
+        assertEquals(0, countPendingTasks());
+        assertEquals(1, executionsByTaskID.get("task1").get());
+        assertArrayEquals("hello".getBytes(StandardCharsets.UTF_8), payloadsByTaskID.get("task1"));
+    }
+
+
+    @Test
+    void test_schedule_everyTaskRunsExactlyOnceAcrossTheNodes() throws Exception
+    {
+        ClusteredScheduleService node1 = startNode("node1", "20");
+        ClusteredScheduleService node2 = startNode("node2", "20");
+        ClusteredScheduleService node3 = startNode("node3", "20");
+        ClusteredScheduleService[] schedulingNodes = {node1, node2, node3};
+        for(int i = 0; i < 300; i++)
+        {
+            assertTrue(schedulingNodes[i % 3].schedule(buildTask("task" + i, i % 50)));
+        }
+        waitUntil(() -> executionsByTaskID.size() == 300);
+        waitUntilNoTaskIsPending();
+        assertEquals(300, executionsByTaskID.size());
+        for(AtomicInteger executions : executionsByTaskID.values())
+        {
+            assertEquals(1, executions.get());
+        }
+        assertEquals(300L, node1.getMetrics().getFiredCount() + node2.getMetrics().getFiredCount() + node3.getMetrics().getFiredCount());
+    }
+
+
+    @Test
+    void test_schedule_sameTaskFromEveryReplicaIsScheduledOnce() throws Exception
+    {
+        ClusteredScheduleService node1 = startNode("node1", "20");
+        ClusteredScheduleService node2 = startNode("node2", "20");
+        assertTrue(node1.schedule(buildTask("nightly-report", 100)));
+        assertFalse(node2.schedule(buildTask("nightly-report", 100)));
+        waitUntilNoTaskIsPending();
+        Thread.sleep(100);
+        assertEquals(1, executionsByTaskID.get("nightly-report").get());
+    }
+
+
+    @Test
+    void test_expiredLeaseOfADeadNodeIsClaimedByAnotherNode() throws Exception
+    {
+        long now = System.currentTimeMillis();
+        try(Connection connection = dataSource.getConnection();
+                        PreparedStatement statement = connection.prepareStatement("INSERT INTO orion_scheduled_task VALUES (?, ?, NULL, ?, 0, ?, ?)"))
+        {
+            statement.setString(1, "orphan");
+            statement.setString(2, "record");
+            statement.setLong(3, now);
+            statement.setString(4, "dead-node");
+            statement.setLong(5, now + 300L);
+            statement.executeUpdate();
+        }
+        startNode("node1", "20");
+        Thread.sleep(150);
+        assertFalse(executionsByTaskID.containsKey("orphan"));
+        waitUntilNoTaskIsPending();
+        assertEquals(1, executionsByTaskID.get("orphan").get());
+    }
+
+
+    @Test
+    void test_renewLeases_onlyRenewsTheTasksTheNodeStillHolds() throws Exception
+    {
+        long now = System.currentTimeMillis();
+        try(Connection connection = dataSource.getConnection();
+                        PreparedStatement statement = connection.prepareStatement("INSERT INTO orion_scheduled_task VALUES (?, ?, NULL, ?, 0, ?, ?)"))
+        {
+            //a lease of node1 on a task it no longer holds, e.g. because it dropped the task
+            statement.setString(1, "dropped");
+            statement.setString(2, "record");
+            statement.setLong(3, now);
+            statement.setString(4, "node1");
+            statement.setLong(5, now + 300L);
+            statement.executeUpdate();
+        }
+        Properties customConfig = new Properties();
+        customConfig.setProperty("orionlibs.orion_task_scheduler.cluster.lease.duration.ms", "150");
+        startNode("node1", "20", customConfig);
+        waitUntilNoTaskIsPending();
+        assertEquals(1, executionsByTaskID.get("dropped").get());
+    }
+
+
+    @Test
+    void test_shutdownNow_releasesTheClaimedTasksToTheOtherNodes() throws Exception
+    {
+        ClusteredScheduleService node1 = startNode("node1", "1000");
+        node1.schedule(buildTask("task1", 500));
+        waitUntil(() -> node1.getClaimedTaskCount() == 1);
+        assertEquals(1, node1.getClaimedTaskCount());
+        node1.shutdownNow();
+        startNode("node2", "20");
+        waitUntilNoTaskIsPending();
+        assertEquals(1, executionsByTaskID.get("task1").get());
+        assertEquals(0L, node1.getMetrics().getFiredCount());
+    }
+
+
+    @Test
+    void test_cancel_taskDoesNotRunOnAnyNode() throws Exception
+    {
+        ClusteredScheduleService node1 = startNode("node1", "20");
+        startNode("node2", "20");
+        node1.schedule(buildTask("task1", 60_000));
+        assertTrue(node1.cancel("task1"));
+        assertFalse(node1.cancel("task1"));
+        assertEquals(0, countPendingTasks());
+    }
+
+
+    @Test
+    void test_schedule_taskWithARunnableIsInvalid() throws Exception
+    {
+        ClusteredScheduleService node1 = startNode("node1", "20");
+        ScheduledTask task = buildTask("task1", 50);
+        task.setTaskToSchedule(() -> {});
+        assertThrows(InvalidArgumentException.class, () -> node1.schedule(task));
+    }
+
+
+    @Test
+    void test_shutdown_runsTheClaimedTasksAndStopsClaiming() throws Exception
+    {
+        ClusteredScheduleService node1 = startNode("node1", "1000");
+        node1.schedule(buildTask("task1", 200));
+        waitUntil(() -> node1.getClaimedTaskCount() == 1);
+        node1.shutdown();
+        assertTrue(node1.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, executionsByTaskID.get("task1").get());
+        assertEquals(0, countPendingTasks());
+        assertThrows(java.util.concurrent.RejectedExecutionException.class, () -> node1.schedule(buildTask("task2", 10)));
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class CronExpression_Test extends ATest
+{
+    private static long epochMilliseconds(String localDateTime, ZoneId zone)
+    {
+        return LocalDateTime.parse(localDateTime).atZone(zone).toInstant().toEpochMilli();
+    }
+
+
+    private static String next(String expression, String after, ZoneId zone) throws InvalidArgumentException
+    {
+        long nextFireTime = CronExpression.parse(expression, zone).nextFireTimeInEpochMilliseconds(epochMilliseconds(after, zone));
+        return nextFireTime < 0L ? "none" : ZonedDateTime.ofInstant(Instant.ofEpochMilli(nextFireTime), zone).toLocalDateTime().toString();
+    }
+
+
+    private static String nextWithOffset(String expression, String after, ZoneId zone) throws InvalidArgumentException
+    {
+        long nextFireTime = CronExpression.parse(expression, zone).nextFireTimeInEpochMilliseconds(OffsetDateTime.parse(after).toInstant().toEpochMilli());
+        return nextFireTime < 0L ? "none" : ZonedDateTime.ofInstant(Instant.ofEpochMilli(nextFireTime), zone).toOffsetDateTime().toString();
+    }
+
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+                    "* * * * * *        | 2024-03-10T10:15:30 | 2024-03-10T10:15:31",
+                    "*/15 * * * *       | 2024-03-10T10:15:00 | 2024-03-10T10:30",
+                    "0 9 * * MON-FRI    | 2024-03-08T09:00:00 | 2024-03-11T09:00",
+                    "30 23 * * *        | 2024-03-08T23:30:00 | 2024-03-09T23:30",
+                    "0 0 29 FEB *       | 2024-03-01T00:00:00 | 2028-02-29T00:00",
+                    "0 0 31 * *         | 2024-04-01T00:00:00 | 2024-05-31T00:00",
+                    "0 12 1 * SUN       | 2024-03-02T13:00:00 | 2024-03-03T12:00",
+                    "0 0 1 1 *          | 2024-12-31T23:59:59 | 2025-01-01T00:00",
+                    "10-40/10 5 4 * * 7 | 2024-03-10T04:05:20 | 2024-03-10T04:05:30",
+                    "0 0 * * 0,7        | 2024-03-10T00:00:00 | 2024-03-17T00:00"})
+    void test_nextFireTime_utc(String expression, String after, String expectedNextFireTime) throws Exception
+    {
+        assertEquals(expectedNextFireTime, next(expression, after, ZoneOffset.UTC));
+    }
+
+
+    @Test
+    void test_nextFireTime_acrossDaylightSavingTime() throws Exception
+    {
+        ZoneId athens = ZoneId.of("Europe/Athens");
+        assertEquals("2024-03-31T09:00", next("0 9 * * *", "2024-03-30T09:00:00", athens));
+        assertEquals("2024-10-27T09:00", next("0 9 * * *", "2024-10-26T09:00:00", athens));
+    }
+
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+                    //a daily time in the spring-forward gap fires at the first instant after the transition
+                    "30 2 * * *      | 2026-03-29T01:00+01:00 | 2026-03-29T03:00+02:00",
+                    "30 2 * * *      | 2026-03-29T03:00+02:00 | 2026-03-30T02:30+02:00",
+                    //an hourly expression follows the wall clock and skips the local times of the gap
+                    "30 * * * *      | 2026-03-29T01:40+01:00 | 2026-03-29T03:30+02:00",
+                    "*/20 * * * *    | 2026-03-29T01:50+01:00 | 2026-03-29T03:00+02:00"})
+    void test_nextFireTime_springForwardGap(String expression, String after, String expectedNextFireTime) throws Exception
+    {
+        assertEquals(expectedNextFireTime, nextWithOffset(expression, after, ZoneId.of("Europe/Berlin")));
+    }
+
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+                    //a daily time that the fall-back overlap repeats only fires at its first occurrence
+                    "30 2 * * *      | 2026-10-25T02:00+02:00 | 2026-10-25T02:30+02:00",
+                    "30 2 * * *      | 2026-10-25T02:30+02:00 | 2026-10-26T02:30+01:00",
+                    //unless the service starts during the repeated hour, after the first occurrence
+                    "30 2 * * *      | 2026-10-25T02:10+01:00 | 2026-10-25T02:30+01:00",
+                    //an hourly expression follows the wall clock and fires in both passes of the repeated hour
+                    "0 * * * *       | 2026-10-25T02:00+02:00 | 2026-10-25T02:00+01:00",
+                    "0 * * * *       | 2026-10-25T02:00+01:00 | 2026-10-25T03:00+01:00",
+                    "30 * * * *      | 2026-10-25T02:30+02:00 | 2026-10-25T02:30+01:00"})
+    void test_nextFireTime_fallBackOverlap(String expression, String after, String expectedNextFireTime) throws Exception
+    {
+        assertEquals(expectedNextFireTime, nextWithOffset(expression, after, ZoneId.of("Europe/Berlin")));
+    }
+
+
+    @Test
+    void test_nextFireTime_neverFires() throws Exception
+    {
+        assertEquals("none", next("0 0 30 FEB *", "2024-01-01T00:00:00", ZoneOffset.UTC));
+    }
+
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "* * * *", "60 * * * *", "* 24 * * *", "* * 0 * *", "* * * 13 *", "5-1 * * * *", "a * * * *", "* * * * * * *"})
+    void test_parse_invalidExpressions(String expression)
+    {
+        assertThrows(InvalidArgumentException.class, () -> CronExpression.parse(expression, ZoneOffset.UTC));
+    }
+}
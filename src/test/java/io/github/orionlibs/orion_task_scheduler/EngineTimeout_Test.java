@@ -0,0 +1,42 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class EngineTimeout_Test
+{
+    @ParameterizedTest
+    @ValueSource(strings = {"timing_wheel", "off_heap"})
+    void test_cancelWithInterruptDoesNotLeakIntoTheNextTaskOfTheThread(String engine)
+    {
+        AtomicReference<EngineTimeout> timeout = new AtomicReference<>();
+        AtomicBoolean wasInterruptedInsideTheTask = new AtomicBoolean();
+        Runnable task = () -> {
+            assertTrue(timeout.get().cancel(true));
+            wasInterruptedInsideTheTask.set(Thread.currentThread().isInterrupted());
+        };
+        timeout.set(engine.equals("timing_wheel") ? new TimingWheelTimeout(null, task, 0L, TaskLane.NORMAL) : new OffHeapTimeout(null, task, TaskLane.NORMAL));
+        assertTrue(timeout.get().expire());
+        try
+        {
+            timeout.get().run();
+            assertTrue(wasInterruptedInsideTheTask.get());
+            assertFalse(Thread.currentThread().isInterrupted());
+            assertTrue(timeout.get().isCancelled());
+            assertTrue(timeout.get().isDone());
+            assertFalse(timeout.get().cancel(true));
+            assertThrows(CancellationException.class, () -> timeout.get().get());
+        }
+        finally
+        {
+            Thread.interrupted();
+        }
+    }
+}
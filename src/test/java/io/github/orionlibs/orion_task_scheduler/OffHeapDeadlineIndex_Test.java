@@ -0,0 +1,84 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class OffHeapDeadlineIndex_Test
+{
+    @Test
+    void test_pollsInDeadlineThenSequenceOrder()
+    {
+        OffHeapDeadlineIndex index = new OffHeapDeadlineIndex(2);
+        int slot1 = index.insert(30L, 0L);
+        int slot2 = index.insert(10L, 1L);
+        int slot3 = index.insert(10L, 2L);
+        int slot4 = index.insert(20L, 3L);
+        index.remove(slot4);
+        assertEquals(3, index.size());
+        assertEquals(slot2, index.peek());
+        index.remove(slot2);
+        assertEquals(slot3, index.peek());
+        index.remove(slot3);
+        assertEquals(slot1, index.peek());
+        assertEquals(30L, index.getDeadline(slot1));
+        index.remove(slot1);
+        assertEquals(-1, index.peek());
+        assertEquals(0, index.size());
+    }
+
+
+    @Test
+    void test_matchesPriorityQueueUnderRandomOperations()
+    {
+        OffHeapDeadlineIndex index = new OffHeapDeadlineIndex(64);
+        Map<Integer, long[]> entriesBySlot = new HashMap<>();
+        PriorityQueue<long[]> expected = new PriorityQueue<>(Comparator.<long[]>comparingLong(entry -> entry[0]).thenComparingLong(entry -> entry[1]));
+        List<Integer> slots = new ArrayList<>();
+        Random random = new Random(42L);
+        for(long sequence = 0L; sequence < 200_000L; sequence++)
+        {
+            int operation = random.nextInt(4);
+            if(operation == 0 && !slots.isEmpty())
+            {
+                int slot = slots.remove(random.nextInt(slots.size()));
+                index.remove(slot);
+                expected.remove(entriesBySlot.remove(slot));
+            }
+            else if(operation == 1 && !expected.isEmpty())
+            {
+                long[] earliest = expected.poll();
+                int slot = index.peek();
+                assertEquals(earliest[0], index.getDeadline(slot));
+                assertEquals(earliest[1], index.getSequence(slot));
+                index.remove(slot);
+                entriesBySlot.remove(slot);
+                slots.remove(Integer.valueOf(slot));
+            }
+            else
+            {
+                long[] entry = {random.nextInt(1000), sequence};
+                int slot = index.insert(entry[0], entry[1]);
+                entriesBySlot.put(slot, entry);
+                slots.add(slot);
+                expected.add(entry);
+            }
+            assertEquals(expected.size(), index.size());
+        }
+        while(!expected.isEmpty())
+        {
+            long[] earliest = expected.poll();
+            int slot = index.peek();
+            assertEquals(earliest[1], index.getSequence(slot));
+            index.remove(slot);
+        }
+        assertEquals(-1, index.peek());
+    }
+}
@@ -0,0 +1,179 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class RecurringScheduleService_schedule_Test extends ATest
+{
+    private RecurringScheduleService recurringScheduler;
+    private AtomicInteger executions;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        recurringScheduler = new RecurringScheduleService();
+        executions = new AtomicInteger();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        recurringScheduler.shutdownNow();
+    }
+
+
+    @Test
+    void test_schedule_fixedRate() throws Exception
+    {
+        RecurringTask task = RecurringTask.builder()
+                        .taskID("task1")
+                        .taskToSchedule(executions::incrementAndGet)
+                        .trigger(Trigger.fixedRate(0, 50, TimeUnit.MILLISECONDS))
+                        .build();
+        recurringScheduler.schedule(task);
+        Thread.sleep(520);
+        assertTrue(executions.get() >= 9 && executions.get() <= 12);
+        assertEquals(task, recurringScheduler.getRecurringTaskByID("task1"));
+    }
+
+
+    @Test
+    void test_schedule_fixedDelayWaitsForTheRunToFinish() throws Exception
+    {
+        List<Long> startTimes = new CopyOnWriteArrayList<>();
+        recurringScheduler.schedule(RecurringTask.builder()
+                        .taskID("task1")
+                        .taskToSchedule(() -> {
+                            startTimes.add(System.nanoTime());
+                            try
+                            {
+                                Thread.sleep(50);
+                            }
+                            catch(InterruptedException e)
+                            {
+                                Thread.currentThread().interrupt();
+                            }
+                        })
+                        .trigger(Trigger.fixedDelay(0, 50, TimeUnit.MILLISECONDS))
+                        .build());
+        Thread.sleep(450);
+        assertTrue(startTimes.size() >= 3);
+        for(int i = 1; i < startTimes.size(); i++)
+        {
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(startTimes.get(i) - startTimes.get(i - 1)) >= 100);
+        }
+    }
+
+
+    @Test
+    void test_schedule_failingRunDoesNotStopTheNextCycles() throws Exception
+    {
+        recurringScheduler.schedule(RecurringTask.builder()
+                        .taskID("task1")
+                        .taskToSchedule(() -> {
+                            executions.incrementAndGet();
+                            throw new IllegalStateException("failed");
+                        })
+                        .trigger(Trigger.fixedRate(0, 30, TimeUnit.MILLISECONDS))
+                        .build());
+        Thread.sleep(200);
+        assertTrue(executions.get() >= 3);
+        assertEquals(executions.get(), recurringScheduler.getMetrics().getFailedCount(), 1);
+    }
+
+
+    @Test
+    void test_schedule_cron() throws Exception
+    {
+        recurringScheduler.schedule(RecurringTask.builder()
+                        .taskID("task1")
+                        .taskToSchedule(executions::incrementAndGet)
+                        .trigger(Trigger.cron("* * * * * *", ZoneOffset.UTC))
+                        .build());
+        Thread.sleep(2100);
+        assertTrue(executions.get() >= 2 && executions.get() <= 3);
+    }
+
+
+    @Test
+    void test_schedule_reusesOneTaskRecord() throws Exception
+    {
+        RecurringTask task = RecurringTask.builder()
+                        .taskID("task1")
+                        .taskToSchedule(executions::incrementAndGet)
+                        .trigger(Trigger.fixedRate(0, 20, TimeUnit.MILLISECONDS))
+                        .build();
+        recurringScheduler.schedule(task);
+        ScheduledFuture<?> firstRun = task.getTask();
+        Thread.sleep(100);
+        assertTrue(firstRun != task.getTask());
+        assertEquals(1, recurringScheduler.getRecurringTasks().size());
+    }
+
+
+    @Test
+    void test_cancel() throws Exception
+    {
+        AtomicInteger cancellationCallbacks = new AtomicInteger();
+        recurringScheduler.schedule(RecurringTask.builder()
+                        .taskID("task1")
+                        .taskToSchedule(executions::incrementAndGet)
+                        .trigger(Trigger.fixedRate(0, 20, TimeUnit.MILLISECONDS))
+                        .callbackAfterTaskIsCancelled(cancellationCallbacks::incrementAndGet)
+                        .build());
+        Thread.sleep(100);
+        assertTrue(recurringScheduler.cancel("task1"));
+        int executionsWhenCancelled = executions.get();
+        Thread.sleep(100);
+        assertEquals(executionsWhenCancelled, executions.get());
+        assertEquals(1, cancellationCallbacks.get());
+        assertTrue(recurringScheduler.getRecurringTasks().isEmpty());
+        assertThrows(TaskDoesNotExistException.class, () -> recurringScheduler.cancel("task1"));
+    }
+
+
+    @Test
+    void test_schedule_invalidTasks() throws Exception
+    {
+        recurringScheduler.schedule(RecurringTask.builder()
+                        .taskID("task1")
+                        .taskToSchedule(executions::incrementAndGet)
+                        .trigger(Trigger.fixedRate(1, 1, TimeUnit.HOURS))
+                        .build());
+        assertThrows(InvalidArgumentException.class, () -> recurringScheduler.schedule(RecurringTask.builder()
+                        .taskID("task1")
+                        .taskToSchedule(executions::incrementAndGet)
+                        .trigger(Trigger.fixedRate(1, 1, TimeUnit.HOURS))
+                        .build()));
+        assertThrows(InvalidArgumentException.class, () -> recurringScheduler.schedule(RecurringTask.builder()
+                        .taskID("task2")
+                        .taskToSchedule(executions::incrementAndGet)
+                        .trigger(Trigger.fixedDelay(0, 0, TimeUnit.SECONDS))
+                        .build()));
+        assertThrows(InvalidArgumentException.class, () -> recurringScheduler.schedule(RecurringTask.builder()
+                        .taskID("task3")
+                        .taskToSchedule(executions::incrementAndGet)
+                        .trigger(Trigger.cron("0 0 30 FEB *"))
+                        .build()));
+        assertFalse(recurringScheduler.getRecurringTasks().containsKey("task2"));
+        assertEquals(1, recurringScheduler.getRecurringTasks().size());
+    }
+}
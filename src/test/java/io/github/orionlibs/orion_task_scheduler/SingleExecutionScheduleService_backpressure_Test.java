@@ -0,0 +1,196 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_backpressure_Test extends ATest
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private AtomicInteger cancellationCallbacks = new AtomicInteger();
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    private void setUp(String policy) throws IOException
+    {
+        Properties customConfig = new Properties();
+        customConfig.setProperty("orionlibs.orion_task_scheduler.pending.max.tasks", "2");
+        customConfig.setProperty("orionlibs.orion_task_scheduler.pending.backpressure.policy", policy);
+        customConfig.setProperty("orionlibs.orion_task_scheduler.pending.block.timeout.ms", "1000");
+        singleExecutionScheduler = new SingleExecutionScheduleService(customConfig);
+    }
+
+
+    private ScheduledTask buildTask(String taskID, long delayInMilliseconds)
+    {
+        return taskBuilder(taskID, () -> {
+        }, delayInMilliseconds).callbackAfterTaskIsCancelled(cancellationCallbacks::incrementAndGet).build();
+    }
+
+
+    @Test
+    void test_reject() throws Exception
+    {
+        setUp("reject");
+        singleExecutionScheduler.schedule(buildTask("task1", 60_000));
+        singleExecutionScheduler.schedule(buildTask("task2", 60_000));
+        assertEquals(2, singleExecutionScheduler.getPendingTaskCount());
+        assertEquals(0, singleExecutionScheduler.getRemainingPendingTaskCapacity());
+        assertThrows(RejectedExecutionException.class, () -> singleExecutionScheduler.schedule(buildTask("task3", 60_000)));
+        singleExecutionScheduler.cancel("task1");
+        assertEquals(1, singleExecutionScheduler.getRemainingPendingTaskCapacity());
+        singleExecutionScheduler.schedule(buildTask("task3", 60_000));
+        assertEquals(Set.of("task2", "task3"), singleExecutionScheduler.getScheduledTasksToRunnablesMapper().keySet());
+    }
+
+
+    @Test
+    void test_reject_batchThatDoesNotFit() throws Exception
+    {
+        setUp("reject");
+        singleExecutionScheduler.schedule(buildTask("task1", 60_000));
+        assertThrows(RejectedExecutionException.class, () -> singleExecutionScheduler.schedule(List.of(buildTask("task2", 60_000), buildTask("task3", 60_000))));
+        assertEquals(Set.of("task1"), singleExecutionScheduler.getScheduledTasksToRunnablesMapper().keySet());
+        assertEquals(1, singleExecutionScheduler.getRemainingPendingTaskCapacity());
+    }
+
+
+    @Test
+    void test_reschedulingSameTaskIDKeepsThePermitOfTheReplacedTaskUntilItRuns() throws Exception
+    {
+        setUp("reject");
+        singleExecutionScheduler.schedule(buildTask("task1", 200));
+        //the task that is replaced still runs, so both take a permit
+        singleExecutionScheduler.schedule(buildTask("task1", 60_000));
+        assertEquals(1, singleExecutionScheduler.getPendingTaskCount());
+        assertEquals(0, singleExecutionScheduler.getRemainingPendingTaskCapacity());
+        assertThrows(RejectedExecutionException.class, () -> singleExecutionScheduler.schedule(buildTask("task2", 60_000)));
+        Thread.sleep(400);
+        assertEquals(1, singleExecutionScheduler.getRemainingPendingTaskCapacity());
+        singleExecutionScheduler.schedule(buildTask("task2", 60_000));
+        assertEquals(Set.of("task1", "task2"), singleExecutionScheduler.getScheduledTasksToRunnablesMapper().keySet());
+        singleExecutionScheduler.cancel("task1");
+        singleExecutionScheduler.cancel("task2");
+        assertEquals(2, singleExecutionScheduler.getRemainingPendingTaskCapacity());
+    }
+
+
+    @Test
+    void test_block_waitsUntilATaskCompletes() throws Exception
+    {
+        setUp("block");
+        singleExecutionScheduler.schedule(buildTask("task1", 100));
+        singleExecutionScheduler.schedule(buildTask("task2", 60_000));
+        long startTime = System.nanoTime();
+        singleExecutionScheduler.schedule(buildTask("task3", 60_000));
+        assertTrue(System.nanoTime() - startTime >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(Set.of("task2", "task3"), singleExecutionScheduler.getScheduledTasksToRunnablesMapper().keySet());
+    }
+
+
+    @Test
+    void test_block_timesOut() throws Exception
+    {
+        Properties customConfig = new Properties();
+        customConfig.setProperty("orionlibs.orion_task_scheduler.pending.max.tasks", "1");
+        customConfig.setProperty("orionlibs.orion_task_scheduler.pending.backpressure.policy", "block");
+        customConfig.setProperty("orionlibs.orion_task_scheduler.pending.block.timeout.ms", "100");
+        singleExecutionScheduler = new SingleExecutionScheduleService(customConfig);
+        singleExecutionScheduler.schedule(buildTask("task1", 60_000));
+        assertThrows(RejectedExecutionException.class, () -> singleExecutionScheduler.schedule(buildTask("task2", 60_000)));
+        assertEquals(Set.of("task1"), singleExecutionScheduler.getScheduledTasksToRunnablesMapper().keySet());
+    }
+
+
+    @Test
+    void test_dropOldest() throws Exception
+    {
+        setUp("drop_oldest");
+        singleExecutionScheduler.schedule(buildTask("task1", 60_000));
+        singleExecutionScheduler.schedule(buildTask("task2", 60_000));
+        singleExecutionScheduler.schedule(buildTask("task3", 60_000));
+        assertEquals(Set.of("task2", "task3"), singleExecutionScheduler.getScheduledTasksToRunnablesMapper().keySet());
+        assertEquals(1, cancellationCallbacks.get());
+        singleExecutionScheduler.schedule(List.of(buildTask("task4", 60_000), buildTask("task5", 60_000)));
+        assertEquals(Set.of("task4", "task5"), singleExecutionScheduler.getScheduledTasksToRunnablesMapper().keySet());
+        assertEquals(3, singleExecutionScheduler.getMetrics().getDroppedCount());
+    }
+
+
+    @Test
+    void test_dropOldest_skipsATaskThatIsRunning() throws Exception
+    {
+        setUp("drop_oldest");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean completed = new AtomicBoolean();
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("running")
+                        .taskToSchedule(() -> {
+                            started.countDown();
+                            try
+                            {
+                                release.await(5, TimeUnit.SECONDS);
+                            }
+                            catch(InterruptedException e)
+                            {
+                                Thread.currentThread().interrupt();
+                            }
+                        })
+                        .delay(10L)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .callbackAfterTaskCompletes(() -> completed.set(true))
+                        .build());
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        singleExecutionScheduler.schedule(buildTask("task2", 60_000));
+        singleExecutionScheduler.schedule(buildTask("task3", 60_000));
+        assertEquals(Set.of("running", "task3"), singleExecutionScheduler.getScheduledTasksToRunnablesMapper().keySet());
+        assertEquals(1, cancellationCallbacks.get());
+        release.countDown();
+        Thread.sleep(200);
+        assertTrue(completed.get());
+        assertEquals(1, singleExecutionScheduler.getRemainingPendingTaskCapacity());
+    }
+
+
+    @Test
+    void test_dropNewest() throws Exception
+    {
+        setUp("drop_newest");
+        singleExecutionScheduler.schedule(buildTask("task1", 60_000));
+        ScheduledTask task2 = buildTask("task2", 60_000);
+        ScheduledTask task3 = buildTask("task3", 60_000);
+        ScheduledTask task4 = buildTask("task4", 60_000);
+        BatchScheduleResult result = singleExecutionScheduler.schedule(List.of(task2, task3));
+        assertEquals(List.of(task2), result.getScheduledTasks());
+        assertEquals(List.of(task3), result.getDroppedTasks());
+        assertTrue(result.hasFailures());
+        singleExecutionScheduler.schedule(task4);
+        assertNull(task4.getTask());
+        assertEquals(Set.of("task1", "task2"), singleExecutionScheduler.getScheduledTasksToRunnablesMapper().keySet());
+        assertEquals(2, singleExecutionScheduler.getMetrics().getDroppedCount());
+        assertEquals(0, cancellationCallbacks.get());
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_bulkCancel_Test extends ATest
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private AtomicInteger executions;
+    private AtomicInteger cancellationCallbacks;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        executions = new AtomicInteger();
+        cancellationCallbacks = new AtomicInteger();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    private void schedule(String taskID, Set<String> tags) throws Exception
+    {
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID(taskID)
+                        .taskToSchedule(executions::incrementAndGet)
+                        .delay(200)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .tags(tags)
+                        .callbackAfterTaskIsCancelled(cancellationCallbacks::incrementAndGet)
+                        .build());
+    }
+
+
+    @Test
+    void test_cancelAll() throws Exception
+    {
+        schedule("task1", null);
+        schedule("task2", null);
+        schedule("task3", null);
+        assertEquals(2, singleExecutionScheduler.cancelAll(List.of("task1", "task3", "doesNotExist")));
+        assertEquals(2, cancellationCallbacks.get());
+        Thread.sleep(400);
+        assertEquals(1, executions.get());
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+
+
+    @Test
+    void test_cancelByPrefix() throws Exception
+    {
+        schedule("tenant1/task1", null);
+        schedule("tenant1/task2", null);
+        schedule("tenant10/task1", null);
+        schedule("tenant2/task1", null);
+        assertEquals(2, singleExecutionScheduler.cancelByPrefix("tenant1/"));
+        assertEquals(Set.of("tenant10/task1", "tenant2/task1"), singleExecutionScheduler.getScheduledTasksToRunnablesMapper().keySet());
+        assertEquals(0, singleExecutionScheduler.cancelByPrefix("tenant3/"));
+        assertThrows(InvalidArgumentException.class, () -> singleExecutionScheduler.cancelByPrefix(""));
+        Thread.sleep(400);
+        assertEquals(2, executions.get());
+    }
+
+
+    @Test
+    void test_cancelByTag() throws Exception
+    {
+        schedule("task1", Set.of("user1", "email"));
+        schedule("task2", Set.of("user2", "email"));
+        schedule("task3", Set.of("user1"));
+        assertEquals(2, singleExecutionScheduler.cancelByTag("user1"));
+        assertEquals(Set.of("task2"), singleExecutionScheduler.getScheduledTasksToRunnablesMapper().keySet());
+        assertEquals(1, singleExecutionScheduler.cancelByTag("email"));
+        assertEquals(0, singleExecutionScheduler.cancelByTag("user2"));
+        assertEquals(3, cancellationCallbacks.get());
+    }
+
+
+    @Test
+    void test_cancelByTag_completedTasksLeaveTheIndex() throws Exception
+    {
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("task1")
+                        .taskToSchedule(executions::incrementAndGet)
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .tags(Set.of("user1"))
+                        .build());
+        Thread.sleep(200);
+        assertEquals(1, executions.get());
+        assertEquals(0, singleExecutionScheduler.cancelByTag("user1"));
+        assertFalse(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().containsKey("task1"));
+    }
+
+
+    @Test
+    void test_cancelAll_disabled() throws Exception
+    {
+        schedule("task1", null);
+        singleExecutionScheduler.getConfig().updateProp("orionlibs.orion_task_scheduler.cancellation.enabled", "false");
+        assertThrows(FeatureIsDisabledException.class, () -> singleExecutionScheduler.cancelAll(List.of("task1")));
+        assertThrows(FeatureIsDisabledException.class, () -> singleExecutionScheduler.cancelByPrefix("task"));
+        assertThrows(FeatureIsDisabledException.class, () -> singleExecutionScheduler.cancelByTag("tag"));
+    }
+}
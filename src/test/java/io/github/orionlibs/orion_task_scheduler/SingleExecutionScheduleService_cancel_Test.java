@@ -51,6 +51,7 @@ public class SingleExecutionScheduleService_cancel_Test extends ATest
     public void teardown()
     {
         singleExecutionScheduler.removeLogHandler(listLogHandler);
+        singleExecutionScheduler.shutdownNow();
         RunnableExample.removeLogHandler(listLogHandler);
         Callback.removeLogHandler(listLogHandler);
     }
@@ -170,4 +171,25 @@ public class SingleExecutionScheduleService_cancel_Test extends ATest
         assertTrue(listLogHandler.getLogRecords().stream()
                         .anyMatch(record -> record.getMessage().contains("callback has been called")));
     }
+
+
+    @Test
+    void test_cancel_removesTaskFromTimerQueue() throws Exception
+    {
+        for(int i = 0; i < 100; i++)
+        {
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("runnable" + i)
+                            .taskToSchedule(runnableExample1)
+                            .delay(1)
+                            .unit(TimeUnit.HOURS)
+                            .build());
+        }
+        assertEquals(100, singleExecutionScheduler.getQueuedTaskCount());
+        for(int i = 0; i < 100; i++)
+        {
+            assertTrue(singleExecutionScheduler.cancel("runnable" + i));
+        }
+        assertEquals(0, singleExecutionScheduler.getQueuedTaskCount());
+    }
 }
@@ -0,0 +1,117 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_coalescing_Test extends ATest
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private AtomicInteger executions = new AtomicInteger();
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    private void setUp(String toleranceInMilliseconds) throws IOException
+    {
+        Properties customConfig = new Properties();
+        customConfig.setProperty("orionlibs.orion_task_scheduler.coalescing.tolerance.ms", toleranceInMilliseconds);
+        singleExecutionScheduler = new SingleExecutionScheduleService(customConfig);
+    }
+
+
+    private ScheduledTask buildTask(String taskID, long delayInMilliseconds, Long coalescingToleranceInMilliseconds)
+    {
+        return taskBuilder(taskID, executions::incrementAndGet, delayInMilliseconds)
+                        .coalescingToleranceInMilliseconds(coalescingToleranceInMilliseconds)
+                        .build();
+    }
+
+
+    @Test
+    void test_tasksWithOverlappingWindowsShareOneWakeup() throws Exception
+    {
+        setUp("0");
+        for(int i = 0; i < 100; i++)
+        {
+            singleExecutionScheduler.schedule(buildTask("task" + i, 300 + i % 3, 250L));
+        }
+        assertEquals(99, singleExecutionScheduler.getMetrics().getCoalescedCount());
+        assertEquals(1, singleExecutionScheduler.getQueuedTaskCount());
+        waitUntil(() -> executions.get() == 100);
+        assertEquals(100, executions.get());
+        waitUntil(() -> singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+
+
+    @Test
+    void test_serviceDefaultToleranceAndOptOut() throws Exception
+    {
+        setUp("50");
+        singleExecutionScheduler.schedule(buildTask("task1", 300, null));
+        singleExecutionScheduler.schedule(buildTask("task2", 310, null));
+        singleExecutionScheduler.schedule(buildTask("task3", 310, 0L));
+        singleExecutionScheduler.schedule(buildTask("task4", 1000, null));
+        assertEquals(1, singleExecutionScheduler.getMetrics().getCoalescedCount());
+        assertEquals(3, singleExecutionScheduler.getQueuedTaskCount());
+    }
+
+
+    @Test
+    void test_batchSchedule() throws Exception
+    {
+        setUp("0");
+        List<ScheduledTask> tasks = new ArrayList<>();
+        for(int i = 0; i < 10; i++)
+        {
+            tasks.add(buildTask("task" + i, 200, i % 2 == 0 ? 20L : null));
+        }
+        assertEquals(10, singleExecutionScheduler.schedule(tasks).getScheduledTasks().size());
+        assertEquals(4, singleExecutionScheduler.getMetrics().getCoalescedCount());
+        assertEquals(6, singleExecutionScheduler.getQueuedTaskCount());
+        waitUntil(() -> executions.get() == 10);
+        assertEquals(10, executions.get());
+    }
+
+
+    @Test
+    void test_cancel_onlyCancelsOneTaskOfTheBatch() throws Exception
+    {
+        setUp("20");
+        singleExecutionScheduler.schedule(buildTask("task1", 200, null));
+        singleExecutionScheduler.schedule(buildTask("task2", 200, null));
+        assertTrue(singleExecutionScheduler.cancel("task1"));
+        assertEquals(1, singleExecutionScheduler.getQueuedTaskCount());
+        waitUntil(() -> executions.get() == 1);
+        Thread.sleep(100);
+        assertEquals(1, executions.get());
+    }
+
+
+    @Test
+    void test_cancel_lastTaskOfTheBatchRemovesTheBatchFromTheEngine() throws Exception
+    {
+        setUp("1000");
+        singleExecutionScheduler.schedule(buildTask("task1", 60_000, null));
+        singleExecutionScheduler.schedule(buildTask("task2", 60_000, null));
+        assertEquals(1, singleExecutionScheduler.getQueuedTaskCount());
+        assertEquals(2, singleExecutionScheduler.cancelAll(List.of("task1", "task2")));
+        assertEquals(0, singleExecutionScheduler.getQueuedTaskCount());
+    }
+}
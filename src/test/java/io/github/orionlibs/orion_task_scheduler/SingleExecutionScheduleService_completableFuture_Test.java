@@ -0,0 +1,136 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_completableFuture_Test extends ATest
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private ExecutorService callbackExecutor;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        Properties customConfig = new Properties();
+        customConfig.setProperty("orionlibs.orion_task_scheduler.pool.core.size", "1");
+        singleExecutionScheduler = new SingleExecutionScheduleService(customConfig);
+        callbackExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "callback-thread"));
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdownNow();
+        callbackExecutor.shutdownNow();
+    }
+
+
+    @Test
+    void test_schedule_completesWithTheResultOnTheCallbackExecutor() throws Exception
+    {
+        AtomicReference<String> callbackThread = new AtomicReference<>();
+        CompletableFuture<Integer> result = singleExecutionScheduler.schedule(buildTask("task", null, 50), () -> 42, callbackExecutor);
+        CompletableFuture<Integer> doubled = result.thenApply(value -> {
+            callbackThread.set(Thread.currentThread().getName());
+            return value * 2;
+        });
+        assertEquals(84, doubled.get(1, TimeUnit.SECONDS));
+        assertEquals("callback-thread", callbackThread.get());
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+
+
+    @Test
+    void test_schedule_completesExceptionallyAfterTheRetries() throws Exception
+    {
+        AtomicInteger attempts = new AtomicInteger();
+        ScheduledTask task = buildTask("task", null, 20);
+        task.setNumberOfRetriesOnError(2);
+        CompletableFuture<String> result = singleExecutionScheduler.schedule(task, () -> {
+            attempts.incrementAndGet();
+            throw new IOException("attempt failed");
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause());
+        assertEquals(3, attempts.get());
+    }
+
+
+    @Test
+    void test_schedule_succeedsOnARetry() throws Exception
+    {
+        AtomicInteger attempts = new AtomicInteger();
+        ScheduledTask task = buildTask("task", null, 20);
+        task.setNumberOfRetriesOnError(2);
+        CompletableFuture<Integer> result = singleExecutionScheduler.schedule(task, () -> {
+            if(attempts.incrementAndGet() == 1)
+            {
+                throw new IllegalStateException("first attempt failed");
+            }
+            return attempts.get();
+        });
+        assertEquals(2, result.get(1, TimeUnit.SECONDS));
+    }
+
+
+    @Test
+    void test_cancel_cancelsTheFuture() throws Exception
+    {
+        CompletableFuture<Integer> result = singleExecutionScheduler.schedule(buildTask("task", null, 60_000), () -> 42, callbackExecutor);
+        assertTrue(singleExecutionScheduler.cancel("task"));
+        assertThrows(CancellationException.class, () -> result.get(1, TimeUnit.SECONDS));
+    }
+
+
+    @Test
+    void test_cancellingTheFutureCancelsTheTask() throws Exception
+    {
+        AtomicInteger executions = new AtomicInteger();
+        CompletableFuture<Integer> result = singleExecutionScheduler.schedule(buildTask("task", null, 100), executions::incrementAndGet);
+        assertTrue(result.cancel(false));
+        assertFalse(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().containsKey("task"));
+        assertEquals(0, singleExecutionScheduler.getQueuedTaskCount());
+        Thread.sleep(200);
+        assertEquals(0, executions.get());
+    }
+
+
+    @Test
+    void test_shutdownNow_cancelsTheFuture() throws Exception
+    {
+        CompletableFuture<Integer> result = singleExecutionScheduler.schedule(buildTask("task", null, 60_000), () -> 42);
+        singleExecutionScheduler.shutdownNow();
+        assertThrows(CancellationException.class, () -> result.get(1, TimeUnit.SECONDS));
+    }
+
+
+    @Test
+    void test_schedule_taskWithARunnableIsInvalid()
+    {
+        ScheduledTask task = buildTask("task", null, 50);
+        task.setTaskToSchedule(() -> {});
+        assertThrows(InvalidArgumentException.class, () -> singleExecutionScheduler.schedule(task, () -> 42));
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.orion_task_scheduler.config.ConfigurationService;
+import io.github.orionlibs.orion_task_scheduler.config.ConfigurationSnapshot;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.io.TempDir;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_config_Test extends ATest
+{
+    @TempDir
+    Path configDirectory;
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    private static ScheduledTask buildTask(String taskID)
+    {
+        return buildTask(taskID, () -> {
+        }, TimeUnit.HOURS.toMillis(1));
+    }
+
+
+    @Test
+    void test_updateProp_swapsSnapshot() throws Exception
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        ConfigurationSnapshot snapshotBeforeUpdate = singleExecutionScheduler.getConfig().getSnapshot();
+        singleExecutionScheduler.getConfig().updateProp("orionlibs.orion_task_scheduler.enabled", "false");
+        assertTrue(snapshotBeforeUpdate.getBoolean("orionlibs.orion_task_scheduler.enabled"));
+        assertFalse(singleExecutionScheduler.getConfig().getSnapshot().getBoolean("orionlibs.orion_task_scheduler.enabled"));
+        assertThrows(FeatureIsDisabledException.class, () -> singleExecutionScheduler.schedule(buildTask("task1")));
+    }
+
+
+    @Test
+    void test_overrideFile_isReloadedWhenItChanges() throws Exception
+    {
+        Path overrideFile = configDirectory.resolve("override.prop");
+        Files.writeString(overrideFile, "orionlibs.orion_task_scheduler.cancellation.enabled=false\n");
+        Properties customConfig = new Properties();
+        customConfig.setProperty("orionlibs.orion_task_scheduler.config.override.file", overrideFile.toString());
+        singleExecutionScheduler = new SingleExecutionScheduleService(customConfig);
+        assertFalse(singleExecutionScheduler.getConfig().getBooleanProp("orionlibs.orion_task_scheduler.cancellation.enabled"));
+        singleExecutionScheduler.schedule(buildTask("task1"));
+        assertThrows(FeatureIsDisabledException.class, () -> singleExecutionScheduler.cancel("task1"));
+        Files.writeString(overrideFile, "orionlibs.orion_task_scheduler.cancellation.enabled=true\n");
+        waitUntil(() -> singleExecutionScheduler.getConfig().getBooleanProp("orionlibs.orion_task_scheduler.cancellation.enabled"));
+        assertTrue(singleExecutionScheduler.cancel("task1"));
+        Files.writeString(overrideFile, "orionlibs.orion_task_scheduler.enabled=false\n");
+        waitUntil(() -> !singleExecutionScheduler.getConfig().getBooleanProp("orionlibs.orion_task_scheduler.enabled"));
+        assertThrows(FeatureIsDisabledException.class, () -> singleExecutionScheduler.schedule(buildTask("task2")));
+        assertEquals("true", singleExecutionScheduler.getConfig().getProp("orionlibs.orion_task_scheduler.cancellation.enabled"));
+    }
+
+
+    @Test
+    void test_updateProp_appliesToTheToleranceAndTimeoutOfTheNextTask() throws Exception
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        ScheduledTask task = buildTask("task1");
+        assertEquals(0L, singleExecutionScheduler.getCoalescingToleranceInNanoseconds(task));
+        assertEquals(0L, singleExecutionScheduler.getExecutionTimeoutInNanoseconds(task));
+        singleExecutionScheduler.getConfig().updateProp("orionlibs.orion_task_scheduler.coalescing.tolerance.ms", "20");
+        singleExecutionScheduler.getConfig().updateProp("orionlibs.orion_task_scheduler.execution.timeout.ms", "500");
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(20), singleExecutionScheduler.getCoalescingToleranceInNanoseconds(task));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), singleExecutionScheduler.getExecutionTimeoutInNanoseconds(task));
+    }
+
+
+    @Test
+    void test_updateProp_rejectsATypedValueThatIsNotANumber() throws Exception
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        ConfigurationService config = singleExecutionScheduler.getConfig();
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                        () -> config.updateProp("orionlibs.orion_task_scheduler.execution.timeout.ms", "soon"));
+        assertTrue(exception.getMessage().contains("orionlibs.orion_task_scheduler.execution.timeout.ms"));
+        assertEquals("0", config.getProp("orionlibs.orion_task_scheduler.execution.timeout.ms"));
+        assertEquals(0L, config.getSnapshot().getExecutionTimeoutInNanoseconds());
+    }
+
+
+    @Test
+    void test_getIntegerProp_missingKey() throws Exception
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                        () -> singleExecutionScheduler.getConfig().getIntegerProp("orionlibs.orion_task_scheduler.unknown"));
+        assertTrue(exception.getMessage().contains("orionlibs.orion_task_scheduler.unknown"));
+        assertThrows(NumberFormatException.class, () -> singleExecutionScheduler.getConfig().getLongProp("orionlibs.orion_task_scheduler.engine"));
+    }
+
+
+    @Test
+    void test_overrideFile_isAppliedBeforeTheServiceIsBuilt() throws Exception
+    {
+        Path overrideFile = configDirectory.resolve("override.prop");
+        Files.writeString(overrideFile, "orionlibs.orion_task_scheduler.pending.max.tasks=1\n");
+        Properties customConfig = new Properties();
+        customConfig.setProperty("orionlibs.orion_task_scheduler.config.override.file", overrideFile.toString());
+        singleExecutionScheduler = new SingleExecutionScheduleService(customConfig);
+        assertEquals(1, singleExecutionScheduler.getRemainingPendingTaskCapacity());
+        singleExecutionScheduler.schedule(buildTask("task1"));
+        assertThrows(RejectedExecutionException.class, () -> singleExecutionScheduler.schedule(buildTask("task2")));
+    }
+}
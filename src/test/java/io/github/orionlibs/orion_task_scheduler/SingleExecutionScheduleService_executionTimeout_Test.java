@@ -0,0 +1,199 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_executionTimeout_Test extends ATest
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    private void setUp(String engine, String defaultTimeoutInMilliseconds) throws IOException
+    {
+        Properties customConfig = engineConfig(engine);
+        customConfig.setProperty("orionlibs.orion_task_scheduler.pool.core.size", "1");
+        customConfig.setProperty("orionlibs.orion_task_scheduler.execution.timeout.ms", defaultTimeoutInMilliseconds);
+        singleExecutionScheduler = new SingleExecutionScheduleService(customConfig);
+    }
+
+
+    private static void sleep(long milliseconds)
+    {
+        try
+        {
+            Thread.sleep(milliseconds);
+        }
+        catch(InterruptedException e)
+        {
+            throw new IllegalStateException("interrupted", e);
+        }
+    }
+
+
+    private void test_hungTaskIsInterruptedAndFreesTheOnlyWorker(String engine) throws Exception
+    {
+        setUp(engine, "0");
+        AtomicBoolean wasInterrupted = new AtomicBoolean();
+        CountDownLatch nextTaskRan = new CountDownLatch(1);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("hung")
+                        .taskToSchedule(() -> {
+                            try
+                            {
+                                Thread.sleep(60_000);
+                            }
+                            catch(InterruptedException e)
+                            {
+                                wasInterrupted.set(true);
+                            }
+                        })
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .executionTimeoutInMilliseconds(100L)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("next")
+                        .taskToSchedule(nextTaskRan::countDown)
+                        .delay(20)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        assertTrue(nextTaskRan.await(5, TimeUnit.SECONDS));
+        assertTrue(wasInterrupted.get());
+        waitUntil(() -> singleExecutionScheduler.getMetrics().getFailedCount() == 1);
+        assertEquals(1, singleExecutionScheduler.getMetrics().getTimedOutCount());
+        assertEquals(1, singleExecutionScheduler.getMetrics().getFailedCount());
+    }
+
+
+    @Test
+    void test_hungTaskIsInterruptedAndFreesTheOnlyWorker_executor() throws Exception
+    {
+        test_hungTaskIsInterruptedAndFreesTheOnlyWorker("executor");
+    }
+
+
+    @Test
+    void test_hungTaskIsInterruptedAndFreesTheOnlyWorker_timingWheel() throws Exception
+    {
+        test_hungTaskIsInterruptedAndFreesTheOnlyWorker("timing_wheel");
+    }
+
+
+    @Test
+    void test_hungTaskIsInterruptedAndFreesTheOnlyWorker_offHeap() throws Exception
+    {
+        test_hungTaskIsInterruptedAndFreesTheOnlyWorker("off_heap");
+    }
+
+
+    @Test
+    void test_timeoutCountsAsAFailedAttemptForTheRetries() throws Exception
+    {
+        setUp("executor", "100");
+        AtomicInteger attempts = new AtomicInteger();
+        ScheduledTask task = ScheduledTask.builder()
+                        .taskID("task")
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .numberOfRetriesOnError(1)
+                        .retryPolicy(RetryPolicy.fixed(10, TimeUnit.MILLISECONDS))
+                        .build();
+        CompletableFuture<Integer> result = singleExecutionScheduler.schedule(task, () -> {
+            if(attempts.incrementAndGet() == 1)
+            {
+                //ignores the interrupt, which still makes the attempt fail
+                long busyUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+                while(System.nanoTime() < busyUntil)
+                {
+                    Thread.onSpinWait();
+                }
+            }
+            return attempts.get();
+        });
+        assertEquals(2, result.get(5, TimeUnit.SECONDS));
+        assertEquals(1, singleExecutionScheduler.getMetrics().getTimedOutCount());
+        assertEquals(1, singleExecutionScheduler.getMetrics().getRetriedCount());
+        assertEquals(0, singleExecutionScheduler.getMetrics().getFailedCount());
+    }
+
+
+    @Test
+    void test_futureFailsWithTimeoutException() throws Exception
+    {
+        setUp("executor", "100");
+        CompletableFuture<Integer> result = singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("task")
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build(), () -> {
+            Thread.sleep(60_000);
+            return 42;
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+    }
+
+
+    @Test
+    void test_taskCanTurnTheDefaultTimeoutOff() throws Exception
+    {
+        setUp("executor", "50");
+        AtomicBoolean hasCompleted = new AtomicBoolean();
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("task")
+                        .taskToSchedule(() -> {
+                            sleep(150);
+                            hasCompleted.set(true);
+                        })
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .executionTimeoutInMilliseconds(0L)
+                        .build());
+        waitUntil(hasCompleted::get);
+        assertTrue(hasCompleted.get());
+        assertEquals(0, singleExecutionScheduler.getMetrics().getTimedOutCount());
+        assertEquals(0, singleExecutionScheduler.getMetrics().getFailedCount());
+    }
+
+
+    @Test
+    void test_fastTaskLeavesNoTimerEntryBehind() throws Exception
+    {
+        setUp("timing_wheel", "60000");
+        CountDownLatch hasRun = new CountDownLatch(1);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("task")
+                        .taskToSchedule(hasRun::countDown)
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        assertTrue(hasRun.await(5, TimeUnit.SECONDS));
+        waitUntil(() -> singleExecutionScheduler.getQueuedTaskCount() == 0);
+        assertEquals(0, singleExecutionScheduler.getQueuedTaskCount());
+        assertEquals(0, singleExecutionScheduler.getMetrics().getTimedOutCount());
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_handle_Test extends ATest
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private AtomicInteger executions;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        executions = new AtomicInteger();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    private ScheduledTask buildTask(String taskID, long delayInMilliseconds)
+    {
+        return buildTask(taskID, executions::incrementAndGet, delayInMilliseconds);
+    }
+
+
+    @Test
+    void test_cancelByHandle() throws Exception
+    {
+        ScheduledTask task1 = buildTask("task1", 200);
+        long handle1 = singleExecutionScheduler.schedule(task1);
+        long handle2 = singleExecutionScheduler.schedule(buildTask("task2", 200));
+        assertNotEquals(handle1, handle2);
+        assertEquals(handle1, task1.getHandle());
+        assertSame(task1, singleExecutionScheduler.getScheduledTaskByHandle(handle1));
+        assertTrue(singleExecutionScheduler.cancel(handle1));
+        assertNull(singleExecutionScheduler.getScheduledTaskByHandle(handle1));
+        assertNull(singleExecutionScheduler.getScheduledTaskByID("task1"));
+        assertThrows(TaskDoesNotExistException.class, () -> singleExecutionScheduler.cancel(handle1));
+        Thread.sleep(400);
+        assertEquals(1, executions.get());
+        assertNull(singleExecutionScheduler.getScheduledTaskByHandle(handle2));
+    }
+
+
+    @Test
+    void test_reschedulingSameTaskIDGivesNewHandle() throws Exception
+    {
+        long oldHandle = singleExecutionScheduler.schedule(buildTask("task1", 60_000));
+        long newHandle = singleExecutionScheduler.schedule(buildTask("task1", 60_000));
+        assertNull(singleExecutionScheduler.getScheduledTaskByHandle(oldHandle));
+        assertSame(singleExecutionScheduler.getScheduledTaskByID("task1"), singleExecutionScheduler.getScheduledTaskByHandle(newHandle));
+    }
+
+
+    @Test
+    void test_batchScheduleSetsHandles() throws Exception
+    {
+        BatchScheduleResult result = singleExecutionScheduler.schedule(List.of(buildTask("task1", 60_000), buildTask("task2", 60_000)));
+        for(ScheduledTask task : result.getScheduledTasks())
+        {
+            assertSame(task, singleExecutionScheduler.getScheduledTaskByHandle(task.getHandle()));
+            assertTrue(singleExecutionScheduler.cancel(task.getHandle()));
+        }
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_lanes_Test extends ATest
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    private void setUp(String engine, String criticalPoolSize) throws IOException
+    {
+        Properties customConfig = engineConfig(engine);
+        customConfig.setProperty("orionlibs.orion_task_scheduler.timing_wheel.tick.duration.ms", "50");
+        customConfig.setProperty("orionlibs.orion_task_scheduler.pool.core.size", "1");
+        customConfig.setProperty("orionlibs.orion_task_scheduler.lane.critical.pool.size", criticalPoolSize);
+        singleExecutionScheduler = new SingleExecutionScheduleService(customConfig);
+    }
+
+
+    private static ScheduledTask buildTask(String taskID, Runnable taskToSchedule, long delayInMilliseconds, TaskLane lane)
+    {
+        return taskBuilder(taskID, taskToSchedule, delayInMilliseconds).lane(lane).build();
+    }
+
+
+    private void test_criticalTaskDoesNotWaitForBusyNormalWorkers(String engine) throws Exception
+    {
+        setUp(engine, "1");
+        CountDownLatch releaseNormalTask = new CountDownLatch(1);
+        CountDownLatch criticalTaskRan = new CountDownLatch(1);
+        singleExecutionScheduler.schedule(buildTask("normal", () -> {
+            try
+            {
+                releaseNormalTask.await(10, TimeUnit.SECONDS);
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }, 10, null));
+        singleExecutionScheduler.schedule(buildTask("critical", criticalTaskRan::countDown, 100, TaskLane.CRITICAL));
+        try
+        {
+            assertTrue(criticalTaskRan.await(5, TimeUnit.SECONDS));
+        }
+        finally
+        {
+            releaseNormalTask.countDown();
+        }
+        assertEquals(1, singleExecutionScheduler.getMetrics().getLatenessHistogram(TaskLane.CRITICAL).getCount());
+    }
+
+
+    @Test
+    void test_criticalTaskDoesNotWaitForBusyNormalWorkers_executor() throws Exception
+    {
+        test_criticalTaskDoesNotWaitForBusyNormalWorkers("executor");
+    }
+
+
+    @Test
+    void test_criticalTaskDoesNotWaitForBusyNormalWorkers_timingWheel() throws Exception
+    {
+        test_criticalTaskDoesNotWaitForBusyNormalWorkers("timing_wheel");
+    }
+
+
+    @Test
+    void test_criticalTaskDoesNotWaitForBusyNormalWorkers_offHeap() throws Exception
+    {
+        test_criticalTaskDoesNotWaitForBusyNormalWorkers("off_heap");
+    }
+
+
+    private void test_criticalTaskIsDispatchedBeforeBulkTasksDueAtTheSameTime(String engine) throws Exception
+    {
+        setUp(engine, "0");
+        ConcurrentLinkedQueue<String> executionOrder = new ConcurrentLinkedQueue<>();
+        CountDownLatch allRan = new CountDownLatch(11);
+        List<ScheduledTask> tasks = new ArrayList<>();
+        for(int i = 0; i < 10; i++)
+        {
+            String taskID = "bulk" + i;
+            tasks.add(buildTask(taskID, () -> {
+                executionOrder.add(taskID);
+                allRan.countDown();
+            }, 100, TaskLane.BULK));
+        }
+        tasks.add(buildTask("critical", () -> {
+            executionOrder.add("critical");
+            allRan.countDown();
+        }, 100, TaskLane.CRITICAL));
+        singleExecutionScheduler.schedule(tasks);
+        assertTrue(allRan.await(5, TimeUnit.SECONDS));
+        assertEquals("critical", executionOrder.peek());
+        assertEquals(10, singleExecutionScheduler.getMetrics().getLatenessHistogram(TaskLane.BULK).getCount());
+        assertEquals(1, singleExecutionScheduler.getMetrics().getLatenessHistogram(TaskLane.CRITICAL).getCount());
+        assertEquals(0, singleExecutionScheduler.getMetrics().getLatenessHistogram(TaskLane.NORMAL).getCount());
+    }
+
+
+    @Test
+    void test_criticalTaskIsDispatchedBeforeBulkTasksDueAtTheSameTime_timingWheel() throws Exception
+    {
+        test_criticalTaskIsDispatchedBeforeBulkTasksDueAtTheSameTime("timing_wheel");
+    }
+
+
+    @Test
+    void test_criticalTaskIsDispatchedBeforeBulkTasksDueAtTheSameTime_offHeap() throws Exception
+    {
+        test_criticalTaskIsDispatchedBeforeBulkTasksDueAtTheSameTime("off_heap");
+    }
+
+
+    @Test
+    void test_taskWithoutALaneGoesToTheNormalLane() throws Exception
+    {
+        setUp("executor", "0");
+        CountDownLatch hasRun = new CountDownLatch(1);
+        ScheduledTask task = buildTask("task", hasRun::countDown, 10, null);
+        singleExecutionScheduler.schedule(task);
+        assertEquals(TaskLane.NORMAL, task.getLane());
+        assertTrue(hasRun.await(5, TimeUnit.SECONDS));
+        assertEquals(1, singleExecutionScheduler.getMetrics().getLatenessHistogram(TaskLane.NORMAL).getCount());
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.orion_task_scheduler.utils.RunnableExample;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_metrics_Test extends ATest
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private SchedulerMetrics metrics;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        metrics = singleExecutionScheduler.getMetrics();
+    }
+
+
+    @AfterEach
+    public void teardown() throws Exception
+    {
+        metrics.unregisterMBean();
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    @Test
+    void test_metrics_countersAndHistograms() throws Exception
+    {
+        RunnableExample failingRunnable = new RunnableExample();
+        failingRunnable.addLogMessageAndDelay("Runnable is running", 10L);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("succeeding")
+                        .taskToSchedule(() -> {})
+                        .delay(50)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("failing")
+                        .taskToSchedule(failingRunnable)
+                        .delay(50)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .numberOfRetriesOnError(1)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("cancelled")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.SECONDS)
+                        .build());
+        assertEquals(3, metrics.getScheduledCount());
+        assertEquals(3, metrics.getPendingCount());
+        singleExecutionScheduler.cancel("cancelled");
+        Thread.sleep(400);
+        assertEquals(0, metrics.getPendingCount());
+        assertEquals(1, metrics.getCancelledCount());
+        assertEquals(3, metrics.getFiredCount());
+        assertEquals(1, metrics.getRetriedCount());
+        assertEquals(1, metrics.getFailedCount());
+        assertEquals(3, metrics.getLatenessHistogram().getCount());
+        assertEquals(3, metrics.getDurationHistogram().getCount());
+        assertTrue(metrics.getDurationHistogram().getMaxInNanoseconds() >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(metrics.getDurationHistogram().getPercentileInNanoseconds(100.0d) >= TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+
+    @Test
+    void test_latencyHistogram_buckets()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5L);
+        histogram.record(1L);
+        histogram.record(1000L);
+        histogram.record(1023L);
+        long[] bucketCounts = histogram.getBucketCounts();
+        assertEquals(1, bucketCounts[0]);
+        assertEquals(1, bucketCounts[1]);
+        assertEquals(2, bucketCounts[10]);
+        assertEquals(1023L, histogram.getPercentileInNanoseconds(99.0d));
+        assertEquals(1L, histogram.getPercentileInNanoseconds(50.0d));
+        assertEquals(506.0d, histogram.getMeanInNanoseconds());
+    }
+
+
+    @Test
+    void test_metrics_exportedThroughJMX() throws Exception
+    {
+        ObjectName objectName = metrics.registerMBean("metrics-test");
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("task")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.SECONDS)
+                        .build());
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "ScheduledCount"));
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "PendingCount"));
+    }
+}
@@ -0,0 +1,258 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.orion_task_scheduler.log.ListLogHandler;
+import io.github.orionlibs.orion_task_scheduler.utils.Callback;
+import io.github.orionlibs.orion_task_scheduler.utils.RunnableExample;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_offHeap_Test extends ATest
+{
+    private ListLogHandler listLogHandler;
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private RunnableExample runnableExample1;
+    private RunnableExample runnableExample2;
+    private RunnableExample runnableExample3;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        Properties customConfig = engineConfig("off_heap");
+        customConfig.setProperty("orionlibs.orion_task_scheduler.off_heap.slots.per.slab", "4");
+        customConfig.setProperty("orionlibs.orion_task_scheduler.pool.core.size", "1");
+        singleExecutionScheduler = new SingleExecutionScheduleService(customConfig);
+        listLogHandler = new ListLogHandler();
+        singleExecutionScheduler.addLogHandler(listLogHandler);
+        runnableExample1 = new RunnableExample();
+        runnableExample2 = new RunnableExample();
+        runnableExample3 = new RunnableExample();
+        RunnableExample.addLogHandler(listLogHandler);
+        Callback.addLogHandler(listLogHandler);
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.removeLogHandler(listLogHandler);
+        RunnableExample.removeLogHandler(listLogHandler);
+        Callback.removeLogHandler(listLogHandler);
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    @Test
+    void test_schedule_sequentialTasksAcrossSlabs() throws Exception
+    {
+        runnableExample1.addLogMessage("Runnable1 is running");
+        runnableExample2.addLogMessage("Runnable2 is running");
+        runnableExample3.addLogMessage("Runnable3 is running");
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("runnable1")
+                        .taskToSchedule(runnableExample1)
+                        .delay(300)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("runnable2")
+                        .taskToSchedule(runnableExample2)
+                        .delay(200)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("runnable3")
+                        .taskToSchedule(runnableExample3)
+                        .delay(100)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        Thread.sleep(500);
+        assertEquals(6, listLogHandler.getLogRecords().size());
+        assertEquals("Runnable3 is running", listLogHandler.getLogRecords().get(3).getMessage());
+        assertEquals("Runnable2 is running", listLogHandler.getLogRecords().get(4).getMessage());
+        assertEquals("Runnable1 is running", listLogHandler.getLogRecords().get(5).getMessage());
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+
+
+    @Test
+    void test_schedule_neverFiresEarly() throws Exception
+    {
+        long[] firedAfter = new long[1];
+        long scheduledAt = System.nanoTime();
+        ScheduledTask task = ScheduledTask.builder()
+                        .taskID("task")
+                        .taskToSchedule(() -> firedAfter[0] = System.nanoTime() - scheduledAt)
+                        .delay(120)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build();
+        singleExecutionScheduler.schedule(task);
+        task.getTask().get(1, TimeUnit.SECONDS);
+        assertTrue(firedAfter[0] >= TimeUnit.MILLISECONDS.toNanos(120));
+    }
+
+
+    @Test
+    void test_cancelTask() throws Exception
+    {
+        runnableExample1.addLogMessage("Runnable1 is running");
+        runnableExample2.addLogMessage("Runnable2 is running");
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("runnable1")
+                        .taskToSchedule(runnableExample1)
+                        .delay(100)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("runnable2")
+                        .taskToSchedule(runnableExample2)
+                        .delay(100)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .callbackAfterTaskIsCancelled(new Callback())
+                        .build());
+        assertTrue(singleExecutionScheduler.cancel("runnable2"));
+        Thread.sleep(250);
+        assertEquals(4, listLogHandler.getLogRecords().size());
+        assertEquals("callback has been called", listLogHandler.getLogRecords().get(2).getMessage());
+        assertEquals("Runnable1 is running", listLogHandler.getLogRecords().get(3).getMessage());
+    }
+
+
+    @Test
+    void test_schedule_with1Retry() throws Exception
+    {
+        runnableExample1.addLogMessageAndDelay("Runnable is running", 20L);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("runnable")
+                        .taskToSchedule(runnableExample1)
+                        .delay(50)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .numberOfRetriesOnError(1)
+                        .build());
+        Thread.sleep(400);
+        assertEquals(2, listLogHandler.getLogRecords().stream()
+                        .filter(record -> record.getMessage().equals("Runnable is running"))
+                        .count());
+    }
+
+
+    @Test
+    void test_shutdown_drainsPendingTasks() throws Exception
+    {
+        AtomicInteger executions = new AtomicInteger();
+        for(int i = 0; i < 1000; i++)
+        {
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("task" + i)
+                            .taskToSchedule(executions::incrementAndGet)
+                            .delay(i % 100)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        }
+        singleExecutionScheduler.shutdown();
+        assertTrue(singleExecutionScheduler.awaitTermination(2, TimeUnit.SECONDS));
+        assertEquals(1000, executions.get());
+    }
+
+
+    @Test
+    void test_schedule_listOfTasks() throws Exception
+    {
+        AtomicInteger executions = new AtomicInteger();
+        List<ScheduledTask> tasksToSchedule = new ArrayList<>();
+        for(int i = 0; i < 5000; i++)
+        {
+            tasksToSchedule.add(ScheduledTask.builder()
+                            .taskID("task" + i)
+                            .taskToSchedule(executions::incrementAndGet)
+                            .delay(i % 100)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        }
+        BatchScheduleResult result = singleExecutionScheduler.schedule(tasksToSchedule);
+        assertFalse(result.hasFailures());
+        assertTrue(singleExecutionScheduler.cancel("task99"));
+        Thread.sleep(300);
+        assertEquals(4999, executions.get());
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+
+
+    @Test
+    void test_shutdownNow_cancelsPendingTasks() throws Exception
+    {
+        AtomicInteger executions = new AtomicInteger();
+        ScheduledTask task = ScheduledTask.builder()
+                        .taskID("task")
+                        .taskToSchedule(executions::incrementAndGet)
+                        .delay(200)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build();
+        singleExecutionScheduler.schedule(task);
+        singleExecutionScheduler.shutdownNow();
+        assertTrue(singleExecutionScheduler.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(task.getTask().isCancelled());
+        Thread.sleep(300);
+        assertEquals(0, executions.get());
+        assertFalse(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().containsKey("task"));
+    }
+
+
+    @Test
+    void test_cancel_removesTaskFromIndex() throws Exception
+    {
+        for(int i = 0; i < 100; i++)
+        {
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("task" + i)
+                            .taskToSchedule(runnableExample1)
+                            .delay(1)
+                            .unit(TimeUnit.HOURS)
+                            .build());
+        }
+        assertEquals(100, singleExecutionScheduler.getQueuedTaskCount());
+        for(int i = 0; i < 100; i++)
+        {
+            assertTrue(singleExecutionScheduler.cancel("task" + i));
+        }
+        assertEquals(0, singleExecutionScheduler.getQueuedTaskCount());
+    }
+
+
+    @Test
+    void test_schedule_tasksWithTheSameDeadlineFireInSchedulingOrder() throws Exception
+    {
+        List<Integer> executionOrder = Collections.synchronizedList(new ArrayList<>());
+        List<ScheduledTask> tasksToSchedule = new ArrayList<>();
+        for(int i = 0; i < 100; i++)
+        {
+            int taskNumber = i;
+            tasksToSchedule.add(ScheduledTask.builder()
+                            .taskID("task" + i)
+                            .taskToSchedule(() -> executionOrder.add(taskNumber))
+                            .delay(50)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        }
+        singleExecutionScheduler.schedule(tasksToSchedule);
+        singleExecutionScheduler.shutdown();
+        assertTrue(singleExecutionScheduler.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(IntStream.range(0, 100).boxed().toList(), executionOrder);
+    }
+}
@@ -0,0 +1,256 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.io.TempDir;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_persistence_Test extends ATest
+{
+    @TempDir
+    Path journalDirectory;
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private Map<String, byte[]> handledTasks;
+
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        handledTasks = new ConcurrentHashMap<>();
+        singleExecutionScheduler = buildService("67108864");
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    private SingleExecutionScheduleService buildService(String journalSizeInBytes) throws IOException, InvalidArgumentException
+    {
+        return buildService(journalSizeInBytes, "100000");
+    }
+
+
+    private SingleExecutionScheduleService buildService(String journalSizeInBytes, String compactionThresholdInRecords) throws IOException, InvalidArgumentException
+    {
+        Properties customConfig = new Properties();
+        customConfig.setProperty("orionlibs.orion_task_scheduler.persistence.enabled", "true");
+        customConfig.setProperty("orionlibs.orion_task_scheduler.persistence.directory", journalDirectory.toString());
+        customConfig.setProperty("orionlibs.orion_task_scheduler.persistence.journal.size.bytes", journalSizeInBytes);
+        customConfig.setProperty("orionlibs.orion_task_scheduler.persistence.sync.commit", "true");
+        customConfig.setProperty("orionlibs.orion_task_scheduler.persistence.compaction.records", compactionThresholdInRecords);
+        SingleExecutionScheduleService service = new SingleExecutionScheduleService(customConfig);
+        service.registerTaskHandler("record", (taskID, payload) -> handledTasks.put(taskID, payload));
+        return service;
+    }
+
+
+    private SingleExecutionScheduleService restart(String journalSizeInBytes) throws IOException, InvalidArgumentException
+    {
+        singleExecutionScheduler.shutdownNow();
+        singleExecutionScheduler = buildService(journalSizeInBytes);
+        return singleExecutionScheduler;
+    }
+
+
+    private long readJournalGeneration() throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(journalDirectory.resolve("journal.log"), StandardOpenOption.READ))
+        {
+            ByteBuffer header = ByteBuffer.allocate(12);
+            channel.read(header, 0L);
+            return header.getLong(4);
+        }
+    }
+
+
+    private static boolean isJournalWriterRunning()
+    {
+        return Thread.getAllStackTraces().keySet().stream().anyMatch(thread -> thread.getName().equals("orion-task-scheduler-journal-writer"));
+    }
+
+
+    private static ScheduledTask persistedTask(String taskID, long delayInMilliseconds)
+    {
+        return ScheduledTask.builder()
+                        .taskID(taskID)
+                        .handlerName("record")
+                        .payload(taskID.getBytes(StandardCharsets.UTF_8))
+                        .delay(delayInMilliseconds)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build();
+    }
+
+
+    @Test
+    void test_schedule_persistedTaskRunsItsHandler() throws Exception
+    {
+        singleExecutionScheduler.schedule(persistedTask("task1", 50));
+        Thread.sleep(300);
+        assertArrayEquals("task1".getBytes(StandardCharsets.UTF_8), handledTasks.get("task1"));
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+
+
+    @Test
+    void test_schedule_unknownHandler() throws Exception
+    {
+        assertThrows(InvalidArgumentException.class, () -> singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("task1")
+                        .handlerName("unknown")
+                        .delay(50)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build()));
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+
+
+    @Test
+    void test_recoverPersistedTasks_pendingTaskRunsAfterRestart() throws Exception
+    {
+        singleExecutionScheduler.schedule(persistedTask("task1", 300));
+        restart("67108864");
+        assertTrue(handledTasks.isEmpty());
+        assertEquals(1, singleExecutionScheduler.recoverPersistedTasks());
+        assertEquals(0, singleExecutionScheduler.recoverPersistedTasks());
+        Thread.sleep(600);
+        assertArrayEquals("task1".getBytes(StandardCharsets.UTF_8), handledTasks.get("task1"));
+        restart("67108864");
+        assertEquals(0, singleExecutionScheduler.recoverPersistedTasks());
+    }
+
+
+    @Test
+    void test_recoverPersistedTasks_overdueTaskRunsImmediately() throws Exception
+    {
+        singleExecutionScheduler.schedule(persistedTask("task1", 100));
+        singleExecutionScheduler.shutdownNow();
+        Thread.sleep(200);
+        restart("67108864");
+        assertEquals(1, singleExecutionScheduler.recoverPersistedTasks());
+        Thread.sleep(100);
+        assertTrue(handledTasks.containsKey("task1"));
+    }
+
+
+    @Test
+    void test_recoverPersistedTasks_cancelledAndCompletedTasksAreNotRecovered() throws Exception
+    {
+        singleExecutionScheduler.schedule(persistedTask("cancelled", 5000));
+        singleExecutionScheduler.schedule(persistedTask("completed", 10));
+        singleExecutionScheduler.schedule(persistedTask("pending", 5000));
+        singleExecutionScheduler.cancel("cancelled");
+        Thread.sleep(200);
+        restart("67108864");
+        assertEquals(1, singleExecutionScheduler.recoverPersistedTasks());
+        assertEquals(List.of("pending"), List.copyOf(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().keySet()));
+    }
+
+
+    @Test
+    void test_recoverPersistedTasks_afterJournalCompaction() throws Exception
+    {
+        restart("4096");
+        for(int i = 0; i < 500; i++)
+        {
+            singleExecutionScheduler.schedule(persistedTask("cancelled" + i, 5000));
+            singleExecutionScheduler.cancel("cancelled" + i);
+        }
+        for(int i = 0; i < 20; i++)
+        {
+            singleExecutionScheduler.schedule(persistedTask("pending" + i, 5000));
+        }
+        restart("4096");
+        assertEquals(20, singleExecutionScheduler.recoverPersistedTasks());
+        for(int i = 0; i < 20; i++)
+        {
+            assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().containsKey("pending" + i));
+        }
+    }
+
+
+    @Test
+    void test_schedule_compactsTheJournalOnceItHoldsEnoughRecords() throws Exception
+    {
+        singleExecutionScheduler.shutdownNow();
+        singleExecutionScheduler = buildService("67108864", "100");
+        long generation = readJournalGeneration();
+        for(int i = 0; i < 50; i++)
+        {
+            singleExecutionScheduler.schedule(persistedTask("cancelled" + i, 5000));
+            singleExecutionScheduler.cancel("cancelled" + i);
+        }
+        //the journal is far from full, but it holds 100 records of which none is pending.
+        //The writer compacts after it has answered the commit
+        Thread.sleep(100);
+        assertEquals(generation + 1, readJournalGeneration());
+        for(int i = 0; i < 20; i++)
+        {
+            singleExecutionScheduler.schedule(persistedTask("pending" + i, 5000));
+        }
+        restart("67108864");
+        assertEquals(20, singleExecutionScheduler.recoverPersistedTasks());
+    }
+
+
+    @Test
+    void test_shutdown_closesTheJournalOnceTheTasksHaveExecuted() throws Exception
+    {
+        singleExecutionScheduler.schedule(persistedTask("task1", 100));
+        singleExecutionScheduler.shutdown();
+        assertTrue(isJournalWriterRunning());
+        Thread.sleep(500);
+        assertTrue(handledTasks.containsKey("task1"));
+        assertFalse(isJournalWriterRunning());
+        //recording an event after the journal has been closed neither blocks nor fails
+        singleExecutionScheduler.onTaskCompleted(persistedTask("task2", 0), null);
+        restart("67108864");
+        assertEquals(0, singleExecutionScheduler.recoverPersistedTasks());
+    }
+
+
+    @Test
+    void test_schedule_failedSyncCommitLeavesNoTaskBehind() throws Exception
+    {
+        singleExecutionScheduler.shutdownNow();
+        //the journal keeps the size of an existing file
+        Files.delete(journalDirectory.resolve("journal.log"));
+        singleExecutionScheduler = buildService("4096");
+        ScheduledTask tooLargeTask = persistedTask("tooLarge", 50);
+        tooLargeTask.setPayload(new byte[8192]);
+        assertThrows(UncheckedIOException.class, () -> singleExecutionScheduler.schedule(tooLargeTask));
+        assertEquals(0, singleExecutionScheduler.getPendingTaskCount());
+        assertThrows(UncheckedIOException.class, () -> singleExecutionScheduler.schedule(List.of(persistedTask("task1", 50), tooLargeTask)));
+        assertEquals(0, singleExecutionScheduler.getPendingTaskCount());
+        singleExecutionScheduler.schedule(persistedTask("task2", 50));
+        Thread.sleep(300);
+        assertTrue(handledTasks.containsKey("task2"));
+        assertFalse(handledTasks.containsKey("task1"));
+        assertFalse(handledTasks.containsKey("tooLarge"));
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_rateLimit_Test extends ATest
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    private static ScheduledTask buildTask(String taskID, Runnable taskToSchedule, long delayInMilliseconds, String rateLimitGroup)
+    {
+        return taskBuilder(taskID, taskToSchedule, delayInMilliseconds).rateLimitGroup(rateLimitGroup).build();
+    }
+
+
+    @Test
+    void test_tasksOverTheLimitAreDeferredUntilATokenIsFree() throws Exception
+    {
+        singleExecutionScheduler.setRateLimit("api", 10d, 5);
+        ConcurrentLinkedQueue<Long> executionTimes = new ConcurrentLinkedQueue<>();
+        CountDownLatch allRan = new CountDownLatch(20);
+        List<ScheduledTask> tasks = new ArrayList<>();
+        for(int i = 0; i < 20; i++)
+        {
+            tasks.add(buildTask("task" + i, () -> {
+                executionTimes.add(System.nanoTime());
+                allRan.countDown();
+            }, 20, "api"));
+        }
+        singleExecutionScheduler.schedule(tasks);
+        Thread.sleep(250);
+        assertTrue(executionTimes.size() < 12);
+        assertTrue(allRan.await(5, TimeUnit.SECONDS));
+        long firstExecutionTime = executionTimes.stream().mapToLong(Long::longValue).min().getAsLong();
+        long lastExecutionTime = executionTimes.stream().mapToLong(Long::longValue).max().getAsLong();
+        //5 tasks use the burst and the other 15 wait 100ms each for a token
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(lastExecutionTime - firstExecutionTime) >= 1300L);
+        assertEquals(15L, singleExecutionScheduler.getMetrics().getThrottledCount("api"));
+        assertEquals(15L, singleExecutionScheduler.getMetrics().getThrottledCount());
+        assertEquals(Map.of("api", 15L), singleExecutionScheduler.getMetrics().getThrottledCountsByGroup());
+        assertEquals(20L, singleExecutionScheduler.getMetrics().getFiredCount());
+        assertEquals(0L, singleExecutionScheduler.getMetrics().getFailedCount());
+    }
+
+
+    @Test
+    void test_tasksWithoutALimitedGroupAreNotThrottled() throws Exception
+    {
+        singleExecutionScheduler.setRateLimit("api", 1d, 1);
+        CountDownLatch allRan = new CountDownLatch(20);
+        for(int i = 0; i < 10; i++)
+        {
+            singleExecutionScheduler.schedule(buildTask("ungrouped" + i, allRan::countDown, 10, null));
+            singleExecutionScheduler.schedule(buildTask("unlimited" + i, allRan::countDown, 10, "other-api"));
+        }
+        assertTrue(allRan.await(1, TimeUnit.SECONDS));
+        assertEquals(0L, singleExecutionScheduler.getMetrics().getThrottledCount());
+    }
+
+
+    @Test
+    void test_cancel_deferredTaskDoesNotRun() throws Exception
+    {
+        singleExecutionScheduler.setRateLimit("api", 1d, 1);
+        CountDownLatch firstRan = new CountDownLatch(1);
+        AtomicBoolean secondRan = new AtomicBoolean();
+        singleExecutionScheduler.schedule(buildTask("first", firstRan::countDown, 10, "api"));
+        singleExecutionScheduler.schedule(buildTask("second", () -> secondRan.set(true), 10, "api"));
+        assertTrue(firstRan.await(1, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getThrottledCount("api"));
+        assertTrue(singleExecutionScheduler.cancel("second"));
+        Thread.sleep(1200);
+        assertFalse(secondRan.get());
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getCancelledCount());
+        assertEquals(0, singleExecutionScheduler.getPendingTaskCount());
+    }
+
+
+    @Test
+    void test_retryOfAThrottledGroupWaitsForAToken() throws Exception
+    {
+        singleExecutionScheduler.setRateLimit("api", 2d, 1);
+        ConcurrentLinkedQueue<Long> attemptTimes = new ConcurrentLinkedQueue<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        ScheduledTask task = buildTask("flaky", () -> {
+            attemptTimes.add(System.nanoTime());
+            if(attemptTimes.size() == 1)
+            {
+                throw new IllegalStateException("429 Too Many Requests");
+            }
+        }, 10, "api");
+        task.setNumberOfRetriesOnError(1);
+        task.setCallbackAfterTaskCompletes(completed::countDown);
+        singleExecutionScheduler.schedule(task);
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(2, attemptTimes.size());
+        long gap = TimeUnit.NANOSECONDS.toMillis(attemptTimes.stream().mapToLong(Long::longValue).max().getAsLong()
+                        - attemptTimes.stream().mapToLong(Long::longValue).min().getAsLong());
+        assertTrue(gap >= 400L, "the retry ran after " + gap + " ms");
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getThrottledCount("api"));
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getRetriedCount());
+    }
+
+
+    @Test
+    void test_removeRateLimit_stopsThrottlingTheGroup() throws Exception
+    {
+        singleExecutionScheduler.setRateLimit("api", 1d, 1);
+        singleExecutionScheduler.removeRateLimit("api");
+        CountDownLatch allRan = new CountDownLatch(10);
+        for(int i = 0; i < 10; i++)
+        {
+            singleExecutionScheduler.schedule(buildTask("task" + i, allRan::countDown, 10, "api"));
+        }
+        assertTrue(allRan.await(1, TimeUnit.SECONDS));
+        assertEquals(0L, singleExecutionScheduler.getMetrics().getThrottledCount("api"));
+    }
+
+
+    @Test
+    void test_setRateLimit_invalidArguments()
+    {
+        assertThrows(InvalidArgumentException.class, () -> singleExecutionScheduler.setRateLimit(null, 1d, 1));
+        assertThrows(InvalidArgumentException.class, () -> singleExecutionScheduler.setRateLimit("api", 0d, 1));
+        assertThrows(InvalidArgumentException.class, () -> singleExecutionScheduler.setRateLimit("api", Double.NaN, 1));
+        assertThrows(InvalidArgumentException.class, () -> singleExecutionScheduler.setRateLimit("api", -1d, 1));
+        assertThrows(InvalidArgumentException.class, () -> singleExecutionScheduler.setRateLimit("api", Double.POSITIVE_INFINITY, 1));
+        assertThrows(InvalidArgumentException.class, () -> singleExecutionScheduler.setRateLimit("api", 1d, 0));
+        //10^6 s per token times 10^4 tokens does not fit in a long of nanoseconds
+        assertThrows(InvalidArgumentException.class, () -> singleExecutionScheduler.setRateLimit("api", 0.000001d, 10_000));
+        assertThrows(InvalidArgumentException.class, () -> singleExecutionScheduler.setRateLimit("api", 1e-10d, 1));
+    }
+}
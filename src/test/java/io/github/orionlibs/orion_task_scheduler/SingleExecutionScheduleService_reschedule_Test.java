@@ -0,0 +1,173 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_reschedule_Test extends ATest
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    private void setUp(String engine) throws IOException
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService(engineConfig(engine));
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    @ParameterizedTest
+    @ValueSource(strings = {"executor", "timing_wheel", "off_heap"})
+    void test_extend_movesTheDeadlineLater(String engine) throws Exception
+    {
+        setUp(engine);
+        AtomicLong executionTime = new AtomicLong();
+        CountDownLatch ran = new CountDownLatch(1);
+        long scheduledAt = System.nanoTime();
+        singleExecutionScheduler.schedule(buildTask("session", () -> {
+            executionTime.set(System.nanoTime());
+            ran.countDown();
+        }, 100));
+        assertTrue(singleExecutionScheduler.extend("session", 300, TimeUnit.MILLISECONDS));
+        assertFalse(ran.await(250, TimeUnit.MILLISECONDS));
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(executionTime.get() - scheduledAt) >= 400L);
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getFiredCount());
+    }
+
+
+    @ParameterizedTest
+    @ValueSource(strings = {"executor", "timing_wheel", "off_heap"})
+    void test_reschedule_bringsTheDeadlineForward(String engine) throws Exception
+    {
+        setUp(engine);
+        CountDownLatch ran = new CountDownLatch(1);
+        long handle = singleExecutionScheduler.schedule(buildTask("task", ran::countDown, 60_000));
+        ScheduledTask task = singleExecutionScheduler.getScheduledTaskByID("task");
+        assertTrue(singleExecutionScheduler.reschedule("task", 50, TimeUnit.MILLISECONDS));
+        assertSame(task, singleExecutionScheduler.getScheduledTaskByHandle(handle));
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getFiredCount());
+        assertEquals(0L, singleExecutionScheduler.getQueuedTaskCount());
+        assertEquals(0, singleExecutionScheduler.getPendingTaskCount());
+    }
+
+
+    @Test
+    void test_reschedule_repeatedTouchesKeepTheTaskPendingWithoutNewEntries() throws Exception
+    {
+        setUp("executor");
+        AtomicInteger executions = new AtomicInteger();
+        AtomicBoolean callbackCalled = new AtomicBoolean();
+        ScheduledTask task = buildTask("session", executions::incrementAndGet, 150);
+        task.setCallbackAfterTaskIsCancelled(() -> callbackCalled.set(true));
+        singleExecutionScheduler.schedule(task);
+        for(int i = 0; i < 10; i++)
+        {
+            assertTrue(singleExecutionScheduler.reschedule("session", 150, TimeUnit.MILLISECONDS));
+            assertEquals(1L, singleExecutionScheduler.getQueuedTaskCount());
+            Thread.sleep(50);
+        }
+        assertEquals(0, executions.get());
+        Thread.sleep(400);
+        assertEquals(1, executions.get());
+        assertFalse(callbackCalled.get());
+        assertEquals(0L, singleExecutionScheduler.getMetrics().getCancelledCount());
+    }
+
+
+    @Test
+    void test_cancel_afterTheDeadlineWasMoved() throws Exception
+    {
+        setUp("timing_wheel");
+        AtomicBoolean ran = new AtomicBoolean();
+        singleExecutionScheduler.schedule(buildTask("task", () -> ran.set(true), 50));
+        assertTrue(singleExecutionScheduler.extend("task", 200, TimeUnit.MILLISECONDS));
+        //the entry at the old deadline has fired and gone back into the engine
+        Thread.sleep(120);
+        assertTrue(singleExecutionScheduler.cancel("task"));
+        Thread.sleep(300);
+        assertFalse(ran.get());
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getCancelledCount());
+        assertEquals(0, singleExecutionScheduler.getPendingTaskCount());
+    }
+
+
+    @Test
+    void test_reschedule_taskThatHasStartedRunning() throws Exception
+    {
+        setUp("executor");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        singleExecutionScheduler.schedule(buildTask("running", () -> {
+            started.countDown();
+            try
+            {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }, 10));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        assertFalse(singleExecutionScheduler.reschedule("running", 10, TimeUnit.MILLISECONDS));
+        assertFalse(singleExecutionScheduler.extend("running", 10, TimeUnit.MILLISECONDS));
+        release.countDown();
+    }
+
+
+    @Test
+    void test_extend_coalescedTask() throws Exception
+    {
+        setUp("timing_wheel");
+        AtomicLong executionTime = new AtomicLong();
+        CountDownLatch ran = new CountDownLatch(1);
+        ScheduledTask task = buildTask("coalesced", () -> {
+            executionTime.set(System.nanoTime());
+            ran.countDown();
+        }, 100);
+        task.setCoalescingToleranceInMilliseconds(20L);
+        long scheduledAt = System.nanoTime();
+        singleExecutionScheduler.schedule(task);
+        assertTrue(singleExecutionScheduler.extend("coalesced", 200, TimeUnit.MILLISECONDS));
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(executionTime.get() - scheduledAt) >= 280L);
+    }
+
+
+    @Test
+    void test_reschedule_invalidArguments() throws Exception
+    {
+        setUp("executor");
+        singleExecutionScheduler.schedule(buildTask("task", () -> {}, 60_000));
+        assertThrows(TaskDoesNotExistException.class, () -> singleExecutionScheduler.reschedule("unknown", 10, TimeUnit.MILLISECONDS));
+        assertThrows(TaskDoesNotExistException.class, () -> singleExecutionScheduler.extend("unknown", 10, TimeUnit.MILLISECONDS));
+        assertThrows(InvalidArgumentException.class, () -> singleExecutionScheduler.reschedule("task", 10, null));
+        singleExecutionScheduler.getConfig().updateProp("orionlibs.orion_task_scheduler.enabled", "false");
+        assertThrows(FeatureIsDisabledException.class, () -> singleExecutionScheduler.extend("task", 10, TimeUnit.MILLISECONDS));
+    }
+}
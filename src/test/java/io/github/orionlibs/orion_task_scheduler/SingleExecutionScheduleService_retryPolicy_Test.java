@@ -0,0 +1,127 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_retryPolicy_Test extends ATest
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private List<Long> attemptTimes;
+    private boolean callbackHasBeenCalled;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        attemptTimes = new CopyOnWriteArrayList<>();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    private void scheduleFailingTask(long delayInMilliseconds, int numberOfRetriesOnError, RetryPolicy retryPolicy) throws Exception
+    {
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("failing")
+                        .taskToSchedule(() -> {
+                            attemptTimes.add(System.nanoTime());
+                            throw new IllegalStateException("downstream is down");
+                        })
+                        .delay(delayInMilliseconds)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .numberOfRetriesOnError(numberOfRetriesOnError)
+                        .retryPolicy(retryPolicy)
+                        .callbackAfterTaskCompletes(() -> callbackHasBeenCalled = true)
+                        .build());
+    }
+
+
+    private long gapInMilliseconds(int attempt)
+    {
+        return TimeUnit.NANOSECONDS.toMillis(attemptTimes.get(attempt) - attemptTimes.get(attempt - 1));
+    }
+
+
+    @Test
+    void test_retry_fixedBackoffIndependentOfDelay() throws Exception
+    {
+        scheduleFailingTask(500, 2, RetryPolicy.fixed(20, TimeUnit.MILLISECONDS));
+        Thread.sleep(800);
+        assertEquals(3, attemptTimes.size());
+        assertTrue(gapInMilliseconds(1) >= 20 && gapInMilliseconds(1) < 400);
+        assertTrue(gapInMilliseconds(2) >= 20 && gapInMilliseconds(2) < 400);
+        assertTrue(callbackHasBeenCalled);
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+
+
+    @Test
+    void test_retry_exponentialBackoff() throws Exception
+    {
+        scheduleFailingTask(10, 3, RetryPolicy.exponential(40, 2.0d, 1000, TimeUnit.MILLISECONDS));
+        Thread.sleep(800);
+        assertEquals(4, attemptTimes.size());
+        assertTrue(gapInMilliseconds(1) >= 40);
+        assertTrue(gapInMilliseconds(2) >= 80);
+        assertTrue(gapInMilliseconds(3) >= 160);
+        assertEquals(3, singleExecutionScheduler.getMetrics().getRetriedCount());
+        assertEquals(1, singleExecutionScheduler.getMetrics().getFailedCount());
+    }
+
+
+    @Test
+    void test_retry_stopsAtMaxElapsed() throws Exception
+    {
+        scheduleFailingTask(10, 10, RetryPolicy.fixed(50, TimeUnit.MILLISECONDS).withMaxElapsed(120, TimeUnit.MILLISECONDS));
+        Thread.sleep(600);
+        assertEquals(3, attemptTimes.size());
+        assertEquals(1, singleExecutionScheduler.getMetrics().getFailedCount());
+        assertTrue(callbackHasBeenCalled);
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+
+
+    @Test
+    void test_retry_cancelledDuringBackoff() throws Exception
+    {
+        scheduleFailingTask(10, 5, RetryPolicy.fixed(200, TimeUnit.MILLISECONDS));
+        Thread.sleep(100);
+        assertTrue(singleExecutionScheduler.cancel("failing"));
+        Thread.sleep(300);
+        assertEquals(1, attemptTimes.size());
+    }
+
+
+    @Test
+    void test_decorrelatedJitter_staysWithinBounds()
+    {
+        RetryPolicy retryPolicy = RetryPolicy.decorrelatedJitter(10, 100, TimeUnit.MILLISECONDS);
+        long base = TimeUnit.MILLISECONDS.toNanos(10);
+        long max = TimeUnit.MILLISECONDS.toNanos(100);
+        long previousDelay = 0L;
+        for(int retryNumber = 1; retryNumber <= 1000; retryNumber++)
+        {
+            long delay = retryPolicy.nextDelayInNanoseconds(retryNumber, previousDelay);
+            assertTrue(delay >= base);
+            assertTrue(delay <= Math.min(max, Math.max(base, previousDelay) * 3));
+            previousDelay = delay;
+        }
+    }
+}
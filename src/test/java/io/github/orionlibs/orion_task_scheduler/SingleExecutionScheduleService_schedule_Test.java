@@ -52,6 +52,7 @@ public class SingleExecutionScheduleService_schedule_Test extends ATest
     public void teardown()
     {
         singleExecutionScheduler.removeLogHandler(listLogHandler);
+        singleExecutionScheduler.shutdownNow();
         RunnableExample.removeLogHandler(listLogHandler);
         Callback.removeLogHandler(listLogHandler);
     }
@@ -277,6 +278,62 @@ public class SingleExecutionScheduleService_schedule_Test extends ATest
     }
 
 
+    @Test
+    void test_schedule_listOfTasks_reportsInvalidTasks() throws Exception
+    {
+        runnableExample1.addLogMessage("Runnable1 is running");
+        runnableExample2.addLogMessage("Runnable2 is running");
+        List<ScheduledTask> tasksToSchedule = new ArrayList<>();
+        ScheduledTask validTask = ScheduledTask.builder()
+                        .taskID("runnable1")
+                        .taskToSchedule(runnableExample1)
+                        .delay(100)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build();
+        ScheduledTask taskWithoutUnit = ScheduledTask.builder()
+                        .taskID("runnable2")
+                        .taskToSchedule(runnableExample2)
+                        .delay(100)
+                        .build();
+        ScheduledTask taskWithDuplicateID = ScheduledTask.builder()
+                        .taskID("runnable1")
+                        .taskToSchedule(runnableExample2)
+                        .delay(100)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build();
+        tasksToSchedule.add(validTask);
+        tasksToSchedule.add(taskWithoutUnit);
+        tasksToSchedule.add(taskWithDuplicateID);
+        BatchScheduleResult result = singleExecutionScheduler.schedule(tasksToSchedule);
+        assertTrue(result.hasFailures());
+        assertEquals(List.of(validTask), result.getScheduledTasks());
+        assertEquals(2, result.getFailedTasks().size());
+        assertTrue(result.getFailedTasks().containsKey(taskWithoutUnit));
+        assertTrue(result.getFailedTasks().containsKey(taskWithDuplicateID));
+        Thread.sleep(250);
+        assertTrue(listLogHandler.getLogRecords().stream()
+                        .anyMatch(record -> record.getMessage().equals("Runnable1 is running")));
+        assertTrue(listLogHandler.getLogRecords().stream()
+                        .noneMatch(record -> record.getMessage().equals("Runnable2 is running")));
+    }
+
+
+    @Test
+    void test_schedule_listOfTasks_disabled()
+    {
+        config.updateProp("orionlibs.orion_task_scheduler.enabled", "false");
+        Exception exception = assertThrows(FeatureIsDisabledException.class, () -> {
+            singleExecutionScheduler.schedule(List.of(ScheduledTask.builder()
+                            .taskID("runnable")
+                            .taskToSchedule(runnableExample1)
+                            .delay(50)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build()));
+        });
+        config.updateProp("orionlibs.orion_task_scheduler.enabled", "true");
+    }
+
+
     @Test
     void test_schedule_withCallbackAfterTaskCompletes() throws Exception
     {
@@ -0,0 +1,175 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_shards_Test extends ATest
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    private void setUp(String engine, String numberOfShards) throws IOException
+    {
+        Properties customConfig = engineConfig(engine);
+        customConfig.setProperty("orionlibs.orion_task_scheduler.engine.shards", numberOfShards);
+        customConfig.setProperty("orionlibs.orion_task_scheduler.timing_wheel.tick.duration.ms", "10");
+        singleExecutionScheduler = new SingleExecutionScheduleService(customConfig);
+    }
+
+
+    private void test_tasksScheduledByManyThreadsAllRun(String engine) throws Exception
+    {
+        setUp(engine, "4");
+        int numberOfProducers = 8;
+        int tasksPerProducer = 250;
+        CountDownLatch allRan = new CountDownLatch(numberOfProducers * tasksPerProducer);
+        ExecutorService producers = Executors.newFixedThreadPool(numberOfProducers);
+        try
+        {
+            List<Future<?>> results = new ArrayList<>();
+            for(int producer = 0; producer < numberOfProducers; producer++)
+            {
+                String taskIDPrefix = "producer" + producer + "-task";
+                results.add(producers.submit(() -> {
+                    for(int i = 0; i < tasksPerProducer; i++)
+                    {
+                        singleExecutionScheduler.schedule(buildTask(taskIDPrefix + i, allRan::countDown, i % 50));
+                    }
+                    return null;
+                }));
+            }
+            for(Future<?> result : results)
+            {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        }
+        finally
+        {
+            producers.shutdownNow();
+        }
+        assertTrue(allRan.await(10, TimeUnit.SECONDS));
+        singleExecutionScheduler.shutdown();
+        assertTrue(singleExecutionScheduler.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(numberOfProducers * tasksPerProducer, singleExecutionScheduler.getMetrics().getFiredCount());
+    }
+
+
+    @Test
+    void test_tasksScheduledByManyThreadsAllRun_executor() throws Exception
+    {
+        test_tasksScheduledByManyThreadsAllRun("executor");
+    }
+
+
+    @Test
+    void test_tasksScheduledByManyThreadsAllRun_timingWheel() throws Exception
+    {
+        test_tasksScheduledByManyThreadsAllRun("timing_wheel");
+    }
+
+
+    @Test
+    void test_tasksScheduledByManyThreadsAllRun_offHeap() throws Exception
+    {
+        test_tasksScheduledByManyThreadsAllRun("off_heap");
+    }
+
+
+    @Test
+    void test_cancel_removesTasksFromEveryShard() throws Exception
+    {
+        setUp("executor", "4");
+        for(int i = 0; i < 100; i++)
+        {
+            singleExecutionScheduler.schedule(buildTask("task" + i, () -> {}, 60_000));
+        }
+        assertEquals(100L, singleExecutionScheduler.getQueuedTaskCount());
+        for(int i = 0; i < 100; i++)
+        {
+            assertTrue(singleExecutionScheduler.cancel("task" + i));
+        }
+        assertEquals(0L, singleExecutionScheduler.getQueuedTaskCount());
+        assertEquals(0, singleExecutionScheduler.getPendingTaskCount());
+    }
+
+
+    @Test
+    void test_scheduleCollection_spreadsTheTasksOverTheShards() throws Exception
+    {
+        setUp("timing_wheel", "4");
+        CountDownLatch allRan = new CountDownLatch(200);
+        List<ScheduledTask> tasks = new ArrayList<>();
+        for(int i = 0; i < 200; i++)
+        {
+            tasks.add(buildTask("task" + i, allRan::countDown, 20 + i % 30));
+        }
+        assertEquals(200, singleExecutionScheduler.schedule(tasks).getScheduledTasks().size());
+        assertTrue(allRan.await(5, TimeUnit.SECONDS));
+    }
+
+
+    @Test
+    void test_shutdown_rejectsNewTasksOnEveryShard() throws Exception
+    {
+        setUp("off_heap", "4");
+        singleExecutionScheduler.shutdown();
+        for(int i = 0; i < 20; i++)
+        {
+            String taskID = "task" + i;
+            assertThrows(RejectedExecutionException.class, () -> singleExecutionScheduler.schedule(buildTask(taskID, () -> {}, 10)));
+        }
+        assertTrue(singleExecutionScheduler.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(singleExecutionScheduler.isTerminated());
+    }
+
+
+    @Test
+    void test_buildSchedulerEngine_buildsOneEngineUnlessShardsAreConfigured() throws Exception
+    {
+        setUp("timing_wheel", "3");
+        SchedulerEngine engine = SchedulerEngineFactory.buildSchedulerEngine(singleExecutionScheduler.getConfig());
+        try
+        {
+            assertEquals(3, assertInstanceOf(ShardedSchedulerEngine.class, engine).getNumberOfShards());
+        }
+        finally
+        {
+            engine.shutdownNow();
+        }
+        singleExecutionScheduler.getConfig().updateProp("orionlibs.orion_task_scheduler.engine.shards", "1");
+        engine = SchedulerEngineFactory.buildSchedulerEngine(singleExecutionScheduler.getConfig());
+        try
+        {
+            assertInstanceOf(TimingWheelSchedulerEngine.class, engine);
+        }
+        finally
+        {
+            engine.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.orion_task_scheduler.log.ListLogHandler;
+import io.github.orionlibs.orion_task_scheduler.utils.RunnableExample;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_shutdown_Test extends ATest
+{
+    private ListLogHandler listLogHandler;
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private RunnableExample runnableExample1;
+    private RunnableExample runnableExample2;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        listLogHandler = new ListLogHandler();
+        singleExecutionScheduler.addLogHandler(listLogHandler);
+        runnableExample1 = new RunnableExample();
+        runnableExample2 = new RunnableExample();
+        RunnableExample.addLogHandler(listLogHandler);
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.removeLogHandler(listLogHandler);
+        RunnableExample.removeLogHandler(listLogHandler);
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    @Test
+    void test_shutdown_runsAlreadyScheduledTasks() throws Exception
+    {
+        runnableExample1.addLogMessage("Runnable1 is running");
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("runnable1")
+                        .taskToSchedule(runnableExample1)
+                        .delay(100)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        singleExecutionScheduler.shutdown();
+        assertTrue(singleExecutionScheduler.isShutdown());
+        assertTrue(singleExecutionScheduler.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(singleExecutionScheduler.isTerminated());
+        assertTrue(listLogHandler.getLogRecords().stream()
+                        .anyMatch(record -> record.getMessage().equals("Runnable1 is running")));
+    }
+
+
+    @Test
+    void test_shutdown_rejectsNewTasks()
+    {
+        runnableExample1.addLogMessage("Runnable1 is running");
+        singleExecutionScheduler.shutdown();
+        assertThrows(RejectedExecutionException.class, () -> {
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("runnable1")
+                            .taskToSchedule(runnableExample1)
+                            .delay(100)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        });
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+
+
+    @Test
+    void test_shutdownNow_cancelsPendingTasks() throws Exception
+    {
+        runnableExample1.addLogMessage("Runnable1 is running");
+        runnableExample2.addLogMessage("Runnable2 is running");
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("runnable1")
+                        .taskToSchedule(runnableExample1)
+                        .delay(200)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("runnable2")
+                        .taskToSchedule(runnableExample2)
+                        .delay(200)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        List<ScheduledTask> cancelledTasks = singleExecutionScheduler.shutdownNow();
+        assertEquals(2, cancelledTasks.size());
+        assertTrue(singleExecutionScheduler.awaitTermination(1, TimeUnit.SECONDS));
+        Thread.sleep(300);
+        assertFalse(listLogHandler.getLogRecords().stream()
+                        .anyMatch(record -> record.getMessage().endsWith("is running")));
+    }
+
+
+    @Test
+    void test_schedule_threadCountStaysFlat() throws Exception
+    {
+        for(int i = 0; i < 2000; i++)
+        {
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("task" + i)
+                            .taskToSchedule(() -> {})
+                            .delay(10)
+                            .unit(TimeUnit.SECONDS)
+                            .build());
+        }
+        long schedulerThreads = Thread.getAllStackTraces().keySet().stream()
+                        .filter(thread -> thread.getName().startsWith("orion-task-scheduler-"))
+                        .count();
+        assertTrue(schedulerThreads <= singleExecutionScheduler.getConfig().getIntegerProp("orionlibs.orion_task_scheduler.pool.core.size"));
+        assertEquals(2000, singleExecutionScheduler.getScheduledTasksToRunnablesMapper().size());
+    }
+}
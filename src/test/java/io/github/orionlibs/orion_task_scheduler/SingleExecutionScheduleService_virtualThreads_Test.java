@@ -0,0 +1,140 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.orion_task_scheduler.log.ListLogHandler;
+import io.github.orionlibs.orion_task_scheduler.utils.Callback;
+import io.github.orionlibs.orion_task_scheduler.utils.RunnableExample;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_virtualThreads_Test extends ATest
+{
+    private ListLogHandler listLogHandler;
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    private void setUp(String engine) throws IOException
+    {
+        Properties customConfig = engineConfig(engine);
+        customConfig.setProperty("orionlibs.orion_task_scheduler.execution.mode", "virtual");
+        singleExecutionScheduler = new SingleExecutionScheduleService(customConfig);
+        listLogHandler = new ListLogHandler();
+        singleExecutionScheduler.addLogHandler(listLogHandler);
+        RunnableExample.addLogHandler(listLogHandler);
+        Callback.addLogHandler(listLogHandler);
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.removeLogHandler(listLogHandler);
+        RunnableExample.removeLogHandler(listLogHandler);
+        Callback.removeLogHandler(listLogHandler);
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    @ParameterizedTest
+    @ValueSource(strings = {"executor", "timing_wheel"})
+    void test_schedule_blockingTasksRunConcurrently(String engine) throws Exception
+    {
+        setUp(engine);
+        int numberOfTasks = 2000;
+        CountDownLatch finishedTasks = new CountDownLatch(numberOfTasks);
+        AtomicBoolean ranOnPlatformThread = new AtomicBoolean();
+        for(int i = 0; i < numberOfTasks; i++)
+        {
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("task" + i)
+                            .taskToSchedule(() -> {
+                                if(!Thread.currentThread().isVirtual())
+                                {
+                                    ranOnPlatformThread.set(true);
+                                }
+                                try
+                                {
+                                    Thread.sleep(500);
+                                }
+                                catch(InterruptedException e)
+                                {
+                                    Thread.currentThread().interrupt();
+                                }
+                                finishedTasks.countDown();
+                            })
+                            .delay(50)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        }
+        assertTrue(finishedTasks.await(2, TimeUnit.SECONDS));
+        assertTrue(!ranOnPlatformThread.get());
+    }
+
+
+    @ParameterizedTest
+    @ValueSource(strings = {"executor", "timing_wheel"})
+    void test_schedule_withRetryAndCallback(String engine) throws Exception
+    {
+        setUp(engine);
+        RunnableExample runnableExample = new RunnableExample();
+        runnableExample.addLogMessageAndDelay("Runnable is running", 20L);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("runnable")
+                        .taskToSchedule(runnableExample)
+                        .delay(50)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .numberOfRetriesOnError(1)
+                        .callbackAfterTaskCompletes(new Callback())
+                        .build());
+        Thread.sleep(500);
+        assertEquals(2, listLogHandler.getLogRecords().stream()
+                        .filter(record -> record.getMessage().equals("Runnable is running"))
+                        .count());
+        assertTrue(listLogHandler.getLogRecords().stream()
+                        .anyMatch(record -> record.getMessage().equals("callback has been called")));
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+
+
+    @Test
+    void test_cancelTask_interruptsRunningTask() throws Exception
+    {
+        setUp("executor");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("blocking")
+                        .taskToSchedule(() -> {
+                            started.countDown();
+                            try
+                            {
+                                Thread.sleep(5000);
+                            }
+                            catch(InterruptedException e)
+                            {
+                                interrupted.countDown();
+                            }
+                        })
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .callbackAfterTaskIsCancelled(new Callback())
+                        .build());
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        assertTrue(singleExecutionScheduler.cancel("blocking"));
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        assertTrue(listLogHandler.getLogRecords().stream()
+                        .anyMatch(record -> record.getMessage().equals("callback has been called")));
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_workStealing_Test extends ATest
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    private void setUp(String engine) throws IOException
+    {
+        Properties customConfig = engineConfig(engine);
+        customConfig.setProperty("orionlibs.orion_task_scheduler.execution.mode", "work_stealing");
+        singleExecutionScheduler = new SingleExecutionScheduleService(customConfig);
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdownNow();
+    }
+
+
+    @ParameterizedTest
+    @ValueSource(strings = {"executor", "timing_wheel", "off_heap"})
+    void test_schedule_burstRunsOnTheWorkStealingWorkers(String engine) throws Exception
+    {
+        setUp(engine);
+        int numberOfTasks = 500;
+        CountDownLatch finishedTasks = new CountDownLatch(numberOfTasks);
+        AtomicBoolean ranOutsideThePool = new AtomicBoolean();
+        List<ScheduledTask> tasks = new ArrayList<>();
+        for(int i = 0; i < numberOfTasks; i++)
+        {
+            tasks.add(ScheduledTask.builder()
+                            .taskID("task" + i)
+                            .taskToSchedule(() -> {
+                                Thread currentThread = Thread.currentThread();
+                                if(!(currentThread instanceof ForkJoinWorkerThread) || !currentThread.getName().contains("stealing-worker"))
+                                {
+                                    ranOutsideThePool.set(true);
+                                }
+                                finishedTasks.countDown();
+                            })
+                            .delay(50)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        }
+        singleExecutionScheduler.schedule(tasks);
+        assertTrue(finishedTasks.await(5, TimeUnit.SECONDS));
+        assertFalse(ranOutsideThePool.get());
+        singleExecutionScheduler.shutdown();
+        assertTrue(singleExecutionScheduler.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(numberOfTasks, singleExecutionScheduler.getMetrics().getFiredCount());
+    }
+
+
+    @ParameterizedTest
+    @ValueSource(strings = {"executor", "timing_wheel"})
+    void test_schedule_withRetryAndCallback(String engine) throws Exception
+    {
+        setUp(engine);
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch callbackCalled = new CountDownLatch(1);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("failsOnce")
+                        .taskToSchedule(() -> {
+                            if(attempts.incrementAndGet() == 1)
+                            {
+                                throw new IllegalStateException("first attempt fails");
+                            }
+                        })
+                        .delay(20)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .numberOfRetriesOnError(1)
+                        .callbackAfterTaskCompletes(callbackCalled::countDown)
+                        .build());
+        assertTrue(callbackCalled.await(5, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get());
+    }
+
+
+    @Test
+    void test_executionTimeout_interruptsAWorkStealingWorker() throws Exception
+    {
+        setUp("timing_wheel");
+        CountDownLatch interrupted = new CountDownLatch(1);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("hangs")
+                        .taskToSchedule(() -> {
+                            try
+                            {
+                                Thread.sleep(10_000);
+                            }
+                            catch(InterruptedException e)
+                            {
+                                interrupted.countDown();
+                            }
+                        })
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .executionTimeoutInMilliseconds(100L)
+                        .build());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+}
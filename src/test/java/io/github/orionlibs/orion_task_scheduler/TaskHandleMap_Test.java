@@ -0,0 +1,78 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class TaskHandleMap_Test
+{
+    private static ScheduledTask buildTask(long handle)
+    {
+        return ScheduledTask.builder().taskID("task" + handle).build();
+    }
+
+
+    @Test
+    void test_putGetRemove()
+    {
+        TaskHandleMap map = new TaskHandleMap();
+        ScheduledTask task1 = buildTask(1L);
+        ScheduledTask task2 = buildTask(2L);
+        task1.setHandle(1L);
+        map.put(task1);
+        task2.setHandle(2L);
+        map.put(task2);
+        assertSame(task1, map.get(1L));
+        assertNull(map.get(0L));
+        assertNull(map.get(3L));
+        assertFalse(map.remove(1L, task2));
+        assertTrue(map.remove(1L, task1));
+        assertFalse(map.remove(1L, task1));
+        assertNull(map.get(1L));
+        assertSame(task2, map.get(2L));
+        assertEquals(1, map.size());
+    }
+
+
+    @Test
+    void test_matchesHashMapUnderRandomOperations()
+    {
+        TaskHandleMap map = new TaskHandleMap();
+        Map<Long, ScheduledTask> expected = new HashMap<>();
+        Random random = new Random(42L);
+        for(int i = 0; i < 200_000; i++)
+        {
+            long handle = 1L + random.nextInt(20_000);
+            if(random.nextInt(3) == 0)
+            {
+                ScheduledTask task = expected.get(handle);
+                assertEquals(task != null, map.remove(handle, task));
+                expected.remove(handle);
+            }
+            else
+            {
+                ScheduledTask task = buildTask(handle);
+                task.setHandle(handle);
+                map.put(task);
+                expected.put(handle, task);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for(long handle = 1L; handle <= 20_000L; handle++)
+        {
+            assertSame(expected.get(handle), map.get(handle));
+        }
+        for(Map.Entry<Long, ScheduledTask> entry : expected.entrySet())
+        {
+            assertTrue(map.remove(entry.getKey(), entry.getValue()));
+        }
+        assertEquals(0, map.size());
+    }
+}
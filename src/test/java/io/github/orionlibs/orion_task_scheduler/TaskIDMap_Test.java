@@ -0,0 +1,108 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class TaskIDMap_Test
+{
+    private static ScheduledTask buildTask(String taskID)
+    {
+        return ScheduledTask.builder().taskID(taskID).build();
+    }
+
+
+    @Test
+    void test_computeGetRemove()
+    {
+        TaskIDMap map = new TaskIDMap();
+        ScheduledTask task1 = buildTask("task1");
+        ScheduledTask task2 = buildTask("task2");
+        map.compute("task1", previousTask -> task1);
+        map.compute("task2", previousTask -> task2);
+        assertSame(task1, map.get("task1"));
+        assertNull(map.get("task3"));
+        ScheduledTask replacement = buildTask("task1");
+        assertSame(replacement, map.compute("task1", previousTask -> previousTask == task1 ? replacement : previousTask));
+        assertSame(replacement, map.get("task1"));
+        assertNull(map.compute("task1", previousTask -> null));
+        assertNull(map.get("task1"));
+        assertSame(task2, map.get("task2"));
+        assertEquals(1, map.size());
+        assertEquals(1, map.snapshot().size());
+    }
+
+
+    @Test
+    void test_matchesHashMapUnderRandomOperations()
+    {
+        TaskIDMap map = new TaskIDMap();
+        Map<String, ScheduledTask> expected = new HashMap<>();
+        Random random = new Random(42L);
+        for(int i = 0; i < 200_000; i++)
+        {
+            String taskID = "task" + random.nextInt(20_000);
+            if(random.nextInt(3) == 0)
+            {
+                map.compute(taskID, previousTask -> null);
+                expected.remove(taskID);
+            }
+            else
+            {
+                ScheduledTask task = buildTask(taskID);
+                map.compute(taskID, previousTask -> task);
+                expected.put(taskID, task);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for(int i = 0; i < 20_000; i++)
+        {
+            assertSame(expected.get("task" + i), map.get("task" + i));
+        }
+        assertEquals(new HashSet<>(expected.values()), new HashSet<>(map.snapshot()));
+        for(String taskID : expected.keySet())
+        {
+            assertNull(map.compute(taskID, previousTask -> null));
+        }
+        assertEquals(0, map.size());
+        assertTrue(map.snapshot().isEmpty());
+    }
+
+
+    @Test
+    void test_renamedTaskStaysUnderTheTaskIDItWasRegisteredUnder()
+    {
+        TaskIDMap map = new TaskIDMap();
+        Map<String, ScheduledTask> expected = new HashMap<>();
+        for(int i = 0; i < 5_000; i++)
+        {
+            ScheduledTask task = buildTask("task" + i);
+            map.compute("task" + i, previousTask -> task);
+            expected.put("task" + i, task);
+        }
+        expected.get("task7").setTaskID("renamed");
+        for(int i = 0; i < 5_000; i += 2)
+        {
+            map.compute("task" + i, previousTask -> null);
+            expected.remove("task" + i);
+        }
+        for(Map.Entry<String, ScheduledTask> entry : expected.entrySet())
+        {
+            assertSame(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertNull(map.get("renamed"));
+        assertEquals(expected.size(), map.size());
+        for(String taskID : expected.keySet())
+        {
+            map.compute(taskID, previousTask -> null);
+        }
+        assertEquals(0, map.size());
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.orionlibs.orion_task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class TaskRegistry_Test
+{
+    private static ScheduledTask buildTask(String taskID, Set<String> tags)
+    {
+        return ScheduledTask.builder().taskID(taskID).tags(tags).build();
+    }
+
+
+    @Test
+    void test_remove_takesTheTaskOutOfTheTagIndex()
+    {
+        TaskRegistry registry = new TaskRegistry();
+        ScheduledTask task1 = buildTask("task1", Set.of("user1", "email"));
+        ScheduledTask task2 = buildTask("task2", Set.of("user1"));
+        registry.put(task1);
+        registry.put(task2);
+        assertEquals(2, registry.getNumberOfTags());
+        //completing and cancelling a task both remove it from the registry
+        assertTrue(registry.remove("task1", task1));
+        assertEquals(List.of("task2"), registry.getTaskIDsByTag("user1"));
+        assertEquals(1, registry.getNumberOfTags());
+        assertTrue(registry.remove("task2", task2));
+        assertEquals(0, registry.getNumberOfTags());
+    }
+
+
+    @Test
+    void test_put_replacingATaskDropsTheTagsOfTheReplacedTask()
+    {
+        TaskRegistry registry = new TaskRegistry();
+        ScheduledTask task = buildTask("task1", Set.of("user1"));
+        registry.put(task);
+        ScheduledTask replacement = buildTask("task1", Set.of("user2"));
+        registry.put(replacement);
+        assertEquals(List.of(), registry.getTaskIDsByTag("user1"));
+        assertEquals(List.of("task1"), registry.getTaskIDsByTag("user2"));
+        assertEquals(1, registry.getNumberOfTags());
+        assertFalse(registry.remove("task1", task));
+        assertTrue(registry.remove("task1", replacement));
+        assertEquals(0, registry.getNumberOfTags());
+    }
+
+
+    @Test
+    void test_remove_givesBackThePermitOfAReplacedTaskOnlyWhenItCompletes()
+    {
+        PendingTaskCapacity capacity = new PendingTaskCapacity(2, PendingTaskCapacity.BackpressurePolicy.REJECT, 0L);
+        TaskRegistry registry = new TaskRegistry(capacity);
+        ScheduledTask task = buildTask("task1", Set.of());
+        ScheduledTask replacement = buildTask("task1", Set.of());
+        assertTrue(capacity.tryAcquire(1));
+        registry.put(task);
+        assertTrue(capacity.tryAcquire(1));
+        registry.put(replacement);
+        assertEquals(0, capacity.getRemainingCapacity());
+        //the replaced task completes and tries to remove itself
+        assertFalse(registry.remove("task1", task));
+        assertEquals(1, capacity.getRemainingCapacity());
+        assertFalse(registry.remove("task1", task));
+        assertEquals(1, capacity.getRemainingCapacity());
+        assertTrue(registry.remove("task1", replacement));
+        assertEquals(2, capacity.getRemainingCapacity());
+    }
+}